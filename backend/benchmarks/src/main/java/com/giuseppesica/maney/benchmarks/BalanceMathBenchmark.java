@@ -0,0 +1,130 @@
+package com.giuseppesica.maney.benchmarks;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntryRepository;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
+import com.giuseppesica.maney.account.operations.transfer.model.Transfer;
+import com.giuseppesica.maney.utils.CashMovementType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance arithmetic of cash movements and transfers.
+ *
+ * <p>Each invocation processes a batch of {@code operations}. The service benchmarks call
+ * {@link LiquidityAccountService} with stubbed repositories, so they measure the signed
+ * BigDecimal deltas, the ordering of multi-account deltas and the per-operation ledger
+ * bookkeeping but not the UPDATE and INSERT statements themselves.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BalanceMathBenchmark {
+
+    @Param({"1000"})
+    public int operations;
+
+    @Param({"50"})
+    public int accountCount;
+
+    private LiquidityAccount[] accounts;
+    private Long[] operationIds;
+    private BigDecimal[] amounts;
+    private CashMovementType[] types;
+    private List<Transfer> transfers;
+    private Map<Long, Map<Long, BigDecimal>> transferDeltas;
+    private Map<Long, Instant> noCheckpoints;
+    private LiquidityAccountService liquidityAccountService;
+
+    @Setup
+    public void setUp() {
+        List<LiquidityAccount> accountList = Fixtures.accounts(accountCount);
+        Random random = Fixtures.random();
+        accounts = new LiquidityAccount[operations];
+        operationIds = new Long[operations];
+        amounts = new BigDecimal[operations];
+        types = new CashMovementType[operations];
+        for (int i = 0; i < operations; i++) {
+            accounts[i] = accountList.get(random.nextInt(accountCount));
+            operationIds[i] = (long) i + 1;
+            amounts[i] = Fixtures.amount(random);
+            types[i] = random.nextInt(4) == 0 ? CashMovementType.INCOME : CashMovementType.OUTCOME;
+        }
+        transfers = Fixtures.transfers(operations, accountList);
+        transferDeltas = transferDeltas();
+        noCheckpoints = Map.of();
+        liquidityAccountService = new LiquidityAccountService(
+                Fixtures.stub(LiquidityAccountRepository.class), null, null, null,
+                Fixtures.stub(LedgerEntryRepository.class), null);
+    }
+
+    /**
+     * Net balance effect of a batch of cash movements.
+     */
+    @Benchmark
+    public BigDecimal signedMovementTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < operations; i++) {
+            total = total.add(types[i].signed(amounts[i]));
+        }
+        return total;
+    }
+
+    /**
+     * Per-account deltas of a batch of transfers, by transfer, in the ascending account order
+     * {@link LiquidityAccountService#applyBalanceDeltas(Map, Map)} applies them in.
+     */
+    @Benchmark
+    public Map<Long, Map<Long, BigDecimal>> transferDeltas() {
+        Map<Long, Map<Long, BigDecimal>> deltas = new TreeMap<>();
+        for (Transfer transfer : transfers) {
+            deltas.computeIfAbsent(transfer.getFromAccount().getId(), id -> new HashMap<>())
+                    .merge(transfer.getId(), transfer.getAmount().negate(), BigDecimal::add);
+            deltas.computeIfAbsent(transfer.getToAccount().getId(), id -> new HashMap<>())
+                    .merge(transfer.getId(), transfer.getAmount(), BigDecimal::add);
+        }
+        return deltas;
+    }
+
+    /**
+     * One {@link LiquidityAccountService#updateLiquidityAccount(LiquidityAccount, Long, BigDecimal, CashMovementType)}
+     * call per cash movement.
+     */
+    @Benchmark
+    public void updateLiquidityAccount() {
+        for (int i = 0; i < operations; i++) {
+            liquidityAccountService.updateLiquidityAccount(accounts[i], operationIds[i], amounts[i], types[i]);
+        }
+    }
+
+    /**
+     * One {@link LiquidityAccountService#applyBalanceDeltas(Map, Map)} call with the deltas
+     * of the transfer batch: one balance UPDATE per account, one ledger entry per transfer.
+     */
+    @Benchmark
+    public void applyBalanceDeltas() {
+        liquidityAccountService.applyBalanceDeltas(transferDeltas, noCheckpoints);
+    }
+}
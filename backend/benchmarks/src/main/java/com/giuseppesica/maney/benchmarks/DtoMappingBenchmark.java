@@ -0,0 +1,73 @@
+package com.giuseppesica.maney.benchmarks;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovement;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.transfer.model.Transfer;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferDto;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.model.CategoryDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of response DTOs from detached entities, as the controllers do for list
+ * endpoints.
+ *
+ * <p>The category benchmark maps whole trees through the recursive
+ * {@link CategoryDto#CategoryDto(Category)} constructor; {@code size} is the number of
+ * operations, and the category forest has 20 roots with 5 children and 25 grandchildren each.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private List<CashMovement> cashMovements;
+    private List<Transfer> transfers;
+    private List<Category> categoryTrees;
+
+    @Setup
+    public void setUp() {
+        List<LiquidityAccount> accounts = Fixtures.accounts(10);
+        categoryTrees = Fixtures.categoryTrees(20, 5);
+        List<Category> categories = categoryTrees.stream()
+                .flatMap(root -> root.getChildren().stream())
+                .toList();
+        cashMovements = Fixtures.cashMovements(size, accounts, categories);
+        transfers = Fixtures.transfers(size, accounts);
+    }
+
+    @Benchmark
+    public List<CashMovementDto> cashMovementDtos() {
+        return cashMovements.stream().map(CashMovementDto::new).toList();
+    }
+
+    @Benchmark
+    public List<TransferDto> transferDtos() {
+        return transfers.stream().map(TransferDto::new).toList();
+    }
+
+    @Benchmark
+    public List<CategoryDto> categoryDtoTrees() {
+        return categoryTrees.stream().map(CategoryDto::new).toList();
+    }
+}
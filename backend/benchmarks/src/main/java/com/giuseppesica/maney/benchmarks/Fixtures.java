@@ -0,0 +1,140 @@
+package com.giuseppesica.maney.benchmarks;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovement;
+import com.giuseppesica.maney.account.operations.transfer.model.Transfer;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.utils.CashMovementType;
+import com.giuseppesica.maney.utils.CategoryType;
+import com.giuseppesica.maney.utils.Currency;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Detached entities and repository stubs shared by the benchmarks.
+ *
+ * <p>Data is generated from a fixed seed so every run measures the same input. Amounts
+ * have two decimal places like the {@code numeric(38, 2)} balance columns, and dates spread
+ * over the year before {@link #NOW}.</p>
+ */
+final class Fixtures {
+
+    static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private static final String[] NOTES = {null, "Groceries", "Rent", "Salary", "Coffee with a friend", "Monthly subscription"};
+
+    private Fixtures() {
+    }
+
+    static Random random() {
+        return new Random(42);
+    }
+
+    static BigDecimal amount(Random random) {
+        return BigDecimal.valueOf(random.nextLong(1, 1_000_000), 2);
+    }
+
+    static Instant date(Random random) {
+        return NOW.minus(random.nextLong(0, 365 * 24 * 60), ChronoUnit.MINUTES);
+    }
+
+    static List<LiquidityAccount> accounts(int count) {
+        List<LiquidityAccount> accounts = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            LiquidityAccount account = new LiquidityAccount();
+            account.setId((long) i);
+            account.setName("Account " + i);
+            account.setInstitution("Bank");
+            account.setBalance(new BigDecimal("1000.00"));
+            account.setCurrency(Currency.EUR);
+            accounts.add(account);
+        }
+        return accounts;
+    }
+
+    /**
+     * Builds a category forest: {@code roots} roots, each with {@code childrenPerRoot} children
+     * that have {@code childrenPerRoot} children of their own.
+     */
+    static List<Category> categoryTrees(int roots, int childrenPerRoot) {
+        List<Category> trees = new ArrayList<>(roots);
+        long[] nextId = {1};
+        for (int i = 0; i < roots; i++) {
+            Category root = category(nextId, null, i % 2 == 0 ? CategoryType.OUTCOME : CategoryType.INCOME);
+            for (int j = 0; j < childrenPerRoot; j++) {
+                Category child = category(nextId, root, root.getType());
+                for (int k = 0; k < childrenPerRoot; k++) {
+                    category(nextId, child, root.getType());
+                }
+            }
+            trees.add(root);
+        }
+        return trees;
+    }
+
+    static List<CashMovement> cashMovements(int count, List<LiquidityAccount> accounts, List<Category> categories) {
+        Random random = random();
+        List<CashMovement> movements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CashMovement movement = new CashMovement();
+            movement.setId((long) i + 1);
+            movement.setDate(date(random));
+            movement.setNote(NOTES[random.nextInt(NOTES.length)]);
+            movement.setAmount(amount(random));
+            movement.setType(random.nextInt(4) == 0 ? CashMovementType.INCOME : CashMovementType.OUTCOME);
+            movement.setLiquidityAccount(accounts.get(random.nextInt(accounts.size())));
+            movement.setCategory(random.nextInt(10) == 0 ? null : categories.get(random.nextInt(categories.size())));
+            movements.add(movement);
+        }
+        return movements;
+    }
+
+    static List<Transfer> transfers(int count, List<LiquidityAccount> accounts) {
+        Random random = random();
+        List<Transfer> transfers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int from = random.nextInt(accounts.size());
+            int to = (from + 1 + random.nextInt(accounts.size() - 1)) % accounts.size();
+            Transfer transfer = new Transfer();
+            transfer.setId((long) i + 1);
+            transfer.setDate(date(random));
+            transfer.setNote(NOTES[random.nextInt(NOTES.length)]);
+            transfer.setFromAccount(accounts.get(from));
+            transfer.setToAccount(accounts.get(to));
+            transfer.setAmount(amount(random));
+            transfers.add(transfer);
+        }
+        return transfers;
+    }
+
+    /**
+     * Implements a repository interface without a database: methods returning {@code int}
+     * report one affected row, everything else returns {@code null}. Stands in for the
+     * single-row balance UPDATE and ledger INSERT, so only the service's own work is measured.
+     */
+    static <T> T stub(Class<T> repositoryType) {
+        return repositoryType.cast(Proxy.newProxyInstance(
+                repositoryType.getClassLoader(),
+                new Class<?>[]{repositoryType},
+                (proxy, method, args) -> method.getReturnType() == int.class ? 1 : null));
+    }
+
+    private static Category category(long[] nextId, Category parent, CategoryType type) {
+        Category category = new Category();
+        category.setId(nextId[0]++);
+        category.setName("Category " + category.getId());
+        category.setColor("#00FF00");
+        category.setType(type);
+        category.setParent(parent);
+        if (parent != null) {
+            parent.getChildren().add(category);
+        }
+        return category;
+    }
+}
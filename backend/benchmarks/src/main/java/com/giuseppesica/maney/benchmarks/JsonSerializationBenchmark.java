@@ -0,0 +1,94 @@
+package com.giuseppesica.maney.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferDto;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.model.CategoryDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of large DTO lists.
+ *
+ * <p>The ObjectMapper is configured like the one Spring Boot auto-configures (registered
+ * Java time module, ISO-8601 dates). The {@code stream} benchmarks write to a discarding
+ * stream as Spring MVC writes to the response; the {@code string} benchmark builds the whole
+ * payload in memory, as {@code IdempotencyService} does to store a replayable response.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private List<CashMovementDto> cashMovements;
+    private List<TransferDto> transfers;
+    private List<CategoryDto> categoryTrees;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        writer = objectMapper.writer();
+
+        List<LiquidityAccount> accounts = Fixtures.accounts(10);
+        List<Category> trees = Fixtures.categoryTrees(20, 5);
+        List<Category> categories = trees.stream()
+                .flatMap(root -> root.getChildren().stream())
+                .toList();
+        cashMovements = Fixtures.cashMovements(size, accounts, categories).stream()
+                .map(CashMovementDto::new)
+                .toList();
+        transfers = Fixtures.transfers(size, accounts).stream()
+                .map(TransferDto::new)
+                .toList();
+        categoryTrees = trees.stream().map(CategoryDto::new).toList();
+    }
+
+    @Benchmark
+    public void streamCashMovements() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), cashMovements);
+    }
+
+    @Benchmark
+    public void streamTransfers() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), transfers);
+    }
+
+    @Benchmark
+    public void streamCategoryTrees() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), categoryTrees);
+    }
+
+    @Benchmark
+    public String stringCashMovements() throws JsonProcessingException {
+        return writer.writeValueAsString(cashMovements);
+    }
+}
@@ -1,17 +1,25 @@
 package com.giuseppesica.maney.account.liquidityaccount.controller;
 
+import com.giuseppesica.maney.account.liquidityaccount.dto.AccountBalanceDto;
+import com.giuseppesica.maney.account.liquidityaccount.dto.BalanceSeriesDto;
 import com.giuseppesica.maney.account.liquidityaccount.dto.LiquidityAccountDto;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceSeriesInterval;
 import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.service.BalanceHistoryService;
+import com.giuseppesica.maney.account.liquidityaccount.service.BalanceSeriesService;
 import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
 import com.giuseppesica.maney.portfolio.model.Portfolio;
 import com.giuseppesica.maney.security.AuthenticationHelper;
 import com.giuseppesica.maney.security.NotFoundException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -42,20 +50,28 @@ import java.util.List;
 @RequestMapping("/user/portfolio/liquidity-accounts")
 public class LiquidityAccountController {
     private final LiquidityAccountService liquidityAccountService;
+    private final BalanceHistoryService balanceHistoryService;
+    private final BalanceSeriesService balanceSeriesService;
     private final AuthenticationHelper authenticationHelper;
 
     /**
      * Constructs the controller with required dependencies.
      *
      * @param liquidityAccountService service layer for account operations
+     * @param balanceHistoryService service computing past balances
+     * @param balanceSeriesService service computing running-balance series
      * @param authenticationHelper helper for authentication and authorization validation
      */
     @Autowired
     public LiquidityAccountController(
             LiquidityAccountService liquidityAccountService,
+            BalanceHistoryService balanceHistoryService,
+            BalanceSeriesService balanceSeriesService,
             AuthenticationHelper authenticationHelper
     ) {
         this.liquidityAccountService = liquidityAccountService;
+        this.balanceHistoryService = balanceHistoryService;
+        this.balanceSeriesService = balanceSeriesService;
         this.authenticationHelper = authenticationHelper;
     }
 
@@ -133,6 +149,75 @@ public class LiquidityAccountController {
         return ResponseEntity.ok(responseDto);
     }
 
+    /**
+     * Retrieves the balance of a liquidity account at a point in time.
+     *
+     * <p>Computed from the nearest stored balance checkpoint plus the operations between
+     * the checkpoint and the requested instant, see {@link BalanceHistoryService}.</p>
+     *
+     * <p><strong>Request Example:</strong></p>
+     * <pre>
+     * GET /user/portfolio/liquidity-accounts/42/balance?at=2024-06-30T23:59:59Z
+     * </pre>
+     *
+     * @param authentication Spring Security authentication object
+     * @param id liquidity account ID
+     * @param at the instant, operations dated at it included (optional, defaults to now)
+     * @return ResponseEntity with HTTP 200 and the balance at {@code at}
+     * @throws NotFoundException if account doesn't exist
+     * @throws IllegalArgumentException if account doesn't belong to user's portfolio
+     */
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<AccountBalanceDto> getLiquidityAccountBalance(
+            Authentication authentication,
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at
+    ) {
+        LiquidityAccount liquidityAccount = liquidityAccountService.getLiquidityAccountById(id)
+                .orElseThrow(() -> new NotFoundException("Liquidity account not found with ID: " + id));
+
+        Long accountPortfolioId = liquidityAccount.getPortfolio().getId();
+        authenticationHelper.validateResourceAccess(authentication, accountPortfolioId, "LiquidityAccount");
+
+        Instant instant = at != null ? at : Instant.now();
+        return ResponseEntity.ok(new AccountBalanceDto(
+                id,
+                instant,
+                balanceHistoryService.getBalanceAt(liquidityAccount, instant),
+                liquidityAccount.getCurrency()
+        ));
+    }
+
+    /**
+     * Retrieves the running-balance series of every account in the authenticated user's portfolio.
+     *
+     * <p>Returns one point per day, week or month for each account, plus the portfolio total
+     * per currency, computed server-side in one pass over the operations of the range (see
+     * {@link BalanceSeriesService}).</p>
+     *
+     * <p><strong>Request Example:</strong></p>
+     * <pre>
+     * GET /user/portfolio/liquidity-accounts/balance-series?from=2015-01-01&amp;to=2024-12-31&amp;interval=DAY
+     * </pre>
+     *
+     * @param authentication Spring Security authentication object
+     * @param from first day of the series (inclusive, UTC)
+     * @param to last day of the series (inclusive, UTC)
+     * @param interval DAY, WEEK or MONTH (defaults to DAY)
+     * @return ResponseEntity with HTTP 200 and the series
+     * @throws IllegalArgumentException if the range is empty or has too many points
+     */
+    @GetMapping("/balance-series")
+    public ResponseEntity<BalanceSeriesDto> getBalanceSeries(
+            Authentication authentication,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") BalanceSeriesInterval interval
+    ) {
+        Long portfolioId = authenticationHelper.getAuthenticatedUserPortfolioId(authentication);
+        return ResponseEntity.ok(balanceSeriesService.getBalanceSeries(portfolioId, from, to, interval));
+    }
+
     /**
      * Retrieves all liquidity accounts in the authenticated user's portfolio.
      *
@@ -0,0 +1,48 @@
+package com.giuseppesica.maney.account.liquidityaccount.dto;
+
+import com.giuseppesica.maney.utils.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Balance of a liquidity account at a given instant.
+ *
+ * <p><strong>Response Example:</strong></p>
+ * <pre>
+ * {
+ *   "accountId": 42,
+ *   "at": "2024-06-30T23:59:59Z",
+ *   "balance": 1520.75,
+ *   "currency": "EUR"
+ * }
+ * </pre>
+ *
+ * @see com.giuseppesica.maney.account.liquidityaccount.service.BalanceHistoryService
+ */
+@Getter
+@AllArgsConstructor
+public class AccountBalanceDto {
+
+    /**
+     * The liquidity account ID.
+     */
+    private final Long accountId;
+
+    /**
+     * The instant the balance refers to; operations dated at this instant are included.
+     */
+    private final Instant at;
+
+    /**
+     * Account balance at {@link #at}.
+     */
+    private final BigDecimal balance;
+
+    /**
+     * Currency of the account.
+     */
+    private final Currency currency;
+}
@@ -0,0 +1,112 @@
+package com.giuseppesica.maney.account.liquidityaccount.dto;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceSeriesInterval;
+import com.giuseppesica.maney.utils.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Running-balance series of every liquidity account of a portfolio.
+ *
+ * <p>Each point carries the balance at the end of its period (or at the end of {@code to}
+ * for the last, partial period) and is labelled with the first day of the period, clipped
+ * to {@code from}. Portfolio totals are given per currency, since balances in different
+ * currencies cannot be added up.</p>
+ *
+ * <p><strong>Response Example:</strong></p>
+ * <pre>
+ * {
+ *   "interval": "MONTH",
+ *   "from": "2024-01-01",
+ *   "to": "2024-03-31",
+ *   "accounts": [
+ *     { "accountId": 10, "name": "Checking", "currency": "EUR",
+ *       "points": [ { "date": "2024-01-01", "balance": 1100.00 }, { "date": "2024-02-01", "balance": 1070.00 }, ... ] }
+ *   ],
+ *   "totals": [
+ *     { "currency": "EUR", "points": [ { "date": "2024-01-01", "balance": 2100.00 }, ... ] }
+ *   ]
+ * }
+ * </pre>
+ *
+ * @see com.giuseppesica.maney.account.liquidityaccount.service.BalanceSeriesService
+ */
+@Getter
+@AllArgsConstructor
+public class BalanceSeriesDto {
+
+    /**
+     * Spacing of the points.
+     */
+    private final BalanceSeriesInterval interval;
+
+    /**
+     * First day of the series (inclusive).
+     */
+    private final LocalDate from;
+
+    /**
+     * Last day of the series (inclusive).
+     */
+    private final LocalDate to;
+
+    /**
+     * One series per liquidity account.
+     */
+    private final List<AccountSeries> accounts;
+
+    /**
+     * One series per currency, summing the accounts in that currency.
+     */
+    private final List<CurrencySeries> totals;
+
+    /**
+     * Balance at the end of one period.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Point {
+
+        /**
+         * First day of the period (clipped to the series start).
+         */
+        private final LocalDate date;
+
+        /**
+         * Balance at the end of the period.
+         */
+        private final BigDecimal balance;
+    }
+
+    /**
+     * Series of a single liquidity account.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class AccountSeries {
+
+        private final Long accountId;
+
+        private final String name;
+
+        private final Currency currency;
+
+        private final List<Point> points;
+    }
+
+    /**
+     * Series of the total balance of the accounts in one currency.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CurrencySeries {
+
+        private final Currency currency;
+
+        private final List<Point> points;
+    }
+}
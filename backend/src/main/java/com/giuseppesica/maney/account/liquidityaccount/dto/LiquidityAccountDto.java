@@ -36,6 +36,8 @@ import java.time.Instant;
  *   <li>balance - Required, current account balance</li>
  *   <li>portfolioId - Required, must reference an existing portfolio</li>
  *   <li>openedAt, closedAt, note - Optional metadata</li>
+ *   <li>version - Optional on update; when set, the balance is only overwritten if the
+ *       account was not modified since that version was read</li>
  * </ul>
  *
  * @see LiquidityAccount
@@ -101,6 +103,12 @@ public class LiquidityAccountDto {
     @NotNull
     private Long portfolioId;
 
+    /**
+     * Balance row version at the time the account was read.
+     * Incremented by every balance change; echo it back on update to detect concurrent changes.
+     */
+    private Long version;
+
     /**
      * Constructs a DTO from an existing LiquidityAccount entity.
      *
@@ -118,5 +126,6 @@ public class LiquidityAccountDto {
         this.currency = liquidityAccount.getCurrency();
         this.balance = liquidityAccount.getBalance();
         this.portfolioId = liquidityAccount.getPortfolio().getId();
+        this.version = liquidityAccount.getVersion();
     }
 }
@@ -0,0 +1,12 @@
+package com.giuseppesica.maney.account.liquidityaccount.model;
+
+import java.math.BigDecimal;
+
+/**
+ * A sum of amounts for one liquidity account. Used by JPQL constructor expressions.
+ *
+ * @param accountId the liquidity account ID
+ * @param total the sum
+ */
+public record AccountTotal(Long accountId, BigDecimal total) {
+}
@@ -0,0 +1,90 @@
+package com.giuseppesica.maney.account.liquidityaccount.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Stored balance of a liquidity account at a past instant.
+ *
+ * <p>Checkpoints let the balance at any instant be computed from the nearest checkpoint
+ * plus the operations between the two, instead of replaying the whole account history.
+ * They are written by {@link com.giuseppesica.maney.account.liquidityaccount.service.BalanceHistoryService}
+ * at the start of every month (UTC).</p>
+ *
+ * <p><strong>Invariant:</strong> {@link #balance} equals the current account balance minus
+ * the effect of every operation dated after {@link #asOf}. It therefore stays valid when
+ * operations after {@code asOf} change, is shifted as a whole by manual balance edits, and
+ * is deleted when an operation dated at or before {@code asOf} is created, changed or
+ * removed (see
+ * {@link com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService#invalidateBalanceHistory}).</p>
+ *
+ * <p><strong>Database Schema:</strong></p>
+ * <ul>
+ *   <li>Unique on {@code (account_id, as_of)}, which also backs nearest-checkpoint lookups</li>
+ *   <li>Foreign key to liquidity_account; removed together with the account</li>
+ * </ul>
+ *
+ * @see LiquidityAccount
+ * @see BalanceCheckpointRepository
+ */
+@Entity
+@Table(
+        name = "balance_checkpoint",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_balance_checkpoint_account_as_of",
+                columnNames = {"account_id", "as_of"}
+        )
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class BalanceCheckpoint {
+
+    /**
+     * Unique identifier for this checkpoint.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The account this checkpoint belongs to.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false, foreignKey = @ForeignKey(name = "fk_balance_checkpoint_liquidityaccount"))
+    @NotNull
+    private LiquidityAccount account;
+
+    /**
+     * Instant the balance refers to; operations dated at or before it are included.
+     */
+    @NotNull
+    @Column(name = "as_of", nullable = false)
+    private Instant asOf;
+
+    /**
+     * Account balance at {@link #asOf}.
+     */
+    @NotNull
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    /**
+     * Creates a checkpoint.
+     *
+     * @param account the account
+     * @param asOf instant the balance refers to
+     * @param balance balance at that instant
+     */
+    public BalanceCheckpoint(LiquidityAccount account, Instant asOf, BigDecimal balance) {
+        this.account = account;
+        this.asOf = asOf;
+        this.balance = balance;
+    }
+}
@@ -0,0 +1,79 @@
+package com.giuseppesica.maney.account.liquidityaccount.model;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Spring Data JPA repository for {@link BalanceCheckpoint} entities.
+ *
+ * <p>Nearest-checkpoint lookups are single index probes on the
+ * {@code uk_balance_checkpoint_account_as_of} unique index.</p>
+ *
+ * @see BalanceCheckpoint
+ */
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+    /**
+     * Finds the latest checkpoint of an account at or before an instant.
+     *
+     * @param accountId the liquidity account ID
+     * @param at the instant
+     * @return Optional containing the checkpoint, empty if none is that old
+     */
+    Optional<BalanceCheckpoint> findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(Long accountId, Instant at);
+
+    /**
+     * Finds the earliest checkpoint of an account after an instant.
+     *
+     * @param accountId the liquidity account ID
+     * @param at the instant
+     * @return Optional containing the checkpoint, empty if none is that recent
+     */
+    Optional<BalanceCheckpoint> findFirstByAccountIdAndAsOfGreaterThanOrderByAsOfAsc(Long accountId, Instant at);
+
+    /**
+     * Finds the latest checkpoint of an account.
+     *
+     * @param accountId the liquidity account ID
+     * @return Optional containing the checkpoint, empty if the account has none
+     */
+    Optional<BalanceCheckpoint> findFirstByAccountIdOrderByAsOfDesc(Long accountId);
+
+    /**
+     * Deletes the checkpoints of an account at or after an instant.
+     *
+     * @param accountId the liquidity account ID
+     * @param since earliest instant whose checkpoints are deleted
+     * @return number of deleted checkpoints
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM BalanceCheckpoint bc WHERE bc.account.id = :accountId AND bc.asOf >= :since")
+    int deleteByAccountIdSince(@Param("accountId") Long accountId, @Param("since") Instant since);
+
+    /**
+     * Adds a signed amount to every checkpoint of an account.
+     *
+     * @param accountId the liquidity account ID
+     * @param delta the signed amount to add
+     * @return number of updated checkpoints
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BalanceCheckpoint bc SET bc.balance = bc.balance + :delta WHERE bc.account.id = :accountId")
+    int shiftBalances(@Param("accountId") Long accountId, @Param("delta") BigDecimal delta);
+
+    /**
+     * Deletes every checkpoint of an account.
+     *
+     * @param accountId the liquidity account ID
+     * @return number of deleted checkpoints
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM BalanceCheckpoint bc WHERE bc.account.id = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+}
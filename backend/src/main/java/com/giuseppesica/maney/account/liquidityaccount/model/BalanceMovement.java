@@ -0,0 +1,33 @@
+package com.giuseppesica.maney.account.liquidityaccount.model;
+
+import com.giuseppesica.maney.utils.CashMovementType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Balance effect of one operation, as needed to fold balances over time.
+ *
+ * <p>Rows are built directly by JPQL constructor expressions, so no operation entity is
+ * loaded. {@code amount} is positive and moves from {@code fromAccountId} to
+ * {@code toAccountId}; a cash movement has only one of the two (the account an OUTCOME
+ * debits, or the account an INCOME credits).</p>
+ *
+ * @param date when the operation occurred
+ * @param id the operation ID
+ * @param fromAccountId account debited, or null
+ * @param toAccountId account credited, or null
+ * @param amount the positive amount
+ */
+public record BalanceMovement(Instant date, Long id, Long fromAccountId, Long toAccountId, BigDecimal amount) {
+
+    /**
+     * Builds the movement of a cash movement. Used by JPQL constructor expressions.
+     */
+    public BalanceMovement(Instant date, Long id, Long accountId, CashMovementType type, BigDecimal amount) {
+        this(date, id,
+                type == CashMovementType.OUTCOME ? accountId : null,
+                type == CashMovementType.OUTCOME ? null : accountId,
+                amount);
+    }
+}
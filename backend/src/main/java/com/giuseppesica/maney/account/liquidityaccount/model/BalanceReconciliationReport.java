@@ -0,0 +1,43 @@
+package com.giuseppesica.maney.account.liquidityaccount.model;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Outcome of a balance reconciliation run over every liquidity account.
+ *
+ * <p>Published as an application event at the end of each run, see
+ * {@link com.giuseppesica.maney.account.liquidityaccount.service.BalanceReconciliationService}.</p>
+ *
+ * @param startedAt instant the run started
+ * @param duration how long the run took
+ * @param accountsChecked number of accounts compared with their operations
+ * @param accountsUnverified number of accounts skipped because their ledger has no opening entry yet
+ * @param accountsDrifted number of accounts whose stored balance differs from the expected one
+ * @param totalAbsoluteDrift sum of the absolute drifts
+ * @param chunksFailed number of chunks of accounts that could not be read
+ * @param drifts the drifted accounts, at most
+ *               {@link com.giuseppesica.maney.account.liquidityaccount.service.BalanceReconciliationService#MAX_REPORTED_DRIFTS}
+ */
+public record BalanceReconciliationReport(Instant startedAt,
+                                          Duration duration,
+                                          int accountsChecked,
+                                          int accountsUnverified,
+                                          int accountsDrifted,
+                                          BigDecimal totalAbsoluteDrift,
+                                          int chunksFailed,
+                                          List<AccountDrift> drifts) {
+
+    /**
+     * An account whose stored balance differs from the one implied by its operations.
+     *
+     * @param accountId the liquidity account ID
+     * @param storedBalance the balance stored on the account
+     * @param expectedBalance opening balance plus manual adjustments plus the effect of every operation
+     * @param drift stored minus expected
+     */
+    public record AccountDrift(Long accountId, BigDecimal storedBalance, BigDecimal expectedBalance, BigDecimal drift) {
+    }
+}
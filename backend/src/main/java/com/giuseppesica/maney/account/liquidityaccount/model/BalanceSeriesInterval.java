@@ -0,0 +1,45 @@
+package com.giuseppesica.maney.account.liquidityaccount.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Spacing of the points of a running-balance series.
+ *
+ * <p>Periods are calendar days, ISO weeks (starting on Monday) and calendar months, in UTC.
+ * Each point is labelled with the first day of its period.</p>
+ */
+public enum BalanceSeriesInterval {
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * Returns the first day of the period containing {@code date}.
+     *
+     * @param date any day
+     * @return the period start
+     */
+    public LocalDate periodStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Returns the first day of the period following the one starting at {@code periodStart}.
+     *
+     * @param periodStart a period start
+     * @return the next period start
+     */
+    public LocalDate next(LocalDate periodStart) {
+        return switch (this) {
+            case DAY -> periodStart.plusDays(1);
+            case WEEK -> periodStart.plusWeeks(1);
+            case MONTH -> periodStart.plusMonths(1);
+        };
+    }
+}
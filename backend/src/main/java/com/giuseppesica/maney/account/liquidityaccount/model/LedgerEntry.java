@@ -0,0 +1,132 @@
+package com.giuseppesica.maney.account.liquidityaccount.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Append-only record of one change to a liquidity account balance.
+ *
+ * <p>Every balance write appends entries in the same transaction: the opening balance of
+ * a new account, one entry per operation the write creates, changes or deletes, or a manual
+ * adjustment. Updating or deleting an operation appends the change or reversal, with the
+ * same {@link #operationId}, instead of changing earlier entries. The sum of an account's
+ * entries is therefore its balance, and {@link LiquidityAccount#getBalance()} is a
+ * projection of the ledger kept up to date in the same transaction.</p>
+ *
+ * <p><strong>Ordering:</strong> {@link #seq} is the account row version right after the
+ * write (see {@link LiquidityAccountRepository#addToBalance}). The write holds the account
+ * row lock until commit, so entries become visible in {@code seq} order and a reader holding
+ * the same lock sees every entry up to the current version. A write that appends several
+ * entries advances the version by as many, so they take consecutive sequence numbers.
+ * Sequence 0 is reserved for the opening entry, and -1 for the history entry of an account
+ * opened before the ledger existed.</p>
+ *
+ * <p><strong>Baseline:</strong> The {@link LedgerEntryKind#OPENING} and
+ * {@link LedgerEntryKind#ADJUSTMENT} entries of an account sum to the part of its balance
+ * not explained by operations; the other entries sum to the effect of its operations.</p>
+ *
+ * <p><strong>Database Schema:</strong></p>
+ * <ul>
+ *   <li>Unique on {@code (account_id, seq)}, which also backs tail replays after a snapshot</li>
+ *   <li>Foreign key to liquidity_account; removed together with the account</li>
+ *   <li>{@code operation_id} has no foreign key, so entries of deleted operations keep it;
+ *       indexed to find every entry of an operation</li>
+ * </ul>
+ *
+ * @see LedgerSnapshot
+ * @see com.giuseppesica.maney.account.liquidityaccount.service.LedgerService
+ */
+@Entity
+@Table(
+        name = "ledger_entry",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_ledger_entry_account_seq",
+                columnNames = {"account_id", "seq"}
+        ),
+        indexes = @Index(name = "idx_ledger_entry_operation", columnList = "operation_id")
+)
+@Getter
+@NoArgsConstructor
+public class LedgerEntry {
+
+    /**
+     * Sequence number of the {@link LedgerEntryKind#HISTORY} entry, the lowest one.
+     */
+    public static final long HISTORY_SEQ = -1;
+
+    /**
+     * Sequence number of the {@link LedgerEntryKind#OPENING} entry.
+     */
+    public static final long OPENING_SEQ = 0;
+
+    /**
+     * Unique identifier for this entry.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The account whose balance changed.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false, foreignKey = @ForeignKey(name = "fk_ledger_entry_liquidityaccount"))
+    @NotNull
+    private LiquidityAccount account;
+
+    /**
+     * Account row version after the write, ordering the entries of the account.
+     */
+    @Column(nullable = false)
+    private long seq;
+
+    /**
+     * Cause of the change.
+     */
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private LedgerEntryKind kind;
+
+    /**
+     * The cash movement or transfer the entry belongs to, null for opening and adjustment entries.
+     */
+    @Column(name = "operation_id")
+    private Long operationId;
+
+    /**
+     * Signed amount added to the balance.
+     */
+    @NotNull
+    @Column(nullable = false)
+    private BigDecimal delta;
+
+    /**
+     * Instant the change was written.
+     */
+    @NotNull
+    @Column(name = "recorded_at", nullable = false)
+    private Instant recordedAt;
+
+    /**
+     * Creates an entry.
+     *
+     * @param account the account
+     * @param seq account row version after the write
+     * @param kind cause of the change
+     * @param delta signed amount added to the balance
+     * @param recordedAt instant the change was written
+     */
+    public LedgerEntry(LiquidityAccount account, long seq, LedgerEntryKind kind, BigDecimal delta, Instant recordedAt) {
+        this.account = account;
+        this.seq = seq;
+        this.kind = kind;
+        this.delta = delta;
+        this.recordedAt = recordedAt;
+    }
+}
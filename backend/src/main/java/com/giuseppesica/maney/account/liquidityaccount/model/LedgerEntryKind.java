@@ -0,0 +1,27 @@
+package com.giuseppesica.maney.account.liquidityaccount.model;
+
+/**
+ * Cause of a {@link LedgerEntry}.
+ */
+public enum LedgerEntryKind {
+
+    /**
+     * Balance the account started with, always at sequence 0.
+     */
+    OPENING,
+
+    /**
+     * Net effect of the cash movements and transfers written in one transaction.
+     */
+    OPERATION,
+
+    /**
+     * Manual balance edit.
+     */
+    ADJUSTMENT,
+
+    /**
+     * Net effect of the operations recorded before the account had a ledger, at sequence -1.
+     */
+    HISTORY
+}
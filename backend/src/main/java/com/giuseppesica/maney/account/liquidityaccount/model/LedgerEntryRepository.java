@@ -0,0 +1,103 @@
+package com.giuseppesica.maney.account.liquidityaccount.model;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for {@link LedgerEntry} entities.
+ *
+ * <p>Entries are only ever inserted, and deleted together with their account. Operation
+ * entries are appended through {@link #appendOperations}.</p>
+ *
+ * @see LedgerEntry
+ */
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long>, LedgerEntryRepositoryCustom {
+
+    /**
+     * Appends an entry that belongs to no operation, sequenced by the current account row version.
+     *
+     * <p>Must be called right after the balance write that incremented the version, in the
+     * same transaction, so the version read here is the one that write produced. A single
+     * {@code INSERT ... SELECT} statement, with no read round trip.</p>
+     *
+     * @param accountId the liquidity account ID
+     * @param kind cause of the change, as {@link LedgerEntryKind#name()}
+     * @param delta signed amount added to the balance
+     * @param recordedAt instant the change was written
+     * @return number of inserted entries: 1 if the account exists, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO ledger_entry (account_id, seq, kind, delta, recorded_at) " +
+            "SELECT id, version, :kind, :delta, :recordedAt FROM liquidity_account WHERE id = :accountId",
+            nativeQuery = true)
+    int append(@Param("accountId") Long accountId,
+               @Param("kind") String kind,
+               @Param("delta") BigDecimal delta,
+               @Param("recordedAt") Instant recordedAt);
+
+    /**
+     * Sums the entries of an account after a sequence number.
+     *
+     * @param accountId the liquidity account ID
+     * @param afterSeq sequence number of the last entry already accounted for, below
+     *                 {@link LedgerEntry#HISTORY_SEQ} for all
+     * @return the sum, zero if there are no such entries
+     */
+    @Query("SELECT COALESCE(SUM(le.delta), 0) FROM LedgerEntry le WHERE le.account.id = :accountId AND le.seq > :afterSeq")
+    BigDecimal sumDeltasAfter(@Param("accountId") Long accountId, @Param("afterSeq") long afterSeq);
+
+    /**
+     * Sums the entries of an account of one kind.
+     *
+     * @param accountId the liquidity account ID
+     * @param kind the kind
+     * @return the sum, zero if there are no such entries
+     */
+    @Query("SELECT COALESCE(SUM(le.delta), 0) FROM LedgerEntry le WHERE le.account.id = :accountId AND le.kind = :kind")
+    BigDecimal sumDeltasByKind(@Param("accountId") Long accountId, @Param("kind") LedgerEntryKind kind);
+
+    /**
+     * Sums the opening and adjustment entries of several accounts, per account.
+     *
+     * <p>This is the part of each balance not explained by operations. Accounts without an
+     * opening entry are left out, since their baseline is not known yet.</p>
+     *
+     * @param accountIds the liquidity account IDs
+     * @return one total per account with an opening entry
+     */
+    @Query("SELECT new com.giuseppesica.maney.account.liquidityaccount.model.AccountTotal(le.account.id, SUM(le.delta)) " +
+            "FROM LedgerEntry le " +
+            "WHERE le.account.id IN :accountIds " +
+            "AND le.kind IN (com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntryKind.OPENING, " +
+            "com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntryKind.ADJUSTMENT) " +
+            "GROUP BY le.account.id " +
+            "HAVING SUM(CASE WHEN le.kind = com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntryKind.OPENING " +
+            "THEN 1 ELSE 0 END) > 0")
+    List<AccountTotal> sumBaselinesByAccountIds(@Param("accountIds") Collection<Long> accountIds);
+
+    /**
+     * Checks whether an account has an entry of a kind.
+     *
+     * @param accountId the liquidity account ID
+     * @param kind the kind
+     * @return true if such an entry exists
+     */
+    boolean existsByAccountIdAndKind(Long accountId, LedgerEntryKind kind);
+
+    /**
+     * Deletes every entry of an account.
+     *
+     * @param accountId the liquidity account ID
+     * @return number of deleted entries
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM LedgerEntry le WHERE le.account.id = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+}
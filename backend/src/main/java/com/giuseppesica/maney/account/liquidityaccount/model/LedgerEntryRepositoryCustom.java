@@ -0,0 +1,25 @@
+package com.giuseppesica.maney.account.liquidityaccount.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.SortedMap;
+
+/**
+ * Custom write operations of {@link LedgerEntryRepository} that append several entries at once.
+ */
+public interface LedgerEntryRepositoryCustom {
+
+    /**
+     * Appends one {@link LedgerEntryKind#OPERATION} entry per operation, in one batch.
+     *
+     * <p>Must be called right after the balance write that advanced the account row version
+     * by {@code deltas.size()}, in the same transaction. The entries take the sequence
+     * numbers that write produced, in ascending operation ID order, the last one being the
+     * current version.</p>
+     *
+     * @param accountId the liquidity account ID
+     * @param deltas signed amount added to the balance per operation ID
+     * @param recordedAt instant the change was written
+     */
+    void appendOperations(Long accountId, SortedMap<Long, BigDecimal> deltas, Instant recordedAt);
+}
@@ -0,0 +1,64 @@
+package com.giuseppesica.maney.account.liquidityaccount.model;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * JDBC implementation of {@link LedgerEntryRepositoryCustom}.
+ *
+ * <p>Each entry is an {@code INSERT ... SELECT} that reads the sequence number from the
+ * account row, like {@link LedgerEntryRepository#append}, sent together as one JDBC batch.</p>
+ *
+ * <p>Picked up by Spring Data through the {@code Impl} naming convention and merged into
+ * {@link LedgerEntryRepository}.</p>
+ */
+class LedgerEntryRepositoryCustomImpl implements LedgerEntryRepositoryCustom {
+
+    private static final String APPEND_OPERATION_SQL =
+            "INSERT INTO ledger_entry (account_id, seq, kind, delta, recorded_at, operation_id) " +
+            "SELECT id, version - ?, ?, ?, ?, ? FROM liquidity_account WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    LedgerEntryRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void appendOperations(Long accountId, SortedMap<Long, BigDecimal> deltas, Instant recordedAt) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, BigDecimal>> entries = new ArrayList<>(deltas.entrySet());
+        OffsetDateTime recorded = recordedAt.atOffset(ZoneOffset.UTC);
+        jdbcTemplate.batchUpdate(APPEND_OPERATION_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, BigDecimal> entry = entries.get(i);
+                // The last entry takes the current version, earlier ones the versions before it
+                ps.setLong(1, entries.size() - 1 - i);
+                ps.setString(2, LedgerEntryKind.OPERATION.name());
+                ps.setBigDecimal(3, entry.getValue());
+                ps.setObject(4, recorded);
+                ps.setLong(5, entry.getKey());
+                ps.setLong(6, accountId);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package com.giuseppesica.maney.account.liquidityaccount.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Sum of the {@link LedgerEntry}s of an account up to a sequence number.
+ *
+ * <p>The balance of an account is its latest snapshot plus the entries after it, so
+ * deriving it replays only the entries written since the last snapshot. Snapshots are
+ * taken periodically by
+ * {@link com.giuseppesica.maney.account.liquidityaccount.service.LedgerService#snapshotAll()}
+ * while holding the account row lock, so no entry up to {@link #seq} can still be
+ * uncommitted.</p>
+ *
+ * <p>Unlike a {@link BalanceCheckpoint}, which is positioned on operation dates and is
+ * invalidated by back-dated operations, a snapshot is positioned in the append order of
+ * the ledger and never goes stale.</p>
+ *
+ * <p><strong>Database Schema:</strong></p>
+ * <ul>
+ *   <li>Unique on {@code (account_id, seq)}, which also backs latest-snapshot lookups</li>
+ *   <li>Foreign key to liquidity_account; removed together with the account</li>
+ * </ul>
+ *
+ * @see LedgerEntry
+ */
+@Entity
+@Table(
+        name = "ledger_snapshot",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_ledger_snapshot_account_seq",
+                columnNames = {"account_id", "seq"}
+        )
+)
+@Getter
+@NoArgsConstructor
+public class LedgerSnapshot {
+
+    /**
+     * Unique identifier for this snapshot.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The account this snapshot belongs to.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false, foreignKey = @ForeignKey(name = "fk_ledger_snapshot_liquidityaccount"))
+    @NotNull
+    private LiquidityAccount account;
+
+    /**
+     * Sequence number of the last entry included.
+     */
+    @Column(nullable = false)
+    private long seq;
+
+    /**
+     * Sum of the entries up to {@link #seq}.
+     */
+    @NotNull
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    /**
+     * Instant the snapshot was taken.
+     */
+    @NotNull
+    @Column(name = "taken_at", nullable = false)
+    private Instant takenAt;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param account the account
+     * @param seq sequence number of the last entry included
+     * @param balance sum of the entries up to {@code seq}
+     * @param takenAt instant the snapshot was taken
+     */
+    public LedgerSnapshot(LiquidityAccount account, long seq, BigDecimal balance, Instant takenAt) {
+        this.account = account;
+        this.seq = seq;
+        this.balance = balance;
+        this.takenAt = takenAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.giuseppesica.maney.account.liquidityaccount.model;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+/**
+ * Spring Data JPA repository for {@link LedgerSnapshot} entities.
+ *
+ * @see LedgerSnapshot
+ */
+public interface LedgerSnapshotRepository extends JpaRepository<LedgerSnapshot, Long> {
+
+    /**
+     * Finds the latest snapshot of an account.
+     *
+     * @param accountId the liquidity account ID
+     * @return Optional containing the snapshot, empty if the account has none
+     */
+    Optional<LedgerSnapshot> findFirstByAccountIdOrderBySeqDesc(Long accountId);
+
+    /**
+     * Deletes the snapshots of an account older than a sequence number.
+     *
+     * @param accountId the liquidity account ID
+     * @param seq sequence number of the snapshot to keep
+     * @return number of deleted snapshots
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM LedgerSnapshot ls WHERE ls.account.id = :accountId AND ls.seq < :seq")
+    int deleteByAccountIdBefore(@Param("accountId") Long accountId, @Param("seq") long seq);
+
+    /**
+     * Deletes every snapshot of an account.
+     *
+     * @param accountId the liquidity account ID
+     * @return number of deleted snapshots
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM LedgerSnapshot ls WHERE ls.account.id = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+}
@@ -3,12 +3,14 @@ package com.giuseppesica.maney.account.liquidityaccount.model;
 import com.giuseppesica.maney.account.Account;
 import com.giuseppesica.maney.account.liquidityaccount.dto.LiquidityAccountDto;
 import com.giuseppesica.maney.utils.Currency;
+import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 
@@ -45,6 +47,14 @@ import java.math.BigDecimal;
  *   <li>Credited when used as destination in transfers</li>
  * </ul>
  *
+ * <p><strong>Concurrency:</strong> The balance is never written through entity updates
+ * ({@code updatable = false}). Operations apply signed deltas with a single
+ * {@code UPDATE ... SET balance = balance + ?} statement (see
+ * {@link LiquidityAccountRepository#addToBalance}), which also bumps {@link #version}.
+ * Manual balance edits are a compare-and-set on that version
+ * ({@link LiquidityAccountRepository#setBalance}), so they fail with an optimistic
+ * locking error instead of silently overwriting a concurrent delta.</p>
+ *
  * @see Account
  * @see Currency
  * @see com.giuseppesica.maney.account.operations.cashmovement.model.CashMovement
@@ -62,6 +72,7 @@ public class LiquidityAccount extends Account{
      * Can be negative if overdrafts are allowed.
      */
     @NotNull
+    @Column(updatable = false)
     private BigDecimal balance;
 
     /**
@@ -73,6 +84,16 @@ public class LiquidityAccount extends Account{
     @NotNull
     private Currency currency;
 
+    /**
+     * Balance row version, incremented by every balance write.
+     * Managed by the balance update queries rather than JPA {@code @Version}: Hibernate only
+     * allows {@code @Version} on the hierarchy root, which would move it to the account table
+     * and cost a second UPDATE per delta.
+     */
+    @Column(nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private long version;
+
     /**
      * Constructs a LiquidityAccount from a DTO.
      *
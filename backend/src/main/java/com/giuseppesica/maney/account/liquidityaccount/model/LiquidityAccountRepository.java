@@ -1,8 +1,17 @@
 package com.giuseppesica.maney.account.liquidityaccount.model;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Spring Data JPA repository for {@link LiquidityAccount} entities.
@@ -35,4 +44,132 @@ public interface LiquidityAccountRepository extends JpaRepository<LiquidityAccou
      * @return list of accounts in the portfolio (may be empty)
      */
     List<LiquidityAccount> findByPortfolioId(Long portfolioId);
+
+    /**
+     * Finds the account of a portfolio with the given name.
+     *
+     * <p>Resolved through the {@code uk_account_portfolio_name} unique index on
+     * {@code (portfolio_id, name)}, so it is a single point lookup.</p>
+     *
+     * @param portfolioId the portfolio to search within
+     * @param name exact account name (case-sensitive)
+     * @return Optional containing the account if found, empty otherwise
+     */
+    Optional<LiquidityAccount> findByPortfolioIdAndName(Long portfolioId, String name);
+
+    /**
+     * Lists account IDs in ascending order, one page at a time.
+     *
+     * <p>Keyset pagination on the primary key: each page starts right after the last ID of
+     * the previous one, so walking every account never scans skipped rows.</p>
+     *
+     * @param afterId last ID of the previous page, 0 for the first page
+     * @param limit maximum number of IDs to return
+     * @return the next IDs, empty once every account has been listed
+     */
+    @Query("SELECT la.id FROM LiquidityAccount la WHERE la.id > :afterId ORDER BY la.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Reads the stored balance of several accounts without loading the entities.
+     *
+     * @param accountIds the liquidity account IDs
+     * @return one balance per existing account
+     */
+    @Query("SELECT new com.giuseppesica.maney.account.liquidityaccount.model.AccountTotal(la.id, la.balance) " +
+            "FROM LiquidityAccount la WHERE la.id IN :accountIds")
+    List<AccountTotal> findBalancesByIds(@Param("accountIds") Collection<Long> accountIds);
+
+    /**
+     * Atomically adds a signed delta to an account balance.
+     *
+     * <p>Runs a single {@code UPDATE liquidity_account SET balance = balance + :delta}
+     * statement, so concurrent deltas on the same row are serialized by the database
+     * row lock and none of them can be lost. The row version is incremented by the number
+     * of {@link LedgerEntry ledger entries} the caller appends for the change, so that each
+     * of them gets its own sequence number; this also invalidates any pending
+     * {@link #setBalance} based on an older read.</p>
+     *
+     * <p>A native query is used because a JPQL bulk update on a JOINED subclass is
+     * executed by Hibernate as a multi-table update through temporary tables.</p>
+     *
+     * <p><strong>Note:</strong> Managed instances of the account are not refreshed and
+     * keep their previous balance and version.</p>
+     *
+     * @param id the liquidity account ID
+     * @param delta the signed amount to add (negative to debit)
+     * @param entries number of ledger entries written for the change, at least 1
+     * @return number of updated rows: 1 if the account exists, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE liquidity_account SET balance = balance + :delta, version = version + :entries WHERE id = :id",
+            nativeQuery = true)
+    int addToBalance(@Param("id") Long id, @Param("delta") BigDecimal delta, @Param("entries") int entries);
+
+    /**
+     * Reads an account balance and locks the account row until the end of the transaction.
+     *
+     * <p>Serializes the caller with every balance delta and balance history change on the
+     * same account, which take the same row lock. On PostgreSQL that is {@code FOR NO KEY UPDATE},
+     * the lock of an {@code UPDATE} that leaves the key alone: unlike {@code FOR UPDATE}, it
+     * doesn't wait for the key share locks that foreign key checks take, so a transaction
+     * inserting an operation on the account and then updating its balance can't deadlock with
+     * one that updates the balance and then locks it.</p>
+     *
+     * @param id the liquidity account ID
+     * @return Optional containing the current balance, empty if the account doesn't exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT la.balance FROM LiquidityAccount la WHERE la.id = :id")
+    Optional<BigDecimal> lockBalance(@Param("id") Long id);
+
+    /**
+     * Reads an account balance and row version and locks the account row until the end of
+     * the transaction, in a single statement.
+     *
+     * <p>While the lock is held, every {@link LedgerEntry} of the account up to the returned
+     * version is committed and no new one can be written. The lock is the one
+     * {@link #lockBalance} takes.</p>
+     *
+     * @param id the liquidity account ID
+     * @return Optional containing the current balance and version, empty if the account doesn't exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.giuseppesica.maney.account.liquidityaccount.model.LockedBalance(la.balance, la.version) " +
+            "FROM LiquidityAccount la WHERE la.id = :id")
+    Optional<LockedBalance> lockBalanceAndVersion(@Param("id") Long id);
+
+    /**
+     * Overwrites an account balance without incrementing the row version.
+     *
+     * <p>Only used to rebuild the balance from the ledger: the balance is corrected to match
+     * the entries, which don't change, so the version (the sequence of the last entry) must
+     * not change either. The caller must hold the row lock.</p>
+     *
+     * @param id the liquidity account ID
+     * @param balance the rebuilt balance
+     * @return number of updated rows: 1 if the account exists, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE liquidity_account SET balance = :balance WHERE id = :id", nativeQuery = true)
+    int overwriteBalance(@Param("id") Long id, @Param("balance") BigDecimal balance);
+
+    /**
+     * Overwrites an account balance if nobody changed it since it was read.
+     *
+     * <p>Compare-and-set on the row version: the update only applies when the current
+     * version still equals {@code expectedVersion}, and increments it.</p>
+     *
+     * @param id the liquidity account ID
+     * @param balance the new absolute balance
+     * @param expectedVersion the version the caller based the new balance on
+     * @return 1 if the balance was written, 0 if the account is missing or was modified concurrently
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE liquidity_account SET balance = :balance, version = version + 1 " +
+            "WHERE id = :id AND version = :expectedVersion",
+            nativeQuery = true)
+    int setBalance(@Param("id") Long id,
+                   @Param("balance") BigDecimal balance,
+                   @Param("expectedVersion") long expectedVersion);
 }
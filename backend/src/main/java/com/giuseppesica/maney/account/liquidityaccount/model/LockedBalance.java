@@ -0,0 +1,12 @@
+package com.giuseppesica.maney.account.liquidityaccount.model;
+
+import java.math.BigDecimal;
+
+/**
+ * The balance and row version of a liquidity account, read together under the row lock.
+ *
+ * @param balance the stored balance
+ * @param version the row version, i.e. the sequence of the last ledger entry
+ */
+public record LockedBalance(BigDecimal balance, Long version) {
+}
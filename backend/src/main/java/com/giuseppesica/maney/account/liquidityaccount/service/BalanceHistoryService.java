@@ -0,0 +1,284 @@
+package com.giuseppesica.maney.account.liquidityaccount.service;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceCheckpoint;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceCheckpointRepository;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.operations.archive.model.OperationArchiveTotalRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementRepository;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferRepository;
+import com.giuseppesica.maney.security.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service answering "what was the balance of this account at instant X".
+ *
+ * <p>Only the current balance is stored on {@link LiquidityAccount}. Past balances are
+ * derived from {@link BalanceCheckpoint}s taken at the start of every month (UTC):</p>
+ * <ul>
+ *   <li>With a checkpoint at or before X: checkpoint + operations in {@code (checkpoint, X]}</li>
+ *   <li>Otherwise, with a checkpoint after X: checkpoint - operations in {@code (X, checkpoint]}</li>
+ *   <li>Otherwise: current balance - operations after X</li>
+ * </ul>
+ * <p>Once the checkpoints of an account are up to date, answering a query reads at most about
+ * a month of operations, regardless of how old the account is.</p>
+ *
+ * <p><strong>Maintenance:</strong> Operation writes discard the checkpoints they invalidate
+ * (see {@link LiquidityAccountService#invalidateBalanceHistory}). {@link #refreshAllCheckpoints()}
+ * runs nightly (cron {@code maney.balance-checkpoints.cron}, {@code -} to disable) and writes
+ * the missing monthly checkpoints of every account.</p>
+ *
+ * <p><strong>Archived months:</strong> Operations of archived months are counted through their
+ * {@link com.giuseppesica.maney.account.operations.archive.model.OperationArchiveTotal}s, which
+ * are exact for month-aligned ranges such as those between checkpoints. Within an archived
+ * month, balances are those of the month start.</p>
+ *
+ * @see BalanceCheckpoint
+ */
+@Service
+public class BalanceHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceHistoryService.class);
+
+    /**
+     * Upper bound used for "every operation after X"; later than any operation date.
+     */
+    static final Instant END_OF_TIME = Instant.parse("9999-12-31T23:59:59Z");
+
+    private final LiquidityAccountRepository liquidityAccountRepository;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final CashMovementRepository cashMovementRepository;
+    private final TransferRepository transferRepository;
+    private final OperationArchiveTotalRepository operationArchiveTotalRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    /**
+     * Constructs the service with required dependencies.
+     *
+     * @param liquidityAccountRepository repository for account balances
+     * @param balanceCheckpointRepository repository for balance checkpoints
+     * @param cashMovementRepository repository summing cash movements
+     * @param transferRepository repository summing transfers
+     * @param operationArchiveTotalRepository repository summing archived operations
+     * @param transactionTemplate template running one transaction per account refresh
+     */
+    @Autowired
+    public BalanceHistoryService(LiquidityAccountRepository liquidityAccountRepository,
+                                 BalanceCheckpointRepository balanceCheckpointRepository,
+                                 CashMovementRepository cashMovementRepository,
+                                 TransferRepository transferRepository,
+                                 OperationArchiveTotalRepository operationArchiveTotalRepository,
+                                 TransactionTemplate transactionTemplate) {
+        this(liquidityAccountRepository, balanceCheckpointRepository, cashMovementRepository, transferRepository,
+                operationArchiveTotalRepository, transactionTemplate, Clock.systemUTC());
+    }
+
+    BalanceHistoryService(LiquidityAccountRepository liquidityAccountRepository,
+                          BalanceCheckpointRepository balanceCheckpointRepository,
+                          CashMovementRepository cashMovementRepository,
+                          TransferRepository transferRepository,
+                          OperationArchiveTotalRepository operationArchiveTotalRepository,
+                          TransactionTemplate transactionTemplate,
+                          Clock clock) {
+        this.liquidityAccountRepository = liquidityAccountRepository;
+        this.balanceCheckpointRepository = balanceCheckpointRepository;
+        this.cashMovementRepository = cashMovementRepository;
+        this.transferRepository = transferRepository;
+        this.operationArchiveTotalRepository = operationArchiveTotalRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+    }
+
+    /**
+     * Computes the balance of an account at an instant.
+     *
+     * <p>Operations dated exactly at {@code at} are included.</p>
+     *
+     * @param account the liquidity account
+     * @param at the instant
+     * @return the balance at {@code at}
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalanceAt(LiquidityAccount account, Instant at) {
+        Long accountId = account.getId();
+        Optional<BalanceCheckpoint> floor =
+                balanceCheckpointRepository.findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(accountId, at);
+        if (floor.isPresent()) {
+            return floor.get().getBalance().add(sumOperations(accountId, floor.get().getAsOf(), at));
+        }
+        Optional<BalanceCheckpoint> ceiling =
+                balanceCheckpointRepository.findFirstByAccountIdAndAsOfGreaterThanOrderByAsOfAsc(accountId, at);
+        if (ceiling.isPresent()) {
+            return ceiling.get().getBalance().subtract(sumOperations(accountId, at, ceiling.get().getAsOf()));
+        }
+        BigDecimal current = liquidityAccountRepository.findById(accountId)
+                .map(LiquidityAccount::getBalance)
+                .orElseThrow(() -> new NotFoundException("Liquidity account not found"));
+        return current.subtract(sumOperations(accountId, at, END_OF_TIME));
+    }
+
+    /**
+     * Writes the missing monthly checkpoints of every liquidity account.
+     *
+     * <p>Each account is refreshed in its own transaction; a failure on one account is
+     * logged and does not stop the others.</p>
+     */
+    @Scheduled(cron = "${maney.balance-checkpoints.cron:0 30 3 * * *}", zone = "UTC")
+    public void refreshAllCheckpoints() {
+        int written = 0;
+        for (LiquidityAccount account : liquidityAccountRepository.findAll()) {
+            try {
+                Integer count = transactionTemplate.execute(status -> refreshCheckpoints(account.getId()));
+                written += count == null ? 0 : count;
+            } catch (RuntimeException e) {
+                logger.warn("Could not refresh balance checkpoints of account {}: {}", account.getId(), e.getMessage());
+            }
+        }
+        logger.info("Balance checkpoint refresh wrote {} checkpoints", written);
+    }
+
+    /**
+     * Writes the missing monthly checkpoints of an account, up to the current month.
+     *
+     * <p>Checkpoints are only ever missing after the latest stored one, because invalidation
+     * deletes everything from a date onwards. An account without checkpoints gets one per
+     * month since its oldest operation. The account row is locked for the duration, so no
+     * operation can change the account while the checkpoints are computed.</p>
+     *
+     * @param accountId the liquidity account ID
+     * @return number of checkpoints written
+     * @throws NotFoundException if the account doesn't exist
+     */
+    @Transactional
+    public int refreshCheckpoints(Long accountId) {
+        BigDecimal current = liquidityAccountRepository.lockBalance(accountId)
+                .orElseThrow(() -> new NotFoundException("Liquidity account not found"));
+
+        Instant start = balanceCheckpointRepository.findFirstByAccountIdOrderByAsOfDesc(accountId)
+                .map(BalanceCheckpoint::getAsOf)
+                .orElseGet(() -> firstOperationDate(accountId));
+        if (start == null) {
+            return 0;
+        }
+        List<Instant> boundaries = monthStartsAfter(start, clock.instant());
+        if (boundaries.isEmpty()) {
+            return 0;
+        }
+
+        // Walk back from the current balance, one month of operations at a time
+        LiquidityAccount account = liquidityAccountRepository.getReferenceById(accountId);
+        List<BalanceCheckpoint> checkpoints = new ArrayList<>(boundaries.size());
+        BigDecimal balance = current;
+        Instant upper = END_OF_TIME;
+        for (int i = boundaries.size() - 1; i >= 0; i--) {
+            Instant boundary = boundaries.get(i);
+            balance = balance.subtract(sumOperations(accountId, boundary, upper));
+            checkpoints.add(new BalanceCheckpoint(account, boundary, balance));
+            upper = boundary;
+        }
+        balanceCheckpointRepository.saveAll(checkpoints);
+        return checkpoints.size();
+    }
+
+    /**
+     * Sums the balance effect on an account of all operations dated in {@code (after, until]}.
+     */
+    BigDecimal sumOperations(Long accountId, Instant after, Instant until) {
+        return cashMovementRepository.sumSignedAmounts(accountId, after, until)
+                .add(transferRepository.sumNetAmounts(accountId, after, until))
+                .add(sumArchivedOperations(accountId, after, until));
+    }
+
+    /**
+     * Sums the archived operations of an account dated in {@code (after, until]}, for the
+     * archived months entirely inside the range; months only partly inside it are left out.
+     */
+    private BigDecimal sumArchivedOperations(Long accountId, Instant after, Instant until) {
+        if (!after.isBefore(until)) {
+            return BigDecimal.ZERO;
+        }
+        LocalDate afterMonth = monthOf(after);
+        LocalDate untilMonth = monthOf(until);
+        boolean afterAtMonthStart = startOf(afterMonth).equals(after);
+        boolean untilAtMonthStart = startOf(untilMonth).equals(until);
+        LocalDate firstMonth = afterAtMonthStart ? afterMonth : afterMonth.plusMonths(1);
+        LocalDate lastMonth = untilAtMonthStart ? untilMonth : untilMonth.minusMonths(1);
+        if (firstMonth.isAfter(lastMonth)) {
+            return BigDecimal.ZERO;
+        }
+        return operationArchiveTotalRepository.sumTotals(accountId, firstMonth, lastMonth,
+                afterAtMonthStart ? afterMonth : null, untilAtMonthStart ? untilMonth : null);
+    }
+
+    /**
+     * Sums the balance effect of all the operations of several accounts, whatever their date.
+     *
+     * @param accountIds the liquidity account IDs
+     * @return signed sum per account ID, for every requested account (zero if it has no operations),
+     * archived operations included
+     */
+    public Map<Long, BigDecimal> sumAllOperations(Collection<Long> accountIds) {
+        Map<Long, BigDecimal> totals = new HashMap<>();
+        accountIds.forEach(id -> totals.put(id, BigDecimal.ZERO));
+        cashMovementRepository.sumSignedAmountsByAccountIds(accountIds)
+                .forEach(total -> totals.merge(total.accountId(), total.total(), BigDecimal::add));
+        transferRepository.sumIncomingByAccountIds(accountIds)
+                .forEach(total -> totals.merge(total.accountId(), total.total(), BigDecimal::add));
+        transferRepository.sumOutgoingByAccountIds(accountIds)
+                .forEach(total -> totals.merge(total.accountId(), total.total().negate(), BigDecimal::add));
+        operationArchiveTotalRepository.sumTotalsByAccountIds(accountIds)
+                .forEach(total -> totals.merge(total.accountId(), total.total(), BigDecimal::add));
+        return totals;
+    }
+
+    private Instant firstOperationDate(Long accountId) {
+        Instant cashMovement = cashMovementRepository.findFirstDateByAccountId(accountId);
+        Instant transfer = transferRepository.findFirstDateByAccountId(accountId);
+        if (cashMovement == null || transfer == null) {
+            return cashMovement != null ? cashMovement : transfer;
+        }
+        return cashMovement.isBefore(transfer) ? cashMovement : transfer;
+    }
+
+    /**
+     * Returns the month starts (UTC) strictly after {@code after} and not after {@code now}, ascending.
+     */
+    static List<Instant> monthStartsAfter(Instant after, Instant now) {
+        List<Instant> boundaries = new ArrayList<>();
+        LocalDate month = monthOf(after).plusMonths(1);
+        Instant boundary = startOf(month);
+        while (!boundary.isAfter(now)) {
+            boundaries.add(boundary);
+            month = month.plusMonths(1);
+            boundary = startOf(month);
+        }
+        return boundaries;
+    }
+
+    private static LocalDate monthOf(Instant instant) {
+        return LocalDate.ofInstant(instant, ZoneOffset.UTC).withDayOfMonth(1);
+    }
+
+    private static Instant startOf(LocalDate month) {
+        return month.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
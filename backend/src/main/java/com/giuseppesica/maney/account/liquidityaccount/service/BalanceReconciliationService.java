@@ -0,0 +1,290 @@
+package com.giuseppesica.maney.account.liquidityaccount.service;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.AccountTotal;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceReconciliationReport;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceReconciliationReport.AccountDrift;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntryRepository;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Background job checking every stored liquidity account balance against its operations.
+ *
+ * <p>The expected balance of an account is its baseline (opening balance plus manual
+ * adjustments, from the {@link com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntry ledger})
+ * plus the effect of every cash movement and transfer it currently has. A difference means
+ * some create, update or delete applied a delta that doesn't match the operation it wrote.
+ * Accounts whose ledger has no opening entry yet are counted as unverified; they get one on
+ * their next ledger snapshot.</p>
+ *
+ * <p><strong>Execution:</strong> Account IDs are walked in chunks of {@value #CHUNK_SIZE}
+ * with keyset pagination, and chunks are reconciled on {@code maney.reconciliation.parallelism}
+ * threads. Each chunk is read with three grouped queries in one short read-only
+ * REPEATABLE READ transaction: the reads see a single consistent snapshot of the database,
+ * so concurrent operations cannot cause false drifts, and no row is locked.</p>
+ *
+ * <p><strong>Output:</strong> Each run ({@link #reconcileAll()}, cron
+ * {@code maney.reconciliation.cron}, {@code -} to disable) logs its drifts and publishes a
+ * {@link BalanceReconciliationReport} as an application event; the latest one is also
+ * available from {@link #getLastReport()} and, summarized, from the {@code reconciliation}
+ * actuator endpoint. Drifts are reported, not corrected: see
+ * {@link LedgerService#rebuildAllBalances()}.</p>
+ *
+ * <p><strong>Metrics:</strong> {@code maney.reconciliation.duration} (run durations) and
+ * gauges of the latest report: {@code maney.reconciliation.accounts} (by {@code state}:
+ * checked, drifted, unverified), {@code maney.reconciliation.drift} (total absolute drift)
+ * and {@code maney.reconciliation.chunks.failed}. The gauges read NaN until the first run
+ * completes.</p>
+ *
+ * @see BalanceReconciliationReport
+ */
+@Service
+public class BalanceReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceReconciliationService.class);
+
+    /**
+     * Number of accounts reconciled per transaction.
+     */
+    static final int CHUNK_SIZE = 500;
+
+    /**
+     * Maximum number of drifted accounts listed in a report; all of them are counted.
+     */
+    public static final int MAX_REPORTED_DRIFTS = 1000;
+
+    private final LiquidityAccountRepository liquidityAccountRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceHistoryService balanceHistoryService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TransactionTemplate snapshotTransaction;
+    private final int parallelism;
+    private final Timer runTimer;
+
+    private volatile BalanceReconciliationReport lastReport;
+
+    /**
+     * Result of one chunk of accounts.
+     */
+    private record ChunkResult(int checked, int unverified, List<AccountDrift> drifts) {
+    }
+
+    /**
+     * Totals of a run, accumulated as chunks complete.
+     */
+    private static final class RunTotals {
+        private int checked;
+        private int unverified;
+        private int drifted;
+        private int failedChunks;
+        private BigDecimal absoluteDrift = BigDecimal.ZERO;
+        private final List<AccountDrift> drifts = new ArrayList<>();
+    }
+
+    /**
+     * Constructs the service with required dependencies.
+     *
+     * @param liquidityAccountRepository repository listing accounts and their stored balances
+     * @param ledgerEntryRepository repository summing account baselines
+     * @param balanceHistoryService service summing account operations
+     * @param applicationEventPublisher publisher of the reports
+     * @param transactionManager transaction manager for the read-only chunk transactions
+     * @param meterRegistry registry of the run timer and report gauges
+     * @param parallelism number of chunks reconciled concurrently
+     */
+    public BalanceReconciliationService(LiquidityAccountRepository liquidityAccountRepository,
+                                        LedgerEntryRepository ledgerEntryRepository,
+                                        BalanceHistoryService balanceHistoryService,
+                                        ApplicationEventPublisher applicationEventPublisher,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${maney.reconciliation.parallelism:2}") int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("maney.reconciliation.parallelism must be at least 1");
+        }
+        this.liquidityAccountRepository = liquidityAccountRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceHistoryService = balanceHistoryService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.parallelism = parallelism;
+
+        this.runTimer = Timer.builder("maney.reconciliation.duration")
+                .description("Time spent reconciling every account balance")
+                .register(meterRegistry);
+        registerGauge(meterRegistry, "maney.reconciliation.accounts", "checked",
+                "Accounts compared with their operations by the latest reconciliation",
+                BalanceReconciliationReport::accountsChecked);
+        registerGauge(meterRegistry, "maney.reconciliation.accounts", "drifted",
+                "Accounts whose stored balance drifted, in the latest reconciliation",
+                BalanceReconciliationReport::accountsDrifted);
+        registerGauge(meterRegistry, "maney.reconciliation.accounts", "unverified",
+                "Accounts without an opening ledger entry, in the latest reconciliation",
+                BalanceReconciliationReport::accountsUnverified);
+        registerGauge(meterRegistry, "maney.reconciliation.drift", null,
+                "Sum of the absolute balance drifts found by the latest reconciliation",
+                report -> report.totalAbsoluteDrift().doubleValue());
+        registerGauge(meterRegistry, "maney.reconciliation.chunks.failed", null,
+                "Chunks of accounts the latest reconciliation could not read",
+                BalanceReconciliationReport::chunksFailed);
+    }
+
+    /**
+     * Reconciles every liquidity account and publishes the report.
+     *
+     * <p>At most twice {@code maney.reconciliation.parallelism} chunks are in flight, so memory
+     * use doesn't grow with the number of accounts. A failure on one chunk is logged and
+     * counted, and does not stop the others.</p>
+     *
+     * @return the report of this run
+     */
+    @Scheduled(cron = "${maney.reconciliation.cron:0 0 5 * * *}", zone = "UTC")
+    public BalanceReconciliationReport reconcileAll() {
+        Instant startedAt = Instant.now();
+        long started = System.nanoTime();
+        RunTotals totals = new RunTotals();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            Deque<Future<ChunkResult>> inFlight = new ArrayDeque<>();
+            long afterId = 0;
+            List<Long> chunk;
+            while (!(chunk = liquidityAccountRepository.findIdsAfter(afterId, Limit.of(CHUNK_SIZE))).isEmpty()) {
+                List<Long> accountIds = chunk;
+                inFlight.add(executor.submit(() -> snapshotTransaction.execute(status -> reconcileChunk(accountIds))));
+                afterId = chunk.getLast();
+                if (inFlight.size() >= 2 * parallelism) {
+                    collect(inFlight.poll(), totals);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                collect(inFlight.poll(), totals);
+            }
+        }
+
+        BalanceReconciliationReport report = new BalanceReconciliationReport(startedAt,
+                Duration.ofNanos(System.nanoTime() - started), totals.checked, totals.unverified, totals.drifted,
+                totals.absoluteDrift, totals.failedChunks, List.copyOf(totals.drifts));
+        for (AccountDrift drift : report.drifts()) {
+            logger.warn("Balance drift on account {}: stored {}, expected {} ({})", drift.accountId(),
+                    drift.storedBalance(), drift.expectedBalance(), drift.drift());
+        }
+        logger.info("Balance reconciliation checked {} accounts in {} ms: {} drifted (total {}), {} unverified, {} chunks failed",
+                report.accountsChecked(), report.duration().toMillis(), report.accountsDrifted(),
+                report.totalAbsoluteDrift(), report.accountsUnverified(), report.chunksFailed());
+        runTimer.record(report.duration());
+        lastReport = report;
+        applicationEventPublisher.publishEvent(report);
+        return report;
+    }
+
+    /**
+     * Returns the report of the latest run.
+     *
+     * @return Optional containing the report, empty if no run has completed yet
+     */
+    public Optional<BalanceReconciliationReport> getLastReport() {
+        return Optional.ofNullable(lastReport);
+    }
+
+    /**
+     * Registers a gauge reading a value of the latest report, NaN before the first run.
+     */
+    private void registerGauge(MeterRegistry meterRegistry, String name, String state, String description,
+                               ToDoubleFunction<BalanceReconciliationReport> value) {
+        Gauge.Builder<BalanceReconciliationService> builder = Gauge.builder(name, this,
+                        service -> service.lastReport == null ? Double.NaN : value.applyAsDouble(service.lastReport))
+                .description(description);
+        if (state != null) {
+            builder.tag("state", state);
+        }
+        builder.register(meterRegistry);
+    }
+
+    /**
+     * Compares the stored balances of a chunk of accounts with their baselines and
+     * operations. Must run in a single snapshot transaction.
+     */
+    private ChunkResult reconcileChunk(List<Long> accountIds) {
+        Map<Long, BigDecimal> baselines = toMap(ledgerEntryRepository.sumBaselinesByAccountIds(accountIds));
+        Map<Long, BigDecimal> operations = balanceHistoryService.sumAllOperations(accountIds);
+        int checked = 0;
+        int unverified = 0;
+        List<AccountDrift> drifts = new ArrayList<>();
+        for (AccountTotal stored : liquidityAccountRepository.findBalancesByIds(accountIds)) {
+            BigDecimal baseline = baselines.get(stored.accountId());
+            if (baseline == null) {
+                unverified++;
+                continue;
+            }
+            checked++;
+            BigDecimal expected = baseline.add(operations.get(stored.accountId()));
+            BigDecimal drift = stored.total().subtract(expected);
+            if (drift.signum() != 0) {
+                drifts.add(new AccountDrift(stored.accountId(), stored.total(), expected, drift));
+            }
+        }
+        return new ChunkResult(checked, unverified, drifts);
+    }
+
+    /**
+     * Waits for a chunk and adds its result to the run totals.
+     */
+    private static void collect(Future<ChunkResult> future, RunTotals totals) {
+        ChunkResult result;
+        try {
+            result = future.get();
+        } catch (ExecutionException e) {
+            totals.failedChunks++;
+            logger.warn("Could not reconcile a chunk of accounts: {}", e.getCause().getMessage());
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Balance reconciliation interrupted", e);
+        }
+        totals.checked += result.checked();
+        totals.unverified += result.unverified();
+        totals.drifted += result.drifts().size();
+        for (AccountDrift drift : result.drifts()) {
+            totals.absoluteDrift = totals.absoluteDrift.add(drift.drift().abs());
+            if (totals.drifts.size() < MAX_REPORTED_DRIFTS) {
+                totals.drifts.add(drift);
+            }
+        }
+    }
+
+    private static Map<Long, BigDecimal> toMap(List<AccountTotal> totals) {
+        Map<Long, BigDecimal> map = new HashMap<>();
+        totals.forEach(total -> map.put(total.accountId(), total.total()));
+        return map;
+    }
+}
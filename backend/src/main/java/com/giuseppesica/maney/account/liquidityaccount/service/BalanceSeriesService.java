@@ -0,0 +1,203 @@
+package com.giuseppesica.maney.account.liquidityaccount.service;
+
+import com.giuseppesica.maney.account.liquidityaccount.dto.BalanceSeriesDto;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceMovement;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceSeriesInterval;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementRepository;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferRepository;
+import com.giuseppesica.maney.utils.Currency;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Service computing running-balance series for charts.
+ *
+ * <p><strong>Algorithm:</strong> The balance of every account at the start of the range
+ * comes from {@link BalanceHistoryService} (nearest checkpoint plus at most about a month of
+ * operations). Cash movements and transfers in the range are then read through two
+ * forward-only cursors ordered by {@code (date, id)}, merged into one chronological sequence
+ * and folded into the running balances in a single pass, emitting a point for every account
+ * each time a period ends. No operation entity is loaded and memory only grows with the
+ * number of points returned, so ten years of daily points cost one sequential read of ten
+ * years of operations.</p>
+ *
+ * @see BalanceSeriesInterval
+ * @see BalanceSeriesDto
+ */
+@Service
+public class BalanceSeriesService {
+
+    /**
+     * Maximum number of points per series (twenty years of daily points).
+     */
+    public static final int MAX_POINTS = 20 * 366;
+
+    /**
+     * Chronological order of the fold; the ID breaks ties between operations at the same instant.
+     */
+    static final Comparator<BalanceMovement> FOLD_ORDER =
+            Comparator.comparing(BalanceMovement::date).thenComparing(BalanceMovement::id);
+
+    private final LiquidityAccountRepository liquidityAccountRepository;
+    private final CashMovementRepository cashMovementRepository;
+    private final TransferRepository transferRepository;
+    private final BalanceHistoryService balanceHistoryService;
+
+    /**
+     * Constructs the service with required dependencies.
+     *
+     * @param liquidityAccountRepository repository listing the portfolio accounts
+     * @param cashMovementRepository repository streaming cash movements
+     * @param transferRepository repository streaming transfers
+     * @param balanceHistoryService service providing the opening balances
+     */
+    public BalanceSeriesService(LiquidityAccountRepository liquidityAccountRepository,
+                                CashMovementRepository cashMovementRepository,
+                                TransferRepository transferRepository,
+                                BalanceHistoryService balanceHistoryService) {
+        this.liquidityAccountRepository = liquidityAccountRepository;
+        this.cashMovementRepository = cashMovementRepository;
+        this.transferRepository = transferRepository;
+        this.balanceHistoryService = balanceHistoryService;
+    }
+
+    /**
+     * Computes the running-balance series of every account of a portfolio, and their totals per currency.
+     *
+     * @param portfolioId the portfolio
+     * @param from first day of the series (inclusive, UTC)
+     * @param to last day of the series (inclusive, UTC)
+     * @param interval spacing of the points
+     * @return the series
+     * @throws IllegalArgumentException if {@code from} is after {@code to} or the range has
+     *         more than {@link #MAX_POINTS} points
+     */
+    @Transactional(readOnly = true)
+    public BalanceSeriesDto getBalanceSeries(Long portfolioId, LocalDate from, LocalDate to, BalanceSeriesInterval interval) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (countPoints(from, to, interval) > MAX_POINTS) {
+            throw new IllegalArgumentException("Too many points: at most " + MAX_POINTS + " per series");
+        }
+
+        List<LiquidityAccount> accounts = liquidityAccountRepository.findByPortfolioId(portfolioId);
+        Instant start = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant end = to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+        // Opening balances exclude operations at the start instant itself (dates have microsecond precision)
+        Instant beforeStart = start.minus(1, ChronoUnit.MICROS);
+        Map<Long, Integer> indexById = new HashMap<>();
+        BigDecimal[] balances = new BigDecimal[accounts.size()];
+        List<List<BalanceSeriesDto.Point>> points = new ArrayList<>(accounts.size());
+        for (int i = 0; i < accounts.size(); i++) {
+            LiquidityAccount account = accounts.get(i);
+            indexById.put(account.getId(), i);
+            balances[i] = balanceHistoryService.getBalanceAt(account, beforeStart);
+            points.add(new ArrayList<>());
+        }
+        Map<Currency, List<BalanceSeriesDto.Point>> totals = new EnumMap<>(Currency.class);
+
+        LocalDate periodStart = from;
+        Instant periodEnd = periodEnd(periodStart, to, interval);
+        try (Stream<BalanceMovement> cashMovements = cashMovementRepository.streamBalanceMovementsByPortfolioId(portfolioId, start, end);
+             Stream<BalanceMovement> transfers = transferRepository.streamBalanceMovementsByPortfolioId(portfolioId, start, end)) {
+            Iterator<BalanceMovement> left = cashMovements.iterator();
+            Iterator<BalanceMovement> right = transfers.iterator();
+            BalanceMovement nextLeft = left.hasNext() ? left.next() : null;
+            BalanceMovement nextRight = right.hasNext() ? right.next() : null;
+            while (nextLeft != null || nextRight != null) {
+                BalanceMovement movement;
+                if (nextRight == null || (nextLeft != null && FOLD_ORDER.compare(nextLeft, nextRight) <= 0)) {
+                    movement = nextLeft;
+                    nextLeft = left.hasNext() ? left.next() : null;
+                } else {
+                    movement = nextRight;
+                    nextRight = right.hasNext() ? right.next() : null;
+                }
+                while (!movement.date().isBefore(periodEnd)) {
+                    emit(periodStart, accounts, balances, points, totals);
+                    periodStart = interval.next(interval.periodStart(periodStart));
+                    periodEnd = periodEnd(periodStart, to, interval);
+                }
+                apply(movement, indexById, balances);
+            }
+        }
+        while (!periodStart.isAfter(to)) {
+            emit(periodStart, accounts, balances, points, totals);
+            periodStart = interval.next(interval.periodStart(periodStart));
+        }
+
+        List<BalanceSeriesDto.AccountSeries> accountSeries = new ArrayList<>(accounts.size());
+        for (int i = 0; i < accounts.size(); i++) {
+            LiquidityAccount account = accounts.get(i);
+            accountSeries.add(new BalanceSeriesDto.AccountSeries(
+                    account.getId(), account.getName(), account.getCurrency(), points.get(i)));
+        }
+        List<BalanceSeriesDto.CurrencySeries> currencySeries = totals.entrySet().stream()
+                .map(entry -> new BalanceSeriesDto.CurrencySeries(entry.getKey(), entry.getValue()))
+                .toList();
+        return new BalanceSeriesDto(interval, from, to, accountSeries, currencySeries);
+    }
+
+    /**
+     * Returns the end (exclusive) of the period starting at {@code periodStart}, clipped to the end of {@code to}.
+     */
+    private static Instant periodEnd(LocalDate periodStart, LocalDate to, BalanceSeriesInterval interval) {
+        LocalDate next = interval.next(interval.periodStart(periodStart));
+        LocalDate last = to.plusDays(1);
+        return (next.isAfter(last) ? last : next).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    /**
+     * Counts the periods overlapping {@code [from, to]}.
+     */
+    static long countPoints(LocalDate from, LocalDate to, BalanceSeriesInterval interval) {
+        LocalDate first = interval.periodStart(from);
+        LocalDate last = interval.periodStart(to);
+        return switch (interval) {
+            case DAY -> ChronoUnit.DAYS.between(first, last) + 1;
+            case WEEK -> ChronoUnit.WEEKS.between(first, last) + 1;
+            case MONTH -> ChronoUnit.MONTHS.between(first, last) + 1;
+        };
+    }
+
+    private static void apply(BalanceMovement movement, Map<Long, Integer> indexById, BigDecimal[] balances) {
+        Integer from = movement.fromAccountId() == null ? null : indexById.get(movement.fromAccountId());
+        if (from != null) {
+            balances[from] = balances[from].subtract(movement.amount());
+        }
+        Integer to = movement.toAccountId() == null ? null : indexById.get(movement.toAccountId());
+        if (to != null) {
+            balances[to] = balances[to].add(movement.amount());
+        }
+    }
+
+    private static void emit(LocalDate date, List<LiquidityAccount> accounts, BigDecimal[] balances,
+                             List<List<BalanceSeriesDto.Point>> points,
+                             Map<Currency, List<BalanceSeriesDto.Point>> totals) {
+        Map<Currency, BigDecimal> sums = new EnumMap<>(Currency.class);
+        for (int i = 0; i < accounts.size(); i++) {
+            points.get(i).add(new BalanceSeriesDto.Point(date, balances[i]));
+            sums.merge(accounts.get(i).getCurrency(), balances[i], BigDecimal::add);
+        }
+        sums.forEach((currency, sum) ->
+                totals.computeIfAbsent(currency, c -> new ArrayList<>()).add(new BalanceSeriesDto.Point(date, sum)));
+    }
+}
@@ -0,0 +1,287 @@
+package com.giuseppesica.maney.account.liquidityaccount.service;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceCheckpointRepository;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntry;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntryKind;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntryRepository;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerSnapshot;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerSnapshotRepository;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.liquidityaccount.model.LockedBalance;
+import com.giuseppesica.maney.security.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Service deriving liquidity account balances from their {@link LedgerEntry ledger}.
+ *
+ * <p>Balance changes are appended to the ledger by {@link LiquidityAccountService} in the
+ * transaction that writes them. The balance of an account is its latest
+ * {@link LedgerSnapshot} plus the entries appended since, so deriving it replays only the
+ * recent tail of the ledger.</p>
+ *
+ * <p><strong>Maintenance:</strong></p>
+ * <ul>
+ *   <li>{@link #snapshotAll()} runs nightly (cron {@code maney.ledger.snapshot-cron},
+ *       {@code -} to disable) and snapshots every account with new entries</li>
+ *   <li>{@link #rebuildAllBalances()} recomputes every stored balance from the ledger, on
+ *       {@code maney.ledger.rebuild-parallelism} threads, and corrects the ones that drifted.
+ *       It runs at startup when {@code maney.ledger.rebuild=true}, see
+ *       {@link com.giuseppesica.maney.config.LedgerRebuildRunner}</li>
+ * </ul>
+ *
+ * <p><strong>Accounts without a ledger:</strong> Accounts created before the ledger existed
+ * get their first entries the first time they are snapshotted or rebuilt: a history entry
+ * with the effect of the operations not yet in the ledger, and an opening entry with the rest
+ * of the stored balance.</p>
+ *
+ * @see LedgerEntry
+ * @see LedgerSnapshot
+ */
+@Service
+public class LedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerService.class);
+
+    /**
+     * Number of account IDs read per page by the jobs that walk every account.
+     */
+    static final int PAGE_SIZE = 500;
+
+    private final LiquidityAccountRepository liquidityAccountRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerSnapshotRepository ledgerSnapshotRepository;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final BalanceHistoryService balanceHistoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildParallelism;
+
+    /**
+     * Result of a rebuild of every account balance.
+     *
+     * @param accounts number of accounts rebuilt
+     * @param corrected number of accounts whose stored balance differed from the ledger
+     * @param failed number of accounts that could not be rebuilt
+     */
+    public record RebuildResult(int accounts, int corrected, int failed) {
+    }
+
+    /**
+     * Constructs the service with required dependencies.
+     *
+     * @param liquidityAccountRepository repository for account balances and row locks
+     * @param ledgerEntryRepository repository for ledger entries
+     * @param ledgerSnapshotRepository repository for ledger snapshots
+     * @param balanceCheckpointRepository repository for the balance checkpoints discarded by a correction
+     * @param balanceHistoryService service summing the operations of accounts opened before the ledger
+     * @param transactionTemplate template running one transaction per account
+     * @param rebuildParallelism number of accounts rebuilt concurrently
+     */
+    public LedgerService(LiquidityAccountRepository liquidityAccountRepository,
+                         LedgerEntryRepository ledgerEntryRepository,
+                         LedgerSnapshotRepository ledgerSnapshotRepository,
+                         BalanceCheckpointRepository balanceCheckpointRepository,
+                         BalanceHistoryService balanceHistoryService,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${maney.ledger.rebuild-parallelism:4}") int rebuildParallelism) {
+        if (rebuildParallelism < 1) {
+            throw new IllegalArgumentException("maney.ledger.rebuild-parallelism must be at least 1");
+        }
+        this.liquidityAccountRepository = liquidityAccountRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.ledgerSnapshotRepository = ledgerSnapshotRepository;
+        this.balanceCheckpointRepository = balanceCheckpointRepository;
+        this.balanceHistoryService = balanceHistoryService;
+        this.transactionTemplate = transactionTemplate;
+        this.rebuildParallelism = rebuildParallelism;
+    }
+
+    /**
+     * Derives the balance of an account from its latest snapshot and the entries after it.
+     *
+     * @param accountId the liquidity account ID
+     * @return the balance according to the ledger
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getLedgerBalance(Long accountId) {
+        Optional<LedgerSnapshot> snapshot = ledgerSnapshotRepository.findFirstByAccountIdOrderBySeqDesc(accountId);
+        BigDecimal base = snapshot.map(LedgerSnapshot::getBalance).orElse(BigDecimal.ZERO);
+        long afterSeq = snapshot.map(LedgerSnapshot::getSeq).orElse(LedgerEntry.HISTORY_SEQ - 1);
+        return base.add(ledgerEntryRepository.sumDeltasAfter(accountId, afterSeq));
+    }
+
+    /**
+     * Snapshots every liquidity account with entries since its latest snapshot.
+     *
+     * <p>Account IDs are read in pages of {@value #PAGE_SIZE} by keyset, so no account
+     * entity is loaded. Each account is snapshotted in its own transaction; a failure on
+     * one account is logged and does not stop the others.</p>
+     */
+    @Scheduled(cron = "${maney.ledger.snapshot-cron:0 0 4 * * *}", zone = "UTC")
+    public void snapshotAll() {
+        int written = 0;
+        List<Long> page = liquidityAccountRepository.findIdsAfter(0L, Limit.of(PAGE_SIZE));
+        while (!page.isEmpty()) {
+            for (Long accountId : page) {
+                try {
+                    Boolean taken = transactionTemplate.execute(status -> snapshot(accountId));
+                    written += Boolean.TRUE.equals(taken) ? 1 : 0;
+                } catch (RuntimeException e) {
+                    logger.warn("Could not snapshot the ledger of account {}: {}", accountId, e.getMessage());
+                }
+            }
+            page = liquidityAccountRepository.findIdsAfter(page.get(page.size() - 1), Limit.of(PAGE_SIZE));
+        }
+        logger.info("Ledger snapshot wrote {} snapshots", written);
+    }
+
+    /**
+     * Snapshots the ledger of an account, if it has entries since its latest snapshot.
+     *
+     * <p>The account row is locked for the duration, so every entry up to the current
+     * version is committed and included. Older snapshots are deleted.</p>
+     *
+     * @param accountId the liquidity account ID
+     * @return true if a snapshot was written
+     * @throws NotFoundException if the account doesn't exist
+     */
+    @Transactional
+    public boolean snapshot(Long accountId) {
+        LockedBalance locked = liquidityAccountRepository.lockBalanceAndVersion(accountId)
+                .orElseThrow(() -> new NotFoundException("Liquidity account not found"));
+        BigDecimal stored = locked.balance();
+        long version = locked.version();
+        ensureOpening(accountId, stored);
+        return writeSnapshot(accountId, version, getLedgerBalance(accountId));
+    }
+
+    /**
+     * Recomputes every stored account balance from the ledger, several accounts at a time.
+     *
+     * <p>Each account is rebuilt in its own transaction by one of
+     * {@code maney.ledger.rebuild-parallelism} threads, each holding one database connection.
+     * Accounts lock only their own row, so they never wait on each other; operations on an
+     * account wait for its rebuild to commit. A failure on one account is logged and does
+     * not stop the others.</p>
+     *
+     * <p>Account IDs are read in pages of {@value #PAGE_SIZE} by keyset; a page is rebuilt
+     * before the next one is read, so only one page of IDs and results is held at a time.</p>
+     *
+     * @return counts of rebuilt, corrected and failed accounts
+     */
+    public RebuildResult rebuildAllBalances() {
+        long startedAt = System.nanoTime();
+        int accounts = 0;
+        int corrected = 0;
+        int failed = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(rebuildParallelism)) {
+            List<Long> page = liquidityAccountRepository.findIdsAfter(0L, Limit.of(PAGE_SIZE));
+            while (!page.isEmpty()) {
+                List<Future<Boolean>> results = new ArrayList<>(page.size());
+                for (Long accountId : page) {
+                    results.add(executor.submit(() -> transactionTemplate.execute(status -> rebuildBalance(accountId))));
+                }
+                for (int i = 0; i < results.size(); i++) {
+                    try {
+                        corrected += Boolean.TRUE.equals(results.get(i).get()) ? 1 : 0;
+                    } catch (ExecutionException e) {
+                        failed++;
+                        logger.warn("Could not rebuild the balance of account {}: {}", page.get(i), e.getCause().getMessage());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Balance rebuild interrupted", e);
+                    }
+                }
+                accounts += page.size();
+                page = liquidityAccountRepository.findIdsAfter(page.get(page.size() - 1), Limit.of(PAGE_SIZE));
+            }
+        }
+        logger.info("Balance rebuild checked {} accounts in {} ms: {} corrected, {} failed",
+                accounts, (System.nanoTime() - startedAt) / 1_000_000, corrected, failed);
+        return new RebuildResult(accounts, corrected, failed);
+    }
+
+    /**
+     * Recomputes the stored balance of an account from its ledger.
+     *
+     * <p>If the stored balance differs from the ledger it is overwritten, without changing
+     * the row version, and the balance checkpoints of the account are deleted so that they
+     * are recomputed from the corrected balance. A fresh snapshot is written either way.</p>
+     *
+     * @param accountId the liquidity account ID
+     * @return true if the stored balance was corrected
+     * @throws NotFoundException if the account doesn't exist
+     */
+    @Transactional
+    public boolean rebuildBalance(Long accountId) {
+        LockedBalance locked = liquidityAccountRepository.lockBalanceAndVersion(accountId)
+                .orElseThrow(() -> new NotFoundException("Liquidity account not found"));
+        BigDecimal stored = locked.balance();
+        long version = locked.version();
+        ensureOpening(accountId, stored);
+
+        BigDecimal derived = getLedgerBalance(accountId);
+        boolean corrected = derived.compareTo(stored) != 0;
+        if (corrected) {
+            logger.warn("Balance of account {} was {} but its ledger sums to {}, correcting", accountId, stored, derived);
+            liquidityAccountRepository.overwriteBalance(accountId, derived);
+            balanceCheckpointRepository.deleteByAccountId(accountId);
+        }
+        writeSnapshot(accountId, version, derived);
+        return corrected;
+    }
+
+    /**
+     * Appends the first entries of an account created before the ledger existed, so that its
+     * entries sum to its stored balance and its operation entries to the effect of its
+     * operations. Must be called with the account row locked.
+     */
+    private void ensureOpening(Long accountId, BigDecimal stored) {
+        if (ledgerEntryRepository.existsByAccountIdAndKind(accountId, LedgerEntryKind.OPENING)) {
+            return;
+        }
+        LiquidityAccount account = liquidityAccountRepository.getReferenceById(accountId);
+        Instant now = Instant.now();
+        BigDecimal operations = balanceHistoryService.sumAllOperations(List.of(accountId)).get(accountId);
+        BigDecimal history = operations.subtract(ledgerEntryRepository.sumDeltasByKind(accountId, LedgerEntryKind.OPERATION));
+        BigDecimal opening = stored.subtract(ledgerEntryRepository.sumDeltasAfter(accountId, LedgerEntry.HISTORY_SEQ - 1)).subtract(history);
+        if (history.signum() != 0) {
+            ledgerEntryRepository.save(new LedgerEntry(account, LedgerEntry.HISTORY_SEQ, LedgerEntryKind.HISTORY, history, now));
+        }
+        ledgerEntryRepository.save(new LedgerEntry(account, LedgerEntry.OPENING_SEQ, LedgerEntryKind.OPENING, opening, now));
+        ledgerEntryRepository.flush();
+        logger.info("Ledger of account {} opened with {} and {} of earlier operations", accountId, opening, history);
+    }
+
+    /**
+     * Stores a snapshot at {@code version} and deletes the older ones, unless the latest
+     * snapshot is already at that version.
+     */
+    private boolean writeSnapshot(Long accountId, long version, BigDecimal balance) {
+        Optional<LedgerSnapshot> latest = ledgerSnapshotRepository.findFirstByAccountIdOrderBySeqDesc(accountId);
+        if (latest.isPresent() && latest.get().getSeq() == version) {
+            return false;
+        }
+        ledgerSnapshotRepository.save(new LedgerSnapshot(liquidityAccountRepository.getReferenceById(accountId),
+                version, balance, Instant.now()));
+        ledgerSnapshotRepository.deleteByAccountIdBefore(accountId, version);
+        return true;
+    }
+}
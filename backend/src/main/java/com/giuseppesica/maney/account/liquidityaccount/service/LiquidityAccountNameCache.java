@@ -0,0 +1,102 @@
+package com.giuseppesica.maney.account.liquidityaccount.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory cache mapping liquidity account names to IDs, per portfolio.
+ *
+ * <p>Cash movements and transfers reference accounts by name, so every write resolves one
+ * or two names. With the ID cached, the account is loaded by primary key, which is free
+ * when it is already in the persistence context and a single point query otherwise.</p>
+ *
+ * <p><strong>Bounds:</strong> At most {@link #MAX_PORTFOLIOS} portfolios are kept, evicting
+ * the least recently used one; each portfolio keeps at most {@link #MAX_NAMES_PER_PORTFOLIO}
+ * names.</p>
+ *
+ * <p><strong>Consistency:</strong> Entries are evicted when an account is renamed or
+ * deleted. Callers must still check that the account loaded through a cached ID has the
+ * requested portfolio and name, since a rename committed by another instance of the
+ * application is not seen here. Only hits are cached; unknown names always reach the
+ * database.</p>
+ *
+ * @see LiquidityAccountService#getLiquidityAccountByPortfolioIdAndName(Long, String)
+ */
+@Component
+public class LiquidityAccountNameCache {
+
+    /**
+     * Maximum number of portfolios whose names are cached.
+     */
+    static final int MAX_PORTFOLIOS = 10_000;
+
+    /**
+     * Maximum number of cached names per portfolio.
+     */
+    static final int MAX_NAMES_PER_PORTFOLIO = 256;
+
+    private final Map<Long, Map<String, Long>> portfolios = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Map<String, Long>> eldest) {
+                    return size() > MAX_PORTFOLIOS;
+                }
+            });
+
+    /**
+     * Returns the cached account ID for a name.
+     *
+     * @param portfolioId the portfolio the account belongs to
+     * @param name the account name
+     * @return the cached ID, or {@code null} if not cached
+     */
+    public Long get(Long portfolioId, String name) {
+        Map<String, Long> names = portfolios.get(portfolioId);
+        return names == null ? null : names.get(name);
+    }
+
+    /**
+     * Caches the ID of an account.
+     *
+     * @param portfolioId the portfolio the account belongs to
+     * @param name the account name
+     * @param accountId the account ID
+     */
+    public void put(Long portfolioId, String name, Long accountId) {
+        Map<String, Long> names = portfolios.computeIfAbsent(portfolioId, id -> new ConcurrentHashMap<>());
+        if (names.size() >= MAX_NAMES_PER_PORTFOLIO && !names.containsKey(name)) {
+            names.clear();
+        }
+        names.put(name, accountId);
+    }
+
+    /**
+     * Removes a single name, e.g. after it resolved to a stale account.
+     *
+     * @param portfolioId the portfolio the account belongs to
+     * @param name the account name
+     */
+    public void evict(Long portfolioId, String name) {
+        Map<String, Long> names = portfolios.get(portfolioId);
+        if (names != null) {
+            names.remove(name);
+        }
+    }
+
+    /**
+     * Removes every name cached for an account, after it was renamed or deleted.
+     *
+     * @param portfolioId the portfolio the account belongs to
+     * @param accountId the account ID
+     */
+    public void evictAccount(Long portfolioId, Long accountId) {
+        Map<String, Long> names = portfolios.get(portfolioId);
+        if (names != null) {
+            names.values().removeIf(accountId::equals);
+        }
+    }
+}
@@ -2,17 +2,31 @@ package com.giuseppesica.maney.account.liquidityaccount.service;
 
 import com.giuseppesica.maney.account.liquidityaccount.controller.LiquidityAccountController;
 import com.giuseppesica.maney.account.liquidityaccount.dto.LiquidityAccountDto;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceCheckpointRepository;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntry;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntryKind;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntryRepository;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerSnapshotRepository;
 import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
 import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
 import com.giuseppesica.maney.portfolio.model.Portfolio;
 import com.giuseppesica.maney.portfolio.model.PortfolioRepository;
 import com.giuseppesica.maney.utils.CashMovementType;
 import com.giuseppesica.maney.security.NotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * Service layer for liquidity account business logic.
@@ -21,7 +35,9 @@ import java.util.Optional;
  * <ul>
  *   <li>CRUD operations (create, read, update, delete)</li>
  *   <li>Account lookups by portfolio and name</li>
- *   <li>Balance updates triggered by cash movements and transfers</li>
+ *   <li>Atomic balance deltas triggered by cash movements and transfers</li>
+ *   <li>Appending every balance change to the account {@link LedgerEntry ledger}</li>
+ *   <li>Invalidation of the balance checkpoints affected by those operations</li>
  *   <li>Portfolio ownership validation</li>
  * </ul>
  *
@@ -42,16 +58,32 @@ public class LiquidityAccountService {
 
     private final LiquidityAccountRepository liquidityAccountRepository;
     private final PortfolioRepository portfolioRepository;
+    private final LiquidityAccountNameCache liquidityAccountNameCache;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerSnapshotRepository ledgerSnapshotRepository;
 
     /**
      * Constructs the service with required repository dependencies.
      *
      * @param liquidityAccountRepository repository for account persistence
      * @param portfolioRepository repository for portfolio validation
+     * @param liquidityAccountNameCache cache of account IDs by portfolio and name
+     * @param balanceCheckpointRepository repository for balance checkpoints
+     * @param ledgerEntryRepository repository appending balance changes to the ledger
+     * @param ledgerSnapshotRepository repository for ledger snapshots
      */
-    public LiquidityAccountService(LiquidityAccountRepository liquidityAccountRepository, PortfolioRepository portfolioRepository) {
+    public LiquidityAccountService(LiquidityAccountRepository liquidityAccountRepository, PortfolioRepository portfolioRepository,
+                                   LiquidityAccountNameCache liquidityAccountNameCache,
+                                   BalanceCheckpointRepository balanceCheckpointRepository,
+                                   LedgerEntryRepository ledgerEntryRepository,
+                                   LedgerSnapshotRepository ledgerSnapshotRepository) {
         this.liquidityAccountRepository = liquidityAccountRepository;
         this.portfolioRepository = portfolioRepository;
+        this.liquidityAccountNameCache = liquidityAccountNameCache;
+        this.balanceCheckpointRepository = balanceCheckpointRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.ledgerSnapshotRepository = ledgerSnapshotRepository;
     }
 
     /**
@@ -68,6 +100,8 @@ public class LiquidityAccountService {
      *   <li>Attach persisted portfolio to account</li>
      * </ol>
      *
+     * <p>A new account gets its opening balance as the first ledger entry.</p>
+     *
      * @param liquidityAccount the account to save (new or existing)
      * @return the persisted account with generated ID if new
      * @throws NotFoundException if portfolio is null, has no ID, or doesn't exist
@@ -80,7 +114,12 @@ public class LiquidityAccountService {
         Portfolio persistedPortfolio = portfolioRepository.findById(portfolioId)
                 .orElseThrow(() -> new NotFoundException("Portfolio not found"));
         liquidityAccount.setPortfolio(persistedPortfolio);
-        return liquidityAccountRepository.save(liquidityAccount);
+        boolean isNew = liquidityAccount.getId() == null;
+        LiquidityAccount saved = liquidityAccountRepository.save(liquidityAccount);
+        if (isNew) {
+            ledgerEntryRepository.save(new LedgerEntry(saved, LedgerEntry.OPENING_SEQ, LedgerEntryKind.OPENING, saved.getBalance(), Instant.now()));
+        }
+        return saved;
     }
 
     /**
@@ -97,6 +136,18 @@ public class LiquidityAccountService {
         return accounts.stream().map(LiquidityAccountDto::new).toList();
     }
 
+    /**
+     * Retrieves all liquidity account entities of a portfolio.
+     *
+     * <p>Used by bulk operations that resolve many account references at once.</p>
+     *
+     * @param portfolioId the portfolio ID to query
+     * @return list of accounts (empty if portfolio has no accounts)
+     */
+    public List<LiquidityAccount> getLiquidityAccountsByPortfolioId(Long portfolioId) {
+        return liquidityAccountRepository.findByPortfolioId(portfolioId);
+    }
+
     /**
      * Retrieves a liquidity account by its ID.
      *
@@ -111,16 +162,30 @@ public class LiquidityAccountService {
      * Updates an existing liquidity account with new data.
      *
      * <p>Replaces all mutable fields with values from the DTO. The portfolio
-     * relationship is not updated by this method.</p>
+     * relationship is not updated by this method. A rename evicts the account from
+     * the {@link LiquidityAccountNameCache}.</p>
+     *
+     * <p>A balance change is written as a compare-and-set on the row version: the version
+     * sent by the client if present, otherwise the one just read. If a cash movement or
+     * transfer changed the balance in the meantime, the update is rejected rather than
+     * silently discarding that change. The balance checkpoints of the account are shifted
+     * by the same amount, since a manual edit corrects the whole history of the account, and
+     * the difference is appended to the ledger as an adjustment.</p>
      *
      * @param id the liquidity account ID to update
      * @param dto DTO containing new field values
      * @return the updated and persisted account
      * @throws NotFoundException if account with given ID doesn't exist
+     * @throws OptimisticLockingFailureException if the balance was modified concurrently
      */
+    @Transactional
     public LiquidityAccount updateLiquidityAccount(Long id, LiquidityAccountDto dto) {
         LiquidityAccount account = liquidityAccountRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Liquidity account not found"));
+        long expectedVersion = dto.getVersion() != null ? dto.getVersion() : account.getVersion();
+        if (!Objects.equals(account.getName(), dto.getName())) {
+            liquidityAccountNameCache.evictAccount(account.getPortfolio().getId(), id);
+        }
 
         // Update fields from Account base class
         account.setName(dto.getName());
@@ -130,10 +195,23 @@ public class LiquidityAccountService {
         account.setNote(dto.getNote());
 
         // Update fields specific to LiquidityAccount
-        account.setBalance(dto.getBalance());
         account.setCurrency(dto.getCurrency());
+        LiquidityAccount saved = liquidityAccountRepository.save(account);
 
-        return liquidityAccountRepository.save(account);
+        // Balance is not updatable through the entity, see LiquidityAccount
+        if (dto.getBalance().compareTo(saved.getBalance()) != 0 || expectedVersion != saved.getVersion()) {
+            if (liquidityAccountRepository.setBalance(id, dto.getBalance(), expectedVersion) == 0) {
+                throw new OptimisticLockingFailureException("Liquidity account balance was modified concurrently");
+            }
+            BigDecimal adjustment = dto.getBalance().subtract(saved.getBalance());
+            balanceCheckpointRepository.shiftBalances(id, adjustment);
+            if (adjustment.signum() != 0) {
+                ledgerEntryRepository.append(id, LedgerEntryKind.ADJUSTMENT.name(), adjustment, Instant.now());
+            }
+            saved.setBalance(dto.getBalance());
+            saved.setVersion(expectedVersion + 1);
+        }
+        return saved;
     }
 
     /**
@@ -142,14 +220,21 @@ public class LiquidityAccountService {
      * <p><strong>Warning:</strong> This operation cannot be undone. All transaction
      * history referencing this account may become orphaned.</p>
      *
+     * <p>The account is evicted from the {@link LiquidityAccountNameCache} and its balance
+     * checkpoints and ledger are deleted with it.</p>
+     *
      * @param id the liquidity account ID to delete
      * @throws NotFoundException if account doesn't exist
      */
+    @Transactional
     public void deleteLiquidityAccount(Long id) {
-        if (!liquidityAccountRepository.existsById(id)) {
-            throw new NotFoundException("Liquidity account not found");
-        }
-        liquidityAccountRepository.deleteById(id);
+        LiquidityAccount account = liquidityAccountRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Liquidity account not found"));
+        balanceCheckpointRepository.deleteByAccountId(id);
+        ledgerSnapshotRepository.deleteByAccountId(id);
+        ledgerEntryRepository.deleteByAccountId(id);
+        liquidityAccountRepository.delete(account);
+        liquidityAccountNameCache.evictAccount(account.getPortfolio().getId(), id);
     }
 
     /**
@@ -158,26 +243,38 @@ public class LiquidityAccountService {
      * <p>Used primarily by transfer and cash movement operations to resolve
      * account references from user-friendly names rather than IDs.</p>
      *
-     * <p>This method performs an in-memory filter rather than a database query.
-     * For large portfolios, consider adding a custom repository query.</p>
+     * <p><strong>Lookup:</strong> If the {@link LiquidityAccountNameCache} knows the ID, the
+     * account is loaded by primary key (no query at all if it is already in the persistence
+     * context) and checked to still have the requested portfolio and name. Otherwise a single
+     * query on the {@code uk_account_portfolio_name} unique index resolves it and the ID is
+     * cached.</p>
      *
      * @param portfolioId the portfolio to search within
      * @param name exact account name to match (case-sensitive)
      * @return Optional containing the account if found, empty otherwise
      */
     public Optional<LiquidityAccount> getLiquidityAccountByPortfolioIdAndName(Long portfolioId, String name) {
-        return liquidityAccountRepository.findByPortfolioId(portfolioId)
-                .stream()
-                .filter(account -> account.getName().equals(name))
-                .findFirst();
+        Long cachedId = liquidityAccountNameCache.get(portfolioId, name);
+        if (cachedId != null) {
+            Optional<LiquidityAccount> cached = liquidityAccountRepository.findById(cachedId)
+                    .filter(account -> account.getPortfolio().getId() == portfolioId && account.getName().equals(name));
+            if (cached.isPresent()) {
+                return cached;
+            }
+            liquidityAccountNameCache.evict(portfolioId, name);
+        }
+        Optional<LiquidityAccount> account = liquidityAccountRepository.findByPortfolioIdAndName(portfolioId, name);
+        account.ifPresent(found -> liquidityAccountNameCache.put(portfolioId, name, found.getId()));
+        return account;
     }
 
     /**
      * Updates an account balance based on a cash movement.
      *
      * <p>This method is called by cash movement operations to apply income/outcome
-     * effects to the account balance. The account object is modified in-place and
-     * then persisted.</p>
+     * effects to the account balance. The effect is applied atomically in the database
+     * through {@link #applyBalanceDelta(Long, Long, BigDecimal)}; the account object is only
+     * used for its ID and is <em>not</em> modified.</p>
      *
      * <p><strong>Balance Changes:</strong></p>
      * <ul>
@@ -185,25 +282,118 @@ public class LiquidityAccountService {
      *   <li>OUTCOME: balance = balance - amount</li>
      * </ul>
      *
-     * <p><strong>Note:</strong> The account parameter must be a managed entity
-     * or detached entity with a valid ID. For best results, call within a
-     * transactional context.</p>
-     *
-     * @param liquidityAccount the account to update (modified in-place)
+     * @param liquidityAccount the account to update (must have a valid ID)
+     * @param operationId the cash movement the change belongs to, recorded in the ledger
      * @param amount the movement amount (must be positive)
      * @param type movement type (INCOME or OUTCOME)
      * @throws IllegalArgumentException if type is null or invalid
+     * @throws NotFoundException if the account no longer exists
      */
-    public void updateLiquidityAccount(LiquidityAccount liquidityAccount, BigDecimal amount, CashMovementType type) {
-        BigDecimal updatedBalance;
-        if (type == CashMovementType.INCOME) {
-            updatedBalance = liquidityAccount.getBalance().add(amount);
-        } else if (type == CashMovementType.OUTCOME) {
-            updatedBalance = liquidityAccount.getBalance().subtract(amount);
-        } else {
+    @Transactional
+    public void updateLiquidityAccount(LiquidityAccount liquidityAccount, Long operationId, BigDecimal amount,
+                                       CashMovementType type) {
+        if (type == null) {
             throw new IllegalArgumentException("Invalid Cash Movement Type");
         }
-        liquidityAccount.setBalance(updatedBalance);
-        liquidityAccountRepository.save(liquidityAccount);
+        applyBalanceDelta(liquidityAccount.getId(), operationId, type.signed(amount));
+    }
+
+    /**
+     * Atomically adds a signed delta to an account balance.
+     *
+     * <p>Issues a single {@code UPDATE ... SET balance = balance + ?} statement, so
+     * concurrent cash movements and transfers on the same account never lose an update.
+     * The delta is then appended to the account ledger with the operation it belongs to,
+     * sequenced by the row version the UPDATE produced. A zero delta is a no-op and issues
+     * no statement.</p>
+     *
+     * @param accountId the liquidity account ID
+     * @param operationId the cash movement or transfer the change belongs to
+     * @param delta the signed amount to add (negative to debit)
+     * @throws NotFoundException if the account doesn't exist
+     */
+    @Transactional
+    public void applyBalanceDelta(Long accountId, Long operationId, BigDecimal delta) {
+        applyOperationDeltas(accountId, Map.of(operationId, delta));
+    }
+
+    /**
+     * Atomically applies the balance deltas of a change to several accounts and discards the
+     * balance checkpoints it invalidates, in one transaction.
+     *
+     * <p>Every account involved is handled once, in ascending account ID order: the deltas
+     * of all its operations are applied with one UPDATE, which locks the row, and appended
+     * to its ledger as one entry per operation, then its checkpoints since the given date
+     * are deleted (see {@link #invalidateBalanceHistory(Long, Instant)}). An account none of
+     * whose operations changes its balance gets no UPDATE, but its row is still locked at
+     * its place in that order if its checkpoints are invalidated. Two transactions touching
+     * the same accounts therefore always lock their rows in the same order and cannot
+     * deadlock.</p>
+     *
+     * @param deltas signed delta per operation ID, per account ID (zero deltas are not applied)
+     * @param since earliest affected operation date per account ID
+     * @throws NotFoundException if any of the accounts doesn't exist
+     */
+    @Transactional
+    public void applyBalanceDeltas(Map<Long, Map<Long, BigDecimal>> deltas, Map<Long, Instant> since) {
+        SortedSet<Long> accountIds = new TreeSet<>(deltas.keySet());
+        accountIds.addAll(since.keySet());
+        for (Long accountId : accountIds) {
+            Instant from = since.get(accountId);
+            if (applyOperationDeltas(accountId, deltas.getOrDefault(accountId, Map.of()))) {
+                if (from != null) {
+                    balanceCheckpointRepository.deleteByAccountIdSince(accountId, from);
+                }
+            } else if (from != null) {
+                invalidateBalanceHistory(accountId, from);
+            }
+        }
+    }
+
+    /**
+     * Adds the net of the operation deltas of an account to its balance with one UPDATE and
+     * appends one ledger entry per operation, advancing the row version by as many.
+     *
+     * @return false if no operation changes the balance, in which case nothing is written
+     */
+    private boolean applyOperationDeltas(Long accountId, Map<Long, BigDecimal> deltas) {
+        SortedMap<Long, BigDecimal> entries = new TreeMap<>();
+        deltas.forEach((operationId, delta) -> {
+            if (delta.signum() != 0) {
+                entries.put(operationId, delta);
+            }
+        });
+        if (entries.isEmpty()) {
+            return false;
+        }
+        BigDecimal net = entries.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (liquidityAccountRepository.addToBalance(accountId, net, entries.size()) == 0) {
+            throw new NotFoundException("Liquidity account not found");
+        }
+        ledgerEntryRepository.appendOperations(accountId, entries, Instant.now());
+        return true;
+    }
+
+    /**
+     * Discards the balance checkpoints invalidated by a change to an account's history.
+     *
+     * <p>Must be called in the transaction that creates, changes or deletes an operation of
+     * the account, after its balance delta, with the earliest operation date involved (for
+     * an update, the earlier of the old and new dates). Checkpoints at or after that date no
+     * longer match the operations and are deleted; older ones stay valid. The account row is
+     * locked first, so a concurrent checkpoint refresh cannot store a checkpoint computed
+     * without this change.</p>
+     *
+     * @param accountId the liquidity account ID
+     * @param since the earliest operation date affected by the change
+     * @throws NotFoundException if the account doesn't exist
+     * @see BalanceHistoryService
+     */
+    @Transactional
+    public void invalidateBalanceHistory(Long accountId, Instant since) {
+        if (liquidityAccountRepository.lockBalance(accountId).isEmpty()) {
+            throw new NotFoundException("Liquidity account not found");
+        }
+        balanceCheckpointRepository.deleteByAccountIdSince(accountId, since);
     }
 }
@@ -29,6 +29,14 @@ import java.time.Instant;
  * <p><strong>Inheritance Strategy:</strong> Uses default JPA inheritance (SINGLE_TABLE).
  * Subclasses add their specific fields to represent different operation types.</p>
  *
+ * <p><strong>Identifiers:</strong> IDs come from the pooled {@code operation_seq} sequence
+ * ({@value #ID_ALLOCATION_SIZE} values per round trip) rather than an identity column, so
+ * Hibernate knows IDs before inserting and can group inserts into JDBC batches. Bulk imports
+ * rely on this.</p>
+ *
+ * <p><strong>Indexes:</strong> {@code idx_operation_date_id} on {@code (date, id)} backs
+ * chronological keyset pagination of operation listings.</p>
+ *
  * <p><strong>Usage in Reporting:</strong> Operations can be queried across types to
  * build transaction histories, cash flow reports, and financial summaries.</p>
  *
@@ -36,16 +44,25 @@ import java.time.Instant;
  * @see com.giuseppesica.maney.account.operations.transfer.model.Transfer
  */
 @Entity
+@Table(indexes = @Index(name = "idx_operation_date_id", columnList = "date, id"))
 @Inheritance(strategy = InheritanceType.JOINED)
 @Getter
 @Setter
 public abstract class Operation {
+
+    /**
+     * Number of IDs reserved per call to {@code operation_seq}.
+     * Kept equal to the JDBC batch size so a full batch costs a single sequence call.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     /**
      * Unique identifier for this operation.
-     * Auto-generated using database identity strategy.
+     * Generated from the pooled {@code operation_seq} sequence.
      */
     @Id
-    @GeneratedValue(strategy = jakarta.persistence.GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "operation_seq")
+    @SequenceGenerator(name = "operation_seq", sequenceName = "operation_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     /**
@@ -62,5 +79,4 @@ public abstract class Operation {
      */
     private String note;
 
-    
 }
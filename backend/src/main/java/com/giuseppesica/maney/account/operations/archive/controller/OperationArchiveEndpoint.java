@@ -0,0 +1,84 @@
+package com.giuseppesica.maney.account.operations.archive.controller;
+
+import com.giuseppesica.maney.account.operations.archive.model.OperationArchiveSummary;
+import com.giuseppesica.maney.account.operations.archive.service.OperationPartitionService;
+import com.giuseppesica.maney.security.ConflictException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Actuator endpoint restoring archived months of operations while the application runs.
+ *
+ * <p>{@code GET /actuator/operationarchives} lists the archived and restored months;
+ * {@code POST /actuator/operationarchives/2023-01} restores one, after which every listing,
+ * export and report sees its operations again. Like every actuator endpoint but health and
+ * info, it needs the operator account (see
+ * {@link com.giuseppesica.maney.config.SecurityConfig}).</p>
+ *
+ * @see OperationPartitionService#restoreMonth(YearMonth)
+ */
+@Component
+@Endpoint(id = "operationarchives")
+public class OperationArchiveEndpoint {
+
+    private final OperationPartitionService operationPartitionService;
+
+    /**
+     * Outcome of a restore.
+     *
+     * @param month the restored month, as {@code yyyy-MM}
+     * @param restoredOperations number of operations put back in the operation table
+     */
+    public record RestoreResult(String month, int restoredOperations) {
+    }
+
+    /**
+     * Constructs the endpoint.
+     *
+     * @param operationPartitionService service restoring the months
+     */
+    public OperationArchiveEndpoint(OperationPartitionService operationPartitionService) {
+        this.operationPartitionService = operationPartitionService;
+    }
+
+    /**
+     * Lists the archived and restored months.
+     *
+     * @return one summary per month, oldest first
+     */
+    @ReadOperation
+    public List<OperationArchiveSummary> archives() {
+        return operationPartitionService.listArchives();
+    }
+
+    /**
+     * Restores an archived month in its own transaction.
+     *
+     * @param month the month as {@code yyyy-MM}
+     * @return the number of restored operations
+     * @throws IllegalArgumentException if the month is malformed or was already restored
+     * @throws com.giuseppesica.maney.security.NotFoundException if the month was never archived
+     * @throws ConflictException if the operation table isn't partitioned
+     */
+    @WriteOperation
+    public RestoreResult restore(@Selector String month) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid month " + month + ", expected yyyy-MM");
+        }
+        try {
+            return new RestoreResult(yearMonth.toString(), operationPartitionService.restoreMonth(yearMonth));
+        } catch (IllegalStateException e) {
+            throw new ConflictException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.giuseppesica.maney.account.operations.archive.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.giuseppesica.maney.utils.CashMovementType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One operation row with its cash movement or transfer row, as stored in an {@link OperationArchive}.
+ *
+ * <p>Cash movements have {@code accountId} and {@code type} set, transfers have
+ * {@code fromAccountId} and {@code toAccountId} set.</p>
+ *
+ * @param id the operation ID
+ * @param date the operation date
+ * @param note the operation note
+ * @param accountId account of a cash movement
+ * @param categoryId category of a cash movement, may be {@code null}
+ * @param type type of a cash movement
+ * @param fingerprint import fingerprint of a cash movement, may be {@code null}
+ * @param fromAccountId source account of a transfer
+ * @param toAccountId destination account of a transfer
+ * @param amount the amount, always non-negative for cash movements
+ */
+public record ArchivedOperation(Long id, Instant date, String note,
+                                Long accountId, Long categoryId, CashMovementType type, String fingerprint,
+                                Long fromAccountId, Long toAccountId,
+                                BigDecimal amount) {
+
+    /**
+     * @return true for a transfer, false for a cash movement
+     */
+    @JsonIgnore
+    public boolean isTransfer() {
+        return fromAccountId != null;
+    }
+}
@@ -0,0 +1,104 @@
+package com.giuseppesica.maney.account.operations.archive.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One month of operations moved out of the partitioned operation table.
+ *
+ * <p>The payload holds every operation of the month with its cash movement or transfer row,
+ * gzip-compressed (see {@link com.giuseppesica.maney.account.operations.archive.service.OperationArchiveCodec}).
+ * Their balance effect stays available through {@link OperationArchiveTotal}s, so balances and
+ * reconciliation don't need the rows themselves.</p>
+ *
+ * <p><strong>Database Schema:</strong></p>
+ * <ul>
+ *   <li>Table {@code operation_archive}, created by migration {@code V3}</li>
+ *   <li>Unique on {@code month_start}: a month is archived at most once</li>
+ * </ul>
+ *
+ * @see com.giuseppesica.maney.account.operations.archive.service.OperationPartitionService
+ */
+@Entity
+@Table(
+        name = "operation_archive",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_operation_archive_month_start",
+                columnNames = {"month_start"}
+        )
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class OperationArchive {
+
+    /**
+     * Unique identifier for this archive.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * First day of the archived month (UTC).
+     */
+    @NotNull
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    /**
+     * Whether the operations are archived or were restored.
+     */
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OperationArchiveStatus status;
+
+    /**
+     * Number of operations in the payload.
+     */
+    @Column(name = "operation_count", nullable = false)
+    private int operationCount;
+
+    /**
+     * Instant the month was archived.
+     */
+    @NotNull
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    /**
+     * Instant the month was restored, {@code null} while archived.
+     */
+    @Column(name = "restored_at")
+    private Instant restoredAt;
+
+    /**
+     * Compressed rows of the month, {@code null} once restored.
+     */
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "payload")
+    private byte[] payload;
+
+    /**
+     * Creates the archive of a month.
+     *
+     * @param monthStart first day of the month
+     * @param operationCount number of archived operations
+     * @param payload compressed rows
+     * @param archivedAt instant of archival
+     */
+    public OperationArchive(LocalDate monthStart, int operationCount, byte[] payload, Instant archivedAt) {
+        this.monthStart = monthStart;
+        this.status = OperationArchiveStatus.ARCHIVED;
+        this.operationCount = operationCount;
+        this.payload = payload;
+        this.archivedAt = archivedAt;
+    }
+}
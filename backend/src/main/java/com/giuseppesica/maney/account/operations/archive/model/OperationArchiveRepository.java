@@ -0,0 +1,42 @@
+package com.giuseppesica.maney.account.operations.archive.model;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Spring Data JPA repository for {@link OperationArchive} entities.
+ *
+ * @see OperationArchive
+ */
+public interface OperationArchiveRepository extends JpaRepository<OperationArchive, Long> {
+
+    /**
+     * Finds the archive of a month, archived or restored.
+     *
+     * @param monthStart first day of the month
+     * @return Optional containing the archive, empty if the month was never archived
+     */
+    Optional<OperationArchive> findByMonthStart(LocalDate monthStart);
+
+    /**
+     * Checks whether a month was ever archived.
+     *
+     * @param monthStart first day of the month
+     * @return true if the month has an archive, archived or restored
+     */
+    boolean existsByMonthStart(LocalDate monthStart);
+
+    /**
+     * Lists every archive without loading the payloads.
+     *
+     * @return one summary per archived or restored month, oldest month first
+     */
+    @Query("SELECT new com.giuseppesica.maney.account.operations.archive.model.OperationArchiveSummary(" +
+            "a.monthStart, a.status, a.operationCount, a.archivedAt, a.restoredAt) " +
+            "FROM OperationArchive a ORDER BY a.monthStart")
+    List<OperationArchiveSummary> findAllSummaries();
+}
@@ -0,0 +1,17 @@
+package com.giuseppesica.maney.account.operations.archive.model;
+
+/**
+ * State of an {@link OperationArchive}.
+ */
+public enum OperationArchiveStatus {
+
+    /**
+     * The month's operations are only stored in the archive payload.
+     */
+    ARCHIVED,
+
+    /**
+     * The month's operations were put back in the operation table; the month is never archived again.
+     */
+    RESTORED
+}
@@ -0,0 +1,20 @@
+package com.giuseppesica.maney.account.operations.archive.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * An {@link OperationArchive} without its payload. Used by JPQL constructor expressions.
+ *
+ * @param monthStart first day of the archived month
+ * @param status whether the operations are archived or were restored
+ * @param operationCount number of archived operations
+ * @param archivedAt instant the month was archived
+ * @param restoredAt instant the month was restored, {@code null} while archived
+ */
+public record OperationArchiveSummary(LocalDate monthStart,
+                                      OperationArchiveStatus status,
+                                      int operationCount,
+                                      Instant archivedAt,
+                                      Instant restoredAt) {
+}
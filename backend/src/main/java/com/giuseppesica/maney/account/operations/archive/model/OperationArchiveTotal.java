@@ -0,0 +1,90 @@
+package com.giuseppesica.maney.account.operations.archive.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Balance effect of the archived operations of one account in one month.
+ *
+ * <p>Written when a month is archived and deleted when it is restored. Balance computations
+ * add these totals to the sums of the operations still in the operation table.</p>
+ *
+ * <p><strong>Database Schema:</strong></p>
+ * <ul>
+ *   <li>Table {@code operation_archive_total}, created by migration {@code V3}</li>
+ *   <li>Unique on {@code (account_id, month_start)}</li>
+ *   <li>No foreign key to the account: an account whose operations are all archived can be deleted</li>
+ * </ul>
+ *
+ * @see OperationArchive
+ */
+@Entity
+@Table(
+        name = "operation_archive_total",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_operation_archive_total_account_month",
+                columnNames = {"account_id", "month_start"}
+        )
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class OperationArchiveTotal {
+
+    /**
+     * Unique identifier for this total.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The liquidity account ID.
+     */
+    @NotNull
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    /**
+     * First day of the archived month (UTC).
+     */
+    @NotNull
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    /**
+     * Signed sum of the account's archived operations in the month.
+     */
+    @NotNull
+    @Column(nullable = false)
+    private BigDecimal total;
+
+    /**
+     * Part of {@link #total} dated exactly at the start of the month. Balance history sums
+     * operations in {@code (after, until]}, so a range starting at the month start excludes it.
+     */
+    @NotNull
+    @Column(name = "month_start_total", nullable = false)
+    private BigDecimal monthStartTotal;
+
+    /**
+     * Creates a total.
+     *
+     * @param accountId the liquidity account ID
+     * @param monthStart first day of the month
+     * @param total signed sum of the month
+     * @param monthStartTotal signed sum of the operations dated at the month start
+     */
+    public OperationArchiveTotal(Long accountId, LocalDate monthStart, BigDecimal total, BigDecimal monthStartTotal) {
+        this.accountId = accountId;
+        this.monthStart = monthStart;
+        this.total = total;
+        this.monthStartTotal = monthStartTotal;
+    }
+}
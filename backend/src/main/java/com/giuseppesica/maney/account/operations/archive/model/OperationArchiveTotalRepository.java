@@ -0,0 +1,68 @@
+package com.giuseppesica.maney.account.operations.archive.model;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.AccountTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for {@link OperationArchiveTotal} entities.
+ *
+ * @see OperationArchiveTotal
+ */
+public interface OperationArchiveTotalRepository extends JpaRepository<OperationArchiveTotal, Long> {
+
+    /**
+     * Sums the archived totals of an account over a range of months.
+     *
+     * <p>The month equal to {@code openMonth} counts without its {@code monthStartTotal}, the
+     * month equal to {@code closeMonth} counts only its {@code monthStartTotal}. Pass
+     * {@code null} for either to leave it out: the comparison is then never true.</p>
+     *
+     * @param accountId the liquidity account ID
+     * @param firstMonth first day of the first month, inclusive
+     * @param lastMonth first day of the last month, inclusive
+     * @param openMonth first day of the month whose start is excluded, or {@code null}
+     * @param closeMonth first day of the month of which only the start is included, or {@code null}
+     * @return the signed sum (zero if no month is archived in the range)
+     */
+    @Query("SELECT COALESCE(SUM(CASE " +
+            "WHEN t.monthStart = :openMonth THEN t.total - t.monthStartTotal " +
+            "WHEN t.monthStart = :closeMonth THEN t.monthStartTotal " +
+            "ELSE t.total END), 0) " +
+            "FROM OperationArchiveTotal t " +
+            "WHERE t.accountId = :accountId AND t.monthStart BETWEEN :firstMonth AND :lastMonth")
+    BigDecimal sumTotals(@Param("accountId") Long accountId,
+                         @Param("firstMonth") LocalDate firstMonth,
+                         @Param("lastMonth") LocalDate lastMonth,
+                         @Param("openMonth") LocalDate openMonth,
+                         @Param("closeMonth") LocalDate closeMonth);
+
+    /**
+     * Sums all the archived totals of several accounts, per account.
+     *
+     * @param accountIds the liquidity account IDs
+     * @return one total per account with archived operations
+     */
+    @Query("SELECT new com.giuseppesica.maney.account.liquidityaccount.model.AccountTotal(t.accountId, SUM(t.total)) " +
+            "FROM OperationArchiveTotal t " +
+            "WHERE t.accountId IN :accountIds " +
+            "GROUP BY t.accountId")
+    List<AccountTotal> sumTotalsByAccountIds(@Param("accountIds") Collection<Long> accountIds);
+
+    /**
+     * Deletes the totals of a month, when it is restored.
+     *
+     * @param monthStart first day of the month
+     * @return number of deleted totals
+     */
+    @Modifying
+    @Query("DELETE FROM OperationArchiveTotal t WHERE t.monthStart = :monthStart")
+    int deleteByMonthStart(@Param("monthStart") LocalDate monthStart);
+}
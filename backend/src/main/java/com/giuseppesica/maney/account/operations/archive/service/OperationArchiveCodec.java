@@ -0,0 +1,74 @@
+package com.giuseppesica.maney.account.operations.archive.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.giuseppesica.maney.account.operations.archive.model.ArchivedOperation;
+import com.giuseppesica.maney.account.operations.archive.model.OperationArchive;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes the payload of an {@link OperationArchive}: one JSON object per operation and line,
+ * gzip-compressed.
+ *
+ * <p>Rows of a month repeat the same few account IDs, categories and field names, so they
+ * typically compress to a small fraction of their size in the table and its indexes.</p>
+ */
+@Component
+public class OperationArchiveCodec {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs the codec.
+     *
+     * @param objectMapper mapper writing and reading the rows
+     */
+    public OperationArchiveCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Compresses rows into a payload.
+     *
+     * @param operations the rows
+     * @return the payload
+     */
+    public byte[] encode(List<ArchivedOperation> operations) {
+        ObjectWriter writer = objectMapper.writerFor(ArchivedOperation.class);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            for (ArchivedOperation operation : operations) {
+                out.write(writer.writeValueAsBytes(operation));
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode operation archive", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decompresses a payload.
+     *
+     * @param payload the payload written by {@link #encode}
+     * @return the rows, in their original order
+     */
+    public List<ArchivedOperation> decode(byte[] payload) {
+        try (MappingIterator<ArchivedOperation> rows = objectMapper.readerFor(ArchivedOperation.class)
+                .readValues(new GZIPInputStream(new ByteArrayInputStream(payload)))) {
+            return rows.readAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode operation archive", e);
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.giuseppesica.maney.account.operations.archive.service;
+
+import com.giuseppesica.maney.account.operations.archive.model.ArchivedOperation;
+import com.giuseppesica.maney.account.operations.archive.model.OperationArchive;
+import com.giuseppesica.maney.account.operations.archive.model.OperationArchiveRepository;
+import com.giuseppesica.maney.account.operations.archive.model.OperationArchiveStatus;
+import com.giuseppesica.maney.account.operations.archive.model.OperationArchiveSummary;
+import com.giuseppesica.maney.account.operations.archive.model.OperationArchiveTotal;
+import com.giuseppesica.maney.account.operations.archive.model.OperationArchiveTotalRepository;
+import com.giuseppesica.maney.security.NotFoundException;
+import com.giuseppesica.maney.utils.CashMovementType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Service maintaining the monthly partitions of the operation table on PostgreSQL.
+ *
+ * <p>Migration {@code V3} range-partitions {@code operation} by month of its date (UTC), so
+ * queries bounded by date only read the partitions of the months they cover. Operations
+ * dated outside every partition go to {@value #DEFAULT_PARTITION}.</p>
+ *
+ * <p><strong>Maintenance:</strong> {@link #maintainPartitions()} runs daily (cron
+ * {@code maney.operations.partition-cron}, {@code -} to disable). It creates the partitions of
+ * the current month and of the next {@code maney.operations.partitions-ahead} months, and,
+ * when {@code maney.operations.archive-after-months} is positive, archives every older month
+ * that was never archived. A new partition takes over the rows of its month that were in the
+ * default partition.</p>
+ *
+ * <p><strong>Archival:</strong> {@link #archiveMonth} detaches the month's partition, stores
+ * its operations with their cash movement and transfer rows as a compressed
+ * {@link OperationArchive}, records the balance effect per account as
+ * {@link OperationArchiveTotal}s and drops the rows. Balances, balance history and
+ * reconciliation keep counting the archived operations through those totals; listings,
+ * exports and category spending over raw movements no longer see them. Operations later
+ * written with a date in an archived month go to the default partition and stay live.</p>
+ *
+ * <p><strong>Restore:</strong> {@link #restoreMonth} puts an archived month back in the
+ * operation table as a partition, where every query sees it again. Operators restore months
+ * while the application runs through the {@code operationarchives} actuator endpoint, or at
+ * startup with {@code maney.operations.restore}. A restored month is not
+ * archived again. Rows of accounts deleted in the meantime are dropped, and cash movements
+ * whose category was deleted lose their category.</p>
+ *
+ * <p>Other databases (H2 in tests) have an unpartitioned operation table and are skipped.</p>
+ *
+ * @see OperationArchive
+ */
+@Service
+public class OperationPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OperationPartitionService.class);
+
+    /**
+     * Partition holding the operations dated outside every monthly partition.
+     */
+    static final String DEFAULT_PARTITION = "operation_default";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("operation_y(\\d{4})m(\\d{2})");
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String PARTITIONED_SQL =
+            "SELECT COALESCE((SELECT relkind::text FROM pg_class WHERE oid = to_regclass('operation')), '')";
+
+    private static final String LIST_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'operation'::regclass";
+
+    private static final String SELECT_ARCHIVED_SQL =
+            "SELECT o.id, o.date, o.note, cm.account_id, cm.category_id, cm.type, cm.fingerprint, " +
+            "t.from_account_id, t.to_account_id, COALESCE(cm.amount, t.amount) AS amount " +
+            "FROM %s o LEFT JOIN cash_movement cm ON cm.id = o.id LEFT JOIN transfer t ON t.id = o.id " +
+            "ORDER BY o.date, o.id";
+
+    private static final String MOVE_DEFAULT_ROWS_SQL =
+            "WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE date >= ? AND date < ? " +
+            "RETURNING id, date, note) INSERT INTO %s (id, date, note) SELECT id, date, note FROM moved";
+
+    private static final String RESTORE_CASH_MOVEMENT_SQL =
+            "INSERT INTO cash_movement (id, category_id, account_id, amount, type, fingerprint) " +
+            "SELECT ?, (SELECT c.id FROM category c WHERE c.id = ?), la.id, ?, ?, ? " +
+            "FROM liquidity_account la WHERE la.id = ?";
+
+    private static final String RESTORE_TRANSFER_SQL =
+            "INSERT INTO transfer (id, from_account_id, to_account_id, amount) " +
+            "SELECT ?, f.id, d.id, ? FROM liquidity_account f JOIN liquidity_account d ON d.id = ? " +
+            "WHERE f.id = ?";
+
+    private static final String DELETE_ORPHANS_SQL =
+            "DELETE FROM %s o WHERE NOT EXISTS (SELECT 1 FROM cash_movement cm WHERE cm.id = o.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM transfer t WHERE t.id = o.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OperationArchiveRepository operationArchiveRepository;
+    private final OperationArchiveTotalRepository operationArchiveTotalRepository;
+    private final OperationArchiveCodec operationArchiveCodec;
+    private final int partitionsAhead;
+    private final int archiveAfterMonths;
+
+    private volatile Boolean partitioned;
+
+    /**
+     * Constructs the service with required dependencies.
+     *
+     * @param jdbcTemplate template running the partition DDL and row moves
+     * @param transactionTemplate template running one transaction per month
+     * @param operationArchiveRepository repository for archives
+     * @param operationArchiveTotalRepository repository for archived totals
+     * @param operationArchiveCodec codec compressing archived rows
+     * @param partitionsAhead number of months after the current one to create partitions for
+     * @param archiveAfterMonths age in months after which a month is archived, 0 to never archive
+     */
+    public OperationPartitionService(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     OperationArchiveRepository operationArchiveRepository,
+                                     OperationArchiveTotalRepository operationArchiveTotalRepository,
+                                     OperationArchiveCodec operationArchiveCodec,
+                                     @Value("${maney.operations.partitions-ahead:3}") int partitionsAhead,
+                                     @Value("${maney.operations.archive-after-months:0}") int archiveAfterMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.operationArchiveRepository = operationArchiveRepository;
+        this.operationArchiveTotalRepository = operationArchiveTotalRepository;
+        this.operationArchiveCodec = operationArchiveCodec;
+        this.partitionsAhead = partitionsAhead;
+        this.archiveAfterMonths = archiveAfterMonths;
+    }
+
+    /**
+     * Creates the upcoming monthly partitions and archives the months past the archive age.
+     *
+     * <p>Each month is handled in its own transaction; a failure on one month is logged and
+     * does not stop the others.</p>
+     */
+    @Scheduled(cron = "${maney.operations.partition-cron:0 0 2 * * *}", zone = "UTC")
+    public void maintainPartitions() {
+        if (!isPartitioned()) {
+            return;
+        }
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        SortedSet<YearMonth> existing = listPartitions();
+        for (int i = 0; i <= partitionsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(month)) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> createPartition(month));
+                } catch (RuntimeException e) {
+                    logger.warn("Could not create operation partition for {}: {}", month, e.getMessage());
+                }
+            }
+        }
+        if (archiveAfterMonths <= 0) {
+            return;
+        }
+        YearMonth cutoff = current.minusMonths(archiveAfterMonths);
+        for (YearMonth month : existing.headSet(cutoff)) {
+            if (operationArchiveRepository.existsByMonthStart(month.atDay(1))) {
+                continue;
+            }
+            try {
+                transactionTemplate.execute(status -> archiveMonth(month));
+            } catch (RuntimeException e) {
+                logger.warn("Could not archive operations of {}: {}", month, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Moves the operations of a month out of the operation table into a compressed archive.
+     *
+     * <p>The operation table is locked exclusively until the transaction commits.</p>
+     *
+     * @param month the month
+     * @return number of archived operations
+     * @throws IllegalStateException if the operation table isn't partitioned
+     * @throws IllegalArgumentException if the month has no partition or was already archived
+     */
+    @Transactional
+    public int archiveMonth(YearMonth month) {
+        requirePartitioned();
+        if (!listPartitions().contains(month)) {
+            throw new IllegalArgumentException("No operation partition for " + month);
+        }
+        if (operationArchiveRepository.existsByMonthStart(month.atDay(1))) {
+            throw new IllegalArgumentException("Operations of " + month + " were already archived");
+        }
+        String table = partitionName(month);
+        jdbcTemplate.execute("ALTER TABLE operation DETACH PARTITION " + table);
+        List<ArchivedOperation> operations =
+                jdbcTemplate.query(SELECT_ARCHIVED_SQL.formatted(table), OperationPartitionService::mapRow);
+
+        operationArchiveRepository.save(new OperationArchive(month.atDay(1), operations.size(),
+                operationArchiveCodec.encode(operations), Instant.now()));
+        operationArchiveTotalRepository.saveAll(totalsOf(month, operations));
+
+        jdbcTemplate.update("DELETE FROM cash_movement WHERE id IN (SELECT id FROM " + table + ")");
+        jdbcTemplate.update("DELETE FROM transfer WHERE id IN (SELECT id FROM " + table + ")");
+        jdbcTemplate.execute("DROP TABLE " + table);
+        logger.info("Archived {} operations of {}", operations.size(), month);
+        return operations.size();
+    }
+
+    /**
+     * Puts the operations of an archived month back in the operation table.
+     *
+     * @param month the month
+     * @return number of restored operations
+     * @throws IllegalStateException if the operation table isn't partitioned
+     * @throws NotFoundException if the month was never archived
+     * @throws IllegalArgumentException if the month was already restored
+     */
+    @Transactional
+    public int restoreMonth(YearMonth month) {
+        requirePartitioned();
+        OperationArchive archive = operationArchiveRepository.findByMonthStart(month.atDay(1))
+                .orElseThrow(() -> new NotFoundException("Operations of " + month + " are not archived"));
+        if (archive.getStatus() != OperationArchiveStatus.ARCHIVED) {
+            throw new IllegalArgumentException("Operations of " + month + " were already restored");
+        }
+        List<ArchivedOperation> operations = operationArchiveCodec.decode(archive.getPayload());
+        String table = partitionName(month);
+        createDetachedPartition(table, month);
+
+        jdbcTemplate.batchUpdate("INSERT INTO " + table + " (id, date, note) VALUES (?, ?, ?)",
+                operations, BATCH_SIZE, (ps, operation) -> {
+                    ps.setLong(1, operation.id());
+                    ps.setObject(2, OffsetDateTime.ofInstant(operation.date(), ZoneOffset.UTC));
+                    ps.setString(3, operation.note());
+                });
+        jdbcTemplate.batchUpdate(RESTORE_CASH_MOVEMENT_SQL,
+                operations.stream().filter(operation -> !operation.isTransfer() && operation.accountId() != null).toList(),
+                BATCH_SIZE, (ps, operation) -> {
+                    ps.setLong(1, operation.id());
+                    ps.setObject(2, operation.categoryId(), Types.BIGINT);
+                    ps.setBigDecimal(3, operation.amount());
+                    ps.setString(4, operation.type().name());
+                    ps.setString(5, operation.fingerprint());
+                    ps.setLong(6, operation.accountId());
+                });
+        jdbcTemplate.batchUpdate(RESTORE_TRANSFER_SQL,
+                operations.stream().filter(ArchivedOperation::isTransfer).toList(),
+                BATCH_SIZE, (ps, operation) -> {
+                    ps.setLong(1, operation.id());
+                    ps.setBigDecimal(2, operation.amount());
+                    ps.setLong(3, operation.toAccountId());
+                    ps.setLong(4, operation.fromAccountId());
+                });
+        int dropped = jdbcTemplate.update(DELETE_ORPHANS_SQL.formatted(table));
+        attachPartition(table, month);
+
+        operationArchiveTotalRepository.deleteByMonthStart(month.atDay(1));
+        archive.setStatus(OperationArchiveStatus.RESTORED);
+        archive.setRestoredAt(Instant.now());
+        archive.setPayload(null);
+        operationArchiveRepository.save(archive);
+        if (dropped > 0) {
+            logger.warn("Dropped {} archived operations of {} whose accounts no longer exist", dropped, month);
+        }
+        logger.info("Restored {} operations of {}", operations.size() - dropped, month);
+        return operations.size() - dropped;
+    }
+
+    /**
+     * Lists the archived and restored months.
+     *
+     * @return one summary per month, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<OperationArchiveSummary> listArchives() {
+        return operationArchiveRepository.findAllSummaries();
+    }
+
+    /**
+     * Computes the balance effect of archived operations per account.
+     *
+     * @param month the month the operations belong to
+     * @param operations the operations
+     * @return one total per account, ordered by account ID
+     */
+    public static List<OperationArchiveTotal> totalsOf(YearMonth month, List<ArchivedOperation> operations) {
+        LocalDate monthStart = month.atDay(1);
+        Instant start = startOf(month);
+        Map<Long, OperationArchiveTotal> totals = new TreeMap<>();
+        for (ArchivedOperation operation : operations) {
+            boolean atMonthStart = operation.date().equals(start);
+            if (operation.isTransfer()) {
+                addToTotal(totals, monthStart, operation.fromAccountId(), operation.amount().negate(), atMonthStart);
+                addToTotal(totals, monthStart, operation.toAccountId(), operation.amount(), atMonthStart);
+            } else if (operation.accountId() != null) {
+                addToTotal(totals, monthStart, operation.accountId(), operation.type().signed(operation.amount()), atMonthStart);
+            }
+        }
+        return new ArrayList<>(totals.values());
+    }
+
+    /**
+     * @param month a month
+     * @return name of the month's partition, e.g. {@code operation_y2024m03}
+     */
+    static String partitionName(YearMonth month) {
+        return "operation_y%04dm%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * @param name a table name
+     * @return the month of a monthly partition, or {@code null} for any other table
+     */
+    static YearMonth monthOfPartition(String name) {
+        Matcher matcher = PARTITION_NAME.matcher(name);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+
+    private static void addToTotal(Map<Long, OperationArchiveTotal> totals, LocalDate monthStart, Long accountId,
+                                   BigDecimal delta, boolean atMonthStart) {
+        OperationArchiveTotal total = totals.computeIfAbsent(accountId,
+                id -> new OperationArchiveTotal(id, monthStart, BigDecimal.ZERO, BigDecimal.ZERO));
+        total.setTotal(total.getTotal().add(delta));
+        if (atMonthStart) {
+            total.setMonthStartTotal(total.getMonthStartTotal().add(delta));
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        String table = partitionName(month);
+        createDetachedPartition(table, month);
+        attachPartition(table, month);
+        logger.info("Created operation partition {}", table);
+    }
+
+    /**
+     * Creates the table of a month's partition and moves the month's rows out of the default
+     * partition into it, so that attaching it doesn't conflict with them.
+     */
+    private void createDetachedPartition(String table, YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE operation INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.update(MOVE_DEFAULT_ROWS_SQL.formatted(table),
+                OffsetDateTime.ofInstant(startOf(month), ZoneOffset.UTC),
+                OffsetDateTime.ofInstant(startOf(month.plusMonths(1)), ZoneOffset.UTC));
+    }
+
+    private void attachPartition(String table, YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE operation ATTACH PARTITION " + table +
+                " FOR VALUES FROM ('" + startOf(month) + "') TO ('" + startOf(month.plusMonths(1)) + "')");
+    }
+
+    private SortedSet<YearMonth> listPartitions() {
+        SortedSet<YearMonth> months = new TreeSet<>();
+        for (String name : jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class)) {
+            YearMonth month = monthOfPartition(name);
+            if (month != null) {
+                months.add(month);
+            }
+        }
+        return months;
+    }
+
+    private void requirePartitioned() {
+        if (!isPartitioned()) {
+            throw new IllegalStateException("The operation table is not partitioned");
+        }
+    }
+
+    private boolean isPartitioned() {
+        Boolean cached = partitioned;
+        if (cached == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            cached = "PostgreSQL".equals(database)
+                    && "p".equals(jdbcTemplate.queryForObject(PARTITIONED_SQL, String.class));
+            partitioned = cached;
+        }
+        return cached;
+    }
+
+    private static Instant startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private static ArchivedOperation mapRow(ResultSet rs, int rowNum) throws SQLException {
+        String type = rs.getString("type");
+        return new ArchivedOperation(
+                rs.getLong("id"),
+                rs.getObject("date", OffsetDateTime.class).toInstant(),
+                rs.getString("note"),
+                rs.getObject("account_id", Long.class),
+                rs.getObject("category_id", Long.class),
+                type == null ? null : CashMovementType.valueOf(type),
+                rs.getString("fingerprint"),
+                rs.getObject("from_account_id", Long.class),
+                rs.getObject("to_account_id", Long.class),
+                rs.getBigDecimal("amount"));
+    }
+}
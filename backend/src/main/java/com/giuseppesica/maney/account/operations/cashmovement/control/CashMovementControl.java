@@ -1,24 +1,44 @@
 package com.giuseppesica.maney.account.operations.cashmovement.control;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.operations.cashmovement.importer.JsonCashMovementReader;
 import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovement;
 import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementFilter;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementImportResultDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementPageDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryMonthKey;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryMonthlyTotalDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryRollupDelta;
+import com.giuseppesica.maney.account.operations.cashmovement.service.CashMovementImportService;
 import com.giuseppesica.maney.account.operations.cashmovement.service.CashMovementService;
+import com.giuseppesica.maney.account.operations.cashmovement.service.CategoryRollupService;
 import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
 import com.giuseppesica.maney.category.model.Category;
 import com.giuseppesica.maney.category.service.CategoryService;
+import com.giuseppesica.maney.idempotency.service.IdempotencyService;
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
 import com.giuseppesica.maney.security.AuthenticationHelper;
 import com.giuseppesica.maney.security.NotFoundException;
-import com.giuseppesica.maney.user.model.User;
 import com.giuseppesica.maney.utils.CashMovementType;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST controller for managing cash movements (income and outcome operations).
@@ -31,69 +51,135 @@ import java.util.List;
  *
  * <p><strong>Key Features:</strong></p>
  * <ul>
- *   <li>Automatic balance updates using {@code @Transactional}</li>
+ *   <li>Automatic balance updates using {@code @Transactional} and atomic in-database deltas</li>
  *   <li>Reversal of previous balance effects on update/delete</li>
  *   <li>Optional categorization for budgeting and reporting</li>
+ *   <li>Bulk import of JSON arrays or NDJSON streams</li>
+ *   <li>Safe retries of creations through the {@code Idempotency-Key} header</li>
  *   <li>Portfolio-scoped access control</li>
  * </ul>
  *
  * <p><strong>Balance Update Logic:</strong></p>
  * <ul>
  *   <li>Create: Applies the movement effect to account balance</li>
- *   <li>Update: Reverts old effect, applies new effect</li>
+ *   <li>Update: Applies the net difference between the new and the old effect</li>
  *   <li>Delete: Reverts the movement effect from balance</li>
  * </ul>
+ * <p>Each change also discards the account's balance checkpoints from the movement date
+ * onwards, see {@link LiquidityAccountService#invalidateBalanceHistory(Long, Instant)}, and
+ * updates the monthly category totals, see {@link CategoryRollupService}.</p>
  *
  * @see CashMovement
  * @see CashMovementDto
  * @see CashMovementService
  * @see LiquidityAccountService
+ * @see CategoryRollupService
  */
 @RestController
 @RequestMapping("/user/portfolio/liquidity-accounts/cash-movements")
 public class CashMovementControl {
 
     private final CashMovementService cashMovementService;
+    private final CashMovementImportService cashMovementImportService;
     private final LiquidityAccountService liquidityAccountService;
     private final CategoryService categoryService;
+    private final CategoryRollupService categoryRollupService;
+    private final IdempotencyService idempotencyService;
     private final AuthenticationHelper authenticationHelper;
+    private final ObjectMapper objectMapper;
 
     /**
      * Constructs the controller with required service dependencies.
      *
      * @param cashMovementService service for cash movement persistence
+     * @param cashMovementImportService service for bulk imports
      * @param liquidityAccountService service for account balance updates
      * @param categoryService service for category resolution and validation
+     * @param categoryRollupService service maintaining the monthly category totals
+     * @param idempotencyService service replaying creations retried with the same Idempotency-Key
      * @param authenticationHelper helper for user authentication and authorization
+     * @param objectMapper mapper used to stream bulk import payloads
      */
     @Autowired
-    public CashMovementControl(CashMovementService cashMovementService, LiquidityAccountService liquidityAccountService, CategoryService categoryService, AuthenticationHelper authenticationHelper) {
+    public CashMovementControl(CashMovementService cashMovementService, CashMovementImportService cashMovementImportService, LiquidityAccountService liquidityAccountService, CategoryService categoryService, CategoryRollupService categoryRollupService, IdempotencyService idempotencyService, AuthenticationHelper authenticationHelper, ObjectMapper objectMapper) {
         this.cashMovementService = cashMovementService;
+        this.cashMovementImportService = cashMovementImportService;
         this.liquidityAccountService = liquidityAccountService;
         this.categoryService = categoryService;
+        this.categoryRollupService = categoryRollupService;
+        this.idempotencyService = idempotencyService;
         this.authenticationHelper = authenticationHelper;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Retrieves all cash movements for the authenticated user.
+     * Retrieves one page of cash movements for the authenticated user.
      *
-     * <p>Returns movements from all liquidity accounts in the user's portfolio,
-     * useful for building transaction history and financial reports.</p>
+     * <p>Returns movements from all liquidity accounts in the user's portfolio, newest first,
+     * using keyset pagination on {@code (date, id)}. Every filter is optional and applied
+     * server-side.</p>
+     *
+     * <p><strong>Request Example:</strong></p>
+     * <pre>
+     * GET /user/portfolio/liquidity-accounts/cash-movements?from=2024-01-01T00:00:00Z&amp;type=OUTCOME&amp;limit=100
+     * GET /user/portfolio/liquidity-accounts/cash-movements?cursor=MjAyNC0xMi0wMVQxMDowMDowMFp8NDI
+     * </pre>
      *
      * @param authentication Spring Security authentication object
-     * @return ResponseEntity with HTTP 200 and list of movement DTOs
+     * @param from inclusive lower bound on the movement date (optional)
+     * @param to exclusive upper bound on the movement date (optional)
+     * @param accountId restricts results to one liquidity account (optional)
+     * @param categoryId restricts results to one category (optional)
+     * @param type restricts results to INCOME or OUTCOME (optional)
+     * @param cursor {@code nextCursor} from the previous page (optional, omit for the first page)
+     * @param limit page size, between 1 and {@link CashMovementService#MAX_PAGE_SIZE}
+     * @return ResponseEntity with HTTP 200 and the requested page
+     * @throws IllegalArgumentException if the cursor is malformed or the limit is out of range
      */
     @GetMapping
-    public ResponseEntity<List<CashMovementDto>> getCashMovements(
-            Authentication authentication
+    public ResponseEntity<CashMovementPageDto> getCashMovements(
+            Authentication authentication,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) CashMovementType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CashMovementService.DEFAULT_PAGE_SIZE) int limit
     ){
-        User user = authenticationHelper.getAuthenticatedUser(authentication);
-        List<CashMovement> cashMovements = cashMovementService.getCashMovementsByUserId(user);
-        List<CashMovementDto> cashMovementDtos =
-                cashMovements.stream()
-                        .map(CashMovementDto::new)
-                        .toList();
-        return ResponseEntity.ok(cashMovementDtos);
+        Long portfolioId = authenticationHelper.getAuthenticatedUserPortfolioId(authentication);
+        CashMovementFilter filter = new CashMovementFilter(from, to, accountId, categoryId, type);
+        CashMovementPageDto page = cashMovementService.getCashMovementPage(portfolioId, filter, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Retrieves the monthly cash movement totals per category for the authenticated user.
+     *
+     * <p>Served from precomputed rollups maintained on every write, so the cost depends on
+     * the number of months and categories only, never on the number of movements.</p>
+     *
+     * <p><strong>Request Example:</strong></p>
+     * <pre>
+     * GET /user/portfolio/liquidity-accounts/cash-movements/rollups?from=2024-01&amp;to=2024-12&amp;type=OUTCOME
+     * </pre>
+     *
+     * @param authentication Spring Security authentication object
+     * @param from first month, as {@code yyyy-MM} (inclusive)
+     * @param to last month, as {@code yyyy-MM} (inclusive)
+     * @param type restricts results to INCOME or OUTCOME (optional)
+     * @return ResponseEntity with HTTP 200 and one entry per month, category and type with movements
+     * @throws IllegalArgumentException if {@code from} is after {@code to}
+     */
+    @GetMapping("/rollups")
+    public ResponseEntity<List<CategoryMonthlyTotalDto>> getMonthlyCategoryTotals(
+            Authentication authentication,
+            @RequestParam YearMonth from,
+            @RequestParam YearMonth to,
+            @RequestParam(required = false) CashMovementType type
+    ){
+        Long portfolioId = authenticationHelper.getAuthenticatedUserPortfolioId(authentication);
+        return ResponseEntity.ok(categoryRollupService.getMonthlyTotals(portfolioId, from, to, type));
     }
 
     /**
@@ -111,8 +197,8 @@ public class CashMovementControl {
             Authentication authentication,
             @PathVariable Long id
             ){
-        User user = authenticationHelper.getAuthenticatedUser(authentication);
-        CashMovement cashMovement = cashMovementService.getCashMovementByIdAndUserId(id, user)
+        Long portfolioId = authenticationHelper.getAuthenticatedUserPortfolioId(authentication);
+        CashMovement cashMovement = cashMovementService.getCashMovementByIdAndPortfolioId(id, portfolioId)
                 .orElseThrow(() -> new NotFoundException("Cash Movement Not Found"));
         return ResponseEntity.ok(new CashMovementDto(cashMovement));
     }
@@ -135,28 +221,44 @@ public class CashMovementControl {
      *
      * <p>The entire operation is transactional - if any step fails, no changes are committed.</p>
      *
+     * <p>When an {@code Idempotency-Key} header is sent, a retry with the same key and body
+     * returns the original response without creating the movement again, see
+     * {@link IdempotencyService}.</p>
+     *
      * @param authentication Spring Security authentication object
+     * @param idempotencyKey optional key identifying retries of the same request
      * @param cashMovementDto DTO containing movement details (account, amount, type, date, category, note)
      * @return ResponseEntity with HTTP 200 and the created movement DTO
      * @throws NotFoundException if account or category is not found
+     * @throws IllegalArgumentException if the idempotency key was used for a different request
      */
     @PostMapping
     @Transactional
     public ResponseEntity<CashMovementDto> createCashMovement(
             Authentication authentication,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody CashMovementDto cashMovementDto
     ){
-        User user = authenticationHelper.getAuthenticatedUser(authentication);
-        
+        AuthenticatedPrincipal principal = authenticationHelper.getAuthenticatedPrincipal(authentication);
+        return idempotencyService.execute(principal.portfolioId(), idempotencyKey, "POST cash-movements",
+                cashMovementDto, CashMovementDto.class,
+                () -> ResponseEntity.ok(createCashMovement(principal, cashMovementDto)));
+    }
+
+    /**
+     * Creates a cash movement and applies its effects, see {@link #createCashMovement(Authentication, String, CashMovementDto)}.
+     */
+    private CashMovementDto createCashMovement(AuthenticatedPrincipal principal, CashMovementDto cashMovementDto) {
+
         LiquidityAccount liquidityAccount = liquidityAccountService
                 .getLiquidityAccountByPortfolioIdAndName(
-                        user.getPortfolio().getId(),
+                        principal.portfolioId(),
                         cashMovementDto.getLiquidityAccountName()
                 )
                 .orElseThrow(() -> new NotFoundException("Liquidity Account Not Found"));
 
-        Category category = categoryService.findByUserAndId(
-                user.getId(),
+        Category category = categoryService.findReferenceByUserAndId(
+                principal.userId(),
                 cashMovementDto.getCategoryId()
         ).orElseThrow(() -> new NotFoundException("Category Not Found"));
 
@@ -172,23 +274,63 @@ public class CashMovementControl {
 
         liquidityAccountService.updateLiquidityAccount(
                 liquidityAccount,
+                cashMovement.getId(),
                 cashMovementDto.getAmount(),
                 cashMovementDto.getType()
         );
+        liquidityAccountService.invalidateBalanceHistory(liquidityAccount.getId(), cashMovement.getDate());
+        categoryRollupService.recordCreated(principal.portfolioId(), cashMovement);
 
-        return ResponseEntity.ok(new CashMovementDto(cashMovement));
+        return new CashMovementDto(cashMovement);
+    }
+
+    /**
+     * Imports many cash movements in a single request.
+     *
+     * <p>The body is either a JSON array of movements or NDJSON (one movement per line),
+     * each in the same format as {@link #createCashMovement}. Rows are parsed as they are
+     * imported, so payloads of tens of thousands of movements are never held in memory.</p>
+     *
+     * <p><strong>Request Example (NDJSON):</strong></p>
+     * <pre>
+     * POST /user/portfolio/liquidity-accounts/cash-movements/bulk
+     * Content-Type: application/x-ndjson
+     *
+     * {"date":"2024-12-01T10:00:00Z","amount":150.00,"type":"INCOME","liquidityAccountName":"Checking","categoryId":5}
+     * {"date":"2024-12-02T09:30:00Z","amount":42.50,"type":"OUTCOME","liquidityAccountName":"Checking","categoryId":7}
+     * </pre>
+     *
+     * <p>The import is atomic: if any row is invalid or references an unknown account or
+     * category, nothing is imported.</p>
+     *
+     * @param authentication Spring Security authentication object
+     * @param body the raw request body
+     * @return ResponseEntity with HTTP 200 and the import summary
+     * @throws IOException if the request body cannot be read
+     * @throws IllegalArgumentException if a row is malformed or invalid
+     * @throws NotFoundException if a row references an unknown account or category
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<CashMovementImportResultDto> importCashMovements(
+            Authentication authentication,
+            InputStream body
+    ) throws IOException {
+        AuthenticatedPrincipal principal = authenticationHelper.getAuthenticatedPrincipal(authentication);
+        try (JsonCashMovementReader rows = new JsonCashMovementReader(objectMapper, body)) {
+            return ResponseEntity.ok(cashMovementImportService.importCashMovements(principal, rows));
+        }
     }
 
     /**
      * Updates an existing cash movement with new details.
      *
-     * <p>This endpoint handles movement modifications by performing a two-phase balance update:</p>
-     * <ol>
-     *   <li><strong>Reversal Phase:</strong> Reverts the original balance effect by applying
-     *       the inverse operation (INCOME→OUTCOME or OUTCOME→INCOME) with the old amount</li>
-     *   <li><strong>Application Phase:</strong> Applies the new movement details with potentially
-     *       different amount or type</li>
-     * </ol>
+     * <p>The balance effect of the change is applied as a single net delta:</p>
+     * <pre>
+     * delta = signed(new amount, new type) - signed(old amount, old type)
+     * </pre>
+     * <p>which is added to the account balance atomically in the database. This is equivalent
+     * to reverting the original movement and applying the new one, but issues one UPDATE and
+     * cannot lose concurrent updates to the same account.</p>
      *
      * <p>This approach ensures balance integrity even when amount or type changes.
      * The account affected remains the same (account switching not supported in updates).</p>
@@ -209,21 +351,20 @@ public class CashMovementControl {
             @PathVariable Long id,
             @Valid @RequestBody CashMovementDto cashMovementDto
     ){
-        User user = authenticationHelper.getAuthenticatedUser(authentication);
-        CashMovement cashMovementToUpdate = cashMovementService.getCashMovementByIdAndUserId(id, user)
+        Long portfolioId = authenticationHelper.getAuthenticatedUserPortfolioId(authentication);
+        CashMovement cashMovementToUpdate = cashMovementService.getCashMovementByIdAndPortfolioId(id, portfolioId)
                 .orElseThrow(() -> new NotFoundException("Cash Movement Not Found"));
-        // Revert previous cash movement effect
-        liquidityAccountService.updateLiquidityAccount(
-                cashMovementToUpdate.getLiquidityAccount(),
-                cashMovementToUpdate.getAmount(),
-                cashMovementToUpdate.getType() == CashMovementType.INCOME ? CashMovementType.OUTCOME : CashMovementType.INCOME
-        );
-        // Apply new cash movement effect
-        liquidityAccountService.updateLiquidityAccount(
-                cashMovementToUpdate.getLiquidityAccount(),
-                cashMovementDto.getAmount(),
-                cashMovementDto.getType()
-        );
+        // Apply the difference between the new and the previous effect
+        BigDecimal delta = cashMovementDto.getType().signed(cashMovementDto.getAmount())
+                .subtract(cashMovementToUpdate.getType().signed(cashMovementToUpdate.getAmount()));
+        Long accountId = cashMovementToUpdate.getLiquidityAccount().getId();
+        liquidityAccountService.applyBalanceDelta(accountId, id, delta);
+        Instant previousDate = cashMovementToUpdate.getDate();
+        liquidityAccountService.invalidateBalanceHistory(accountId,
+                previousDate.isBefore(cashMovementDto.getDate()) ? previousDate : cashMovementDto.getDate());
+        // Move the movement from its previous rollup to its new one (the category doesn't change)
+        Map<CategoryMonthKey, CategoryRollupDelta> rollupDeltas = new HashMap<>();
+        rollupDeltas.put(CategoryMonthKey.of(cashMovementToUpdate), CategoryRollupDelta.removed(cashMovementToUpdate.getAmount()));
 
         // Save cash movement changes
         cashMovementToUpdate.setDate(cashMovementDto.getDate());
@@ -231,6 +372,9 @@ public class CashMovementControl {
         cashMovementToUpdate.setAmount(cashMovementDto.getAmount());
         cashMovementToUpdate.setType(cashMovementDto.getType());
         CashMovement updatedCm = cashMovementService.saveCashMovement(cashMovementToUpdate);
+        rollupDeltas.merge(CategoryMonthKey.of(cashMovementToUpdate),
+                CategoryRollupDelta.added(cashMovementToUpdate.getAmount()), CategoryRollupDelta::plus);
+        categoryRollupService.applyDeltas(portfolioId, rollupDeltas);
         return ResponseEntity.ok(new CashMovementDto(updatedCm));
     }
 
@@ -258,15 +402,19 @@ public class CashMovementControl {
             Authentication authentication,
             @PathVariable Long id
     ) {
-        User user = authenticationHelper.getAuthenticatedUser(authentication);
-        CashMovement cashMovementToDelete = cashMovementService.getCashMovementByIdAndUserId(id, user)
+        Long portfolioId = authenticationHelper.getAuthenticatedUserPortfolioId(authentication);
+        CashMovement cashMovementToDelete = cashMovementService.getCashMovementByIdAndPortfolioId(id, portfolioId)
                 .orElseThrow(() -> new NotFoundException("Cash Movement Not Found"));
         // Revert cash movement effect
         liquidityAccountService.updateLiquidityAccount(
                 cashMovementToDelete.getLiquidityAccount(),
+                id,
                 cashMovementToDelete.getAmount(),
                 cashMovementToDelete.getType() == CashMovementType.INCOME ? CashMovementType.OUTCOME : CashMovementType.INCOME
         );
+        liquidityAccountService.invalidateBalanceHistory(cashMovementToDelete.getLiquidityAccount().getId(),
+                cashMovementToDelete.getDate());
+        categoryRollupService.recordDeleted(portfolioId, cashMovementToDelete);
         cashMovementService.deleteCashMovement(cashMovementToDelete);
         return ResponseEntity.noContent().build();
     }
@@ -0,0 +1,114 @@
+package com.giuseppesica.maney.account.operations.cashmovement.control;
+
+import com.giuseppesica.maney.account.operations.cashmovement.importer.StatementFormat;
+import com.giuseppesica.maney.account.operations.cashmovement.model.StatementImportProgressDto;
+import com.giuseppesica.maney.account.operations.cashmovement.service.StatementImportService;
+import com.giuseppesica.maney.account.operations.cashmovement.service.StatementImportTracker;
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
+import com.giuseppesica.maney.security.AuthenticationHelper;
+import com.giuseppesica.maney.security.NotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * REST controller for importing bank statements into liquidity accounts.
+ *
+ * <p><strong>Base Path:</strong> {@code /user/portfolio/liquidity-accounts/cash-movements/statements}</p>
+ *
+ * <p>The statement file is sent as the raw request body and parsed while it is being
+ * uploaded, so large multi-year exports never have to fit in memory:</p>
+ * <pre>
+ * curl -X POST --data-binary @export.ofx \
+ *   '.../cash-movements/statements?accountId=10&amp;format=OFX&amp;importId=2024-export'
+ * </pre>
+ *
+ * <p>While the upload runs, {@code GET .../statements/{importId}} reports its progress.</p>
+ *
+ * @see StatementImportService
+ */
+@RestController
+@RequestMapping("/user/portfolio/liquidity-accounts/cash-movements/statements")
+public class StatementImportController {
+
+    private final StatementImportService statementImportService;
+    private final StatementImportTracker statementImportTracker;
+    private final AuthenticationHelper authenticationHelper;
+
+    /**
+     * Constructs the controller with required dependencies.
+     *
+     * @param statementImportService service running the imports
+     * @param statementImportTracker registry of running imports
+     * @param authenticationHelper helper for user authentication and authorization
+     */
+    public StatementImportController(StatementImportService statementImportService,
+                                     StatementImportTracker statementImportTracker,
+                                     AuthenticationHelper authenticationHelper) {
+        this.statementImportService = statementImportService;
+        this.statementImportTracker = statementImportTracker;
+        this.authenticationHelper = authenticationHelper;
+    }
+
+    /**
+     * Imports a bank statement into a liquidity account.
+     *
+     * <p>Lines already imported (by an earlier upload of the same or an overlapping
+     * statement) are skipped. If the import fails part-way, the lines committed so far
+     * stay imported and uploading the same file again resumes after them.</p>
+     *
+     * @param authentication Spring Security authentication object
+     * @param accountId the liquidity account receiving the movements
+     * @param format the statement format (CSV, OFX or QIF)
+     * @param categoryId category assigned to every imported movement (optional)
+     * @param importId identifier to poll progress with (optional, generated if absent)
+     * @param request the HTTP request carrying the statement as its body
+     * @return ResponseEntity with HTTP 200 and the final import counts
+     * @throws IOException if the request body cannot be read
+     * @throws NotFoundException if the account or category is not found
+     * @throws IllegalArgumentException if the statement is malformed
+     */
+    @PostMapping
+    public ResponseEntity<StatementImportProgressDto> importStatement(
+            Authentication authentication,
+            @RequestParam Long accountId,
+            @RequestParam StatementFormat format,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String importId,
+            HttpServletRequest request
+    ) throws IOException {
+        AuthenticatedPrincipal principal = authenticationHelper.getAuthenticatedPrincipal(authentication);
+        String id = importId == null || importId.isBlank() ? UUID.randomUUID().toString() : importId;
+        StatementImportProgressDto result = statementImportService.importStatement(
+                principal, accountId, categoryId, format, request.getInputStream(), request.getContentLengthLong(), id);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Reports the progress of a running statement import.
+     *
+     * @param authentication Spring Security authentication object
+     * @param importId the import identifier
+     * @return ResponseEntity with HTTP 200 and the latest progress
+     * @throws NotFoundException if no import with that ID is running for the user
+     */
+    @GetMapping("/{importId}")
+    public ResponseEntity<StatementImportProgressDto> getImportProgress(
+            Authentication authentication,
+            @PathVariable String importId
+    ) {
+        Long userId = authenticationHelper.getAuthenticatedUserId(authentication);
+        return statementImportTracker.get(userId, importId)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new NotFoundException("Import Not Found"));
+    }
+}
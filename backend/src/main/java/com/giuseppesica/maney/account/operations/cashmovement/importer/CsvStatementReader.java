@@ -0,0 +1,276 @@
+package com.giuseppesica.maney.account.operations.cashmovement.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Streaming reader for delimited bank statement exports.
+ *
+ * <p>The first non-empty line must be a header. The delimiter ({@code ,}, {@code ;} or tab)
+ * is detected from it, and columns are matched by name, ignoring case:</p>
+ * <ul>
+ *   <li>date: {@code date}, {@code booking date}, {@code transaction date}, {@code data},
+ *       {@code data operazione}, {@code data contabile}</li>
+ *   <li>amount: either a signed {@code amount}/{@code importo} column, or a pair of
+ *       {@code debit}/{@code credit} ({@code addebiti}/{@code accrediti}, {@code uscite}/{@code entrate})
+ *       columns</li>
+ *   <li>note (optional, all matches are joined): {@code description}, {@code payee},
+ *       {@code memo}, {@code note}, {@code descrizione}, {@code causale}</li>
+ * </ul>
+ *
+ * <p>Dates are ISO ({@code 2024-12-01}, or a full ISO timestamp) or day-first
+ * ({@code 01/12/2024}, {@code 01.12.2024}, {@code 01-12-2024}). Quoted fields may contain
+ * delimiters, doubled quotes and line breaks.</p>
+ */
+public class CsvStatementReader implements StatementReader {
+
+    private static final Set<String> DATE_COLUMNS = Set.of(
+            "date", "booking date", "transaction date", "posted date", "data", "data operazione", "data contabile");
+    private static final Set<String> AMOUNT_COLUMNS = Set.of("amount", "importo", "value");
+    private static final Set<String> DEBIT_COLUMNS = Set.of("debit", "addebiti", "uscite");
+    private static final Set<String> CREDIT_COLUMNS = Set.of("credit", "accrediti", "entrate");
+    private static final Set<String> NOTE_COLUMNS = Set.of(
+            "description", "payee", "memo", "note", "notes", "descrizione", "causale");
+
+    private static final DateTimeFormatter DAY_FIRST = DateTimeFormatter.ofPattern("d[/][.][-]M[/][.][-]uuuu");
+
+    private final BufferedReader reader;
+    private char delimiter;
+    private int dateColumn = -1;
+    private int amountColumn = -1;
+    private int debitColumn = -1;
+    private int creditColumn = -1;
+    private final List<Integer> noteColumns = new ArrayList<>();
+
+    private long physicalLine;
+    private long transaction;
+    private StatementLine next;
+    private boolean headerRead;
+
+    /**
+     * Opens a reader over a CSV statement.
+     *
+     * @param input the raw statement, UTF-8 encoded
+     */
+    public CsvStatementReader(InputStream input) {
+        this.reader = StatementParsing.reader(input);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public StatementLine next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        StatementLine line = next;
+        next = null;
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private StatementLine readNext() {
+        if (!headerRead) {
+            readHeader();
+        }
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        List<String> fields = record;
+        long line = physicalLine;
+        try {
+            Instant date = parseDate(field(fields, dateColumn));
+            BigDecimal amount = amountColumn >= 0
+                    ? StatementParsing.parseAmount(field(fields, amountColumn))
+                    : debitCredit(field(fields, debitColumn), field(fields, creditColumn));
+            String[] notes = noteColumns.stream().map(column -> field(fields, column)).toArray(String[]::new);
+            return new StatementLine(++transaction, date, amount, StatementParsing.note(notes));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("CSV line " + line + ": " + e.getMessage());
+        }
+    }
+
+    private void readHeader() {
+        headerRead = true;
+        String header;
+        do {
+            header = StatementParsing.stripBom(readPhysicalLine());
+            if (header == null) {
+                return;
+            }
+        } while (header.isBlank());
+
+        delimiter = detectDelimiter(header);
+        List<String> columns = split(header);
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i).strip().toLowerCase(Locale.ROOT);
+            if (DATE_COLUMNS.contains(column) && dateColumn < 0) {
+                dateColumn = i;
+            } else if (AMOUNT_COLUMNS.contains(column) && amountColumn < 0) {
+                amountColumn = i;
+            } else if (DEBIT_COLUMNS.contains(column) && debitColumn < 0) {
+                debitColumn = i;
+            } else if (CREDIT_COLUMNS.contains(column) && creditColumn < 0) {
+                creditColumn = i;
+            } else if (NOTE_COLUMNS.contains(column)) {
+                noteColumns.add(i);
+            }
+        }
+        if (dateColumn < 0) {
+            throw new IllegalArgumentException("CSV header has no date column");
+        }
+        if (amountColumn < 0 && (debitColumn < 0 || creditColumn < 0)) {
+            throw new IllegalArgumentException("CSV header has no amount column (or debit and credit columns)");
+        }
+    }
+
+    /**
+     * Reads one logical record, joining physical lines while a quoted field is open.
+     */
+    private List<String> readRecord() {
+        String line = readPhysicalLine();
+        if (line == null) {
+            return null;
+        }
+        StringBuilder record = new StringBuilder(line);
+        while (quotesOpen(record)) {
+            String continuation = readPhysicalLine();
+            if (continuation == null) {
+                throw new IllegalArgumentException("CSV line " + physicalLine + ": unterminated quoted field");
+            }
+            if (record.length() + continuation.length() > StatementParsing.MAX_LINE_LENGTH) {
+                throw new IllegalArgumentException("CSV line " + physicalLine + ": record too long");
+            }
+            record.append('\n').append(continuation);
+        }
+        return split(record.toString());
+    }
+
+    private String readPhysicalLine() {
+        try {
+            String line = reader.readLine();
+            if (line != null) {
+                physicalLine++;
+                if (line.length() > StatementParsing.MAX_LINE_LENGTH) {
+                    throw new IllegalArgumentException("CSV line " + physicalLine + ": line too long");
+                }
+            }
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<String> split(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static boolean quotesOpen(CharSequence record) {
+        int quotes = 0;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 != 0;
+    }
+
+    private static char detectDelimiter(String header) {
+        char best = ',';
+        long bestCount = -1;
+        for (char candidate : new char[]{',', ';', '\t'}) {
+            long count = header.chars().filter(c -> c == candidate).count();
+            if (count > bestCount) {
+                best = candidate;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column < fields.size() ? fields.get(column).strip() : "";
+    }
+
+    private static BigDecimal debitCredit(String debit, String credit) {
+        if (!credit.isEmpty()) {
+            return StatementParsing.parseAmount(credit).abs();
+        }
+        if (!debit.isEmpty()) {
+            return StatementParsing.parseAmount(debit).abs().negate();
+        }
+        throw new IllegalArgumentException("both debit and credit are empty");
+    }
+
+    private static Instant parseDate(String raw) {
+        if (raw.isEmpty()) {
+            throw new IllegalArgumentException("missing date");
+        }
+        if (raw.length() > 10 && raw.charAt(4) == '-') {
+            String iso = raw.replace(' ', 'T');
+            try {
+                return OffsetDateTime.parse(iso).toInstant();
+            } catch (DateTimeParseException e) {
+                return LocalDateTime.parse(iso).toInstant(ZoneOffset.UTC);
+            }
+        }
+        LocalDate date = raw.length() == 10 && raw.charAt(4) == '-'
+                ? LocalDate.parse(raw)
+                : LocalDate.parse(raw, DAY_FIRST);
+        return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
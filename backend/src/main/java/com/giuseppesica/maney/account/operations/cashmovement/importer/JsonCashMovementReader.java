@@ -0,0 +1,73 @@
+package com.giuseppesica.maney.account.operations.cashmovement.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams {@link CashMovementDto} rows out of a JSON request body.
+ *
+ * <p>Accepts either a single JSON array or newline-delimited JSON (one object per line).
+ * Rows are parsed one at a time as the import consumes them, so the whole payload is
+ * never held in memory.</p>
+ *
+ * <p>Malformed input is reported as an {@link IllegalArgumentException} naming the
+ * offending row, which the global exception handler maps to HTTP 400.</p>
+ */
+public class JsonCashMovementReader implements Iterator<CashMovementDto>, Closeable {
+
+    private final MappingIterator<CashMovementDto> values;
+    private int row;
+
+    /**
+     * Opens a reader over the given stream.
+     *
+     * @param objectMapper mapper configured with the application's JSON settings
+     * @param input the request body
+     * @throws IOException if the stream cannot be read
+     */
+    public JsonCashMovementReader(ObjectMapper objectMapper, InputStream input) throws IOException {
+        this.values = objectMapper.readerFor(CashMovementDto.class).readValues(input);
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return values.hasNextValue();
+        } catch (IOException e) {
+            throw malformed(row + 1, e);
+        }
+    }
+
+    @Override
+    public CashMovementDto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        row++;
+        try {
+            return values.nextValue();
+        } catch (IOException e) {
+            throw malformed(row, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        values.close();
+    }
+
+    private static IllegalArgumentException malformed(int row, IOException e) {
+        String detail = e instanceof JsonProcessingException jsonException
+                ? jsonException.getOriginalMessage()
+                : e.getMessage();
+        return new IllegalArgumentException("Row " + row + ": malformed JSON (" + detail + ")");
+    }
+}
@@ -0,0 +1,228 @@
+package com.giuseppesica.maney.account.operations.cashmovement.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming reader for OFX bank statements.
+ *
+ * <p>Handles both OFX 1.x (SGML, where leaf elements have no closing tag) and OFX 2.x
+ * (XML). The input is scanned tag by tag, and only the fields of the current
+ * {@code <STMTTRN>} block are kept in memory.</p>
+ *
+ * <p>Each transaction uses {@code DTPOSTED} as date, {@code TRNAMT} as signed amount and
+ * {@code NAME} and {@code MEMO} as note. {@code DTPOSTED} values such as
+ * {@code 20241201}, {@code 20241201103000} or {@code 20241201103000.000[-5:EST]} are
+ * accepted; a timezone offset in brackets is honoured, otherwise UTC is assumed.</p>
+ */
+public class OfxStatementReader implements StatementReader {
+
+    private static final String TRANSACTION = "STMTTRN";
+
+    private final BufferedReader reader;
+    private final StringBuilder token = new StringBuilder();
+    private long transaction;
+    private long physicalLine = 1;
+    private StatementLine next;
+    private boolean finished;
+
+    /**
+     * Opens a reader over an OFX statement.
+     *
+     * @param input the raw statement
+     */
+    public OfxStatementReader(InputStream input) {
+        this.reader = StatementParsing.reader(input);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            next = readNext();
+            finished = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public StatementLine next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        StatementLine line = next;
+        next = null;
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Skips to the next {@code <STMTTRN>} and collects its leaf elements until it closes.
+     */
+    private StatementLine readNext() {
+        String tag;
+        do {
+            tag = nextTag();
+            if (tag == null) {
+                return null;
+            }
+        } while (!tag.equals(TRANSACTION));
+
+        long startLine = physicalLine;
+        Map<String, String> fields = new HashMap<>();
+        String current = null;
+        while (true) {
+            String text = readText();
+            if (current != null && !text.isBlank()) {
+                fields.put(current, decode(text.strip()));
+            }
+            tag = readTag();
+            if (tag == null || tag.equals("/" + TRANSACTION) || tag.equals("/BANKTRANLIST")) {
+                break;
+            }
+            current = tag.startsWith("/") ? null : tag;
+        }
+        return toLine(fields, startLine);
+    }
+
+    private StatementLine toLine(Map<String, String> fields, long startLine) {
+        try {
+            String posted = fields.get("DTPOSTED");
+            String amount = fields.get("TRNAMT");
+            if (posted == null || amount == null) {
+                throw new IllegalArgumentException("transaction without DTPOSTED or TRNAMT");
+            }
+            return new StatementLine(++transaction, parseDate(posted), new BigDecimal(amount.replace(',', '.')),
+                    StatementParsing.note(fields.get("NAME"), fields.get("MEMO")));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("OFX line " + startLine + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the name of the next tag, skipping any text before it.
+     */
+    private String nextTag() {
+        readText();
+        return readTag();
+    }
+
+    /**
+     * Reads character data up to (not including) the next {@code <}.
+     */
+    private String readText() {
+        token.setLength(0);
+        int c;
+        while ((c = peek()) != -1 && c != '<') {
+            append(read());
+        }
+        return token.toString();
+    }
+
+    /**
+     * Reads a tag and returns its upper-cased name ({@code /NAME} for closing tags), or
+     * {@code null} at end of input. Processing instructions and comments are skipped.
+     */
+    private String readTag() {
+        while (true) {
+            if (read() == -1) {
+                return null;
+            }
+            token.setLength(0);
+            int c;
+            while ((c = read()) != -1 && c != '>') {
+                append(c);
+            }
+            if (c == -1) {
+                return null;
+            }
+            String name = token.toString().strip();
+            if (name.startsWith("?") || name.startsWith("!")) {
+                readText();
+                continue;
+            }
+            int space = name.indexOf(' ');
+            return (space < 0 ? name : name.substring(0, space)).toUpperCase(Locale.ROOT);
+        }
+    }
+
+    private void append(int c) {
+        if (token.length() >= StatementParsing.MAX_LINE_LENGTH) {
+            throw new IllegalArgumentException("OFX line " + physicalLine + ": element too long");
+        }
+        token.append((char) c);
+    }
+
+    private int read() {
+        try {
+            int c = reader.read();
+            if (c == '\n') {
+                physicalLine++;
+            }
+            return c;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int peek() {
+        try {
+            reader.mark(1);
+            int c = reader.read();
+            reader.reset();
+            return c;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String decode(String text) {
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    private static Instant parseDate(String raw) {
+        String digits = raw;
+        ZoneOffset offset = ZoneOffset.UTC;
+        int bracket = raw.indexOf('[');
+        if (bracket >= 0) {
+            int closing = raw.indexOf(']', bracket);
+            if (closing < 0) {
+                throw new IllegalArgumentException("invalid date '" + raw + "'");
+            }
+            digits = raw.substring(0, bracket);
+            String zone = raw.substring(bracket + 1, closing).split(":")[0];
+            offset = ZoneOffset.ofTotalSeconds(Math.round(Float.parseFloat(zone) * 3600));
+        }
+        int dot = digits.indexOf('.');
+        if (dot >= 0) {
+            digits = digits.substring(0, dot);
+        }
+        if (digits.length() < 8 || !digits.chars().allMatch(Character::isDigit)) {
+            throw new IllegalArgumentException("invalid date '" + raw + "'");
+        }
+        digits = (digits + "000000").substring(0, 14);
+        LocalDateTime dateTime = LocalDateTime.of(
+                Integer.parseInt(digits.substring(0, 4)),
+                Integer.parseInt(digits.substring(4, 6)),
+                Integer.parseInt(digits.substring(6, 8)),
+                Integer.parseInt(digits.substring(8, 10)),
+                Integer.parseInt(digits.substring(10, 12)),
+                Integer.parseInt(digits.substring(12, 14)));
+        return dateTime.toInstant(offset);
+    }
+}
@@ -0,0 +1,155 @@
+package com.giuseppesica.maney.account.operations.cashmovement.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming reader for QIF (Quicken Interchange Format) bank statements.
+ *
+ * <p>Records are sequences of lines whose first character is a field code, terminated by
+ * a {@code ^} line. The reader uses {@code D} (date), {@code T} or {@code U} (signed
+ * amount), {@code P} (payee) and {@code M} (memo); header lines ({@code !Type:Bank}) and
+ * all other codes, including split lines, are ignored.</p>
+ *
+ * <p>Dates follow the Quicken conventions: month first with {@code /} or {@code -}
+ * ({@code 12/1/2024}, {@code 12/01'24}), day first with {@code .} ({@code 01.12.2024}),
+ * or ISO ({@code 2024-12-01}). Two-digit years after an apostrophe are in the 2000s;
+ * otherwise years below 70 are in the 2000s and the rest in the 1900s.</p>
+ */
+public class QifStatementReader implements StatementReader {
+
+    private final BufferedReader reader;
+    private long physicalLine;
+    private long transaction;
+    private StatementLine next;
+
+    /**
+     * Opens a reader over a QIF statement.
+     *
+     * @param input the raw statement
+     */
+    public QifStatementReader(InputStream input) {
+        this.reader = StatementParsing.reader(input);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public StatementLine next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        StatementLine line = next;
+        next = null;
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private StatementLine readNext() {
+        String date = null;
+        String amount = null;
+        String payee = null;
+        String memo = null;
+        long startLine = 0;
+        String line;
+        while ((line = readPhysicalLine()) != null) {
+            line = StatementParsing.stripBom(line);
+            if (line.isBlank() || line.startsWith("!")) {
+                continue;
+            }
+            if (startLine == 0) {
+                startLine = physicalLine;
+            }
+            char code = line.charAt(0);
+            String value = line.substring(1).strip();
+            switch (code) {
+                case 'D' -> date = value;
+                case 'T' -> amount = value;
+                case 'U' -> amount = amount == null ? value : amount;
+                case 'P' -> payee = value;
+                case 'M' -> memo = value;
+                case '^' -> {
+                    if (date != null || amount != null) {
+                        return toLine(date, amount, payee, memo, startLine);
+                    }
+                    startLine = 0;
+                }
+                default -> {
+                    // Other fields (cleared status, check number, address, splits) are not imported
+                }
+            }
+        }
+        if (date != null || amount != null) {
+            return toLine(date, amount, payee, memo, startLine);
+        }
+        return null;
+    }
+
+    private StatementLine toLine(String date, String amount, String payee, String memo, long startLine) {
+        try {
+            if (date == null || amount == null) {
+                throw new IllegalArgumentException("record without date or amount");
+            }
+            BigDecimal parsedAmount = StatementParsing.parseAmount(amount);
+            return new StatementLine(++transaction, parseDate(date), parsedAmount, StatementParsing.note(payee, memo));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("QIF line " + startLine + ": " + e.getMessage());
+        }
+    }
+
+    private String readPhysicalLine() {
+        try {
+            String line = reader.readLine();
+            if (line != null) {
+                physicalLine++;
+                if (line.length() > StatementParsing.MAX_LINE_LENGTH) {
+                    throw new IllegalArgumentException("QIF line " + physicalLine + ": line too long");
+                }
+            }
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Instant parseDate(String raw) {
+        String value = raw.replace(" ", "");
+        LocalDate date;
+        if (value.length() == 10 && value.charAt(4) == '-') {
+            date = LocalDate.parse(value);
+        } else {
+            boolean apostrophe = value.indexOf('\'') >= 0;
+            boolean dayFirst = value.indexOf('.') >= 0;
+            String[] parts = value.split("[/\\-.']");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("invalid date '" + raw + "'");
+            }
+            int first = Integer.parseInt(parts[0]);
+            int second = Integer.parseInt(parts[1]);
+            int year = Integer.parseInt(parts[2]);
+            if (parts[2].length() <= 2) {
+                year += apostrophe || year < 70 ? 2000 : 1900;
+            }
+            date = dayFirst ? LocalDate.of(year, second, first) : LocalDate.of(year, first, second);
+        }
+        return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
@@ -0,0 +1,71 @@
+package com.giuseppesica.maney.account.operations.cashmovement.importer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes stable deduplication fingerprints for the lines of a bank statement.
+ *
+ * <p>A fingerprint is the SHA-256 of the line's date, amount and normalized note, plus its
+ * occurrence number among identical lines of the same day. The occurrence number keeps
+ * two genuine identical transactions (two coffees on the same morning) distinct, while
+ * re-importing the same or an overlapping statement yields the same fingerprints again.</p>
+ *
+ * <p>Occurrences are only counted for the day being read, so memory stays bounded by the
+ * number of lines in one day plus the number of distinct days. This requires the lines of a
+ * day to be contiguous, which holds for bank exports (sorted ascending or descending); a
+ * statement where a day reappears after other days is rejected rather than risking a
+ * genuine line being taken for a duplicate.</p>
+ */
+public class StatementFingerprinter {
+
+    private final Map<String, Integer> occurrences = new HashMap<>();
+    private final Set<LocalDate> completedDays = new HashSet<>();
+    private LocalDate currentDay;
+
+    /**
+     * Returns the fingerprint of the next statement line.
+     *
+     * @param line the line, in statement order
+     * @return a 64-character hex fingerprint
+     * @throws IllegalArgumentException if the line's day already appeared before another day
+     */
+    public String fingerprint(StatementLine line) {
+        LocalDate day = LocalDate.ofInstant(line.date(), ZoneOffset.UTC);
+        if (!day.equals(currentDay)) {
+            if (currentDay != null) {
+                completedDays.add(currentDay);
+            }
+            if (completedDays.contains(day)) {
+                throw new IllegalArgumentException("statement lines of " + day + " are not contiguous");
+            }
+            currentDay = day;
+            occurrences.clear();
+        }
+        String key = line.date() + "|" + line.amount().stripTrailingZeros().toPlainString() + "|" + normalize(line.note());
+        int occurrence = occurrences.merge(key, 1, Integer::sum);
+        return sha256(key + "|" + occurrence);
+    }
+
+    private static String normalize(String note) {
+        return note == null ? "" : note.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
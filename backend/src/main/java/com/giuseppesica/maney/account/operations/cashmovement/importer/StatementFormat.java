@@ -0,0 +1,24 @@
+package com.giuseppesica.maney.account.operations.cashmovement.importer;
+
+/**
+ * Bank statement export formats supported by the statement importer.
+ *
+ * @see StatementReader#open(StatementFormat, java.io.InputStream)
+ */
+public enum StatementFormat {
+
+    /**
+     * Delimited text with a header row; see {@link CsvStatementReader}.
+     */
+    CSV,
+
+    /**
+     * Open Financial Exchange, SGML (1.x) or XML (2.x); see {@link OfxStatementReader}.
+     */
+    OFX,
+
+    /**
+     * Quicken Interchange Format; see {@link QifStatementReader}.
+     */
+    QIF
+}
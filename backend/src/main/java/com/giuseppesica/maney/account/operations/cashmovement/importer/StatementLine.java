@@ -0,0 +1,15 @@
+package com.giuseppesica.maney.account.operations.cashmovement.importer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A single transaction parsed from a bank statement, independent of its source format.
+ *
+ * @param line   1-based position of the transaction in the statement, used in error messages
+ * @param date   when the transaction was posted (midnight UTC when the format carries no time)
+ * @param amount signed amount: positive for money in, negative for money out
+ * @param note   payee and/or memo text, {@code null} when the statement has none
+ */
+public record StatementLine(long line, Instant date, BigDecimal amount, String note) {
+}
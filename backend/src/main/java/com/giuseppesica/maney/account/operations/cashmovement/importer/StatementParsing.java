@@ -0,0 +1,103 @@
+package com.giuseppesica.maney.account.operations.cashmovement.importer;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parsing helpers shared by the statement readers.
+ */
+final class StatementParsing {
+
+    /**
+     * Longest line or field accepted from a statement. Anything longer is not a bank
+     * statement and is rejected rather than buffered.
+     */
+    static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private StatementParsing() {
+    }
+
+    /**
+     * Opens a buffered UTF-8 reader over a statement.
+     */
+    static BufferedReader reader(InputStream input) {
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses an amount as written by banks in either US or European notation.
+     *
+     * <p>Accepts {@code 1234.56}, {@code 1,234.56}, {@code 1.234,56}, {@code 1234,56},
+     * a leading or trailing sign, currency symbols, and accounting parentheses for negatives. When both
+     * separators appear, the last one is the decimal separator; a single kind of separator
+     * appearing more than once is a thousands separator.</p>
+     *
+     * @param raw the amount text
+     * @return the signed amount
+     * @throws IllegalArgumentException if the text is not a number
+     */
+    static BigDecimal parseAmount(String raw) {
+        String value = raw.replaceAll("[\\s\u00A0'$\u00A3\u20AC]", "");
+        boolean negative = false;
+        if (value.startsWith("(") && value.endsWith(")")) {
+            negative = true;
+            value = value.substring(1, value.length() - 1);
+        }
+        if (value.endsWith("-")) {
+            negative = !negative;
+            value = value.substring(0, value.length() - 1);
+        }
+        int lastComma = value.lastIndexOf(',');
+        int lastDot = value.lastIndexOf('.');
+        if (lastComma >= 0 && lastDot >= 0) {
+            value = lastComma > lastDot
+                    ? value.replace(".", "").replace(',', '.')
+                    : value.replace(",", "");
+        } else if (lastComma >= 0) {
+            value = value.indexOf(',') == lastComma ? value.replace(',', '.') : value.replace(",", "");
+        } else if (lastDot >= 0 && value.indexOf('.') != lastDot) {
+            value = value.replace(".", "");
+        }
+        try {
+            BigDecimal amount = new BigDecimal(value);
+            return negative ? amount.negate() : amount;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid amount '" + raw + "'");
+        }
+    }
+
+    /**
+     * Joins the non-blank parts of a note, skipping a part equal to the previous one.
+     *
+     * @return the joined note, or {@code null} if every part is blank
+     */
+    static String note(String... parts) {
+        StringBuilder note = new StringBuilder();
+        String previous = null;
+        for (String part : parts) {
+            if (part == null || part.isBlank()) {
+                continue;
+            }
+            String trimmed = part.strip();
+            if (trimmed.equalsIgnoreCase(previous)) {
+                continue;
+            }
+            if (!note.isEmpty()) {
+                note.append(" - ");
+            }
+            note.append(trimmed);
+            previous = trimmed;
+        }
+        return note.isEmpty() ? null : note.toString();
+    }
+
+    /**
+     * Removes a UTF-8 byte order mark from the first line of a file.
+     */
+    static String stripBom(String line) {
+        return line != null && line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+}
@@ -0,0 +1,34 @@
+package com.giuseppesica.maney.account.operations.cashmovement.importer;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+/**
+ * Incremental parser for a bank statement.
+ *
+ * <p>Implementations read their input one record at a time and keep only the current
+ * record in memory, so arbitrarily large exports can be imported with bounded heap usage.
+ * Malformed records are reported as {@link IllegalArgumentException}s naming the
+ * offending line; read failures surface as {@link UncheckedIOException}s.</p>
+ *
+ * @see StatementFormat
+ */
+public interface StatementReader extends Iterator<StatementLine>, Closeable {
+
+    /**
+     * Opens a reader for the given format.
+     *
+     * @param format the statement format
+     * @param input the raw statement
+     * @return a reader positioned before the first transaction
+     */
+    static StatementReader open(StatementFormat format, InputStream input) {
+        return switch (format) {
+            case CSV -> new CsvStatementReader(input);
+            case OFX -> new OfxStatementReader(input);
+            case QIF -> new QifStatementReader(input);
+        };
+    }
+}
@@ -41,6 +41,8 @@ import java.math.BigDecimal;
  *   <li>Foreign key to liquidity_account (required)</li>
  *   <li>Foreign key to category (optional)</li>
  *   <li>Amount stored as positive value; type determines add/subtract behavior</li>
+ *   <li>Indexed on {@code account_id} and {@code category_id} for filtered listings</li>
+ *   <li>Indexed on {@code (account_id, fingerprint)} for statement import deduplication</li>
  * </ul>
  *
  * @see Operation
@@ -50,6 +52,11 @@ import java.math.BigDecimal;
  * @see com.giuseppesica.maney.account.operations.cashmovement.service.CashMovementService
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_cashmovement_account", columnList = "account_id"),
+        @Index(name = "idx_cashmovement_category", columnList = "category_id"),
+        @Index(name = "idx_cashmovement_account_fingerprint", columnList = "account_id, fingerprint")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -93,4 +100,14 @@ public class CashMovement extends Operation {
     @Enumerated(EnumType.STRING)
     private CashMovementType type;
 
+    /**
+     * Fingerprint of the bank statement line this movement was imported from.
+     * Null for movements entered manually. Used to skip lines that were already imported
+     * when the same or an overlapping statement is uploaded again.
+     *
+     * @see com.giuseppesica.maney.account.operations.cashmovement.importer.StatementFingerprinter
+     */
+    @Column(length = 64)
+    private String fingerprint;
+
 }
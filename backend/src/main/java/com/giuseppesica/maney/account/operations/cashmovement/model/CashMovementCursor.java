@@ -0,0 +1,67 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for paginated cash movement listings.
+ *
+ * <p>Identifies the last movement returned by a page through its {@code (date, id)} pair.
+ * The next page is fetched with {@code WHERE (date, id) < (cursor.date, cursor.id)}, so the
+ * cost of fetching any page is independent of how deep into the history the client is.</p>
+ *
+ * <p>Cursors are serialized as URL-safe Base64 strings. Clients must treat them as opaque
+ * tokens and pass them back unchanged.</p>
+ *
+ * @param date date of the last movement in the previous page
+ * @param id   ID of the last movement in the previous page (tie-breaker for equal dates)
+ * @see CashMovementPageDto
+ */
+public record CashMovementCursor(Instant date, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Builds the cursor pointing right after the given movement.
+     *
+     * @param cashMovement the last movement of a page
+     * @return cursor for the following page
+     */
+    public static CashMovementCursor after(CashMovementDto cashMovement) {
+        return new CashMovementCursor(cashMovement.getDate(), cashMovement.getId());
+    }
+
+    /**
+     * Serializes this cursor to an opaque URL-safe token.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        String raw = date.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a token previously produced by {@link #encode()}.
+     *
+     * @param token the encoded cursor
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static CashMovementCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Instant date = Instant.parse(raw.substring(0, separator));
+            Long id = Long.valueOf(raw.substring(separator + 1));
+            return new CashMovementCursor(date, id);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.giuseppesica.maney.account.operations.cashmovement.model;
 
 import com.giuseppesica.maney.utils.CashMovementType;
 import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -51,6 +52,7 @@ import java.time.Instant;
 @Getter
 @Setter
 @NoArgsConstructor
+@AllArgsConstructor
 public class CashMovementDto {
 
     /**
@@ -0,0 +1,36 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import com.giuseppesica.maney.utils.CashMovementType;
+
+import java.time.Instant;
+
+/**
+ * Optional server-side filters for cash movement listings.
+ *
+ * <p>Every component is nullable; a {@code null} value means "no restriction" on
+ * that dimension. The date range is half-open: {@code from <= date < to}.</p>
+ *
+ * @param from       inclusive lower bound on {@link CashMovement#getDate()}
+ * @param to         exclusive upper bound on {@link CashMovement#getDate()}
+ * @param accountId  restricts results to a single liquidity account
+ * @param categoryId restricts results to a single category
+ * @param type       restricts results to INCOME or OUTCOME movements
+ * @see CashMovementSpecifications
+ */
+public record CashMovementFilter(
+        Instant from,
+        Instant to,
+        Long accountId,
+        Long categoryId,
+        CashMovementType type
+) {
+
+    /**
+     * Filter that matches every movement.
+     *
+     * @return an empty filter
+     */
+    public static CashMovementFilter none() {
+        return new CashMovementFilter(null, null, null, null, null);
+    }
+}
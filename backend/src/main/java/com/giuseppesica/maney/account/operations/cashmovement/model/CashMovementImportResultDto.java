@@ -0,0 +1,32 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a bulk cash movement import.
+ *
+ * <p><strong>Response Example:</strong></p>
+ * <pre>
+ * {
+ *   "imported": 12000,
+ *   "accountsUpdated": 3
+ * }
+ * </pre>
+ *
+ * @see com.giuseppesica.maney.account.operations.cashmovement.service.CashMovementImportService
+ */
+@Getter
+@AllArgsConstructor
+public class CashMovementImportResultDto {
+
+    /**
+     * Number of cash movements created.
+     */
+    private final int imported;
+
+    /**
+     * Number of liquidity accounts whose balance changed.
+     */
+    private final int accountsUpdated;
+}
@@ -0,0 +1,38 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated cash movement listing.
+ *
+ * <p><strong>Response Example:</strong></p>
+ * <pre>
+ * {
+ *   "items": [ { "id": 42, "date": "2024-12-01T10:00:00Z", ... } ],
+ *   "nextCursor": "MjAyNC0xMi0wMVQxMDowMDowMFp8NDI"
+ * }
+ * </pre>
+ *
+ * <p>{@code nextCursor} is {@code null} on the last page. Otherwise it can be passed back
+ * as the {@code cursor} query parameter to fetch the following page.</p>
+ *
+ * @see CashMovementCursor
+ * @see CashMovementDto
+ */
+@Getter
+@AllArgsConstructor
+public class CashMovementPageDto {
+
+    /**
+     * Movements in this page, newest first.
+     */
+    private final List<CashMovementDto> items;
+
+    /**
+     * Opaque cursor for the next page, or {@code null} when there are no more movements.
+     */
+    private final String nextCursor;
+}
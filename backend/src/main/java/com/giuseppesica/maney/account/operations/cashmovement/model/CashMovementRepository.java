@@ -1,11 +1,25 @@
 package com.giuseppesica.maney.account.operations.cashmovement.model;
 
+import com.giuseppesica.maney.account.liquidityaccount.model.AccountTotal;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceMovement;
+import com.giuseppesica.maney.account.operations.export.model.OperationExportRow;
+import com.giuseppesica.maney.category.model.CategoryTotal;
+import com.giuseppesica.maney.utils.CashMovementType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Spring Data JPA repository for {@link CashMovement} entities.
@@ -17,6 +31,14 @@ import java.util.Optional;
  * <ul>
  *   <li>Portfolio-scoped listing for displaying user's transaction history</li>
  *   <li>Portfolio-scoped single lookup for authorization checks</li>
+ *   <li>Fingerprint lookup for statement import deduplication</li>
+ *   <li>Forward-only streaming of export rows</li>
+ *   <li>Net balance effect over a date range, for point-in-time balances</li>
+ *   <li>Totals per category over a date range, for category spending reports</li>
+ *   <li>Forward-only streaming of balance movements, for running-balance series</li>
+ *   <li>Forward-only streaming of rollup rows, for rebuilding category rollups</li>
+ *   <li>Filtered, keyset-paginated listing projected to DTOs in one statement through
+ *       {@link CashMovementRepositoryCustom#findDtos} combined with {@link CashMovementSpecifications}</li>
  * </ul>
  *
  * <p><strong>Security Note:</strong> All custom queries join through the account's
@@ -25,7 +47,8 @@ import java.util.Optional;
  * @see CashMovement
  * @see JpaRepository
  */
-public interface CashMovementRepository extends JpaRepository<CashMovement, Long> {
+public interface CashMovementRepository extends JpaRepository<CashMovement, Long>, JpaSpecificationExecutor<CashMovement>,
+        CashMovementRepositoryCustom {
 
     /**
      * Finds all cash movements for accounts within a specific portfolio.
@@ -60,4 +83,152 @@ public interface CashMovementRepository extends JpaRepository<CashMovement, Long
             "WHERE cm.id = :id AND cm.liquidityAccount.portfolio.id = :portfolioId")
     Optional<CashMovement> findByIdAndPortfolioId(@Param("id") Long id,
                                                   @Param("portfolioId") Long portfolioId);
+
+    /**
+     * Returns which of the given statement fingerprints are already stored for an account.
+     *
+     * <p>Backed by the {@code (account_id, fingerprint)} index.</p>
+     *
+     * @param accountId the liquidity account the statement is imported into
+     * @param fingerprints fingerprints of the statement lines being imported
+     * @return the subset of {@code fingerprints} that already exist
+     */
+    @Query("SELECT cm.fingerprint FROM CashMovement cm " +
+            "WHERE cm.liquidityAccount.id = :accountId AND cm.fingerprint IN :fingerprints")
+    Set<String> findExistingFingerprints(@Param("accountId") Long accountId,
+                                         @Param("fingerprints") Collection<String> fingerprints);
+
+    /**
+     * Sums the balance effect of an account's cash movements dated in {@code (after, until]}.
+     *
+     * <p>INCOME counts positive and OUTCOME negative. Only movements in the range are read,
+     * through the {@code (date, id)} operation index.</p>
+     *
+     * @param accountId the liquidity account ID
+     * @param after exclusive lower bound of the movement date
+     * @param until inclusive upper bound of the movement date
+     * @return the signed sum (zero if there are no movements in the range)
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN cm.type = com.giuseppesica.maney.utils.CashMovementType.INCOME " +
+            "THEN cm.amount ELSE -cm.amount END), 0) " +
+            "FROM CashMovement cm " +
+            "WHERE cm.liquidityAccount.id = :accountId AND cm.date > :after AND cm.date <= :until")
+    BigDecimal sumSignedAmounts(@Param("accountId") Long accountId,
+                                @Param("after") Instant after,
+                                @Param("until") Instant until);
+
+    /**
+     * Sums a user's cash movements of one type dated in {@code [from, to)}, per category.
+     *
+     * <p>Only movements in the range are read, through the {@code (date, id)} operation index.
+     * Uncategorized movements are left out.</p>
+     *
+     * @param userId the user owning the categories
+     * @param type INCOME or OUTCOME
+     * @param from inclusive lower bound of the movement date
+     * @param to exclusive upper bound of the movement date
+     * @return one total per category with at least one movement in the range
+     */
+    @Query("SELECT new com.giuseppesica.maney.category.model.CategoryTotal(c.id, SUM(cm.amount), COUNT(cm)) " +
+            "FROM CashMovement cm JOIN cm.category c " +
+            "WHERE c.user.id = :userId AND cm.type = :type AND cm.date >= :from AND cm.date < :to " +
+            "GROUP BY c.id")
+    List<CategoryTotal> sumByCategory(@Param("userId") Long userId,
+                                      @Param("type") CashMovementType type,
+                                      @Param("from") Instant from,
+                                      @Param("to") Instant to);
+
+    /**
+     * Sums the balance effect of all the cash movements of several accounts, per account.
+     *
+     * <p>INCOME counts positive and OUTCOME negative.</p>
+     *
+     * @param accountIds the liquidity account IDs
+     * @return one total per account with at least one movement
+     */
+    @Query("SELECT new com.giuseppesica.maney.account.liquidityaccount.model.AccountTotal(cm.liquidityAccount.id, " +
+            "SUM(CASE WHEN cm.type = com.giuseppesica.maney.utils.CashMovementType.INCOME THEN cm.amount ELSE -cm.amount END)) " +
+            "FROM CashMovement cm " +
+            "WHERE cm.liquidityAccount.id IN :accountIds " +
+            "GROUP BY cm.liquidityAccount.id")
+    List<AccountTotal> sumSignedAmountsByAccountIds(@Param("accountIds") Collection<Long> accountIds);
+
+    /**
+     * Finds the date of an account's oldest cash movement.
+     *
+     * @param accountId the liquidity account ID
+     * @return the oldest movement date, or null if the account has no movements
+     */
+    @Query("SELECT MIN(cm.date) FROM CashMovement cm WHERE cm.liquidityAccount.id = :accountId")
+    Instant findFirstDateByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * Streams the export rows of every cash movement in a portfolio, oldest first.
+     *
+     * <p>Rows are projected straight from the query (no entities are loaded) and read
+     * through a forward-only cursor {@link #EXPORT_FETCH_SIZE} rows at a time, so memory use
+     * does not grow with the number of movements. Must be called inside a transaction and
+     * the stream must be closed.</p>
+     *
+     * @param portfolioId the portfolio ID to export
+     * @return stream of rows ordered by {@code (date, id)}
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.giuseppesica.maney.account.operations.export.model.OperationExportRow(" +
+            "cm.id, cm.date, cm.type, cm.amount, a.id, a.name, c.id, c.name, cm.note) " +
+            "FROM CashMovement cm JOIN cm.liquidityAccount a LEFT JOIN cm.category c " +
+            "WHERE a.portfolio.id = :portfolioId " +
+            "ORDER BY cm.date, cm.id")
+    Stream<OperationExportRow> streamExportRowsByPortfolioId(@Param("portfolioId") Long portfolioId);
+
+    /**
+     * Streams the balance effect of the cash movements of a portfolio dated in {@code [from, to)}, oldest first.
+     *
+     * <p>Projected straight from the query and read through a forward-only cursor, like the
+     * export. Must be called inside a transaction and the stream must be closed.</p>
+     *
+     * @param portfolioId the portfolio ID
+     * @param from inclusive lower bound of the movement date
+     * @param to exclusive upper bound of the movement date
+     * @return stream of movements ordered by {@code (date, id)}
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.giuseppesica.maney.account.liquidityaccount.model.BalanceMovement(" +
+            "cm.date, cm.id, a.id, cm.type, cm.amount) " +
+            "FROM CashMovement cm JOIN cm.liquidityAccount a " +
+            "WHERE a.portfolio.id = :portfolioId AND cm.date >= :from AND cm.date < :to " +
+            "ORDER BY cm.date, cm.id")
+    Stream<BalanceMovement> streamBalanceMovementsByPortfolioId(@Param("portfolioId") Long portfolioId,
+                                                                @Param("from") Instant from,
+                                                                @Param("to") Instant to);
+
+    /**
+     * Streams the cash movements of a portfolio reduced to their rollup key and amount.
+     *
+     * <p>Only used to rebuild the category rollups; read through a forward-only cursor
+     * like the export. Must be called inside a transaction and the stream must be closed.</p>
+     *
+     * @param portfolioId the portfolio ID
+     * @return stream of rows in no particular order
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.giuseppesica.maney.account.operations.cashmovement.model.CategoryRollupRow(" +
+            "c.id, cm.date, cm.type, cm.amount) " +
+            "FROM CashMovement cm JOIN cm.liquidityAccount a LEFT JOIN cm.category c " +
+            "WHERE a.portfolio.id = :portfolioId")
+    Stream<CategoryRollupRow> streamRollupRowsByPortfolioId(@Param("portfolioId") Long portfolioId);
+
+    /**
+     * Finds the portfolios owning at least one cash movement.
+     *
+     * @return the portfolio IDs
+     */
+    @Query("SELECT DISTINCT a.portfolio.id FROM CashMovement cm JOIN cm.liquidityAccount a")
+    List<Long> findPortfolioIdsWithMovements();
+
+    /**
+     * Rows fetched per round trip by {@link #streamExportRowsByPortfolioId},
+     * {@link #streamBalanceMovementsByPortfolioId} and {@link #streamRollupRowsByPortfolioId}.
+     */
+    int EXPORT_FETCH_SIZE = 500;
 }
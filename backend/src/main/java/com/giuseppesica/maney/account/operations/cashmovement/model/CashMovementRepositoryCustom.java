@@ -0,0 +1,28 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Custom read paths of {@link CashMovementRepository} that Spring Data cannot derive.
+ *
+ * @see CashMovementRepositoryCustomImpl
+ */
+public interface CashMovementRepositoryCustom {
+
+    /**
+     * Lists cash movements matching a specification directly as DTOs.
+     *
+     * <p>The DTO columns are selected by the query itself (joining the account for its name),
+     * so listing N movements is a single SQL statement: no entity is loaded and none of the
+     * eager {@code category}/{@code liquidityAccount} associations triggers follow-up SELECTs.</p>
+     *
+     * @param specification the filters to apply (see {@link CashMovementSpecifications})
+     * @param sort the result order
+     * @param limit maximum number of rows to return
+     * @return the matching movements, at most {@code limit}
+     */
+    List<CashMovementDto> findDtos(Specification<CashMovement> specification, Sort sort, int limit);
+}
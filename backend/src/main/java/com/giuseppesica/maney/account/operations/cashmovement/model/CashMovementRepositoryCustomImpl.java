@@ -0,0 +1,53 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+/**
+ * Criteria API implementation of {@link CashMovementRepositoryCustom}.
+ *
+ * <p>Picked up by Spring Data through the {@code Impl} naming convention and merged into
+ * {@link CashMovementRepository}.</p>
+ */
+class CashMovementRepositoryCustomImpl implements CashMovementRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    CashMovementRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<CashMovementDto> findDtos(Specification<CashMovement> specification, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CashMovementDto> query = cb.createQuery(CashMovementDto.class);
+        Root<CashMovement> root = query.from(CashMovement.class);
+        Join<CashMovement, LiquidityAccount> account = root.join("liquidityAccount");
+
+        // category.id reads the foreign key column, so uncategorized movements need no outer join
+        query.select(cb.construct(CashMovementDto.class,
+                root.get("id"),
+                root.get("date"),
+                root.get("note"),
+                root.get("category").get("id"),
+                root.get("amount"),
+                root.get("type"),
+                account.get("name"),
+                account.get("id")));
+        query.where(specification.toPredicate(root, query, cb));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,40 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import com.giuseppesica.maney.utils.CashMovementType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Key of a {@link CategoryMonthlyTotal} row within a portfolio.
+ *
+ * @param categoryId the category, or {@code null} for uncategorized movements
+ * @param monthStart first day of the UTC month
+ * @param type the movement type
+ */
+public record CategoryMonthKey(Long categoryId, LocalDate monthStart, CashMovementType type) {
+
+    /**
+     * Returns the key a movement is counted under.
+     *
+     * @param categoryId the movement category, or {@code null}
+     * @param date the movement date
+     * @param type the movement type
+     * @return the key
+     */
+    public static CategoryMonthKey of(Long categoryId, Instant date, CashMovementType type) {
+        return new CategoryMonthKey(categoryId, date.atOffset(ZoneOffset.UTC).toLocalDate().withDayOfMonth(1), type);
+    }
+
+    /**
+     * Returns the key a movement is counted under.
+     *
+     * @param cashMovement the movement
+     * @return the key
+     */
+    public static CategoryMonthKey of(CashMovement cashMovement) {
+        Long categoryId = cashMovement.getCategory() == null ? null : cashMovement.getCategory().getId();
+        return of(categoryId, cashMovement.getDate(), cashMovement.getType());
+    }
+}
@@ -0,0 +1,104 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import com.giuseppesica.maney.utils.CashMovementType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Precomputed total of the cash movements of one portfolio, category, month and type.
+ *
+ * <p>Rows are maintained incrementally by
+ * {@link com.giuseppesica.maney.account.operations.cashmovement.service.CategoryRollupService}
+ * in the same transaction as every cash movement create, update, delete and import, so
+ * monthly reports read one row per (month, category, type) instead of summing raw movements.</p>
+ *
+ * <p><strong>Database Schema:</strong></p>
+ * <ul>
+ *   <li>Unique on {@code (portfolio_id, month_start, category_id, type)}; the same index serves
+ *       the upserts of incremental updates and month-range reads of a portfolio. On PostgreSQL
+ *       the constraint is {@code NULLS NOT DISTINCT}, so uncategorized movements share one row
+ *       per month and type (see migration {@code V2})</li>
+ *   <li>{@code category_id} is null for uncategorized movements and carries no foreign key:
+ *       rows whose movement count drops to zero are deleted, so a category with no movements
+ *       left has no rollup rows either</li>
+ *   <li>Months are UTC calendar months, stored as their first day</li>
+ * </ul>
+ *
+ * @see CategoryMonthKey
+ * @see CategoryMonthlyTotalDto
+ */
+@Entity
+@Table(
+        name = "category_monthly_total",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_category_monthly_total_key",
+                columnNames = {"portfolio_id", "month_start", "category_id", "type"}
+        )
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class CategoryMonthlyTotal {
+
+    /**
+     * Unique identifier for this row.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The portfolio owning the movements.
+     */
+    @NotNull
+    @Column(name = "portfolio_id", nullable = false)
+    private Long portfolioId;
+
+    /**
+     * The category of the movements, or null for uncategorized movements.
+     */
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    /**
+     * First day of the UTC month the movements fall in.
+     */
+    @NotNull
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    /**
+     * Type of the movements.
+     */
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CashMovementType type;
+
+    /**
+     * Sum of the (positive) movement amounts.
+     */
+    @NotNull
+    @Column(nullable = false)
+    private BigDecimal total;
+
+    /**
+     * Number of movements summed into {@link #total}.
+     */
+    @Column(name = "movement_count", nullable = false)
+    private long movementCount;
+}
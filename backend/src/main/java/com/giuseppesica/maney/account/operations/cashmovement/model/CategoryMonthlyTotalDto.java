@@ -0,0 +1,73 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import com.giuseppesica.maney.utils.CashMovementType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Data Transfer Object for the cash movement total of one category, month and type.
+ *
+ * <p><strong>Response Example:</strong></p>
+ * <pre>
+ * {
+ *   "month": "2024-03",
+ *   "categoryId": 7,
+ *   "type": "OUTCOME",
+ *   "total": 412.30,
+ *   "count": 18
+ * }
+ * </pre>
+ *
+ * <p>{@code categoryId} is null for uncategorized movements. Months are UTC calendar months.</p>
+ *
+ * @see CategoryMonthlyTotal
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryMonthlyTotalDto {
+
+    /**
+     * The calendar month.
+     */
+    private YearMonth month;
+
+    /**
+     * The category, or null for uncategorized movements.
+     */
+    private Long categoryId;
+
+    /**
+     * INCOME or OUTCOME.
+     */
+    private CashMovementType type;
+
+    /**
+     * Sum of the movement amounts.
+     */
+    private BigDecimal total;
+
+    /**
+     * Number of movements.
+     */
+    private long count;
+
+    /**
+     * Constructor to create a DTO from a rollup row.
+     *
+     * @param row the rollup row
+     */
+    public CategoryMonthlyTotalDto(CategoryMonthlyTotal row) {
+        this.month = YearMonth.from(row.getMonthStart());
+        this.categoryId = row.getCategoryId();
+        this.type = row.getType();
+        this.total = row.getTotal();
+        this.count = row.getMovementCount();
+    }
+}
@@ -0,0 +1,71 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import com.giuseppesica.maney.category.model.CategoryTotal;
+import com.giuseppesica.maney.utils.CashMovementType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for {@link CategoryMonthlyTotal} rollup rows.
+ *
+ * <p>Every query filters on the portfolio and is served by the
+ * {@code uk_category_monthly_total_key} index; none of them touches the movement tables.</p>
+ *
+ * @see com.giuseppesica.maney.account.operations.cashmovement.service.CategoryRollupService
+ */
+public interface CategoryMonthlyTotalRepository extends JpaRepository<CategoryMonthlyTotal, Long>,
+        CategoryMonthlyTotalRepositoryCustom {
+
+    /**
+     * Finds the rollup rows of a portfolio in a range of months.
+     *
+     * @param portfolioId the portfolio ID
+     * @param from first day of the first month (inclusive)
+     * @param to first day of the last month (inclusive)
+     * @param type restricts results to INCOME or OUTCOME, or {@code null} for both
+     * @return the rows ordered by month, category and type
+     */
+    @Query("SELECT t FROM CategoryMonthlyTotal t " +
+            "WHERE t.portfolioId = :portfolioId AND t.monthStart BETWEEN :from AND :to " +
+            "AND (:type IS NULL OR t.type = :type) " +
+            "ORDER BY t.monthStart, t.categoryId NULLS FIRST, t.type")
+    List<CategoryMonthlyTotal> findByPortfolioIdAndMonths(@Param("portfolioId") Long portfolioId,
+                                                          @Param("from") LocalDate from,
+                                                          @Param("to") LocalDate to,
+                                                          @Param("type") CashMovementType type);
+
+    /**
+     * Sums the rollup rows of a portfolio over a range of months, per category.
+     * Uncategorized movements are left out.
+     *
+     * @param portfolioId the portfolio ID
+     * @param type INCOME or OUTCOME
+     * @param from first day of the first month (inclusive)
+     * @param to first day of the month after the last one (exclusive)
+     * @return one total per category with at least one movement in the range
+     */
+    @Query("SELECT new com.giuseppesica.maney.category.model.CategoryTotal(t.categoryId, SUM(t.total), SUM(t.movementCount)) " +
+            "FROM CategoryMonthlyTotal t " +
+            "WHERE t.portfolioId = :portfolioId AND t.type = :type AND t.monthStart >= :from AND t.monthStart < :to " +
+            "AND t.categoryId IS NOT NULL " +
+            "GROUP BY t.categoryId")
+    List<CategoryTotal> sumByCategory(@Param("portfolioId") Long portfolioId,
+                                      @Param("type") CashMovementType type,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to);
+
+    /**
+     * Deletes every rollup row of a portfolio.
+     *
+     * @param portfolioId the portfolio ID
+     * @return number of deleted rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CategoryMonthlyTotal t WHERE t.portfolioId = :portfolioId")
+    int deleteByPortfolioId(@Param("portfolioId") Long portfolioId);
+}
@@ -0,0 +1,32 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom write operations of {@link CategoryMonthlyTotalRepository} that need
+ * database-specific upsert statements.
+ */
+public interface CategoryMonthlyTotalRepositoryCustom {
+
+    /**
+     * Adds deltas to the rollup rows of a portfolio in one batch.
+     *
+     * <p>A row is inserted the first time its key is seen and updated in place otherwise,
+     * atomically, so concurrent writers of the same key never need a lock of their own.
+     * Deltas are applied in the given order; callers pass them sorted by key so that
+     * transactions touching several keys lock the rows in the same order.</p>
+     *
+     * @param portfolioId the portfolio ID
+     * @param deltas change per rollup key
+     */
+    void upsertTotals(Long portfolioId, List<Map.Entry<CategoryMonthKey, CategoryRollupDelta>> deltas);
+
+    /**
+     * Deletes the given rollup rows of a portfolio if no movement is counted in them anymore.
+     *
+     * @param portfolioId the portfolio ID
+     * @param keys the keys to check
+     */
+    void deleteEmpty(Long portfolioId, List<CategoryMonthKey> keys);
+}
@@ -0,0 +1,95 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC implementation of {@link CategoryMonthlyTotalRepositoryCustom}.
+ *
+ * <p>On PostgreSQL a delta is an {@code INSERT ... ON CONFLICT DO UPDATE} against the
+ * {@code uk_category_monthly_total_key} constraint, which treats a null category as a
+ * regular value ({@code NULLS NOT DISTINCT}). Other databases (H2 in tests) use the
+ * standard {@code MERGE} statement.</p>
+ *
+ * <p>Picked up by Spring Data through the {@code Impl} naming convention and merged into
+ * {@link CategoryMonthlyTotalRepository}.</p>
+ */
+class CategoryMonthlyTotalRepositoryCustomImpl implements CategoryMonthlyTotalRepositoryCustom {
+
+    private static final String UPSERT_POSTGRES_SQL =
+            "INSERT INTO category_monthly_total (portfolio_id, month_start, category_id, type, total, movement_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (portfolio_id, month_start, category_id, type) DO UPDATE " +
+            "SET total = category_monthly_total.total + excluded.total, " +
+            "movement_count = category_monthly_total.movement_count + excluded.movement_count";
+
+    private static final String MERGE_SQL =
+            "MERGE INTO category_monthly_total t " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS DATE), CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), " +
+            "CAST(? AS DECIMAL(38, 2)), CAST(? AS BIGINT))) " +
+            "AS d (portfolio_id, month_start, category_id, type, total, movement_count) " +
+            "ON t.portfolio_id = d.portfolio_id AND t.month_start = d.month_start " +
+            "AND t.category_id IS NOT DISTINCT FROM d.category_id AND t.type = d.type " +
+            "WHEN MATCHED THEN UPDATE SET total = t.total + d.total, movement_count = t.movement_count + d.movement_count " +
+            "WHEN NOT MATCHED THEN INSERT (portfolio_id, month_start, category_id, type, total, movement_count) " +
+            "VALUES (d.portfolio_id, d.month_start, d.category_id, d.type, d.total, d.movement_count)";
+
+    private static final String DELETE_EMPTY_SQL =
+            "DELETE FROM category_monthly_total " +
+            "WHERE portfolio_id = ? AND month_start = ? AND category_id IS NOT DISTINCT FROM ? AND type = ? " +
+            "AND movement_count <= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    CategoryMonthlyTotalRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void upsertTotals(Long portfolioId, List<Map.Entry<CategoryMonthKey, CategoryRollupDelta>> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(isPostgres() ? UPSERT_POSTGRES_SQL : MERGE_SQL, deltas, deltas.size(),
+                (ps, entry) -> {
+                    setKey(ps, portfolioId, entry.getKey());
+                    ps.setBigDecimal(5, entry.getValue().total());
+                    ps.setLong(6, entry.getValue().count());
+                });
+    }
+
+    @Override
+    public void deleteEmpty(Long portfolioId, List<CategoryMonthKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_EMPTY_SQL, keys, keys.size(), (ps, key) -> setKey(ps, portfolioId, key));
+    }
+
+    private static void setKey(PreparedStatement ps, Long portfolioId, CategoryMonthKey key) throws SQLException {
+        ps.setLong(1, portfolioId);
+        ps.setDate(2, Date.valueOf(key.monthStart()));
+        ps.setObject(3, key.categoryId(), Types.BIGINT);
+        ps.setString(4, key.type().name());
+    }
+
+    private boolean isPostgres() {
+        Boolean cached = postgres;
+        if (cached == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            cached = "PostgreSQL".equals(database);
+            postgres = cached;
+        }
+        return cached;
+    }
+}
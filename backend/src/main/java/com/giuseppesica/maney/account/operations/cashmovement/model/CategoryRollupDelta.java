@@ -0,0 +1,51 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Change to apply to one {@link CategoryMonthlyTotal} row.
+ *
+ * @param total amount added to the total (negative when movements are removed)
+ * @param count number of movements added (negative when movements are removed)
+ */
+public record CategoryRollupDelta(BigDecimal total, long count) {
+
+    /**
+     * Delta of adding one movement.
+     *
+     * @param amount the movement amount
+     * @return the delta
+     */
+    public static CategoryRollupDelta added(BigDecimal amount) {
+        return new CategoryRollupDelta(amount, 1);
+    }
+
+    /**
+     * Delta of removing one movement.
+     *
+     * @param amount the movement amount
+     * @return the delta
+     */
+    public static CategoryRollupDelta removed(BigDecimal amount) {
+        return new CategoryRollupDelta(amount.negate(), -1);
+    }
+
+    /**
+     * Combines two deltas of the same key.
+     *
+     * @param other the other delta
+     * @return the sum of both deltas
+     */
+    public CategoryRollupDelta plus(CategoryRollupDelta other) {
+        return new CategoryRollupDelta(total.add(other.total), count + other.count);
+    }
+
+    /**
+     * Whether applying this delta changes nothing.
+     *
+     * @return {@code true} if both the total and the count are unchanged
+     */
+    public boolean isEmpty() {
+        return count == 0 && total.signum() == 0;
+    }
+}
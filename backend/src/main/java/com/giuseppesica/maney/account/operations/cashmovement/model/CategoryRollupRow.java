@@ -0,0 +1,23 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import com.giuseppesica.maney.utils.CashMovementType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A cash movement reduced to what the category rollups need, used when rebuilding them.
+ *
+ * @param key the rollup row the movement is counted in
+ * @param amount the movement amount
+ * @see CashMovementRepository#streamRollupRowsByPortfolioId(Long)
+ */
+public record CategoryRollupRow(CategoryMonthKey key, BigDecimal amount) {
+
+    /**
+     * Builds the row of a cash movement. Used by JPQL constructor expressions.
+     */
+    public CategoryRollupRow(Long categoryId, Instant date, CashMovementType type, BigDecimal amount) {
+        this(CategoryMonthKey.of(categoryId, date, type), amount);
+    }
+}
@@ -0,0 +1,65 @@
+package com.giuseppesica.maney.account.operations.cashmovement.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Progress, and eventually outcome, of a bank statement import.
+ *
+ * <p>Published after every committed chunk while the import runs, and returned as the
+ * response of the import request once it completes.</p>
+ *
+ * <p><strong>Response Example:</strong></p>
+ * <pre>
+ * {
+ *   "importId": "2024-statement",
+ *   "bytesRead": 1048576,
+ *   "totalBytes": 52428800,
+ *   "linesRead": 8000,
+ *   "imported": 7500,
+ *   "skipped": 500,
+ *   "done": false
+ * }
+ * </pre>
+ *
+ * @see com.giuseppesica.maney.account.operations.cashmovement.service.StatementImportService
+ */
+@Getter
+@AllArgsConstructor
+public class StatementImportProgressDto {
+
+    /**
+     * Client-chosen or generated identifier of the import, used to poll its progress.
+     */
+    private final String importId;
+
+    /**
+     * Bytes of the statement consumed so far.
+     */
+    private final long bytesRead;
+
+    /**
+     * Size of the statement in bytes, or -1 when the client did not send a length.
+     */
+    private final long totalBytes;
+
+    /**
+     * Statement lines parsed so far.
+     */
+    private final long linesRead;
+
+    /**
+     * Lines committed as new cash movements.
+     */
+    private final long imported;
+
+    /**
+     * Lines skipped because an identical line was already imported.
+     */
+    private final long skipped;
+
+    /**
+     * Whether the whole statement has been processed.
+     */
+    private final boolean done;
+}
@@ -0,0 +1,189 @@
+package com.giuseppesica.maney.account.operations.cashmovement.service;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
+import com.giuseppesica.maney.account.operations.Operation;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovement;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementImportResultDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryMonthKey;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryRollupDelta;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.service.CategoryService;
+import com.giuseppesica.maney.security.NotFoundException;
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for importing large numbers of cash movements in one request.
+ *
+ * <p>Compared to posting movements one by one, an import:</p>
+ * <ul>
+ *   <li>Resolves the portfolio's accounts and the user's categories once, up front</li>
+ *   <li>Inserts movements in JDBC batches of {@link #BATCH_SIZE}, clearing the persistence
+ *       context after each batch so memory stays flat</li>
+ *   <li>Applies a single net balance delta per account and a single rollup delta per
+ *       category and month at the end</li>
+ * </ul>
+ *
+ * <p>The import is all-or-nothing: an invalid row, an unknown account name or an unknown
+ * category rolls back every movement and balance change of the request.</p>
+ *
+ * @see CashMovementImportResultDto
+ * @see LiquidityAccountService#applyBalanceDeltas(Map, Map)
+ */
+@Service
+public class CashMovementImportService {
+
+    /**
+     * Number of movements inserted per flush; matches {@code hibernate.jdbc.batch_size}.
+     */
+    public static final int BATCH_SIZE = Operation.ID_ALLOCATION_SIZE;
+
+    private final CashMovementRepository cashMovementRepository;
+    private final LiquidityAccountService liquidityAccountService;
+    private final CategoryService categoryService;
+    private final CategoryRollupService categoryRollupService;
+    private final Validator validator;
+    private final EntityManager entityManager;
+
+    /**
+     * Constructs the service with required dependencies.
+     *
+     * @param cashMovementRepository repository for cash movement persistence
+     * @param liquidityAccountService service for account resolution and balance deltas
+     * @param categoryService service for category resolution
+     * @param categoryRollupService service maintaining the monthly category totals
+     * @param validator bean validator applied to every row
+     * @param entityManager entity manager used to flush and clear between batches
+     */
+    public CashMovementImportService(CashMovementRepository cashMovementRepository,
+                                     LiquidityAccountService liquidityAccountService,
+                                     CategoryService categoryService,
+                                     CategoryRollupService categoryRollupService,
+                                     Validator validator,
+                                     EntityManager entityManager) {
+        this.cashMovementRepository = cashMovementRepository;
+        this.liquidityAccountService = liquidityAccountService;
+        this.categoryService = categoryService;
+        this.categoryRollupService = categoryRollupService;
+        this.validator = validator;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Imports a stream of cash movements into the user's portfolio.
+     *
+     * <p>Rows are consumed lazily from the iterator, so callers can stream them straight
+     * from the request body.</p>
+     *
+     * @param principal the authenticated user
+     * @param rows the movements to import, in the same format as single creations
+     * @return the number of imported movements and updated accounts
+     * @throws IllegalArgumentException if a row fails validation
+     * @throws NotFoundException if a row references an unknown account or category
+     */
+    @Transactional
+    public CashMovementImportResultDto importCashMovements(AuthenticatedPrincipal principal, Iterator<CashMovementDto> rows) {
+        Map<String, LiquidityAccount> accounts = liquidityAccountService
+                .getLiquidityAccountsByPortfolioId(principal.portfolioId())
+                .stream()
+                .collect(Collectors.toMap(LiquidityAccount::getName, Function.identity(), (first, second) -> first));
+        Map<Long, Category> categories = categoryService.findByUserId(principal.userId())
+                .stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        Map<Long, Map<Long, BigDecimal>> deltas = new HashMap<>();
+        Map<Long, Instant> since = new HashMap<>();
+        Map<CategoryMonthKey, CategoryRollupDelta> rollups = new HashMap<>();
+        List<CashMovement> batch = new ArrayList<>(BATCH_SIZE);
+        int row = 0;
+        while (rows.hasNext()) {
+            CashMovementDto dto = rows.next();
+            row++;
+            validate(dto, row);
+
+            LiquidityAccount account = accounts.get(dto.getLiquidityAccountName());
+            if (account == null) {
+                throw new NotFoundException("Row " + row + ": Liquidity Account Not Found");
+            }
+            Category category = categories.get(dto.getCategoryId());
+            if (category == null) {
+                throw new NotFoundException("Row " + row + ": Category Not Found");
+            }
+
+            CashMovement cashMovement = new CashMovement();
+            cashMovement.setDate(dto.getDate());
+            cashMovement.setNote(dto.getNote());
+            cashMovement.setCategory(category);
+            cashMovement.setAmount(dto.getAmount());
+            cashMovement.setType(dto.getType());
+            cashMovement.setLiquidityAccount(account);
+            batch.add(cashMovement);
+            since.merge(account.getId(), dto.getDate(), (a, b) -> a.isBefore(b) ? a : b);
+            rollups.merge(CategoryMonthKey.of(cashMovement), CategoryRollupDelta.added(dto.getAmount()),
+                    CategoryRollupDelta::plus);
+
+            if (batch.size() == BATCH_SIZE) {
+                flush(batch, deltas);
+            }
+        }
+        flush(batch, deltas);
+
+        liquidityAccountService.applyBalanceDeltas(deltas, since);
+        categoryRollupService.applyDeltas(principal.portfolioId(), rollups);
+        int accountsUpdated = (int) deltas.values().stream()
+                .filter(operations -> operations.values().stream().anyMatch(delta -> delta.signum() != 0))
+                .count();
+        return new CashMovementImportResultDto(row, accountsUpdated);
+    }
+
+    /**
+     * Sends the pending batch to the database, records the balance delta of each movement
+     * under its account and detaches the batch from the persistence context. Accounts and
+     * categories stay usable as references after being detached.
+     */
+    private void flush(List<CashMovement> batch, Map<Long, Map<Long, BigDecimal>> deltas) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        cashMovementRepository.saveAll(batch);
+        for (CashMovement cashMovement : batch) {
+            deltas.computeIfAbsent(cashMovement.getLiquidityAccount().getId(), id -> new HashMap<>())
+                    .put(cashMovement.getId(), cashMovement.getType().signed(cashMovement.getAmount()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        batch.clear();
+    }
+
+    private void validate(CashMovementDto dto, int row) {
+        if (dto == null) {
+            throw new IllegalArgumentException("Row " + row + ": empty row");
+        }
+        Set<ConstraintViolation<CashMovementDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            throw new IllegalArgumentException("Row " + row + ": " + message);
+        }
+    }
+}
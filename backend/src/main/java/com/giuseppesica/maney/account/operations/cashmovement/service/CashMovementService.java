@@ -2,10 +2,17 @@ package com.giuseppesica.maney.account.operations.cashmovement.service;
 
 import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
 import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovement;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementCursor;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementFilter;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementPageDto;
 import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementSpecifications;
 import com.giuseppesica.maney.user.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -39,6 +46,16 @@ import java.util.Optional;
 @Service
 public class CashMovementService {
 
+    /**
+     * Page size used when the client does not request one.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Upper bound on the page size a client may request.
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final CashMovementRepository cashMovementRepository;
 
     /**
@@ -64,6 +81,46 @@ public class CashMovementService {
         return cashMovementRepository.findByPortfolioId(user.getPortfolio().getId());
     }
 
+    /**
+     * Retrieves one page of the user's cash movements using keyset pagination.
+     *
+     * <p>Movements are ordered newest first by {@code (date, id)}. The page is fetched with
+     * a {@code (date, id) < cursor} predicate and a {@code LIMIT}, never an {@code OFFSET},
+     * so the cost of any page does not depend on its position in the history.</p>
+     *
+     * <p>One extra row is fetched to detect whether a following page exists without
+     * issuing a count query. Rows are projected straight to DTOs, so the whole page costs
+     * a single SQL statement.</p>
+     *
+     * @param portfolioId the ID of the authenticated user's portfolio
+     * @param filter optional date range, account, category and type filters
+     * @param cursor opaque cursor from a previous page, or {@code null} for the first page
+     * @param limit maximum number of movements to return (1 to {@link #MAX_PAGE_SIZE})
+     * @return the page of movements and the cursor for the next one
+     * @throws IllegalArgumentException if the cursor is malformed or the limit is out of range
+     */
+    @Transactional(readOnly = true)
+    public CashMovementPageDto getCashMovementPage(Long portfolioId, CashMovementFilter filter, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        CashMovementCursor position = cursor == null || cursor.isBlank() ? null : CashMovementCursor.decode(cursor);
+
+        Specification<CashMovement> specification = CashMovementSpecifications
+                .inPortfolio(portfolioId)
+                .and(CashMovementSpecifications.matching(filter))
+                .and(CashMovementSpecifications.after(position));
+
+        List<CashMovementDto> rows = cashMovementRepository.findDtos(
+                specification, CashMovementSpecifications.KEYSET_SORT, limit + 1);
+
+        boolean hasNext = rows.size() > limit;
+        List<CashMovementDto> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext ? CashMovementCursor.after(page.get(page.size() - 1)).encode() : null;
+
+        return new CashMovementPageDto(page, nextCursor);
+    }
+
     /**
      * Persists a new or updated cash movement.
      *
@@ -84,11 +141,11 @@ public class CashMovementService {
      * This ensures users cannot access movements from other portfolios.</p>
      *
      * @param id the movement ID to retrieve
-     * @param user the authenticated user
+     * @param portfolioId the ID of the authenticated user's portfolio
      * @return Optional containing the movement if found and owned, empty otherwise
      */
-    public Optional<CashMovement> getCashMovementByIdAndUserId(Long id, User user) {
-        return cashMovementRepository.findByIdAndPortfolioId(id, user.getPortfolio().getId());
+    public Optional<CashMovement> getCashMovementByIdAndPortfolioId(Long id, Long portfolioId) {
+        return cashMovementRepository.findByIdAndPortfolioId(id, portfolioId);
     }
 
     /**
@@ -0,0 +1,186 @@
+package com.giuseppesica.maney.account.operations.cashmovement.service;
+
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovement;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryMonthKey;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryMonthlyTotalDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryMonthlyTotalRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryRollupDelta;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryRollupRow;
+import com.giuseppesica.maney.utils.CashMovementType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Service maintaining and reading the monthly cash movement totals per category.
+ *
+ * <p><strong>Maintenance:</strong> Every cash movement write passes the change it makes to
+ * {@link #applyDeltas}, in the same transaction, as one {@link CategoryRollupDelta} per affected
+ * {@link CategoryMonthKey}. Each delta is a single upsert that inserts the row the first time
+ * a key is seen and adds to it otherwise; a row is deleted once no movement is counted in it.</p>
+ *
+ * <p><strong>Concurrency:</strong> The upsert is atomic, so writers only lock the rollup rows
+ * they change and writes to different keys of a portfolio never wait for each other. Deltas
+ * are applied in key order, and callers apply them after their balance deltas, keeping the
+ * lock order accounts, then rollup rows in every transaction.</p>
+ *
+ * <p><strong>Reads:</strong> {@link #getMonthlyTotals} reads at most one row per month,
+ * category and type and never touches the movement tables.</p>
+ *
+ * @see CategoryMonthlyTotal
+ */
+@Service
+public class CategoryRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryRollupService.class);
+
+    private static final Comparator<CategoryMonthKey> KEY_ORDER = Comparator
+            .comparing(CategoryMonthKey::monthStart)
+            .thenComparing(CategoryMonthKey::categoryId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(CategoryMonthKey::type);
+
+    private final CategoryMonthlyTotalRepository categoryMonthlyTotalRepository;
+    private final CashMovementRepository cashMovementRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructs the service with required dependencies.
+     *
+     * @param categoryMonthlyTotalRepository repository for rollup rows
+     * @param cashMovementRepository repository streaming movements when rollups are rebuilt
+     * @param transactionTemplate template running one transaction per rebuilt portfolio
+     */
+    public CategoryRollupService(CategoryMonthlyTotalRepository categoryMonthlyTotalRepository,
+                                 CashMovementRepository cashMovementRepository,
+                                 TransactionTemplate transactionTemplate) {
+        this.categoryMonthlyTotalRepository = categoryMonthlyTotalRepository;
+        this.cashMovementRepository = cashMovementRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Counts a new movement in the rollups.
+     *
+     * @param portfolioId the portfolio owning the movement
+     * @param cashMovement the created movement
+     */
+    @Transactional
+    public void recordCreated(Long portfolioId, CashMovement cashMovement) {
+        applyDeltas(portfolioId, Map.of(CategoryMonthKey.of(cashMovement),
+                CategoryRollupDelta.added(cashMovement.getAmount())));
+    }
+
+    /**
+     * Removes a deleted movement from the rollups.
+     *
+     * @param portfolioId the portfolio owning the movement
+     * @param cashMovement the movement being deleted
+     */
+    @Transactional
+    public void recordDeleted(Long portfolioId, CashMovement cashMovement) {
+        applyDeltas(portfolioId, Map.of(CategoryMonthKey.of(cashMovement),
+                CategoryRollupDelta.removed(cashMovement.getAmount())));
+    }
+
+    /**
+     * Applies rollup changes of one portfolio.
+     *
+     * @param portfolioId the portfolio
+     * @param deltas change per rollup key; empty deltas are skipped
+     */
+    @Transactional
+    public void applyDeltas(Long portfolioId, Map<CategoryMonthKey, CategoryRollupDelta> deltas) {
+        List<Map.Entry<CategoryMonthKey, CategoryRollupDelta>> changes = deltas.entrySet().stream()
+                .filter(entry -> !entry.getValue().isEmpty())
+                .sorted(Map.Entry.comparingByKey(KEY_ORDER))
+                .toList();
+        if (changes.isEmpty()) {
+            return;
+        }
+        categoryMonthlyTotalRepository.upsertTotals(portfolioId, changes);
+        categoryMonthlyTotalRepository.deleteEmpty(portfolioId, changes.stream()
+                .filter(entry -> entry.getValue().count() < 0)
+                .map(Map.Entry::getKey)
+                .toList());
+    }
+
+    /**
+     * Returns the monthly totals per category of a portfolio.
+     *
+     * @param portfolioId the portfolio
+     * @param from first month (inclusive)
+     * @param to last month (inclusive)
+     * @param type restricts results to INCOME or OUTCOME, or {@code null} for both
+     * @return one entry per month, category and type with at least one movement, ordered by month
+     * @throws IllegalArgumentException if {@code from} is after {@code to}
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryMonthlyTotalDto> getMonthlyTotals(Long portfolioId, YearMonth from, YearMonth to,
+                                                          CashMovementType type) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return categoryMonthlyTotalRepository
+                .findByPortfolioIdAndMonths(portfolioId, from.atDay(1), to.atDay(1), type)
+                .stream()
+                .map(CategoryMonthlyTotalDto::new)
+                .toList();
+    }
+
+    /**
+     * Recomputes the rollups of a portfolio from its movements.
+     *
+     * <p>The recomputed totals are written through the same upsert as incremental deltas, so a
+     * movement written concurrently is counted once: either in the recomputed totals or by
+     * its own delta, which adds to them.</p>
+     *
+     * @param portfolioId the portfolio
+     * @return number of rollup rows written
+     */
+    @Transactional
+    public int rebuild(Long portfolioId) {
+        categoryMonthlyTotalRepository.deleteByPortfolioId(portfolioId);
+        Map<CategoryMonthKey, CategoryRollupDelta> totals = new HashMap<>();
+        try (Stream<CategoryRollupRow> rows = cashMovementRepository.streamRollupRowsByPortfolioId(portfolioId)) {
+            rows.forEach(row -> totals.merge(row.key(), CategoryRollupDelta.added(row.amount()), CategoryRollupDelta::plus));
+        }
+        categoryMonthlyTotalRepository.upsertTotals(portfolioId, totals.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(KEY_ORDER))
+                .toList());
+        return totals.size();
+    }
+
+    /**
+     * Builds the rollups of existing movements when the rollup table is still empty,
+     * e.g. on the first start after the table was introduced.
+     *
+     * <p>Each portfolio is rebuilt in its own transaction.</p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (categoryMonthlyTotalRepository.count() > 0) {
+            return;
+        }
+        List<Long> portfolioIds = cashMovementRepository.findPortfolioIdsWithMovements();
+        int written = 0;
+        for (Long portfolioId : portfolioIds) {
+            Integer count = transactionTemplate.execute(status -> rebuild(portfolioId));
+            written += count == null ? 0 : count;
+        }
+        if (!portfolioIds.isEmpty()) {
+            logger.info("Category rollup backfill wrote {} rows for {} portfolios", written, portfolioIds.size());
+        }
+    }
+}
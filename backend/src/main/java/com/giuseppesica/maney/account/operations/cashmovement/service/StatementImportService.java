@@ -0,0 +1,270 @@
+package com.giuseppesica.maney.account.operations.cashmovement.service;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
+import com.giuseppesica.maney.account.operations.cashmovement.importer.CountingInputStream;
+import com.giuseppesica.maney.account.operations.cashmovement.importer.StatementFingerprinter;
+import com.giuseppesica.maney.account.operations.cashmovement.importer.StatementFormat;
+import com.giuseppesica.maney.account.operations.cashmovement.importer.StatementLine;
+import com.giuseppesica.maney.account.operations.cashmovement.importer.StatementReader;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovement;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryMonthKey;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryRollupDelta;
+import com.giuseppesica.maney.account.operations.cashmovement.model.StatementImportProgressDto;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.service.CategoryService;
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
+import com.giuseppesica.maney.security.NotFoundException;
+import com.giuseppesica.maney.utils.CashMovementType;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Service importing bank statements (CSV, OFX, QIF) into a liquidity account.
+ *
+ * <p><strong>Pipeline:</strong></p>
+ * <ol>
+ *   <li>The statement is parsed incrementally by a {@link StatementReader}; only the
+ *       current chunk of {@link #CHUNK_SIZE} lines is held in memory</li>
+ *   <li>Every line gets a {@link StatementFingerprinter fingerprint}; lines whose fingerprint
+ *       is already stored for the account are skipped</li>
+ *   <li>Each chunk is committed in its own transaction: new movements are batch-inserted
+ *       and the account balance and category rollups receive the chunk's net deltas, with
+ *       one ledger entry per movement</li>
+ *   <li>Progress is published to the {@link StatementImportTracker} after every chunk</li>
+ * </ol>
+ *
+ * <p><strong>Resuming:</strong> Chunks committed before a failure stay committed. Uploading
+ * the same statement again skips every line that made it in and continues from the first
+ * line that did not.</p>
+ *
+ * <p>Positive amounts become INCOME movements and negative amounts OUTCOME movements.</p>
+ *
+ * @see StatementFormat
+ * @see StatementImportProgressDto
+ */
+@Service
+public class StatementImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementImportService.class);
+
+    /**
+     * Number of statement lines committed per transaction.
+     */
+    public static final int CHUNK_SIZE = 500;
+
+    /**
+     * Longest note stored for an imported movement; longer bank descriptions are truncated.
+     */
+    static final int NOTE_MAX_LENGTH = 255;
+
+    private final CashMovementRepository cashMovementRepository;
+    private final LiquidityAccountService liquidityAccountService;
+    private final CategoryService categoryService;
+    private final CategoryRollupService categoryRollupService;
+    private final StatementImportTracker statementImportTracker;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructs the service with required dependencies.
+     *
+     * @param cashMovementRepository repository for cash movement persistence and fingerprint lookups
+     * @param liquidityAccountService service for account resolution and balance deltas
+     * @param categoryService service for category resolution
+     * @param categoryRollupService service maintaining the monthly category totals
+     * @param statementImportTracker registry where progress is published
+     * @param entityManager entity manager used to flush and clear after each chunk
+     * @param transactionManager transaction manager used to commit each chunk separately
+     */
+    public StatementImportService(CashMovementRepository cashMovementRepository,
+                                  LiquidityAccountService liquidityAccountService,
+                                  CategoryService categoryService,
+                                  CategoryRollupService categoryRollupService,
+                                  StatementImportTracker statementImportTracker,
+                                  EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager) {
+        this.cashMovementRepository = cashMovementRepository;
+        this.liquidityAccountService = liquidityAccountService;
+        this.categoryService = categoryService;
+        this.categoryRollupService = categoryRollupService;
+        this.statementImportTracker = statementImportTracker;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Imports a bank statement into one of the user's liquidity accounts.
+     *
+     * <p>Deliberately not transactional as a whole: each chunk commits on its own so a
+     * failure part-way does not discard the work already done.</p>
+     *
+     * @param principal the authenticated user
+     * @param accountId the liquidity account receiving the movements
+     * @param categoryId category assigned to every imported movement, or {@code null}
+     * @param format the statement format
+     * @param input the raw statement
+     * @param totalBytes the statement size if known, -1 otherwise
+     * @param importId identifier under which progress is published
+     * @return the final counts of the import
+     * @throws NotFoundException if the account or category doesn't exist or isn't the user's
+     * @throws IllegalArgumentException if the statement is malformed; lines committed before
+     *         the malformed one stay imported
+     */
+    public StatementImportProgressDto importStatement(AuthenticatedPrincipal principal, Long accountId, Long categoryId,
+                                                      StatementFormat format, InputStream input,
+                                                      long totalBytes, String importId) {
+        LiquidityAccount account = liquidityAccountService.getLiquidityAccountById(accountId)
+                .filter(candidate -> Objects.equals(candidate.getPortfolio().getId(), principal.portfolioId()))
+                .orElseThrow(() -> new NotFoundException("Liquidity Account Not Found"));
+        Category category = categoryId == null ? null : categoryService.findReferenceByUserAndId(principal.userId(), categoryId)
+                .orElseThrow(() -> new NotFoundException("Category Not Found"));
+
+        CountingInputStream counting = new CountingInputStream(input);
+        StatementFingerprinter fingerprinter = new StatementFingerprinter();
+        Map<String, StatementLine> chunk = new LinkedHashMap<>();
+        Progress progress = new Progress(principal.userId(), importId, counting, totalBytes);
+
+        progress.publish();
+        try (StatementReader reader = StatementReader.open(format, counting)) {
+            while (reader.hasNext()) {
+                StatementLine line = reader.next();
+                progress.linesRead++;
+                chunk.put(fingerprint(fingerprinter, line), line);
+                if (chunk.size() == CHUNK_SIZE) {
+                    commitChunk(account, category, chunk, progress);
+                }
+            }
+            commitChunk(account, category, chunk, progress);
+        } catch (IllegalArgumentException e) {
+            if (progress.imported == 0) {
+                throw e;
+            }
+            throw new IllegalArgumentException(e.getMessage() + " (" + progress.imported +
+                    " lines were imported before the error; upload the same statement again to resume)");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            statementImportTracker.remove(principal.userId(), importId);
+        }
+
+        logger.info("Statement import {} into account {}: {} lines, {} imported, {} skipped",
+                importId, accountId, progress.linesRead, progress.imported, progress.skipped);
+        return progress.snapshot(true);
+    }
+
+    /**
+     * Inserts the chunk's new lines and applies their net balance and rollup deltas in one transaction,
+     * then empties the chunk and publishes the updated progress.
+     */
+    private void commitChunk(LiquidityAccount account, Category category, Map<String, StatementLine> chunk,
+                             Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Integer inserted = transactionTemplate.execute(status -> {
+            Set<String> existing = cashMovementRepository.findExistingFingerprints(account.getId(), chunk.keySet());
+            List<CashMovement> movements = new ArrayList<>(chunk.size() - existing.size());
+            Instant since = null;
+            Map<CategoryMonthKey, CategoryRollupDelta> rollups = new HashMap<>();
+            for (Map.Entry<String, StatementLine> entry : chunk.entrySet()) {
+                if (existing.contains(entry.getKey())) {
+                    continue;
+                }
+                StatementLine line = entry.getValue();
+                CashMovement cashMovement = new CashMovement();
+                cashMovement.setDate(line.date());
+                cashMovement.setNote(truncate(line.note()));
+                cashMovement.setCategory(category);
+                cashMovement.setAmount(line.amount().abs());
+                cashMovement.setType(line.amount().signum() < 0 ? CashMovementType.OUTCOME : CashMovementType.INCOME);
+                cashMovement.setLiquidityAccount(account);
+                cashMovement.setFingerprint(entry.getKey());
+                movements.add(cashMovement);
+                if (since == null || line.date().isBefore(since)) {
+                    since = line.date();
+                }
+                rollups.merge(CategoryMonthKey.of(cashMovement), CategoryRollupDelta.added(cashMovement.getAmount()),
+                        CategoryRollupDelta::plus);
+            }
+            if (!movements.isEmpty()) {
+                cashMovementRepository.saveAll(movements);
+                entityManager.flush();
+                entityManager.clear();
+                Map<Long, BigDecimal> deltas = new HashMap<>();
+                for (CashMovement cashMovement : movements) {
+                    deltas.put(cashMovement.getId(), cashMovement.getType().signed(cashMovement.getAmount()));
+                }
+                liquidityAccountService.applyBalanceDeltas(Map.of(account.getId(), deltas),
+                        Map.of(account.getId(), since));
+                categoryRollupService.applyDeltas(account.getPortfolio().getId(), rollups);
+            }
+            return movements.size();
+        });
+        int count = inserted == null ? 0 : inserted;
+        progress.imported += count;
+        progress.skipped += chunk.size() - count;
+        chunk.clear();
+        progress.publish();
+    }
+
+    private static String fingerprint(StatementFingerprinter fingerprinter, StatementLine line) {
+        try {
+            return fingerprinter.fingerprint(line);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Statement transaction " + line.line() + ": " + e.getMessage());
+        }
+    }
+
+    private static String truncate(String note) {
+        return note == null || note.length() <= NOTE_MAX_LENGTH ? note : note.substring(0, NOTE_MAX_LENGTH);
+    }
+
+    /**
+     * Running counters of one import.
+     */
+    private final class Progress {
+
+        private final Long userId;
+        private final String importId;
+        private final CountingInputStream input;
+        private final long totalBytes;
+        private long linesRead;
+        private long imported;
+        private long skipped;
+
+        private Progress(Long userId, String importId, CountingInputStream input, long totalBytes) {
+            this.userId = userId;
+            this.importId = importId;
+            this.input = input;
+            this.totalBytes = totalBytes;
+        }
+
+        private StatementImportProgressDto snapshot(boolean done) {
+            return new StatementImportProgressDto(
+                    importId, input.getCount(), totalBytes, linesRead, imported, skipped, done);
+        }
+
+        private void publish() {
+            statementImportTracker.update(userId, snapshot(false));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.giuseppesica.maney.account.operations.cashmovement.service;
+
+import com.giuseppesica.maney.account.operations.cashmovement.model.StatementImportProgressDto;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory registry of the statement imports currently running.
+ *
+ * <p>Entries are keyed by user and import ID, so users can only see their own imports, and
+ * are removed as soon as the import ends; the final outcome is returned by the import
+ * request itself.</p>
+ */
+@Component
+public class StatementImportTracker {
+
+    private final Map<String, StatementImportProgressDto> running = new ConcurrentHashMap<>();
+
+    /**
+     * Records the latest progress of an import.
+     *
+     * @param userId the importing user
+     * @param progress the progress snapshot
+     */
+    public void update(Long userId, StatementImportProgressDto progress) {
+        running.put(key(userId, progress.getImportId()), progress);
+    }
+
+    /**
+     * Returns the latest progress of a running import.
+     *
+     * @param userId the importing user
+     * @param importId the import ID
+     * @return the progress, or empty if no such import is running for the user
+     */
+    public Optional<StatementImportProgressDto> get(Long userId, String importId) {
+        return Optional.ofNullable(running.get(key(userId, importId)));
+    }
+
+    /**
+     * Forgets an import once it has ended.
+     *
+     * @param userId the importing user
+     * @param importId the import ID
+     */
+    public void remove(Long userId, String importId) {
+        running.remove(key(userId, importId));
+    }
+
+    private static String key(Long userId, String importId) {
+        return userId + ":" + importId;
+    }
+}
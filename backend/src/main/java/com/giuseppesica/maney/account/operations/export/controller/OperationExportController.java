@@ -0,0 +1,76 @@
+package com.giuseppesica.maney.account.operations.export.controller;
+
+import com.giuseppesica.maney.account.operations.export.model.OperationExportFormat;
+import com.giuseppesica.maney.account.operations.export.service.OperationExportService;
+import com.giuseppesica.maney.security.AuthenticationHelper;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * REST controller exporting all operations of the user's portfolio.
+ *
+ * <p><strong>Base Path:</strong> {@code /user/portfolio/operations/export}</p>
+ *
+ * <p>Cash movements and transfers are returned in a single chronological stream. The body
+ * is written while the rows are read from the database, so the download starts immediately
+ * and the server never buffers the whole history:</p>
+ * <pre>
+ * curl -o operations.csv '.../user/portfolio/operations/export?format=CSV'
+ * </pre>
+ *
+ * @see OperationExportService
+ * @see com.giuseppesica.maney.account.operations.export.model.OperationExportRow
+ */
+@RestController
+@RequestMapping("/user/portfolio/operations/export")
+public class OperationExportController {
+
+    private final OperationExportService operationExportService;
+    private final AuthenticationHelper authenticationHelper;
+
+    /**
+     * Constructs the controller with required dependencies.
+     *
+     * @param operationExportService service writing the export
+     * @param authenticationHelper helper for user authentication and authorization
+     */
+    public OperationExportController(OperationExportService operationExportService,
+                                     AuthenticationHelper authenticationHelper) {
+        this.operationExportService = operationExportService;
+        this.authenticationHelper = authenticationHelper;
+    }
+
+    /**
+     * Streams every cash movement and transfer of the user's portfolio, oldest first.
+     *
+     * <p>The portfolio is resolved before the response starts, so authentication errors
+     * still produce a regular error response. The export itself runs on an async request
+     * thread once headers are sent.</p>
+     *
+     * @param authentication Spring Security authentication object
+     * @param format NDJSON (default) or CSV
+     * @return ResponseEntity with HTTP 200 streaming the export as an attachment
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportOperations(
+            Authentication authentication,
+            @RequestParam(defaultValue = "NDJSON") OperationExportFormat format
+    ) {
+        Long portfolioId = authenticationHelper.getAuthenticatedUserPortfolioId(authentication);
+        StreamingResponseBody body = output -> operationExportService.exportOperations(portfolioId, format, output);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("operations." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,39 @@
+package com.giuseppesica.maney.account.operations.export.model;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Output formats supported by the operation export.
+ *
+ * <ul>
+ *   <li><strong>NDJSON:</strong> one JSON object per line, suited to re-import through the
+ *       bulk endpoint or to line-oriented tools ({@code jq}, {@code grep})</li>
+ *   <li><strong>CSV:</strong> comma-separated with a header row, suited to spreadsheets</li>
+ * </ul>
+ */
+public enum OperationExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(new MediaType("text", "csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    OperationExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * @return the Content-Type of an export in this format
+     */
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @return the file extension used in the download file name
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
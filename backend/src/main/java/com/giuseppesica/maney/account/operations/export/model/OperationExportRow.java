@@ -0,0 +1,102 @@
+package com.giuseppesica.maney.account.operations.export.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.giuseppesica.maney.utils.CashMovementType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One exported operation, flattened to the columns shared by cash movements and transfers.
+ *
+ * <p>Rows are built directly by JPQL constructor expressions, so exporting never loads
+ * (or keeps in the persistence context) the underlying entities and their associations.</p>
+ *
+ * <p><strong>Column meaning by type:</strong></p>
+ * <ul>
+ *   <li>INCOME / OUTCOME: {@code account*} is the movement's account, {@code category*}
+ *       its optional category; {@code toAccount*} is null</li>
+ *   <li>TRANSFER: {@code account*} is the source account and {@code toAccount*} the
+ *       destination; {@code category*} is null</li>
+ * </ul>
+ *
+ * <p>{@code amount} is always positive, as stored.</p>
+ *
+ * <p><strong>NDJSON Example:</strong></p>
+ * <pre>
+ * {"id":42,"date":"2024-12-01T10:00:00Z","type":"OUTCOME","amount":12.50,"accountId":10,"accountName":"Checking","categoryId":5,"categoryName":"Food","note":"Lunch"}
+ * {"id":43,"date":"2024-12-02T09:00:00Z","type":"TRANSFER","amount":500,"accountId":10,"accountName":"Checking","toAccountId":11,"toAccountName":"Savings"}
+ * </pre>
+ *
+ * @param id the operation ID
+ * @param date when the operation occurred
+ * @param type INCOME, OUTCOME or TRANSFER
+ * @param amount the positive operation amount
+ * @param accountId the movement account, or the transfer source account
+ * @param accountName name of {@code accountId}
+ * @param toAccountId the transfer destination account, null for cash movements
+ * @param toAccountName name of {@code toAccountId}
+ * @param categoryId the movement category, null for transfers and uncategorized movements
+ * @param categoryName name of {@code categoryId}
+ * @param note the optional note
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OperationExportRow(
+        Long id,
+        Instant date,
+        OperationExportType type,
+        BigDecimal amount,
+        Long accountId,
+        String accountName,
+        Long toAccountId,
+        String toAccountName,
+        Long categoryId,
+        String categoryName,
+        String note
+) {
+
+    /**
+     * CSV header matching {@link #toCsvFields()}.
+     */
+    public static final String[] CSV_HEADER = {
+            "id", "date", "type", "amount", "accountId", "accountName",
+            "toAccountId", "toAccountName", "categoryId", "categoryName", "note"
+    };
+
+    /**
+     * Builds the row of a cash movement. Used by JPQL constructor expressions.
+     */
+    public OperationExportRow(Long id, Instant date, CashMovementType type, BigDecimal amount,
+                              Long accountId, String accountName, Long categoryId, String categoryName,
+                              String note) {
+        this(id, date, OperationExportType.of(type), amount, accountId, accountName,
+                null, null, categoryId, categoryName, note);
+    }
+
+    /**
+     * Builds the row of a transfer. Used by JPQL constructor expressions.
+     */
+    public OperationExportRow(Long id, Instant date, BigDecimal amount,
+                              Long fromAccountId, String fromAccountName, Long toAccountId, String toAccountName,
+                              String note) {
+        this(id, date, OperationExportType.TRANSFER, amount, fromAccountId, fromAccountName,
+                toAccountId, toAccountName, null, null, note);
+    }
+
+    /**
+     * Returns the row as CSV fields, in {@link #CSV_HEADER} order, with nulls as empty strings.
+     *
+     * @return the unescaped field values
+     */
+    public String[] toCsvFields() {
+        return new String[]{
+                text(id), text(date), text(type), amount == null ? "" : amount.toPlainString(),
+                text(accountId), text(accountName), text(toAccountId), text(toAccountName),
+                text(categoryId), text(categoryName), text(note)
+        };
+    }
+
+    private static String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+}
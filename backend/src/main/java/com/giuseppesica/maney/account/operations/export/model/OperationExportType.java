@@ -0,0 +1,25 @@
+package com.giuseppesica.maney.account.operations.export.model;
+
+import com.giuseppesica.maney.utils.CashMovementType;
+
+/**
+ * Kind of operation on an exported row.
+ *
+ * <p>Flattens the {@code Operation} hierarchy: cash movements keep their
+ * {@link CashMovementType} and transfers get their own value.</p>
+ */
+public enum OperationExportType {
+    INCOME,
+    OUTCOME,
+    TRANSFER;
+
+    /**
+     * Maps a cash movement type to its export type.
+     *
+     * @param type the cash movement type
+     * @return INCOME or OUTCOME
+     */
+    public static OperationExportType of(CashMovementType type) {
+        return type == CashMovementType.INCOME ? INCOME : OUTCOME;
+    }
+}
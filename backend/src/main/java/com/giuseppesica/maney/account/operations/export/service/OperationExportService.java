@@ -0,0 +1,191 @@
+package com.giuseppesica.maney.account.operations.export.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementRepository;
+import com.giuseppesica.maney.account.operations.export.model.OperationExportFormat;
+import com.giuseppesica.maney.account.operations.export.model.OperationExportRow;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service streaming every operation of a portfolio as NDJSON or CSV.
+ *
+ * <p><strong>Streaming:</strong> Cash movements and transfers are read through two
+ * forward-only cursors, each ordered by {@code (date, id)}, and merged on the fly into a
+ * single chronological sequence. Each row is written to the output as soon as it is read,
+ * so memory use stays flat no matter how many years of history the portfolio holds.</p>
+ *
+ * <p>Both cursors share the connection of one read-only transaction, which also gives the
+ * export a consistent view of the data while it runs.</p>
+ *
+ * @see OperationExportRow
+ * @see OperationExportFormat
+ */
+@Service
+public class OperationExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OperationExportService.class);
+
+    /**
+     * Chronological order of the export; the ID breaks ties between operations at the same instant.
+     */
+    static final Comparator<OperationExportRow> EXPORT_ORDER =
+            Comparator.comparing(OperationExportRow::date).thenComparing(OperationExportRow::id);
+
+    private final CashMovementRepository cashMovementRepository;
+    private final TransferRepository transferRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs the service with required dependencies.
+     *
+     * @param cashMovementRepository repository streaming cash movement rows
+     * @param transferRepository repository streaming transfer rows
+     * @param objectMapper mapper used to write NDJSON rows
+     */
+    public OperationExportService(CashMovementRepository cashMovementRepository,
+                                  TransferRepository transferRepository,
+                                  ObjectMapper objectMapper) {
+        this.cashMovementRepository = cashMovementRepository;
+        this.transferRepository = transferRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every cash movement and transfer of a portfolio to {@code output}, oldest first.
+     *
+     * <p>The output stream is flushed but not closed.</p>
+     *
+     * @param portfolioId the portfolio to export
+     * @param format the output format
+     * @param output where the export is written
+     * @return the number of rows written
+     * @throws IOException if writing to {@code output} fails (e.g. the client disconnected)
+     */
+    @Transactional(readOnly = true)
+    public long exportOperations(Long portfolioId, OperationExportFormat format, OutputStream output) throws IOException {
+        long rows = 0;
+        try (Stream<OperationExportRow> cashMovements = cashMovementRepository.streamExportRowsByPortfolioId(portfolioId);
+             Stream<OperationExportRow> transfers = transferRepository.streamExportRowsByPortfolioId(portfolioId)) {
+            RowWriter writer = format == OperationExportFormat.CSV ? new CsvRowWriter(output) : new NdjsonRowWriter(output);
+            Iterator<OperationExportRow> left = cashMovements.iterator();
+            Iterator<OperationExportRow> right = transfers.iterator();
+            OperationExportRow nextLeft = left.hasNext() ? left.next() : null;
+            OperationExportRow nextRight = right.hasNext() ? right.next() : null;
+            while (nextLeft != null || nextRight != null) {
+                if (nextRight == null || (nextLeft != null && EXPORT_ORDER.compare(nextLeft, nextRight) <= 0)) {
+                    writer.write(nextLeft);
+                    nextLeft = left.hasNext() ? left.next() : null;
+                } else {
+                    writer.write(nextRight);
+                    nextRight = right.hasNext() ? right.next() : null;
+                }
+                rows++;
+            }
+            writer.flush();
+        }
+        logger.info("Exported {} operations of portfolio {} as {}", rows, portfolioId, format);
+        return rows;
+    }
+
+    /**
+     * Serializes rows in one output format.
+     */
+    private interface RowWriter {
+
+        void write(OperationExportRow row) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    /**
+     * Writes one JSON object per line.
+     */
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(OutputStream output) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(output);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are separated by the newline written after each of them, not Jackson's default space
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(OperationExportRow row) throws IOException {
+            objectMapper.writeValue(generator, row);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /**
+     * Writes RFC 4180 CSV with a header row.
+     *
+     * <p>Text cells starting with {@code = + - @} are prefixed with an apostrophe so
+     * spreadsheets don't evaluate notes or names as formulas.</p>
+     */
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(OutputStream output) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            writeRecord(OperationExportRow.CSV_HEADER);
+        }
+
+        @Override
+        public void write(OperationExportRow row) throws IOException {
+            writeRecord(row.toCsvFields());
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        private void writeRecord(String[] fields) throws IOException {
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(fields[i]));
+            }
+            writer.write("\r\n");
+        }
+
+        static String escape(String field) {
+            String value = field;
+            if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0 && !isNumber(value)) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        private static boolean isNumber(String value) {
+            return value.matches("[-+]?\\d+(\\.\\d+)?");
+        }
+    }
+}
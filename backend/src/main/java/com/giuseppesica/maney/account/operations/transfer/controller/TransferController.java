@@ -5,17 +5,21 @@ import com.giuseppesica.maney.account.operations.transfer.model.Transfer;
 import com.giuseppesica.maney.account.operations.transfer.model.TransferDto;
 import com.giuseppesica.maney.account.operations.transfer.service.TransferService;
 import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
-import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.idempotency.service.IdempotencyService;
 import com.giuseppesica.maney.security.AuthenticationHelper;
 import com.giuseppesica.maney.security.NotFoundException;
-import com.giuseppesica.maney.user.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST controller for managing transfers between liquidity accounts.
@@ -30,10 +34,13 @@ import java.util.List;
  *
  * <p><strong>Key Features:</strong></p>
  * <ul>
- *   <li>Atomic balance updates using {@code @Transactional}</li>
+ *   <li>Atomic balance updates using {@code @Transactional} and in-database deltas,
+ *       applied in ascending account ID order to avoid deadlocks</li>
  *   <li>Automatic reversal of previous balances on update/delete</li>
  *   <li>Account resolution by name within user's portfolio</li>
  *   <li>Full CRUD operations with proper authorization checks</li>
+ *   <li>Safe retries of creations through the {@code Idempotency-Key} header</li>
+ *   <li>Batch creation with a single net balance update per account</li>
  * </ul>
  *
  * @see Transfer
@@ -45,8 +52,14 @@ import java.util.List;
 @RequestMapping("/user/portfolio/liquidity-accounts/transfers")
 public class TransferController {
 
+    /**
+     * Maximum number of transfers accepted by {@link #createTransfers}.
+     */
+    static final int MAX_BATCH_SIZE = 1000;
+
     private final TransferService transferService;
     private final LiquidityAccountService liquidityAccountService;
+    private final IdempotencyService idempotencyService;
     private final AuthenticationHelper authenticationHelper;
 
     /**
@@ -54,58 +67,82 @@ public class TransferController {
      *
      * @param transferService service for transfer persistence and queries
      * @param liquidityAccountService service for account lookups and balance updates
+     * @param idempotencyService service replaying creations retried with the same Idempotency-Key
      * @param authenticationHelper helper for authentication-related operations
      */
     @Autowired
-    public TransferController(TransferService transferService, LiquidityAccountService liquidityAccountService, AuthenticationHelper authenticationHelper) {
+    public TransferController(TransferService transferService, LiquidityAccountService liquidityAccountService, IdempotencyService idempotencyService, AuthenticationHelper authenticationHelper) {
         this.transferService = transferService;
         this.liquidityAccountService = liquidityAccountService;
+        this.idempotencyService = idempotencyService;
         this.authenticationHelper = authenticationHelper;
     }
 
     /**
-     * Updates account balances for a transfer operation.
+     * Resolves the source and destination accounts of a transfer by name.
      *
-     * <p>This helper method centralizes the logic for debiting the source account
-     * and crediting the destination account. It's used by both create and update
-     * operations to avoid code duplication.</p>
-     *
-     * <p>The method performs the following steps:</p>
-     * <ol>
-     *   <li>Resolves both accounts by name within the specified portfolio</li>
-     *   <li>Subtracts the amount from the source account balance</li>
-     *   <li>Adds the amount to the destination account balance</li>
-     *   <li>Persists both updated accounts</li>
-     * </ol>
+     * <p>This helper method centralizes account resolution for create and update
+     * operations. It does not modify balances: see {@link #addTransferEffect}.</p>
      *
      * @param portfolioId the portfolio ID to search within
      * @param fromAccountName name of the source account (debited)
      * @param toAccountName name of the destination account (credited)
-     * @param amount the transfer amount (must be positive)
-     * @return list containing [fromAccount, toAccount] with updated balances
+     * @return list containing [fromAccount, toAccount]
      * @throws NotFoundException if either account is not found in the portfolio
      */
-    private List<LiquidityAccount> updateAccounts(Long portfolioId, String fromAccountName, String toAccountName, java.math.BigDecimal amount) {
+    private List<LiquidityAccount> resolveAccounts(Long portfolioId, String fromAccountName, String toAccountName) {
         LiquidityAccount from = liquidityAccountService
                 .getLiquidityAccountByPortfolioIdAndName(portfolioId, fromAccountName)
                 .orElseThrow(() -> new NotFoundException("Liquidity Account not found with name: " + fromAccountName));
         LiquidityAccount to = liquidityAccountService
                 .getLiquidityAccountByPortfolioIdAndName(portfolioId, toAccountName)
                 .orElseThrow(() -> new NotFoundException("Liquidity Account not found with name: " + toAccountName));
+        return List.of(from, to);
+    }
 
-        from.setBalance(from.getBalance().subtract(amount));
-        to.setBalance(to.getBalance().add(amount));
-        liquidityAccountService.saveLiquidityAccount(from);
-        liquidityAccountService.saveLiquidityAccount(to);
+    /**
+     * Accumulates the balance effect of a transfer into a per-account delta map.
+     *
+     * <p>The source account is debited and the destination credited by {@code amount}.
+     * Passing a negative amount accumulates the reversal of the transfer. Deltas for the
+     * same account and transfer are summed, and the caller issues one atomic UPDATE per
+     * account through {@link LiquidityAccountService#applyBalanceDeltas(Map, Map)}, which
+     * records one ledger entry per transfer.</p>
+     *
+     * @param deltas the delta map to update, keyed by account ID, then by transfer ID
+     * @param transferId the ID of the transfer
+     * @param from the source account
+     * @param to the destination account
+     * @param amount the transfer amount (negative to revert)
+     */
+    private static void addTransferEffect(Map<Long, Map<Long, BigDecimal>> deltas, Long transferId,
+                                          LiquidityAccount from, LiquidityAccount to, BigDecimal amount) {
+        deltas.computeIfAbsent(from.getId(), id -> new HashMap<>()).merge(transferId, amount.negate(), BigDecimal::add);
+        deltas.computeIfAbsent(to.getId(), id -> new HashMap<>()).merge(transferId, amount, BigDecimal::add);
+    }
 
-        return List.of(from, to);
+    /**
+     * Records that the history of both accounts of a transfer changes from {@code date} on,
+     * keeping the earliest date per account.
+     *
+     * @param since map collecting the earliest changed date per account ID
+     * @param from the source account
+     * @param to the destination account
+     * @param date the transfer date
+     */
+    private static void addHistoryChange(Map<Long, Instant> since, LiquidityAccount from, LiquidityAccount to, Instant date) {
+        if (date == null) {
+            return; // rejected when the transfer is saved
+        }
+        since.merge(from.getId(), date, (a, b) -> a.isBefore(b) ? a : b);
+        since.merge(to.getId(), date, (a, b) -> a.isBefore(b) ? a : b);
     }
 
     /**
      * Retrieves all transfers for the authenticated user.
      *
      * <p>Returns a list of all transfers where the source account belongs to the
-     * user's portfolio. The list is ordered by the repository's default ordering.</p>
+     * user's portfolio, newest first, fetched in a single query.</p>
      *
      * @param authentication Spring Security authentication object containing user details
      * @return ResponseEntity with HTTP 200 and list of transfer DTOs (perhaps empty)
@@ -114,13 +151,8 @@ public class TransferController {
     public ResponseEntity<List<TransferDto>> getAllTransfers(
             Authentication authentication
     ){
-        User user = authenticationHelper.getAuthenticatedUser(authentication);
-        List<Transfer> transfers = transferService.getTransfersByUserId(user);
-        List<TransferDto> transferDtos =
-                transfers.stream()
-                        .map(TransferDto::new)
-                        .toList();
-        return ResponseEntity.ok(transferDtos);
+        Long portfolioId = authenticationHelper.getAuthenticatedUserPortfolioId(authentication);
+        return ResponseEntity.ok(transferService.getTransferDtosByPortfolioId(portfolioId));
     }
 
     /**
@@ -139,8 +171,8 @@ public class TransferController {
             Authentication authentication,
             @PathVariable Long id
     ){
-        User user = authenticationHelper.getAuthenticatedUser(authentication);
-        Transfer transfer = transferService.getTransferByIdAndUserId(id, user)
+        Long portfolioId = authenticationHelper.getAuthenticatedUserPortfolioId(authentication);
+        Transfer transfer = transferService.getTransferByIdAndPortfolioId(id, portfolioId)
                 .orElseThrow(() -> new NotFoundException("Not Found Transfer with id: " + id));
         TransferDto transferDto = new TransferDto(transfer);
         return ResponseEntity.ok(transferDto);
@@ -152,31 +184,45 @@ public class TransferController {
      * <p>This endpoint performs the following operations atomically:</p>
      * <ol>
      *   <li>Validates both accounts exist in the user's portfolio</li>
+     *   <li>Persists the transfer record with references to both accounts</li>
      *   <li>Debits the specified amount from the source account</li>
      *   <li>Credits the same amount to the destination account</li>
-     *   <li>Persists the transfer record with references to both accounts</li>
      * </ol>
      *
      * <p>The entire operation is wrapped in a transaction to ensure data consistency.
      * If any step fails, all balance changes are rolled back.</p>
      *
+     * <p>When an {@code Idempotency-Key} header is sent, a retry with the same key and body
+     * returns the original response without moving the amount again, see
+     * {@link IdempotencyService}.</p>
+     *
      * @param authentication Spring Security authentication object containing user details
+     * @param idempotencyKey optional key identifying retries of the same request
      * @param transferDto DTO containing transfer details (accounts, amount, date, note)
      * @return ResponseEntity with HTTP 200 and the created transfer DTO
      * @throws NotFoundException if either account is not found in the user's portfolio
+     * @throws IllegalArgumentException if the idempotency key was used for a different request
      */
     @PostMapping
     @Transactional
     public ResponseEntity<TransferDto> createTransferById(
             Authentication authentication,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody TransferDto transferDto
     ){
-        Portfolio portfolio = authenticationHelper.getAuthenticatedUserPortfolio(authentication);
-        List<LiquidityAccount> accounts = updateAccounts(
-                portfolio.getId(),
+        Long portfolioId = authenticationHelper.getAuthenticatedUserPortfolioId(authentication);
+        return idempotencyService.execute(portfolioId, idempotencyKey, "POST transfers", transferDto, TransferDto.class,
+                () -> ResponseEntity.ok(createTransfer(portfolioId, transferDto)));
+    }
+
+    /**
+     * Creates a transfer and applies its effects, see {@link #createTransferById(Authentication, String, TransferDto)}.
+     */
+    private TransferDto createTransfer(Long portfolioId, TransferDto transferDto) {
+        List<LiquidityAccount> accounts = resolveAccounts(
+                portfolioId,
                 transferDto.getFromAccountName(),
-                transferDto.getToAccountName(),
-                transferDto.getAmount()
+                transferDto.getToAccountName()
         );
         LiquidityAccount fromAccount = accounts.get(0);
         LiquidityAccount toAccount = accounts.get(1);
@@ -188,21 +234,137 @@ public class TransferController {
         transfer.setFromAccount(fromAccount);
         transfer.setToAccount(toAccount);
         transfer = transferService.saveTransfer(transfer);
-        TransferDto createdTransferDto = new TransferDto(transfer);
 
-        return ResponseEntity.ok(createdTransferDto);
+        Map<Long, Map<Long, BigDecimal>> deltas = new HashMap<>();
+        addTransferEffect(deltas, transfer.getId(), fromAccount, toAccount, transferDto.getAmount());
+        Map<Long, Instant> since = new HashMap<>();
+        addHistoryChange(since, fromAccount, toAccount, transferDto.getDate());
+        liquidityAccountService.applyBalanceDeltas(deltas, since);
+        return new TransferDto(transfer);
+    }
+
+    /**
+     * Creates many transfers in a single transaction.
+     *
+     * <p>The balance effects of the whole batch are netted per account, so each affected
+     * account receives exactly one atomic UPDATE however many transfers touch it, and
+     * the rows of every account involved, including those the batch nets to zero, are
+     * locked in a single pass in ascending account ID order (see
+     * {@link LiquidityAccountService#applyBalanceDeltas(Map, Map)}). Concurrent batches over
+     * overlapping accounts therefore wait on each other instead of deadlocking. The
+     * transfers are inserted together beforehand, so that every ledger entry can record
+     * the transfer it belongs to.</p>
+     *
+     * <p>The batch is all or nothing: if any transfer is invalid or references an unknown
+     * account, nothing is saved and no balance changes.</p>
+     *
+     * @param authentication Spring Security authentication object containing user details
+     * @param transferDtos the transfers to create, at most {@value #MAX_BATCH_SIZE}
+     * @return ResponseEntity with HTTP 200 and the created transfer DTOs, in request order
+     * @throws IllegalArgumentException if the batch is empty, too large, or a transfer is invalid
+     * @throws NotFoundException if an account is not found in the user's portfolio
+     */
+    @PostMapping("/batch")
+    @Transactional
+    public ResponseEntity<List<TransferDto>> createTransfers(
+            Authentication authentication,
+            @RequestBody List<TransferDto> transferDtos
+    ){
+        if (transferDtos == null || transferDtos.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one transfer");
+        }
+        if (transferDtos.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch must contain at most " + MAX_BATCH_SIZE + " transfers");
+        }
+        for (int i = 0; i < transferDtos.size(); i++) {
+            validateBatchItem(transferDtos.get(i), i + 1);
+        }
+        Long portfolioId = authenticationHelper.getAuthenticatedUserPortfolioId(authentication);
+
+        // Resolve each account name once, however many transfers reference it
+        Map<String, LiquidityAccount> accountsByName = new HashMap<>();
+        List<Transfer> transfers = new ArrayList<>(transferDtos.size());
+        for (TransferDto transferDto : transferDtos) {
+            LiquidityAccount fromAccount = resolveAccount(accountsByName, portfolioId, transferDto.getFromAccountName());
+            LiquidityAccount toAccount = resolveAccount(accountsByName, portfolioId, transferDto.getToAccountName());
+
+            Transfer transfer = new Transfer();
+            transfer.setAmount(transferDto.getAmount());
+            transfer.setDate(transferDto.getDate());
+            transfer.setNote(transferDto.getNote());
+            transfer.setFromAccount(fromAccount);
+            transfer.setToAccount(toAccount);
+            transfers.add(transfer);
+        }
+        List<Transfer> saved = transferService.saveTransfers(transfers);
+
+        Map<Long, Map<Long, BigDecimal>> deltas = new HashMap<>();
+        Map<Long, Instant> since = new HashMap<>();
+        for (Transfer transfer : saved) {
+            addTransferEffect(deltas, transfer.getId(), transfer.getFromAccount(), transfer.getToAccount(),
+                    transfer.getAmount());
+            addHistoryChange(since, transfer.getFromAccount(), transfer.getToAccount(), transfer.getDate());
+        }
+        liquidityAccountService.applyBalanceDeltas(deltas, since);
+
+        List<TransferDto> created = saved.stream()
+                .map(TransferDto::new)
+                .toList();
+        return ResponseEntity.ok(created);
+    }
+
+    /**
+     * Rejects a batch item missing a required field or with a non-positive amount.
+     *
+     * @param transferDto the item to check
+     * @param position 1-based position of the item in the batch, used in error messages
+     * @throws IllegalArgumentException if the item is invalid
+     */
+    private static void validateBatchItem(TransferDto transferDto, int position) {
+        if (transferDto == null) {
+            throw new IllegalArgumentException("Transfer " + position + " is missing");
+        }
+        if (transferDto.getDate() == null || transferDto.getFromAccountName() == null
+                || transferDto.getToAccountName() == null || transferDto.getAmount() == null) {
+            throw new IllegalArgumentException(
+                    "Transfer " + position + ": date, fromAccountName, toAccountName and amount are required");
+        }
+        if (transferDto.getAmount().signum() <= 0) {
+            throw new IllegalArgumentException("Transfer " + position + ": amount must be positive");
+        }
+    }
+
+    /**
+     * Resolves an account by name, reusing accounts already resolved in the same batch.
+     *
+     * @param accountsByName accounts resolved so far, keyed by name
+     * @param portfolioId the portfolio ID to search within
+     * @param name the account name
+     * @return the account
+     * @throws NotFoundException if the account is not found in the portfolio
+     */
+    private LiquidityAccount resolveAccount(Map<String, LiquidityAccount> accountsByName, Long portfolioId, String name) {
+        LiquidityAccount account = accountsByName.get(name);
+        if (account == null) {
+            account = liquidityAccountService.getLiquidityAccountByPortfolioIdAndName(portfolioId, name)
+                    .orElseThrow(() -> new NotFoundException("Liquidity Account not found with name: " + name));
+            accountsByName.put(name, account);
+        }
+        return account;
     }
 
     /**
      * Updates an existing transfer with new details.
      *
-     * <p>This endpoint handles transfer modifications by performing a two-phase update:</p>
+     * <p>This endpoint handles transfer modifications by combining two effects into one
+     * net delta per affected account:</p>
      * <ol>
-     *   <li><strong>Reversal Phase:</strong> Restores the original account balances by
-     *       reversing the previous transfer (adds amount back to source, subtracts from destination)</li>
-     *   <li><strong>Application Phase:</strong> Applies the new transfer details including
+     *   <li><strong>Reversal:</strong> The previous transfer is reverted (amount added back to
+     *       the source, subtracted from the destination)</li>
+     *   <li><strong>Application:</strong> The new transfer details are applied, including
      *       potentially different accounts, amount, date, or notes</li>
      * </ol>
+     * <p>Each affected account then receives a single atomic UPDATE.</p>
      *
      * <p>This approach ensures balance integrity even when the accounts or amount change.
      * The entire operation is transactional - if the update fails, balances remain unchanged.</p>
@@ -220,27 +382,29 @@ public class TransferController {
             @PathVariable Long id,
             @RequestBody TransferDto transferDto
     ){
-        User user = authenticationHelper.getAuthenticatedUser(authentication);
-        Transfer existingTransfer = transferService.getTransferByIdAndUserId(id, user)
+        Long portfolioId = authenticationHelper.getAuthenticatedUserPortfolioId(authentication);
+        Transfer existingTransfer = transferService.getTransferByIdAndPortfolioId(id, portfolioId)
                 .orElseThrow(() -> new NotFoundException("Not Found Transfer with id: " + id));
 
-        LiquidityAccount previousFrom = existingTransfer.getFromAccount();
-        LiquidityAccount previousTo = existingTransfer.getToAccount();
-
-        previousFrom.setBalance(previousFrom.getBalance().add(existingTransfer.getAmount()));
-        previousTo.setBalance(previousTo.getBalance().subtract(existingTransfer.getAmount()));
-        liquidityAccountService.saveLiquidityAccount(previousFrom);
-        liquidityAccountService.saveLiquidityAccount(previousTo);
-
-        List<LiquidityAccount> updatedAccounts = updateAccounts(
-                user.getPortfolio().getId(),
+        List<LiquidityAccount> updatedAccounts = resolveAccounts(
+                portfolioId,
                 transferDto.getFromAccountName(),
-                transferDto.getToAccountName(),
-                transferDto.getAmount()
+                transferDto.getToAccountName()
         );
         LiquidityAccount newFromAccount = updatedAccounts.get(0);
         LiquidityAccount newToAccount = updatedAccounts.get(1);
 
+        // Revert the previous effect and apply the new one as a single net delta per account
+        Map<Long, Map<Long, BigDecimal>> deltas = new HashMap<>();
+        addTransferEffect(deltas, id, existingTransfer.getFromAccount(), existingTransfer.getToAccount(),
+                existingTransfer.getAmount().negate());
+        addTransferEffect(deltas, id, newFromAccount, newToAccount, transferDto.getAmount());
+        Map<Long, Instant> since = new HashMap<>();
+        addHistoryChange(since, existingTransfer.getFromAccount(), existingTransfer.getToAccount(),
+                existingTransfer.getDate());
+        addHistoryChange(since, newFromAccount, newToAccount, transferDto.getDate());
+        liquidityAccountService.applyBalanceDeltas(deltas, since);
+
         existingTransfer.setAmount(transferDto.getAmount());
         existingTransfer.setDate(transferDto.getDate());
         existingTransfer.setNote(transferDto.getNote());
@@ -275,17 +439,17 @@ public class TransferController {
             Authentication authentication,
             @PathVariable Long id
     ){
-        User user = authenticationHelper.getAuthenticatedUser(authentication);
-        Transfer existingTransfer = transferService.getTransferByIdAndUserId(id, user)
+        Long portfolioId = authenticationHelper.getAuthenticatedUserPortfolioId(authentication);
+        Transfer existingTransfer = transferService.getTransferByIdAndPortfolioId(id, portfolioId)
                 .orElseThrow(() -> new NotFoundException("Not Found Transfer with id: " + id));
 
-        LiquidityAccount fromAccount = existingTransfer.getFromAccount();
-        LiquidityAccount toAccount = existingTransfer.getToAccount();
-
-        fromAccount.setBalance(fromAccount.getBalance().add(existingTransfer.getAmount()));
-        toAccount.setBalance(toAccount.getBalance().subtract(existingTransfer.getAmount()));
-        liquidityAccountService.saveLiquidityAccount(fromAccount);
-        liquidityAccountService.saveLiquidityAccount(toAccount);
+        Map<Long, Map<Long, BigDecimal>> deltas = new HashMap<>();
+        addTransferEffect(deltas, id, existingTransfer.getFromAccount(), existingTransfer.getToAccount(),
+                existingTransfer.getAmount().negate());
+        Map<Long, Instant> since = new HashMap<>();
+        addHistoryChange(since, existingTransfer.getFromAccount(), existingTransfer.getToAccount(),
+                existingTransfer.getDate());
+        liquidityAccountService.applyBalanceDeltas(deltas, since);
 
         transferService.deleteTransferById(id);
         return ResponseEntity.noContent().build();
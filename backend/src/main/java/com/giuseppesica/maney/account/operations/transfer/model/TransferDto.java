@@ -105,6 +105,7 @@ public class TransferDto {
      * @param transfer the source entity to convert
      */
     public TransferDto(Transfer transfer) {
+        this.id = transfer.getId();
         this.date = transfer.getDate();
         this.note = transfer.getNote();
         this.fromAccountName = transfer.getFromAccount().getName();
@@ -1,11 +1,21 @@
 package com.giuseppesica.maney.account.operations.transfer.model;
 
+import com.giuseppesica.maney.account.liquidityaccount.model.AccountTotal;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceMovement;
+import com.giuseppesica.maney.account.operations.export.model.OperationExportRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Spring Data JPA repository for {@link Transfer} entities.
@@ -39,6 +49,22 @@ public interface TransferRepository extends JpaRepository<Transfer, Long> {
             "WHERE t.fromAccount.portfolio.id = :portfolioId ")
     List<Transfer> findByPortfolioId(@Param("portfolioId") Long portfolioId);
 
+    /**
+     * Lists the transfers of a portfolio directly as DTOs, newest first.
+     *
+     * <p>Both account names are selected by the query itself, so listing N transfers is a
+     * single SQL statement instead of one per transfer for its eager account associations.</p>
+     *
+     * @param portfolioId the portfolio ID to search within
+     * @return list of transfer DTOs ordered by {@code (date, id)} descending (may be empty)
+     */
+    @Query("SELECT new com.giuseppesica.maney.account.operations.transfer.model.TransferDto(" +
+            "t.id, t.date, t.note, f.name, d.name, t.amount) " +
+            "FROM Transfer t JOIN t.fromAccount f JOIN t.toAccount d " +
+            "WHERE f.portfolio.id = :portfolioId " +
+            "ORDER BY t.date DESC, t.id DESC")
+    List<TransferDto> findDtosByPortfolioId(@Param("portfolioId") Long portfolioId);
+
     /**
      * Finds a specific transfer by ID, validating portfolio ownership.
      *
@@ -55,4 +81,98 @@ public interface TransferRepository extends JpaRepository<Transfer, Long> {
     @Query("SELECT  t FROM Transfer t " +
             "WHERE t.id = :id AND t.fromAccount.portfolio.id = :portfolioId")
     Optional<Transfer> findByIdAndPortfolioId(@Param("id") Long id, @Param("portfolioId") Long portfolioId);
+
+    /**
+     * Sums the balance effect on an account of the transfers dated in {@code (after, until]}.
+     *
+     * <p>Transfers into the account count positive and transfers out of it negative.</p>
+     *
+     * @param accountId the liquidity account ID
+     * @param after exclusive lower bound of the transfer date
+     * @param until inclusive upper bound of the transfer date
+     * @return the signed sum (zero if there are no transfers in the range)
+     */
+    @Query("SELECT COALESCE(SUM(" +
+            "CASE WHEN t.toAccount.id = :accountId THEN t.amount ELSE 0 END - " +
+            "CASE WHEN t.fromAccount.id = :accountId THEN t.amount ELSE 0 END), 0) " +
+            "FROM Transfer t " +
+            "WHERE (t.fromAccount.id = :accountId OR t.toAccount.id = :accountId) " +
+            "AND t.date > :after AND t.date <= :until")
+    BigDecimal sumNetAmounts(@Param("accountId") Long accountId,
+                             @Param("after") Instant after,
+                             @Param("until") Instant until);
+
+    /**
+     * Sums the transfers out of several accounts, per source account.
+     *
+     * @param accountIds the liquidity account IDs
+     * @return one positive total per account with at least one outgoing transfer
+     */
+    @Query("SELECT new com.giuseppesica.maney.account.liquidityaccount.model.AccountTotal(t.fromAccount.id, SUM(t.amount)) " +
+            "FROM Transfer t WHERE t.fromAccount.id IN :accountIds GROUP BY t.fromAccount.id")
+    List<AccountTotal> sumOutgoingByAccountIds(@Param("accountIds") Collection<Long> accountIds);
+
+    /**
+     * Sums the transfers into several accounts, per destination account.
+     *
+     * @param accountIds the liquidity account IDs
+     * @return one positive total per account with at least one incoming transfer
+     */
+    @Query("SELECT new com.giuseppesica.maney.account.liquidityaccount.model.AccountTotal(t.toAccount.id, SUM(t.amount)) " +
+            "FROM Transfer t WHERE t.toAccount.id IN :accountIds GROUP BY t.toAccount.id")
+    List<AccountTotal> sumIncomingByAccountIds(@Param("accountIds") Collection<Long> accountIds);
+
+    /**
+     * Finds the date of the oldest transfer into or out of an account.
+     *
+     * @param accountId the liquidity account ID
+     * @return the oldest transfer date, or null if the account has no transfers
+     */
+    @Query("SELECT MIN(t.date) FROM Transfer t WHERE t.fromAccount.id = :accountId OR t.toAccount.id = :accountId")
+    Instant findFirstDateByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * Streams the export rows of every transfer in a portfolio, oldest first.
+     *
+     * <p>Rows are projected straight from the query (no entities are loaded) and read
+     * through a forward-only cursor {@link #EXPORT_FETCH_SIZE} rows at a time. Must be
+     * called inside a transaction and the stream must be closed.</p>
+     *
+     * @param portfolioId the portfolio ID to export
+     * @return stream of rows ordered by {@code (date, id)}
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.giuseppesica.maney.account.operations.export.model.OperationExportRow(" +
+            "t.id, t.date, t.amount, f.id, f.name, d.id, d.name, t.note) " +
+            "FROM Transfer t JOIN t.fromAccount f JOIN t.toAccount d " +
+            "WHERE f.portfolio.id = :portfolioId " +
+            "ORDER BY t.date, t.id")
+    Stream<OperationExportRow> streamExportRowsByPortfolioId(@Param("portfolioId") Long portfolioId);
+
+    /**
+     * Streams the balance effect of the transfers of a portfolio dated in {@code [from, to)}, oldest first.
+     *
+     * <p>Projected straight from the query and read through a forward-only cursor. Must be
+     * called inside a transaction and the stream must be closed.</p>
+     *
+     * @param portfolioId the portfolio ID
+     * @param from inclusive lower bound of the transfer date
+     * @param to exclusive upper bound of the transfer date
+     * @return stream of movements ordered by {@code (date, id)}
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.giuseppesica.maney.account.liquidityaccount.model.BalanceMovement(" +
+            "t.date, t.id, f.id, d.id, t.amount) " +
+            "FROM Transfer t JOIN t.fromAccount f JOIN t.toAccount d " +
+            "WHERE f.portfolio.id = :portfolioId AND t.date >= :from AND t.date < :to " +
+            "ORDER BY t.date, t.id")
+    Stream<BalanceMovement> streamBalanceMovementsByPortfolioId(@Param("portfolioId") Long portfolioId,
+                                                                @Param("from") Instant from,
+                                                                @Param("to") Instant to);
+
+    /**
+     * Rows fetched per round trip by {@link #streamExportRowsByPortfolioId} and
+     * {@link #streamBalanceMovementsByPortfolioId}.
+     */
+    int EXPORT_FETCH_SIZE = 500;
 }
@@ -2,6 +2,7 @@ package com.giuseppesica.maney.account.operations.transfer.service;
 
 import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
 import com.giuseppesica.maney.account.operations.transfer.model.Transfer;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferDto;
 import com.giuseppesica.maney.account.operations.transfer.model.TransferRepository;
 import com.giuseppesica.maney.user.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,7 +21,7 @@ import java.util.Optional;
  *
  * <p><strong>Responsibilities:</strong></p>
  * <ul>
- *   <li>Persist new transfers</li>
+ *   <li>Persist new transfers, one at a time or in batches</li>
  *   <li>Retrieve transfers filtered by user/portfolio</li>
  *   <li>Delete existing transfers</li>
  *   <li>Provide portfolio-scoped queries for authorization</li>
@@ -65,6 +66,19 @@ public class TransferService {
         return transferRepository.findByPortfolioId(user.getPortfolio().getId());
     }
 
+    /**
+     * Lists the transfers of a user's portfolio as DTOs, newest first.
+     *
+     * <p>Read path for listings: a single query returns the DTOs with both account names,
+     * without loading the entities and their associations.</p>
+     *
+     * @param portfolioId the ID of the authenticated user's portfolio
+     * @return list of transfer DTOs (empty if no transfers exist)
+     */
+    public List<TransferDto> getTransferDtosByPortfolioId(Long portfolioId) {
+        return transferRepository.findDtosByPortfolioId(portfolioId);
+    }
+
     /**
      * Finds a specific transfer by ID with portfolio ownership validation.
      *
@@ -72,11 +86,11 @@ public class TransferService {
      * This ensures users cannot access transfers from other portfolios.</p>
      *
      * @param id the transfer ID to retrieve
-     * @param user the authenticated user
+     * @param portfolioId the ID of the authenticated user's portfolio
      * @return Optional containing the transfer if found and owned, empty otherwise
      */
-    public Optional<Transfer> getTransferByIdAndUserId(Long id, User user) {
-        return transferRepository.findByIdAndPortfolioId(id, user.getPortfolio().getId());
+    public Optional<Transfer> getTransferByIdAndPortfolioId(Long id, Long portfolioId) {
+        return transferRepository.findByIdAndPortfolioId(id, portfolioId);
     }
 
     /**
@@ -93,6 +107,22 @@ public class TransferService {
         return transferRepository.save(transfer);
     }
 
+    /**
+     * Persists a batch of new transfers.
+     *
+     * <p>Operation IDs come from a pooled sequence, so the inserts can be sent to the
+     * database in JDBC batches instead of one round trip per transfer.</p>
+     *
+     * <p><strong>Note:</strong> Like {@link #saveTransfer(Transfer)}, this method does NOT
+     * update the associated account balances.</p>
+     *
+     * @param transfers the transfers to save
+     * @return the persisted transfers with generated IDs, in the same order
+     */
+    public List<Transfer> saveTransfers(List<Transfer> transfers) {
+        return transferRepository.saveAll(transfers);
+    }
+
     /**
      * Permanently removes a transfer from the database.
      *
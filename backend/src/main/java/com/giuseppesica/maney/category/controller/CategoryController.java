@@ -2,15 +2,20 @@ package com.giuseppesica.maney.category.controller;
 
 import com.giuseppesica.maney.category.model.Category;
 import com.giuseppesica.maney.category.model.CategoryDto;
+import com.giuseppesica.maney.category.model.CategorySpendingDto;
 import com.giuseppesica.maney.category.service.CategoryService;
+import com.giuseppesica.maney.category.service.CategorySpendingService;
 import com.giuseppesica.maney.security.AuthenticationHelper;
 import com.giuseppesica.maney.security.NotFoundException;
 import com.giuseppesica.maney.user.model.User;
+import com.giuseppesica.maney.utils.CashMovementType;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -27,22 +32,26 @@ import java.util.List;
 @RequestMapping("/user/categories")
 public class CategoryController {
     private final CategoryService categoryService;
+    private final CategorySpendingService categorySpendingService;
     private final AuthenticationHelper authenticationHelper;
 
     /**
      * Constructor for dependency injection.
      *
      * @param categoryService Service for category operations
+     * @param categorySpendingService Service for category subtree totals
      * @param authenticationHelper Helper for authentication and user retrieval
      */
-    public CategoryController(CategoryService categoryService, AuthenticationHelper authenticationHelper) {
+    public CategoryController(CategoryService categoryService, CategorySpendingService categorySpendingService,
+                              AuthenticationHelper authenticationHelper) {
         this.categoryService = categoryService;
+        this.categorySpendingService = categorySpendingService;
         this.authenticationHelper = authenticationHelper;
     }
 
     /**
      * Creates a new category for the authenticated user.
-     * If parentId is provided, sets up the hierarchical relationship.
+     * If parentId is provided, sets up the hierarchical relationship; the parent must be one of the user's categories.
      * Endpoint: POST /user/category
      *
      * @param authentication Spring Security authentication object containing user details
@@ -59,7 +68,7 @@ public class CategoryController {
         User user = authenticationHelper.getAuthenticatedUser(authentication);
         Category category = new Category(categoryDto);
         if (categoryDto.getParentId() != null) {
-            Category parentCategory = categoryService.findById(categoryDto.getParentId())
+            Category parentCategory = categoryService.findReferenceByUserAndId(user.getId(), categoryDto.getParentId())
                     .orElseThrow(() -> new NotFoundException("Parent category does not exist"));
             category.setParent(parentCategory);
         }
@@ -83,23 +92,75 @@ public class CategoryController {
             Authentication authentication,
             @PathVariable Long id
     ) {
-        User user = authenticationHelper.getAuthenticatedUser(authentication);
-        Category category = categoryService.findByUserAndId(user.getId(), id)
+        Long userId = authenticationHelper.getAuthenticatedUserId(authentication);
+        Category category = categoryService.findByUserAndId(userId, id)
                 .orElseThrow(() -> new NotFoundException("Category not found"));
         CategoryDto responseDto = new CategoryDto(category);
         return ResponseEntity.ok(responseDto);
     }
 
+    /**
+     * Retrieves the cash movement totals of the authenticated user's categories over a date range,
+     * each with the total of its whole subtree (the category and all its subcategories).
+     * Ranges covering whole UTC months are answered from the monthly rollups.
+     * Endpoint: GET /user/categories/spending?from=2024-01-01T00:00:00Z&amp;to=2024-04-01T00:00:00Z&amp;type=OUTCOME
+     *
+     * @param authentication Spring Security authentication object
+     * @param from inclusive lower bound of the movement date
+     * @param to exclusive upper bound of the movement date
+     * @param type INCOME or OUTCOME (default OUTCOME)
+     * @return ResponseEntity with one entry per category whose subtree has movements, parents first, and HTTP 200 OK
+     * @throws IllegalArgumentException if from is not before to
+     */
+    @GetMapping("/spending")
+    public ResponseEntity<List<CategorySpendingDto>> getCategorySpending(
+            Authentication authentication,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "OUTCOME") CashMovementType type
+    ) {
+        return ResponseEntity.ok(categorySpendingService.getSpending(
+                authenticationHelper.getAuthenticatedPrincipal(authentication), from, to, type));
+    }
+
+    /**
+     * Retrieves all categories of the authenticated user, each with its subtree nested in children.
+     * Children are loaded level by level and a subcategory appears under its parent as well as on its own;
+     * prefer GET /user/categories/tree for whole trees.
+     * Endpoint: GET /user/categories
+     *
+     * @param authentication Spring Security authentication object
+     * @return ResponseEntity with list of CategoryDto and HTTP 200 OK
+     */
     @GetMapping
     public ResponseEntity<List<CategoryDto>> getUserCategories(Authentication authentication) {
-        User user = authenticationHelper.getAuthenticatedUser(authentication);
-        List<CategoryDto> categories = categoryService.findByUserId(user.getId())
+        Long userId = authenticationHelper.getAuthenticatedUserId(authentication);
+        List<CategoryDto> categories = categoryService.findByUserId(userId)
                 .stream()
                 .map(CategoryDto::new)
                 .toList();
         return ResponseEntity.ok(categories);
     }
 
+    /**
+     * Retrieves the category tree of the authenticated user, loaded in a single query.
+     * Each category appears exactly once: either nested in its parent's children, or as a
+     * top-level entry. In flat mode every category is returned without children.
+     * Endpoint: GET /user/categories/tree?flat=false
+     *
+     * @param authentication Spring Security authentication object
+     * @param flat true to return a flat list linked by parentId (default false)
+     * @return ResponseEntity with top-level categories (or all categories when flat) and HTTP 200 OK
+     */
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryDto>> getCategoryTree(
+            Authentication authentication,
+            @RequestParam(defaultValue = "false") boolean flat
+    ) {
+        Long userId = authenticationHelper.getAuthenticatedUserId(authentication);
+        return ResponseEntity.ok(categoryService.getCategoryTree(userId, flat));
+    }
+
     /**
      * Updates an existing category for the authenticated user.
      * Can modify name, color, type, and parent relationship.
@@ -118,15 +179,15 @@ public class CategoryController {
             @PathVariable Long id,
             @Valid @RequestBody CategoryDto categoryDto
     ) {
-        User user = authenticationHelper.getAuthenticatedUser(authentication);
-        Category category = categoryService.findByUserAndId(user.getId(), id)
+        Long userId = authenticationHelper.getAuthenticatedUserId(authentication);
+        Category category = categoryService.findByUserAndId(userId, id)
                 .orElseThrow(() -> new NotFoundException("Category not found"));
 
         category.setName(categoryDto.getName());
         category.setColor(categoryDto.getColor());
         category.setType(categoryDto.getType());
         if(categoryDto.getParentId() != null) {
-            Category parentCategory = categoryService.findById(categoryDto.getParentId())
+            Category parentCategory = categoryService.findReferenceByUserAndId(userId, categoryDto.getParentId())
                     .orElseThrow(() -> new NotFoundException("Parent category does not exist"));
             category.setParent(parentCategory);
         } else {
@@ -151,8 +212,8 @@ public class CategoryController {
             Authentication authentication,
             @PathVariable Long id
     ) {
-        User user = authenticationHelper.getAuthenticatedUser(authentication);
-        Category category = categoryService.findByUserAndId(user.getId(), id)
+        Long userId = authenticationHelper.getAuthenticatedUserId(authentication);
+        Category category = categoryService.findByUserAndId(userId, id)
                 .orElseThrow(() -> new NotFoundException("Category not found"));
         categoryService.deleteCategory(category);
         return ResponseEntity.noContent().build();
@@ -71,9 +71,24 @@ public class CategoryDto {
      */
     private List<CategoryDto> children;
 
+    /**
+     * Constructor to create a CategoryDto from a CategoryNode, without children.
+     * Children are attached by the caller when a tree is assembled.
+     *
+     * @param node CategoryNode to convert
+     */
+    public CategoryDto(CategoryNode node) {
+        this.id = node.id();
+        this.name = node.name();
+        this.color = node.color();
+        this.type = node.type();
+        this.parentId = node.parentId();
+    }
+
     /**
      * Constructor to create a CategoryDto from a Category entity.
-     * Recursively converts children if present.
+     * Recursively converts children if present, loading each level of the subtree lazily;
+     * use {@link com.giuseppesica.maney.category.service.CategoryService#getCategoryTree} for whole trees.
      *
      * @param category Category entity to convert
      */
@@ -0,0 +1,18 @@
+package com.giuseppesica.maney.category.model;
+
+import com.giuseppesica.maney.utils.CategoryType;
+
+/**
+ * A category without its associations, with its parent as a plain ID.
+ *
+ * <p>Loaded for all of a user's categories in one query, so trees can be built and walked
+ * in memory without touching the lazy {@code parent}/{@code children} associations.</p>
+ *
+ * @param id the category ID
+ * @param parentId the parent category ID, or {@code null} for a top-level category
+ * @param name the category name
+ * @param color the category color
+ * @param type the category type
+ */
+public record CategoryNode(Long id, Long parentId, String name, String color, CategoryType type) {
+}
@@ -2,6 +2,8 @@ package com.giuseppesica.maney.category.model;
 
 import com.giuseppesica.maney.utils.CategoryType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -54,4 +56,15 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      * @return List of all categories owned by the user, empty list if none found
      */
     List<Category> findByUserId(Long userId);
+
+    /**
+     * Retrieves every category of a user as a {@link CategoryNode} in one query.
+     * Reads the parent foreign key directly, without joining or loading parents and children.
+     *
+     * @param userId ID of the user
+     * @return one node per category owned by the user, ordered by ID, empty list if none found
+     */
+    @Query("SELECT new com.giuseppesica.maney.category.model.CategoryNode(c.id, c.parent.id, c.name, c.color, c.type) " +
+            "FROM Category c WHERE c.user.id = :userId ORDER BY c.id")
+    List<CategoryNode> findNodesByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,68 @@
+package com.giuseppesica.maney.category.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object for the cash movement total of a category and of its whole subtree.
+ *
+ * <p><strong>Response Example:</strong></p>
+ * <pre>
+ * {
+ *   "categoryId": 3,
+ *   "parentId": null,
+ *   "name": "Food",
+ *   "total": 40.00,
+ *   "count": 2,
+ *   "subtreeTotal": 512.70,
+ *   "subtreeCount": 31
+ * }
+ * </pre>
+ *
+ * @see com.giuseppesica.maney.category.service.CategorySpendingService
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySpendingDto {
+
+    /**
+     * ID of the category.
+     */
+    private Long categoryId;
+
+    /**
+     * ID of the parent category, null for top-level categories.
+     */
+    private Long parentId;
+
+    /**
+     * Name of the category.
+     */
+    private String name;
+
+    /**
+     * Sum of the movements booked directly on this category.
+     */
+    private BigDecimal total;
+
+    /**
+     * Number of movements booked directly on this category.
+     */
+    private long count;
+
+    /**
+     * Sum of the movements booked on this category and all its descendants.
+     */
+    private BigDecimal subtreeTotal;
+
+    /**
+     * Number of movements booked on this category and all its descendants.
+     */
+    private long subtreeCount;
+}
@@ -0,0 +1,13 @@
+package com.giuseppesica.maney.category.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Sum of the cash movements booked directly on one category. Used by JPQL constructor expressions.
+ *
+ * @param categoryId the category ID
+ * @param total sum of the movement amounts
+ * @param count number of movements
+ */
+public record CategoryTotal(Long categoryId, BigDecimal total, Long count) {
+}
@@ -1,17 +1,28 @@
 package com.giuseppesica.maney.category.service;
 
 import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.model.CategoryDto;
+import com.giuseppesica.maney.category.model.CategoryNode;
 import com.giuseppesica.maney.category.model.CategoryRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service layer for Category entity operations.
  * Handles business logic for category management including CRUD operations.
  * All write operations are transactional, read operations use read-only transactions.
+ * Lookups of a user's categories are answered from the {@link CategoryTreeCache}; every write
+ * invalidates the user's cached tree.
  *
  * @author Giuseppe Sica
  * @version 1.0
@@ -20,14 +31,17 @@ import java.util.Optional;
 @Service
 public class CategoryService {
     private final CategoryRepository categoryRepository;
+    private final CategoryTreeCache categoryTreeCache;
 
     /**
      * Constructor for dependency injection.
      *
      * @param categoryRepository Repository for category data access
+     * @param categoryTreeCache Cache of each user's category tree
      */
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, CategoryTreeCache categoryTreeCache) {
         this.categoryRepository = categoryRepository;
+        this.categoryTreeCache = categoryTreeCache;
     }
 
     /**
@@ -53,9 +67,30 @@ public class CategoryService {
      */
     @Transactional(readOnly = true)
     public Optional<Category> findByUserAndId(Long userId, Long id) {
+        if (!getTree(userId).contains(id)) {
+            return findMissing(userId, id);
+        }
         return categoryRepository.findByUserIdAndId(userId, id);
     }
 
+    /**
+     * Finds a category of a user as an uninitialized reference.
+     * Ownership is checked against the cached tree, so a category of the user is returned
+     * without any query. The reference is meant to be set on an association (a movement's
+     * category, a category's parent); reading any field but the ID loads the category.
+     *
+     * @param userId ID of the user who owns the category
+     * @param id ID of the category to find
+     * @return Optional containing a reference to the category if owned by user, empty otherwise
+     */
+    @Transactional(readOnly = true)
+    public Optional<Category> findReferenceByUserAndId(Long userId, Long id) {
+        if (!getTree(userId).contains(id)) {
+            return findMissing(userId, id);
+        }
+        return Optional.of(categoryRepository.getReferenceById(id));
+    }
+
     /**
      * Saves a category (create or update).
      * If the category has an ID, it will be updated; otherwise, a new category is created.
@@ -66,7 +101,9 @@ public class CategoryService {
      */
     @Transactional
     public Category saveCategory(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        invalidate(saved);
+        return saved;
     }
 
     /**
@@ -79,6 +116,7 @@ public class CategoryService {
     @Transactional
     public void deleteCategory(Category category) {
         categoryRepository.delete(category);
+        invalidate(category);
     }
 
     /**
@@ -90,4 +128,132 @@ public class CategoryService {
     public List<Category> findByUserId(Long id) {
         return categoryRepository.findByUserId(id);
     }
+
+    /**
+     * Retrieves all categories of a user, either as a tree or as a flat list.
+     *
+     * <p>Loads every category in a single query as a {@link CategoryNode} (no entity, no lazy
+     * associations) and assembles the tree in memory in O(n). In tree mode only top-level
+     * categories are returned and every other category appears exactly once, in its parent's
+     * {@code children}. In flat mode every category is returned without children and clients
+     * rebuild the hierarchy from {@code parentId}.</p>
+     *
+     * <p>Categories caught in a parent cycle are not reachable from any top-level category;
+     * each such cycle is returned as an extra root (its lowest ID), keeping its {@code parentId}.</p>
+     *
+     * @param userId ID of the user
+     * @param flat true for a flat list, false for a tree
+     * @return top-level categories with nested children, or every category, ordered by ID
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryDto> getCategoryTree(Long userId, boolean flat) {
+        List<CategoryDto> categories = getTree(userId).nodes()
+                .stream()
+                .map(CategoryDto::new)
+                .toList();
+        return flat ? categories : buildTree(categories);
+    }
+
+    /**
+     * Retrieves every category of a user as a {@link CategoryNode}, from the cached tree.
+     *
+     * @param userId ID of the user
+     * @return one node per category owned by the user, ordered by ID
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryNode> findNodesByUserId(Long userId) {
+        return getTree(userId).nodes();
+    }
+
+    /**
+     * Returns the cached tree of a user, loading it in one query on a miss.
+     */
+    private CategoryTreeCache.Snapshot getTree(Long userId) {
+        CategoryTreeCache.Snapshot tree = categoryTreeCache.get(userId);
+        if (tree == null) {
+            long generation = categoryTreeCache.generation();
+            tree = new CategoryTreeCache.Snapshot(categoryRepository.findNodesByUserId(userId));
+            categoryTreeCache.put(userId, tree, generation);
+        }
+        return tree;
+    }
+
+    /**
+     * Confirms a category missing from the cached tree against the database. A category found
+     * there was created by another instance, so the stale tree is dropped.
+     */
+    private Optional<Category> findMissing(Long userId, Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Optional<Category> category = categoryRepository.findByUserIdAndId(userId, id);
+        if (category.isPresent()) {
+            categoryTreeCache.invalidate(userId);
+        }
+        return category;
+    }
+
+    private void invalidate(Category category) {
+        if (category.getUser() != null && category.getUser().getId() != null) {
+            categoryTreeCache.invalidate(category.getUser().getId());
+        } else {
+            categoryTreeCache.clear();
+        }
+    }
+
+    /**
+     * Attaches every category to its parent's children and returns the roots.
+     * Expects categories ordered by ID, and keeps that order among siblings.
+     */
+    private static List<CategoryDto> buildTree(List<CategoryDto> categories) {
+        Set<Long> ids = new HashSet<>(categories.size() * 2);
+        for (CategoryDto category : categories) {
+            ids.add(category.getId());
+        }
+        Map<Long, List<CategoryDto>> childrenByParent = new HashMap<>();
+        List<CategoryDto> roots = new ArrayList<>();
+        for (CategoryDto category : categories) {
+            if (category.getParentId() == null || !ids.contains(category.getParentId())) {
+                roots.add(category);
+            } else {
+                childrenByParent.computeIfAbsent(category.getParentId(), id -> new ArrayList<>()).add(category);
+            }
+        }
+
+        Set<Long> attached = new HashSet<>(categories.size() * 2);
+        for (CategoryDto root : roots) {
+            attach(root, childrenByParent, attached);
+        }
+        if (attached.size() < categories.size()) {
+            for (CategoryDto category : categories) {
+                if (!attached.contains(category.getId())) {
+                    roots.add(category);
+                    attach(category, childrenByParent, attached);
+                }
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * Attaches the subtree under {@code root} iteratively, skipping categories already attached.
+     */
+    private static void attach(CategoryDto root, Map<Long, List<CategoryDto>> childrenByParent, Set<Long> attached) {
+        attached.add(root.getId());
+        Deque<CategoryDto> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            CategoryDto node = stack.pop();
+            List<CategoryDto> children = new ArrayList<>();
+            for (CategoryDto child : childrenByParent.getOrDefault(node.getId(), List.of())) {
+                if (attached.add(child.getId())) {
+                    children.add(child);
+                    stack.push(child);
+                }
+            }
+            if (!children.isEmpty()) {
+                node.setChildren(children);
+            }
+        }
+    }
 }
@@ -0,0 +1,207 @@
+package com.giuseppesica.maney.category.service;
+
+import com.giuseppesica.maney.category.model.CategoryNode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory cache of every user's category tree, as one immutable {@link Snapshot} per user.
+ *
+ * <p>Cash movement writes resolve a category of the user on every request and category writes
+ * resolve a parent. With the tree cached, ownership is checked in memory and the category is
+ * used as a reference, without any query.</p>
+ *
+ * <p><strong>Bounds:</strong> At most {@link #MAX_USERS} trees are kept, evicting the least
+ * recently used one.</p>
+ *
+ * <p><strong>Metrics:</strong> {@code cache.gets} (by {@code result=hit|miss}),
+ * {@code cache.evictions} and {@code cache.size}, tagged {@code cache=category-tree}.</p>
+ *
+ * <p><strong>Consistency:</strong> A snapshot is never modified; a change to any category of a
+ * user drops the user's snapshot through {@link #invalidate(Long)}, and the next read loads and
+ * installs a new one in a single step. A load that started before an invalidation is returned
+ * to its caller but not cached, so a snapshot read from a transaction that hadn't yet seen a
+ * change never outlives it. Changes committed by another instance of the application are not
+ * seen here; callers confirm misses against the database.</p>
+ *
+ * @see CategoryService
+ */
+@Component
+public class CategoryTreeCache implements MeterBinder {
+
+    /**
+     * Maximum number of users whose tree is cached.
+     */
+    static final int MAX_USERS = 10_000;
+
+    /**
+     * Value of the {@code cache} tag of the cache meters.
+     */
+    static final String CACHE_NAME = "category-tree";
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long generation;
+
+    private final Map<Long, Snapshot> users = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Snapshot> eldest) {
+            if (size() > MAX_USERS) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Immutable category tree of one user.
+     *
+     * @param nodes every category of the user, ordered by ID
+     * @param byId the same categories by ID
+     */
+    public record Snapshot(List<CategoryNode> nodes, Map<Long, CategoryNode> byId) {
+
+        /**
+         * Builds a snapshot from the categories of a user.
+         *
+         * @param nodes every category of the user, ordered by ID
+         */
+        public Snapshot(List<CategoryNode> nodes) {
+            this(List.copyOf(nodes), nodes.stream()
+                    .collect(Collectors.toUnmodifiableMap(CategoryNode::id, Function.identity())));
+        }
+
+        /**
+         * @param id a category ID
+         * @return true if the category is one of the user's
+         */
+        public boolean contains(Long id) {
+            return id != null && byId.containsKey(id);
+        }
+    }
+
+    /**
+     * Returns the cached tree of a user, counting a hit or a miss.
+     *
+     * @param userId the user
+     * @return the cached snapshot, or {@code null} if not cached
+     */
+    public Snapshot get(Long userId) {
+        Snapshot snapshot;
+        synchronized (users) {
+            snapshot = users.get(userId);
+        }
+        (snapshot == null ? misses : hits).increment();
+        return snapshot;
+    }
+
+    /**
+     * Returns the current generation, to be read before loading a snapshot and passed to
+     * {@link #put(Long, Snapshot, long)}.
+     *
+     * @return a value that changes on every invalidation
+     */
+    public long generation() {
+        synchronized (users) {
+            return generation;
+        }
+    }
+
+    /**
+     * Caches the tree of a user, unless a category changed since the load started.
+     *
+     * @param userId the user
+     * @param snapshot the loaded tree
+     * @param loadedAt the {@link #generation()} read before loading
+     */
+    public void put(Long userId, Snapshot snapshot, long loadedAt) {
+        synchronized (users) {
+            if (loadedAt == generation) {
+                users.put(userId, snapshot);
+            }
+        }
+    }
+
+    /**
+     * Drops the tree of a user after one of their categories was created, changed or deleted.
+     *
+     * <p>Inside a transaction the tree is dropped again once the transaction completes, so no
+     * snapshot loaded before the commit (or a rollback) survives it.</p>
+     *
+     * @param userId the user
+     */
+    public void invalidate(Long userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops every cached tree.
+     */
+    public void clear() {
+        synchronized (users) {
+            generation++;
+            users.clear();
+        }
+    }
+
+    /**
+     * Publishes the cache counters under the standard cache meter names, tagged
+     * {@code cache=category-tree}; bound to the meter registry by Spring Boot.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("cache", CACHE_NAME);
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags(tags).tag("result", "hit")
+                .description("Reads answered from a cached category tree")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags(tags).tag("result", "miss")
+                .description("Reads that had to load a category tree")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tags(tags)
+                .description("Category trees dropped to stay within the cache bound")
+                .register(registry);
+        Gauge.builder("cache.size", this, CategoryTreeCache::cachedUsers)
+                .tags(tags)
+                .description("Number of cached category trees")
+                .register(registry);
+    }
+
+    private int cachedUsers() {
+        synchronized (users) {
+            return users.size();
+        }
+    }
+
+    private void evict(Long userId) {
+        synchronized (users) {
+            generation++;
+            users.remove(userId);
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package com.giuseppesica.maney.config;
 
+import com.giuseppesica.maney.security.ConflictException;
 import com.giuseppesica.maney.security.ForbiddenException;
 import com.giuseppesica.maney.security.NotFoundException;
+import com.giuseppesica.maney.security.ServiceUnavailableException;
 import com.giuseppesica.maney.security.UnauthorizedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.Instant;
 import java.util.HashMap;
@@ -88,6 +95,73 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    /**
+     * Handles 400 Bad Request errors for missing or unparseable request parameters.
+     * Thrown e.g. when an enum query parameter has an unknown value.
+     */
+    @ExceptionHandler({MissingServletRequestParameterException.class, MethodArgumentTypeMismatchException.class})
+    public ResponseEntity<ErrorResponse> handleRequestParameterException(Exception ex) {
+        logger.warn("Invalid request parameter: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.BAD_REQUEST.value(),
+            "Bad Request",
+            ex.getMessage(),
+            Instant.now()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    /**
+     * Handles 409 Conflict errors for requests racing another request.
+     * Thrown e.g. when a request is retried with an Idempotency-Key still in use.
+     */
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> handleConflictException(ConflictException ex) {
+        logger.warn("ConflictException: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.CONFLICT.value(),
+            "Conflict",
+            ex.getMessage(),
+            Instant.now()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    /**
+     * Handles 409 Conflict errors for stale entity writes.
+     * Thrown when an entity was modified concurrently (e.g. an account balance changed
+     * by an operation while the account was being edited).
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        logger.warn("OptimisticLockingFailureException: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.CONFLICT.value(),
+            "Conflict",
+            "The resource was modified concurrently, please retry",
+            Instant.now()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    /**
+     * Handles 503 Service Unavailable errors when no database connection can be obtained.
+     * Thrown when the connection pool (or the connection limiter in front of it) stays
+     * exhausted for longer than the acquire timeout, or when password hashing is saturated.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, TransientDataAccessResourceException.class,
+            ServiceUnavailableException.class})
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(Exception ex) {
+        logger.warn("Service unavailable: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Service Unavailable",
+            "The service is overloaded, please retry",
+            Instant.now()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
     /**
      * Handles validation errors from @Valid annotation.
      * Returns detailed field-level validation errors.
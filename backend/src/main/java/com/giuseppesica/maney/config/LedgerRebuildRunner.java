@@ -0,0 +1,46 @@
+package com.giuseppesica.maney.config;
+
+import com.giuseppesica.maney.account.liquidityaccount.service.LedgerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds every liquidity account balance from the ledger at startup, on demand.
+ *
+ * <p>Enabled by {@code maney.ledger.rebuild=true}, typically as a one-off command line
+ * argument ({@code --maney.ledger.rebuild=true}). The application serves requests while the
+ * rebuild runs; each account is locked only while its own balance is recomputed.</p>
+ *
+ * @see LedgerService#rebuildAllBalances()
+ */
+@Component
+public class LedgerRebuildRunner implements ApplicationRunner {
+
+    private final LedgerService ledgerService;
+    private final boolean enabled;
+
+    /**
+     * Constructs the runner.
+     *
+     * @param ledgerService service rebuilding the balances
+     * @param enabled whether to rebuild at startup
+     */
+    public LedgerRebuildRunner(LedgerService ledgerService, @Value("${maney.ledger.rebuild:false}") boolean enabled) {
+        this.ledgerService = ledgerService;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Runs the rebuild if enabled.
+     *
+     * @param args application arguments (unused, the property is read instead)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            ledgerService.rebuildAllBalances();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.giuseppesica.maney.config;
+
+import com.giuseppesica.maney.account.operations.archive.service.OperationPartitionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Restores archived months of operations at startup, on demand.
+ *
+ * <p>Enabled by listing the months in {@code maney.operations.restore}, typically as a one-off
+ * command line argument ({@code --maney.operations.restore=2023-01,2023-02}). Each month is
+ * restored in its own transaction. While the application runs, months are restored through
+ * the {@code operationarchives} actuator endpoint instead.</p>
+ *
+ * @see OperationPartitionService#restoreMonth(YearMonth)
+ * @see com.giuseppesica.maney.account.operations.archive.controller.OperationArchiveEndpoint
+ */
+@Component
+public class OperationArchiveRestoreRunner implements ApplicationRunner {
+
+    private final OperationPartitionService operationPartitionService;
+    private final List<String> months;
+
+    /**
+     * Constructs the runner.
+     *
+     * @param operationPartitionService service restoring the months
+     * @param months months to restore as {@code yyyy-MM}, empty to restore nothing
+     */
+    public OperationArchiveRestoreRunner(OperationPartitionService operationPartitionService,
+                                         @Value("${maney.operations.restore:}") List<String> months) {
+        this.operationPartitionService = operationPartitionService;
+        this.months = months;
+    }
+
+    /**
+     * Restores the listed months.
+     *
+     * @param args application arguments (unused, the property is read instead)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String month : months) {
+            if (!month.isBlank()) {
+                operationPartitionService.restoreMonth(YearMonth.parse(month.trim()));
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.giuseppesica.maney.config;
+
+import com.giuseppesica.maney.account.operations.Operation;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@code operation_seq} ahead of the IDs already stored in the operation table.
+ *
+ * <p>Operation IDs used to be identity columns. On an existing PostgreSQL database the
+ * sequence created by schema update starts at 1 and would hand out IDs that are already
+ * taken, so at startup it is moved past {@code MAX(id)}. The statement never moves the
+ * sequence backwards, so running it on every startup is harmless.</p>
+ *
+ * <p>Other databases (H2 in tests) always start from an empty schema and are skipped.</p>
+ *
+ * @see Operation
+ */
+@Component
+public class OperationSequenceInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OperationSequenceInitializer.class);
+
+    private static final String ALIGN_SEQUENCE_SQL =
+            "SELECT setval('operation_seq', GREATEST((SELECT last_value FROM operation_seq), " +
+            "(SELECT COALESCE(MAX(id), 0) FROM operation) + ?))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs the initializer.
+     *
+     * @param jdbcTemplate template used to run the alignment statement
+     * @param entityManagerFactory only injected so that the schema, and the sequence, exist first
+     */
+    public OperationSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Moves the sequence past the highest existing operation ID on PostgreSQL.
+     */
+    @PostConstruct
+    public void alignOperationSequence() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        Long value = jdbcTemplate.queryForObject(ALIGN_SEQUENCE_SQL, Long.class, Operation.ID_ALLOCATION_SIZE);
+        logger.info("operation_seq aligned to {}", value);
+    }
+}
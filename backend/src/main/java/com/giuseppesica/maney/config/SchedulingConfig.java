@@ -0,0 +1,26 @@
+package com.giuseppesica.maney.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs.
+ *
+ * <p>Jobs:</p>
+ * <ul>
+ *   <li>{@link com.giuseppesica.maney.account.liquidityaccount.service.BalanceHistoryService#refreshAllCheckpoints()}:
+ *       nightly balance checkpoint refresh ({@code maney.balance-checkpoints.cron})</li>
+ *   <li>{@link com.giuseppesica.maney.idempotency.service.IdempotencyService#purgeExpired()}:
+ *       hourly purge of expired idempotency keys ({@code maney.idempotency.purge-cron})</li>
+ *   <li>{@link com.giuseppesica.maney.account.liquidityaccount.service.LedgerService#snapshotAll()}:
+ *       nightly snapshot of the account ledgers ({@code maney.ledger.snapshot-cron})</li>
+ *   <li>{@link com.giuseppesica.maney.account.liquidityaccount.service.BalanceReconciliationService#reconcileAll()}:
+ *       nightly check of every balance against its operations ({@code maney.reconciliation.cron})</li>
+ *   <li>{@link com.giuseppesica.maney.account.operations.archive.service.OperationPartitionService#maintainPartitions()}:
+ *       daily creation of operation partitions and archival of old months ({@code maney.operations.partition-cron})</li>
+ * </ul>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+public class SchedulingConfig {
+}
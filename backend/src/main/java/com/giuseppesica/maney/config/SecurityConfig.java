@@ -1,26 +1,96 @@
 package com.giuseppesica.maney.config;
 
+import com.giuseppesica.maney.security.TokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.info.InfoEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
 @Configuration
 public class SecurityConfig {
 
+    /**
+     * Role of the operator account allowed on the non-public actuator endpoints.
+     */
+    static final String OPERATOR_ROLE = "OPERATOR";
+
+    /**
+     * Answers unauthenticated requests with 401 and a JSON body instead of a login redirect.
+     */
+    private static final AuthenticationEntryPoint UNAUTHORIZED = (request, response, e) -> {
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"UNAUTHORIZED\"}");
+    };
+
+    /**
+     * BCrypt encoder with cost {@code maney.password-hashing.bcrypt-strength} (default 10).
+     * Hashes run on the pool of {@link com.giuseppesica.maney.user.service.PasswordHashingService},
+     * and existing hashes are upgraded to a changed cost at login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${maney.password-hashing.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
+    /**
+     * Actuator endpoints, without CSRF or sessions so that probes and scrapers don't create
+     * one per call. Health (Docker HEALTHCHECK) and info are open; every other endpoint
+     * (Prometheus metrics, balance reconciliation, operation archives) needs the operator
+     * account, sent with HTTP Basic: {@code maney.actuator.username} (default
+     * {@code operator}) and {@code maney.actuator.password}. Without a password they are
+     * closed to everyone.
+     * Moving them off the public port with {@code management.server.port} is still advised.
+     */
     @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorSecurityFilterChain(HttpSecurity http,
+                                                           @Value("${maney.actuator.username:operator}") String username,
+                                                           @Value("${maney.actuator.password:}") String password) throws Exception {
+        http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class, InfoEndpoint.class)).permitAll()
+                        .anyRequest().hasRole(OPERATOR_ROLE)
+                )
+                .authenticationManager(operatorAuthenticationManager(username, password))
+                .httpBasic(Customizer.withDefaults());
+
+        return http.build();
+    }
+
+    /**
+     * Session authentication (default, {@code maney.auth.mode=session}): {@code /user/login}
+     * stores the security context in the HTTP session, and writes need the CSRF cookie token.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "maney.auth.mode", havingValue = "session", matchIfMissing = true)
     public SecurityFilterChain securityFilterChain(HttpSecurity http,
                                                    CorsConfigurationSource corsConfigurationSource) throws Exception {
         http
@@ -37,15 +107,61 @@ public class SecurityConfig {
                         .requestMatchers("/", "/homepage", "/favicon.ico", "/public/**").permitAll()
                         .anyRequest().authenticated()
                 )
-                .exceptionHandling(ex -> ex
-                        .authenticationEntryPoint((request, response, e) -> {
-                            response.setStatus(HttpStatus.UNAUTHORIZED.value());
-                            response.setContentType("application/json");
-                            response.getWriter().write("{\"error\":\"UNAUTHORIZED\"}");
-                        })
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(UNAUTHORIZED))
+                .formLogin(AbstractHttpConfigurer::disable);
+
+        return http.build();
+    }
+
+    /**
+     * Stateless authentication ({@code maney.auth.mode=token}, see {@link TokenAuthConfig}):
+     * {@code /user/token} issues signed tokens and every other request is authorized from its
+     * bearer access token, without sessions. Browsers don't attach bearer tokens on their
+     * own, so there is no CSRF protection to apply; session login is not available.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "maney.auth.mode", havingValue = "token")
+    public SecurityFilterChain tokenSecurityFilterChain(HttpSecurity http,
+                                                        CorsConfigurationSource corsConfigurationSource,
+                                                        JwtDecoder accessTokenDecoder) throws Exception {
+        http
+                .cors(c -> c.configurationSource(corsConfigurationSource))
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/user/token", "/user/token/refresh", "/user/register").permitAll()
+                        .requestMatchers("/", "/homepage", "/favicon.ico", "/public/**").permitAll()
+                        .anyRequest().authenticated()
                 )
+                .oauth2ResourceServer(rs -> rs
+                        .jwt(jwt -> jwt
+                                .decoder(accessTokenDecoder)
+                                .jwtAuthenticationConverter(TokenService::authentication))
+                        .authenticationEntryPoint(UNAUTHORIZED)
+                )
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(UNAUTHORIZED))
                 .formLogin(AbstractHttpConfigurer::disable);
 
         return http.build();
     }
+
+    /**
+     * Authenticates the operator account of the actuator endpoints, comparing credentials in
+     * constant time. Rejects everyone when no password is configured.
+     */
+    static AuthenticationManager operatorAuthenticationManager(String username, String password) {
+        byte[] expectedUsername = username.getBytes(StandardCharsets.UTF_8);
+        byte[] expectedPassword = password.getBytes(StandardCharsets.UTF_8);
+        return authentication -> {
+            byte[] presentedUsername = authentication.getName().getBytes(StandardCharsets.UTF_8);
+            byte[] presentedPassword = String.valueOf(authentication.getCredentials()).getBytes(StandardCharsets.UTF_8);
+            boolean usernameMatches = MessageDigest.isEqual(expectedUsername, presentedUsername);
+            boolean passwordMatches = MessageDigest.isEqual(expectedPassword, presentedPassword);
+            if (password.isEmpty() || !usernameMatches || !passwordMatches) {
+                throw new BadCredentialsException("Invalid operator credentials");
+            }
+            return UsernamePasswordAuthenticationToken.authenticated(username, null,
+                    List.of(new SimpleGrantedAuthority("ROLE_" + OPERATOR_ROLE)));
+        };
+    }
 }
@@ -0,0 +1,47 @@
+package com.giuseppesica.maney.config;
+
+import com.giuseppesica.maney.security.TokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Beans of the stateless authentication mode.
+ *
+ * <p>Sessions are the default. With {@code maney.auth.mode=token}, {@code POST /user/token}
+ * exchanges credentials for a signed access token and refresh token (see
+ * {@link TokenService}), requests authenticate with {@code Authorization: Bearer}, and no
+ * HTTP session is created, so any node can serve any request:</p>
+ * <ul>
+ *   <li>{@code maney.auth.token.secret}: Base64-encoded HMAC key of at least 32 bytes,
+ *       shared by every node (required)</li>
+ *   <li>{@code maney.auth.token.access-ttl}: access token lifetime (default 15m)</li>
+ *   <li>{@code maney.auth.token.refresh-ttl}: refresh token lifetime (default 7d)</li>
+ * </ul>
+ *
+ * @see SecurityConfig
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "maney.auth.mode", havingValue = "token")
+public class TokenAuthConfig {
+
+    @Bean
+    public TokenService tokenService(@Value("${maney.auth.token.secret:}") String secret,
+                                     @Value("${maney.auth.token.access-ttl:15m}") Duration accessTokenTtl,
+                                     @Value("${maney.auth.token.refresh-ttl:7d}") Duration refreshTokenTtl) {
+        return new TokenService(secret, accessTokenTtl, refreshTokenTtl, Clock.systemUTC());
+    }
+
+    /**
+     * Decoder used by the resource server filter to verify access tokens.
+     */
+    @Bean
+    public JwtDecoder accessTokenDecoder(TokenService tokenService) {
+        return tokenService.accessTokenDecoder();
+    }
+}
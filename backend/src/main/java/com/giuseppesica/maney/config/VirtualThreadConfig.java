@@ -0,0 +1,77 @@
+package com.giuseppesica.maney.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Settings applied when the application runs on virtual threads.
+ *
+ * <p>Virtual threads are opt-in: start with {@code spring.threads.virtual.enabled=true}
+ * and Spring Boot runs every Tomcat request on its own virtual thread instead of the fixed
+ * platform thread pool. The BCrypt work of login and registration stays on the bounded pool
+ * of {@link com.giuseppesica.maney.user.service.PasswordHashingService}.</p>
+ *
+ * <p>Request handling then has no concurrency cap of its own, while every request still
+ * does blocking JDBC. The data source is therefore wrapped in a
+ * {@link ConnectionLimitingDataSource} so requests queue fairly for the connection pool:</p>
+ * <ul>
+ *   <li>{@code maney.datasource.max-concurrent-connections}: connections borrowed at once
+ *       (default: the Hikari maximum pool size)</li>
+ *   <li>{@code maney.datasource.connection-acquire-timeout}: how long a request waits for
+ *       one before failing with HTTP 503 (default: the Hikari connection timeout)</li>
+ * </ul>
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 10;
+    private static final Duration DEFAULT_ACQUIRE_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * Wraps the application data source in a {@link ConnectionLimitingDataSource}.
+     *
+     * @param environment environment holding the limiter settings
+     * @return the post-processor wrapping data source beans
+     */
+    @Bean
+    static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                int maxConnections = environment.getProperty("maney.datasource.max-concurrent-connections",
+                        Integer.class, poolSize(dataSource));
+                Duration acquireTimeout = environment.getProperty("maney.datasource.connection-acquire-timeout",
+                        Duration.class, poolTimeout(dataSource));
+                logger.info("Virtual threads enabled: limiting data source '{}' to {} concurrent connections",
+                        beanName, maxConnections);
+                return new ConnectionLimitingDataSource(dataSource, maxConnections, acquireTimeout);
+            }
+        };
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        return dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : DEFAULT_MAX_CONNECTIONS;
+    }
+
+    private static Duration poolTimeout(DataSource dataSource) {
+        return dataSource instanceof HikariDataSource hikari
+                ? Duration.ofMillis(hikari.getConnectionTimeout())
+                : DEFAULT_ACQUIRE_TIMEOUT;
+    }
+}
@@ -0,0 +1,113 @@
+package com.giuseppesica.maney.idempotency.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Stored outcome of a create request sent with an {@code Idempotency-Key} header.
+ *
+ * <p>The record is inserted in the same transaction as the operation it guards, before the
+ * operation runs, and receives the response at the end of it. It therefore exists if and
+ * only if the operation was committed; a failed request leaves nothing behind and can be
+ * retried with the same key.</p>
+ *
+ * <p><strong>Database Schema:</strong></p>
+ * <ul>
+ *   <li>Unique on {@code (portfolio_id, idempotency_key)}; a concurrent request with the same
+ *       key waits on this index and then fails instead of running the operation twice</li>
+ *   <li>Indexed on {@code expires_at} for purging</li>
+ *   <li>No foreign key to portfolio: records are short-lived and purged once expired</li>
+ * </ul>
+ *
+ * @see com.giuseppesica.maney.idempotency.service.IdempotencyService
+ */
+@Entity
+@Table(
+        name = "idempotency_record",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_idempotency_record_portfolio_key",
+                columnNames = {"portfolio_id", "idempotency_key"}
+        ),
+        indexes = @Index(name = "idx_idempotency_record_expires_at", columnList = "expires_at")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    /**
+     * Maximum length of a response body, serialized as JSON.
+     */
+    public static final int MAX_BODY_LENGTH = 1_000_000;
+
+    /**
+     * Unique identifier for this record.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Portfolio of the user who sent the request; keys are only unique per portfolio.
+     */
+    @Column(name = "portfolio_id", nullable = false)
+    private Long portfolioId;
+
+    /**
+     * Key chosen by the client.
+     */
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 of the endpoint and request body, hex encoded.
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * HTTP status of the original response.
+     */
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    /**
+     * Body of the original response as JSON, {@code null} if it had none.
+     */
+    @Column(name = "response_body", length = MAX_BODY_LENGTH)
+    private String responseBody;
+
+    /**
+     * Instant the original request was received.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Instant after which the key is forgotten and may be reused.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Creates a record for a request about to run.
+     *
+     * @param portfolioId portfolio of the requesting user
+     * @param idempotencyKey key chosen by the client
+     * @param requestHash hash of the endpoint and request body
+     * @param createdAt instant the request was received
+     * @param expiresAt instant the key expires
+     */
+    public IdempotencyRecord(Long portfolioId, String idempotencyKey, String requestHash,
+                             Instant createdAt, Instant expiresAt) {
+        this.portfolioId = portfolioId;
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,36 @@
+package com.giuseppesica.maney.idempotency.model;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Spring Data JPA repository for {@link IdempotencyRecord} entities.
+ *
+ * @see IdempotencyRecord
+ */
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    /**
+     * Finds the record of a key, expired or not.
+     *
+     * @param portfolioId portfolio of the requesting user
+     * @param idempotencyKey key chosen by the client
+     * @return Optional containing the record, empty if the key was never used or was purged
+     */
+    Optional<IdempotencyRecord> findByPortfolioIdAndIdempotencyKey(Long portfolioId, String idempotencyKey);
+
+    /**
+     * Deletes every record expired at an instant.
+     *
+     * @param now the current instant
+     * @return number of deleted records
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord ir WHERE ir.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
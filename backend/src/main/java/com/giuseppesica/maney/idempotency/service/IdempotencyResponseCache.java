@@ -0,0 +1,87 @@
+package com.giuseppesica.maney.idempotency.service;
+
+import com.giuseppesica.maney.idempotency.model.IdempotencyRecord;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory front cache of committed {@link IdempotencyRecord}s, keyed by portfolio and key.
+ *
+ * <p>Retries usually follow the original request within seconds, so most of them are
+ * answered from here without reading the record table.</p>
+ *
+ * <p><strong>Bounds:</strong> At most {@link #MAX_ENTRIES} responses are kept, evicting the
+ * least recently used one. Entries are ignored once expired.</p>
+ *
+ * <p><strong>Consistency:</strong> Records never change once committed, so entries are only
+ * added after the commit of the request that produced them and are never invalidated.</p>
+ *
+ * @see IdempotencyService
+ */
+@Component
+public class IdempotencyResponseCache {
+
+    /**
+     * Maximum number of cached responses.
+     */
+    static final int MAX_ENTRIES = 10_000;
+
+    private final Map<Key, StoredResponse> responses = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, StoredResponse> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    private record Key(Long portfolioId, String idempotencyKey) {
+    }
+
+    /**
+     * Response stored for a key.
+     *
+     * @param requestHash hash of the endpoint and body of the original request
+     * @param status HTTP status of the original response
+     * @param body body of the original response as JSON, {@code null} if it had none
+     * @param expiresAt instant after which the key is forgotten
+     */
+    public record StoredResponse(String requestHash, int status, String body, Instant expiresAt) {
+
+        /**
+         * @param record a committed record
+         * @return the response stored in the record
+         */
+        public static StoredResponse of(IdempotencyRecord record) {
+            return new StoredResponse(record.getRequestHash(), record.getResponseStatus(),
+                    record.getResponseBody(), record.getExpiresAt());
+        }
+    }
+
+    /**
+     * Returns the response cached for a key.
+     *
+     * @param portfolioId portfolio of the requesting user
+     * @param idempotencyKey key chosen by the client
+     * @param now the current instant
+     * @return the cached response, or {@code null} if none is cached or it expired
+     */
+    public StoredResponse get(Long portfolioId, String idempotencyKey, Instant now) {
+        StoredResponse response = responses.get(new Key(portfolioId, idempotencyKey));
+        return response != null && response.expiresAt().isAfter(now) ? response : null;
+    }
+
+    /**
+     * Caches the committed response of a key.
+     *
+     * @param portfolioId portfolio of the requesting user
+     * @param idempotencyKey key chosen by the client
+     * @param response the stored response
+     */
+    public void put(Long portfolioId, String idempotencyKey, StoredResponse response) {
+        responses.put(new Key(portfolioId, idempotencyKey), response);
+    }
+}
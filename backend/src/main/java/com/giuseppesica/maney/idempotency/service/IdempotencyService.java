@@ -0,0 +1,226 @@
+package com.giuseppesica.maney.idempotency.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuseppesica.maney.idempotency.model.IdempotencyRecord;
+import com.giuseppesica.maney.idempotency.model.IdempotencyRecordRepository;
+import com.giuseppesica.maney.idempotency.service.IdempotencyResponseCache.StoredResponse;
+import com.giuseppesica.maney.security.ConflictException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Service making create endpoints safe to retry through the {@value #HEADER} header.
+ *
+ * <p><strong>Protocol:</strong> The first request with a key runs normally and its response
+ * is stored with a hash of the endpoint and request body. A retry with the same key and body
+ * gets the stored response back, with the {@value #REPLAYED_HEADER} header set, and the
+ * operation is not run again. Reusing a key for a different request is rejected. Keys are
+ * scoped to the user's portfolio and forgotten after {@code maney.idempotency.ttl} (24 hours
+ * by default).</p>
+ *
+ * <p><strong>Atomicity:</strong> {@link #execute} joins the caller's transaction. The
+ * {@link IdempotencyRecord} is inserted before the operation runs, so a concurrent request
+ * with the same key blocks on the unique index until the first one completes and is then
+ * answered with 409 Conflict; its retry gets the stored response. The record is committed
+ * together with the operation, or not at all.</p>
+ *
+ * <p><strong>Reads:</strong> Committed responses are kept in the {@link IdempotencyResponseCache},
+ * so a retry usually doesn't read the record table. Expired records are deleted by
+ * {@link #purgeExpired()} (cron {@code maney.idempotency.purge-cron}, {@code -} to disable).</p>
+ *
+ * @see IdempotencyRecord
+ */
+@Service
+public class IdempotencyService {
+
+    /**
+     * Request header carrying the client's key.
+     */
+    public static final String HEADER = "Idempotency-Key";
+
+    /**
+     * Response header set on replayed responses.
+     */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /**
+     * Maximum length of a key.
+     */
+    static final int MAX_KEY_LENGTH = 255;
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final IdempotencyResponseCache idempotencyResponseCache;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    /**
+     * Constructs the service with required dependencies.
+     *
+     * @param idempotencyRecordRepository repository for stored responses
+     * @param idempotencyResponseCache in-memory front cache of stored responses
+     * @param objectMapper mapper hashing requests and storing responses
+     * @param ttl how long a key is remembered
+     */
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              IdempotencyResponseCache idempotencyResponseCache,
+                              ObjectMapper objectMapper,
+                              @Value("${maney.idempotency.ttl:24h}") Duration ttl) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.idempotencyResponseCache = idempotencyResponseCache;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Runs a create operation at most once per key.
+     *
+     * @param portfolioId portfolio of the requesting user
+     * @param key the {@value #HEADER} header, or {@code null} to just run the operation
+     * @param endpoint name of the endpoint, so a key can't be replayed on another one
+     * @param request the request body
+     * @param responseType type of the response body
+     * @param operation the operation, run in the current transaction
+     * @param <T> type of the response body
+     * @return the operation's response, or the stored response of an earlier request with the key
+     * @throws IllegalArgumentException if the key is blank or too long, or was used for a different request
+     * @throws ConflictException if a request with the same key is running concurrently
+     */
+    @Transactional
+    public <T> ResponseEntity<T> execute(Long portfolioId, String key, String endpoint, Object request,
+                                         Class<T> responseType, Supplier<ResponseEntity<T>> operation) {
+        if (key == null) {
+            return operation.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(endpoint, request);
+        Instant now = Instant.now();
+
+        StoredResponse stored = findStored(portfolioId, key, now);
+        if (stored != null) {
+            if (!stored.requestHash().equals(requestHash)) {
+                throw new IllegalArgumentException(HEADER + " was already used for a different request");
+            }
+            return ResponseEntity.status(stored.status())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(stored.body() == null ? null : fromJson(stored.body(), responseType));
+        }
+
+        IdempotencyRecord record;
+        try {
+            record = idempotencyRecordRepository.saveAndFlush(
+                    new IdempotencyRecord(portfolioId, key, requestHash, now, now.plus(ttl)));
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("A request with this " + HEADER + " is already in progress, please retry");
+        }
+
+        ResponseEntity<T> response = operation.get();
+        record.setResponseStatus(response.getStatusCode().value());
+        record.setResponseBody(response.getBody() == null ? null : toJson(response.getBody()));
+        StoredResponse committed = StoredResponse.of(record);
+        afterCommit(() -> idempotencyResponseCache.put(portfolioId, key, committed));
+        return response;
+    }
+
+    /**
+     * Deletes expired records.
+     *
+     * @return number of deleted records
+     */
+    @Scheduled(cron = "${maney.idempotency.purge-cron:0 15 * * * *}", zone = "UTC")
+    @Transactional
+    public int purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteExpired(Instant.now());
+        logger.info("Idempotency purge deleted {} expired records", deleted);
+        return deleted;
+    }
+
+    /**
+     * Returns the committed response of a key, from the cache or the record table.
+     * An expired record is deleted so the key can be reused.
+     */
+    private StoredResponse findStored(Long portfolioId, String key, Instant now) {
+        StoredResponse cached = idempotencyResponseCache.get(portfolioId, key, now);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<IdempotencyRecord> record = idempotencyRecordRepository.findByPortfolioIdAndIdempotencyKey(portfolioId, key);
+        if (record.isEmpty()) {
+            return null;
+        }
+        if (!record.get().getExpiresAt().isAfter(now)) {
+            idempotencyRecordRepository.delete(record.get());
+            idempotencyRecordRepository.flush();
+            return null;
+        }
+        StoredResponse stored = StoredResponse.of(record.get());
+        idempotencyResponseCache.put(portfolioId, key, stored);
+        return stored;
+    }
+
+    private String hash(String endpoint, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(endpoint.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not hash request", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            String json = objectMapper.writeValueAsString(body);
+            if (json.length() > IdempotencyRecord.MAX_BODY_LENGTH) {
+                throw new IllegalStateException("Response too large to store for " + HEADER);
+            }
+            return json;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store response", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored response", e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
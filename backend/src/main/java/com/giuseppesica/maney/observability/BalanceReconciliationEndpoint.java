@@ -0,0 +1,73 @@
+package com.giuseppesica.maney.observability;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceReconciliationReport;
+import com.giuseppesica.maney.account.liquidityaccount.service.BalanceReconciliationService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Actuator endpoint serving the summary of the latest balance reconciliation at
+ * {@code /actuator/reconciliation}, or 404 before the first run.
+ *
+ * <p>Only the counts are served: the drifted accounts belong to many users and are listed
+ * in the log of the run instead. Exposed in {@code application.properties}; it needs the
+ * operator account, see {@link com.giuseppesica.maney.config.SecurityConfig}.</p>
+ *
+ * @see BalanceReconciliationService
+ */
+@Component
+@Endpoint(id = "reconciliation")
+public class BalanceReconciliationEndpoint {
+
+    private final BalanceReconciliationService balanceReconciliationService;
+
+    /**
+     * Summary of a reconciliation run, see {@link BalanceReconciliationReport}.
+     *
+     * @param startedAt instant the run started
+     * @param duration how long the run took
+     * @param accountsChecked number of accounts compared with their operations
+     * @param accountsUnverified number of accounts whose ledger has no opening entry yet
+     * @param accountsDrifted number of accounts whose stored balance differs from the expected one
+     * @param totalAbsoluteDrift sum of the absolute drifts
+     * @param chunksFailed number of chunks of accounts that could not be read
+     */
+    public record Summary(Instant startedAt,
+                          Duration duration,
+                          int accountsChecked,
+                          int accountsUnverified,
+                          int accountsDrifted,
+                          BigDecimal totalAbsoluteDrift,
+                          int chunksFailed) {
+
+        static Summary of(BalanceReconciliationReport report) {
+            return new Summary(report.startedAt(), report.duration(), report.accountsChecked(),
+                    report.accountsUnverified(), report.accountsDrifted(), report.totalAbsoluteDrift(),
+                    report.chunksFailed());
+        }
+    }
+
+    /**
+     * Creates the endpoint.
+     *
+     * @param balanceReconciliationService service holding the latest report
+     */
+    public BalanceReconciliationEndpoint(BalanceReconciliationService balanceReconciliationService) {
+        this.balanceReconciliationService = balanceReconciliationService;
+    }
+
+    /**
+     * Returns the summary of the latest run.
+     *
+     * @return the summary, null (HTTP 404) if no run has completed yet
+     */
+    @ReadOperation
+    public Summary lastReport() {
+        return balanceReconciliationService.getLastReport().map(Summary::of).orElse(null);
+    }
+}
@@ -0,0 +1,74 @@
+package com.giuseppesica.maney.observability;
+
+import com.giuseppesica.maney.config.ConnectionLimitingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Saturation gauges of the database connection pool.
+ *
+ * <p>Spring Boot already publishes the raw Hikari counts ({@code hikaricp.connections.active},
+ * {@code .idle}, {@code .pending}, {@code .max}). This binder adds:</p>
+ * <ul>
+ *   <li>{@code maney.datasource.pool.saturation}: share of the pool's maximum size in use, from
+ *       0 to 1; at 1, further requests wait for a connection</li>
+ *   <li>{@code maney.datasource.limiter.available} and {@code maney.datasource.limiter.waiting}:
+ *       free permits and queued callers of the {@link ConnectionLimitingDataSource}, only when
+ *       running on virtual threads</li>
+ * </ul>
+ * <p>Gauges are only evaluated when scraped.</p>
+ */
+public class ConnectionPoolMetrics implements MeterBinder {
+
+    private final DataSource dataSource;
+
+    /**
+     * Creates the binder.
+     *
+     * @param dataSource the application data source, possibly wrapping the Hikari pool
+     */
+    public ConnectionPoolMetrics(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        HikariDataSource hikari = unwrapHikari(dataSource);
+        if (hikari != null) {
+            Gauge.builder("maney.datasource.pool.saturation", hikari, ConnectionPoolMetrics::saturation)
+                    .description("Share of the connection pool in use")
+                    .tag("pool", String.valueOf(hikari.getPoolName()))
+                    .register(registry);
+        }
+        if (dataSource instanceof ConnectionLimitingDataSource limiter) {
+            Gauge.builder("maney.datasource.limiter.available", limiter, ConnectionLimitingDataSource::getAvailablePermits)
+                    .description("Connections that can be borrowed without waiting")
+                    .register(registry);
+            Gauge.builder("maney.datasource.limiter.waiting", limiter, ConnectionLimitingDataSource::getQueueLength)
+                    .description("Callers waiting for a connection")
+                    .register(registry);
+        }
+    }
+
+    static double saturation(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null || hikari.getMaximumPoolSize() <= 0) {
+            return Double.NaN;
+        }
+        return (double) pool.getActiveConnections() / hikari.getMaximumPoolSize();
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
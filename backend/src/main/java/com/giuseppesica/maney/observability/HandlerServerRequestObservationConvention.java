@@ -0,0 +1,43 @@
+package com.giuseppesica.maney.observability;
+
+import io.micrometer.common.KeyValues;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Adds the controller method that handled a request to the {@code http.server.requests} metrics.
+ *
+ * <p>The tag {@value #HANDLER_KEY} is {@code <Controller>.<method>}, e.g.
+ * {@code TransferController.createTransfers}, or {@value #NO_HANDLER} when no controller method
+ * was matched (unknown paths, requests rejected by security). Every controller method thus gets
+ * its own request count and latency histogram. The value is read from a request attribute
+ * Spring MVC already sets, so the tag costs one lookup per request.</p>
+ */
+public class HandlerServerRequestObservationConvention extends DefaultServerRequestObservationConvention {
+
+    /**
+     * Name of the tag holding the controller method.
+     */
+    static final String HANDLER_KEY = "handler";
+
+    /**
+     * Tag value of requests not handled by a controller method.
+     */
+    static final String NO_HANDLER = "none";
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(HANDLER_KEY, handler(context.getCarrier()));
+    }
+
+    static String handler(HttpServletRequest request) {
+        if (request != null
+                && request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return NO_HANDLER;
+    }
+}
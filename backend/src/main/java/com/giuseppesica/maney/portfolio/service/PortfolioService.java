@@ -3,6 +3,7 @@ package com.giuseppesica.maney.portfolio.service;
 import com.giuseppesica.maney.illiquidasset.model.IlliquidAssetRepository;
 import com.giuseppesica.maney.portfolio.model.Portfolio;
 import com.giuseppesica.maney.portfolio.model.PortfolioRepository;
+import com.giuseppesica.maney.security.AuthenticatedPrincipalCache;
 import com.giuseppesica.maney.user.model.User;
 import com.giuseppesica.maney.user.model.UserRepository;
 import org.slf4j.Logger;
@@ -23,12 +24,15 @@ public class PortfolioService {
     private final PortfolioRepository portfolioRepository;
     private final UserRepository userRepository;
     private final IlliquidAssetRepository illiquidAssetRepository;
+    private final AuthenticatedPrincipalCache principalCache;
 
     @Autowired
-    public PortfolioService(PortfolioRepository portfolioRepository, UserRepository userRepository, IlliquidAssetRepository illiquidAssetRepository) {
+    public PortfolioService(PortfolioRepository portfolioRepository, UserRepository userRepository, IlliquidAssetRepository illiquidAssetRepository,
+                            AuthenticatedPrincipalCache principalCache) {
         this.portfolioRepository = portfolioRepository;
         this.userRepository = userRepository;
         this.illiquidAssetRepository = illiquidAssetRepository;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -68,6 +72,7 @@ public class PortfolioService {
         // ... other field updates
 
         Portfolio updated = portfolioRepository.save(portfolio);
+        principalCache.evictUser(email);
         logger.info("Portfolio updated for user: {}", email);
         return updated;
     }
@@ -88,6 +93,7 @@ public class PortfolioService {
         Portfolio portfolio = user.get().getPortfolio();
         if (portfolio != null) {
             portfolioRepository.delete(portfolio);
+            principalCache.evictUser(email);
             logger.info("Portfolio deleted for user: {}", email);
         }
     }
@@ -102,6 +108,19 @@ public class PortfolioService {
         return portfolioRepository.findById(portfolioId);
     }
 
+    /**
+     * Returns a reference to a portfolio without loading it.
+     *
+     * <p>The portfolio is only loaded if a property other than its ID is read; use it when
+     * the ID is already known to exist, e.g. from an access token.</p>
+     *
+     * @param portfolioId the portfolio ID
+     * @return a lazy reference to the portfolio
+     */
+    public Portfolio getReference(Long portfolioId) {
+        return portfolioRepository.getReferenceById(portfolioId);
+    }
+
     /**
      * Finds a portfolio by user ID.
      *
@@ -0,0 +1,16 @@
+package com.giuseppesica.maney.security;
+
+/**
+ * Identifiers of the authenticated user, resolved once per session or read from the access token.
+ *
+ * <p>Ownership checks only need to compare IDs, so controllers use this instead of
+ * loading the {@link com.giuseppesica.maney.user.model.User User} and its portfolio on
+ * every request.</p>
+ *
+ * @param userId the user's ID
+ * @param portfolioId the ID of the user's portfolio, or {@code null} if the user has none
+ * @param email the user's email, i.e. the authentication name
+ * @see AuthenticationHelper#getAuthenticatedPrincipal(org.springframework.security.core.Authentication)
+ */
+public record AuthenticatedPrincipal(Long userId, Long portfolioId, String email) {
+}
@@ -0,0 +1,109 @@
+package com.giuseppesica.maney.security;
+
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionIdListener;
+import jakarta.servlet.http.HttpSessionListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory cache of resolved principals, keyed by HTTP session ID.
+ *
+ * <p>The first authenticated request of a session resolves the user's ID and portfolio ID
+ * with one query; later requests of the same session read them from here.</p>
+ *
+ * <p><strong>Lifecycle:</strong> Registered as a servlet session listener, so an entry is
+ * moved when the container changes the session ID and dropped when the session is
+ * invalidated or expires. At most {@link #MAX_SESSIONS} entries are kept; when full the
+ * cache is cleared and sessions re-resolve on their next request.</p>
+ *
+ * <p><strong>Consistency:</strong> Entries are only returned for the email they were
+ * resolved for, so a session that logs in as another user never sees the previous
+ * user's IDs. Every change to a user or to their portfolio calls {@link #evictUser(String)};
+ * inside a transaction the entries are evicted again once it completes, so a request
+ * resolving the principal before the commit cannot cache the old IDs.</p>
+ *
+ * @see AuthenticationHelper#getAuthenticatedPrincipal(org.springframework.security.core.Authentication)
+ */
+@Component
+public class AuthenticatedPrincipalCache implements HttpSessionListener, HttpSessionIdListener {
+
+    /**
+     * Maximum number of cached sessions.
+     */
+    static final int MAX_SESSIONS = 100_000;
+
+    private final Map<String, AuthenticatedPrincipal> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the principal cached for a session.
+     *
+     * @param sessionId the HTTP session ID
+     * @param email the authentication name of the current request
+     * @return the cached principal, or {@code null} if none is cached for that email
+     */
+    public AuthenticatedPrincipal get(String sessionId, String email) {
+        AuthenticatedPrincipal principal = sessions.get(sessionId);
+        return principal != null && principal.email().equals(email) ? principal : null;
+    }
+
+    /**
+     * Caches the principal of a session.
+     *
+     * @param sessionId the HTTP session ID
+     * @param principal the resolved principal
+     */
+    public void put(String sessionId, AuthenticatedPrincipal principal) {
+        if (sessions.size() >= MAX_SESSIONS && !sessions.containsKey(sessionId)) {
+            sessions.clear();
+        }
+        sessions.put(sessionId, principal);
+    }
+
+    /**
+     * Removes every session entry of a user, after the user or their portfolio was created,
+     * changed or deleted.
+     *
+     * <p>When called inside a transaction, the entries are removed now and again after the
+     * transaction completes.</p>
+     *
+     * @param email the user's email
+     */
+    public void evictUser(String email) {
+        sessions.values().removeIf(principal -> principal.email().equals(email));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    sessions.values().removeIf(principal -> principal.email().equals(email));
+                }
+            });
+        }
+    }
+
+    /**
+     * Removes the entry of a session.
+     *
+     * @param sessionId the HTTP session ID
+     */
+    public void evictSession(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent event) {
+        evictSession(event.getSession().getId());
+    }
+
+    @Override
+    public void sessionIdChanged(HttpSessionEvent event, String oldSessionId) {
+        AuthenticatedPrincipal principal = sessions.remove(oldSessionId);
+        if (principal != null) {
+            sessions.put(event.getSession().getId(), principal);
+        }
+    }
+}
@@ -1,27 +1,97 @@
 package com.giuseppesica.maney.security;
 
 import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.portfolio.service.PortfolioService;
 import com.giuseppesica.maney.user.model.User;
 import com.giuseppesica.maney.user.service.UserService;
+import jakarta.servlet.http.HttpSession;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 /**
  * Helper class for handling authentication-related operations.
  * Centralizes authentication logic to avoid code duplication across controllers.
+ *
+ * <p>Ownership checks go through {@link #getAuthenticatedPrincipal(Authentication)}, which
+ * resolves the user and portfolio IDs once per HTTP session and serves them from the
+ * {@link AuthenticatedPrincipalCache} afterwards, or reads them from the access token in
+ * the stateless mode ({@link TokenAuthentication}). Methods returning entities load them
+ * from the database in the session mode and should only be used when the entity itself is
+ * needed; in the stateless mode they return lazy references built from the token's IDs.</p>
  */
 @Component
 public class AuthenticationHelper {
 
     private final UserService userService;
+    private final PortfolioService portfolioService;
+    private final AuthenticatedPrincipalCache principalCache;
 
-    public AuthenticationHelper(UserService userService) {
+    public AuthenticationHelper(UserService userService, PortfolioService portfolioService,
+                                AuthenticatedPrincipalCache principalCache) {
         this.userService = userService;
+        this.portfolioService = portfolioService;
+        this.principalCache = principalCache;
+    }
+
+    /**
+     * Resolves the IDs of the authenticated user and of their portfolio.
+     *
+     * <p>Token-authenticated requests carry the principal in their access token. Otherwise
+     * it is served from the session cache when possible, or resolved with a single query
+     * and cached for the rest of the session. Requests without a session are resolved
+     * every time.</p>
+     *
+     * @param authentication Spring Security authentication object
+     * @return the authenticated principal
+     * @throws UnauthorizedException if authentication is null or user is not authenticated
+     * @throws NotFoundException if user is not found in database
+     */
+    public AuthenticatedPrincipal getAuthenticatedPrincipal(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new UnauthorizedException("User is not authenticated");
+        }
+        if (authentication instanceof TokenAuthentication token) {
+            return token.getPrincipal();
+        }
+
+        String email = authentication.getName();
+        String sessionId = currentSessionId();
+        if (sessionId != null) {
+            AuthenticatedPrincipal cached = principalCache.get(sessionId, email);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        AuthenticatedPrincipal principal = userService.findPrincipalByEmail(email)
+                .orElseThrow(() -> new NotFoundException("User not found: " + email));
+        if (sessionId != null) {
+            principalCache.put(sessionId, principal);
+        }
+        return principal;
+    }
+
+    /**
+     * Gets the ID of the authenticated user without loading the user.
+     *
+     * @param authentication Spring Security authentication object
+     * @return user ID
+     * @throws UnauthorizedException if user is not authenticated
+     * @throws NotFoundException if user is not found
+     */
+    public Long getAuthenticatedUserId(Authentication authentication) {
+        return getAuthenticatedPrincipal(authentication).userId();
     }
 
     /**
      * Extracts the authenticated user from the Spring Security Authentication object.
      *
+     * <p>For token-authenticated requests the user is not loaded: a lazy reference is built
+     * from the user ID of the access token.</p>
+     *
      * @param authentication Spring Security authentication object
      * @return authenticated User entity
      * @throws UnauthorizedException if authentication is null or user is not authenticated
@@ -31,6 +101,9 @@ public class AuthenticationHelper {
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new UnauthorizedException("User is not authenticated");
         }
+        if (authentication instanceof TokenAuthentication token) {
+            return userService.getReference(token.getPrincipal().userId());
+        }
 
         try {
             return userService.UserFromAuthentication(authentication);
@@ -42,12 +115,18 @@ public class AuthenticationHelper {
     /**
      * Retrieves the portfolio of the authenticated user.
      *
+     * <p>For token-authenticated requests the portfolio is not loaded: a lazy reference is
+     * built from the portfolio ID of the access token.</p>
+     *
      * @param authentication Spring Security authentication object
      * @return Portfolio of the authenticated user
      * @throws UnauthorizedException if user is not authenticated
      * @throws NotFoundException if user or portfolio is not found
      */
     public Portfolio getAuthenticatedUserPortfolio(Authentication authentication) {
+        if (authentication instanceof TokenAuthentication) {
+            return portfolioService.getReference(getAuthenticatedUserPortfolioId(authentication));
+        }
         User user = getAuthenticatedUser(authentication);
 
         if (user.getPortfolio() == null) {
@@ -58,7 +137,7 @@ public class AuthenticationHelper {
     }
 
     /**
-     * Gets the portfolio ID of the authenticated user.
+     * Gets the portfolio ID of the authenticated user without loading the portfolio.
      *
      * @param authentication Spring Security authentication object
      * @return portfolio ID
@@ -66,7 +145,11 @@ public class AuthenticationHelper {
      * @throws NotFoundException if user or portfolio is not found
      */
     public Long getAuthenticatedUserPortfolioId(Authentication authentication) {
-        return getAuthenticatedUserPortfolio(authentication).getId();
+        AuthenticatedPrincipal principal = getAuthenticatedPrincipal(authentication);
+        if (principal.portfolioId() == null) {
+            throw new NotFoundException("Portfolio not found for user: " + principal.email());
+        }
+        return principal.portfolioId();
     }
 
     /**
@@ -80,12 +163,10 @@ public class AuthenticationHelper {
      * @throws ForbiddenException    if the portfolio does not belong to the user
      */
     public Portfolio validatePortfolioAccess(Authentication authentication, Long portfolioId) {
-        Portfolio userPortfolio = getAuthenticatedUserPortfolio(authentication);
-
-        if (!portfolioId.equals(userPortfolio.getId())) {
+        if (!portfolioId.equals(getAuthenticatedUserPortfolioId(authentication))) {
             throw new ForbiddenException("Access denied to portfolio: " + portfolioId);
         }
-        return userPortfolio;
+        return getAuthenticatedUserPortfolio(authentication);
     }
 
     /**
@@ -106,5 +187,16 @@ public class AuthenticationHelper {
             throw new ForbiddenException("Access denied to " + resourceType + ": not in user's portfolio");
         }
     }
-}
 
+    /**
+     * Returns the ID of the current request's HTTP session, without creating one.
+     */
+    private static String currentSessionId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        HttpSession session = servletAttributes.getRequest().getSession(false);
+        return session == null ? null : session.getId();
+    }
+}
@@ -0,0 +1,11 @@
+package com.giuseppesica.maney.security;
+
+/**
+ * Exception thrown when a request conflicts with another request in progress.
+ * Maps to HTTP 409 Conflict.
+ */
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.giuseppesica.maney.security;
+
+/**
+ * Exception thrown when a request is shed because the server is overloaded.
+ * Maps to HTTP 503 Service Unavailable.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,45 @@
+package com.giuseppesica.maney.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.List;
+
+/**
+ * Authentication of a request carrying a verified access token.
+ *
+ * <p>The principal is read from the token claims, so
+ * {@link AuthenticationHelper#getAuthenticatedPrincipal(org.springframework.security.core.Authentication)}
+ * returns it without a database query. The name is the user's email, as for session
+ * authentications.</p>
+ *
+ * @see TokenService
+ */
+public class TokenAuthentication extends AbstractAuthenticationToken {
+
+    private final Jwt token;
+    private final AuthenticatedPrincipal principal;
+
+    public TokenAuthentication(Jwt token, AuthenticatedPrincipal principal) {
+        super(List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        this.token = token;
+        this.principal = principal;
+        setAuthenticated(true);
+    }
+
+    @Override
+    public Jwt getCredentials() {
+        return token;
+    }
+
+    @Override
+    public AuthenticatedPrincipal getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public String getName() {
+        return principal.email();
+    }
+}
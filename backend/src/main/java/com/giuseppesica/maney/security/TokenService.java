@@ -0,0 +1,185 @@
+package com.giuseppesica.maney.security;
+
+import com.giuseppesica.maney.user.dto.TokenResponseDto;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtIssuerValidator;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Issues and verifies the signed tokens of the stateless authentication mode.
+ *
+ * <p>Both tokens are JWTs signed with HMAC-SHA256 and carry the user's email as subject,
+ * the user ID ({@value #USER_ID_CLAIM}) and the portfolio ID ({@value #PORTFOLIO_ID_CLAIM}),
+ * so a request is authorized from its access token alone: no session and no user lookup.
+ * The {@value #TYPE_CLAIM} claim tells the two apart, so a refresh token is never accepted
+ * as an access token and vice versa.</p>
+ *
+ * <p>Access tokens are short-lived; clients exchange the longer-lived refresh token for a
+ * new pair before they expire. Tokens cannot be revoked individually: changing the secret
+ * invalidates every token issued so far.</p>
+ *
+ * @see com.giuseppesica.maney.config.TokenAuthConfig
+ */
+public class TokenService {
+
+    static final String ISSUER = "maney";
+    static final String TYPE_CLAIM = "typ";
+    static final String USER_ID_CLAIM = "uid";
+    static final String PORTFOLIO_ID_CLAIM = "pid";
+    static final String ACCESS = "access";
+    static final String REFRESH = "refresh";
+
+    /**
+     * Minimum secret length: HS256 requires a key of at least 256 bits.
+     */
+    static final int MIN_SECRET_BYTES = 32;
+
+    private final NimbusJwtEncoder encoder;
+    private final NimbusJwtDecoder accessTokenDecoder;
+    private final NimbusJwtDecoder refreshTokenDecoder;
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+    private final Clock clock;
+
+    /**
+     * Creates the service.
+     *
+     * @param secret Base64-encoded signing secret, at least {@value #MIN_SECRET_BYTES} bytes
+     * @param accessTokenTtl lifetime of access tokens
+     * @param refreshTokenTtl lifetime of refresh tokens
+     * @param clock clock used for issue and expiry times
+     * @throws IllegalStateException if the secret is missing, not Base64 or too short
+     */
+    public TokenService(String secret, Duration accessTokenTtl, Duration refreshTokenTtl, Clock clock) {
+        SecretKey key = signingKey(secret);
+        this.encoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+        this.accessTokenDecoder = decoder(key, ACCESS, clock);
+        this.refreshTokenDecoder = decoder(key, REFRESH, clock);
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.clock = clock;
+    }
+
+    /**
+     * Issues a new access and refresh token pair for a user.
+     *
+     * @param principal the authenticated user
+     * @return the tokens
+     */
+    public TokenResponseDto issue(AuthenticatedPrincipal principal) {
+        Instant now = clock.instant();
+        return new TokenResponseDto(
+                encode(principal, ACCESS, now, accessTokenTtl),
+                encode(principal, REFRESH, now, refreshTokenTtl),
+                accessTokenTtl.toSeconds());
+    }
+
+    /**
+     * Verifies a refresh token.
+     *
+     * @param refreshToken the token sent by the client
+     * @return the principal the token was issued for
+     * @throws UnauthorizedException if the token is malformed, not signed with the current
+     *                               secret, expired or not a refresh token
+     */
+    public AuthenticatedPrincipal verifyRefreshToken(String refreshToken) {
+        try {
+            return principalOf(refreshTokenDecoder.decode(refreshToken));
+        } catch (JwtException e) {
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+    }
+
+    /**
+     * Decoder accepting only valid, unexpired access tokens, used to authorize requests.
+     *
+     * @return the access token decoder
+     */
+    public JwtDecoder accessTokenDecoder() {
+        return accessTokenDecoder;
+    }
+
+    /**
+     * Builds the request authentication from a verified access token.
+     *
+     * @param jwt the decoded access token
+     * @return an authenticated token holding the principal carried by the JWT
+     */
+    public static TokenAuthentication authentication(Jwt jwt) {
+        return new TokenAuthentication(jwt, principalOf(jwt));
+    }
+
+    private static AuthenticatedPrincipal principalOf(Jwt jwt) {
+        Number userId = jwt.getClaim(USER_ID_CLAIM);
+        Number portfolioId = jwt.getClaim(PORTFOLIO_ID_CLAIM);
+        return new AuthenticatedPrincipal(userId.longValue(),
+                portfolioId == null ? null : portfolioId.longValue(),
+                jwt.getSubject());
+    }
+
+    private String encode(AuthenticatedPrincipal principal, String type, Instant now, Duration ttl) {
+        JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject(principal.email())
+                .issuedAt(now)
+                .expiresAt(now.plus(ttl))
+                .claim(TYPE_CLAIM, type)
+                .claim(USER_ID_CLAIM, principal.userId());
+        if (principal.portfolioId() != null) {
+            claims.claim(PORTFOLIO_ID_CLAIM, principal.portfolioId());
+        }
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+        return encoder.encode(JwtEncoderParameters.from(header, claims.build())).getTokenValue();
+    }
+
+    private static NimbusJwtDecoder decoder(SecretKey key, String type, Clock clock) {
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(key)
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        JwtTimestampValidator timestampValidator = new JwtTimestampValidator();
+        timestampValidator.setClock(clock);
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                timestampValidator,
+                new JwtIssuerValidator(ISSUER),
+                new JwtClaimValidator<String>(TYPE_CLAIM, type::equals),
+                new JwtClaimValidator<Object>(USER_ID_CLAIM, Objects::nonNull),
+                new JwtClaimValidator<String>(JwtClaimNames.SUB, Objects::nonNull)));
+        return decoder;
+    }
+
+    private static SecretKey signingKey(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("maney.auth.token.secret must be set when maney.auth.mode=token");
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(secret.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("maney.auth.token.secret must be Base64-encoded", e);
+        }
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("maney.auth.token.secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        return new SecretKeySpec(bytes, "HmacSHA256");
+    }
+}
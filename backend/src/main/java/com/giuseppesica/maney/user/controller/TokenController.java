@@ -0,0 +1,77 @@
+package com.giuseppesica.maney.user.controller;
+
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
+import com.giuseppesica.maney.security.TokenService;
+import com.giuseppesica.maney.security.UnauthorizedException;
+import com.giuseppesica.maney.user.dto.TokenRefreshDto;
+import com.giuseppesica.maney.user.dto.TokenResponseDto;
+import com.giuseppesica.maney.user.dto.UserLoginDto;
+import com.giuseppesica.maney.user.service.UserService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller issuing the tokens of the stateless authentication mode.
+ * Only registered with {@code maney.auth.mode=token}, see
+ * {@link com.giuseppesica.maney.config.TokenAuthConfig}.
+ */
+@RestController
+@RequestMapping("/user/token")
+@ConditionalOnProperty(name = "maney.auth.mode", havingValue = "token")
+public class TokenController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenController.class);
+
+    private final UserService userService;
+    private final TokenService tokenService;
+
+    public TokenController(UserService userService, TokenService tokenService) {
+        this.userService = userService;
+        this.tokenService = tokenService;
+    }
+
+    /**
+     * Authenticates a user and issues an access and refresh token pair.
+     *
+     * @param loginDto Login credentials (email and password)
+     * @return ResponseEntity with the issued tokens
+     */
+    @PostMapping
+    public ResponseEntity<TokenResponseDto> login(@Valid @RequestBody UserLoginDto loginDto) {
+        logger.info("POST /user/token - email={}", loginDto.getEmail());
+        userService.authenticate(loginDto.getEmail(), loginDto.getPassword());
+        return ResponseEntity.ok(tokenService.issue(resolve(loginDto.getEmail())));
+    }
+
+    /**
+     * Exchanges a valid refresh token for a new token pair.
+     *
+     * <p>The user is resolved again, so the new tokens carry the current portfolio ID and a
+     * deleted user can no longer refresh.</p>
+     *
+     * @param refreshDto the refresh token
+     * @return ResponseEntity with the new tokens
+     * @throws UnauthorizedException if the refresh token is invalid or its user no longer exists
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponseDto> refresh(@Valid @RequestBody TokenRefreshDto refreshDto) {
+        AuthenticatedPrincipal issuedFor = tokenService.verifyRefreshToken(refreshDto.getRefreshToken());
+        AuthenticatedPrincipal principal = resolve(issuedFor.email());
+        if (!principal.userId().equals(issuedFor.userId())) {
+            throw new UnauthorizedException("User not found");
+        }
+        return ResponseEntity.ok(tokenService.issue(principal));
+    }
+
+    private AuthenticatedPrincipal resolve(String email) {
+        return userService.findPrincipalByEmail(email)
+                .orElseThrow(() -> new UnauthorizedException("User not found"));
+    }
+}
@@ -0,0 +1,21 @@
+package com.giuseppesica.maney.user.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for token refresh requests.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+public class TokenRefreshDto {
+
+    /**
+     * Refresh token issued with the previous token pair.
+     */
+    @NotBlank
+    private String refreshToken;
+}
@@ -0,0 +1,37 @@
+package com.giuseppesica.maney.user.dto;
+
+import lombok.Getter;
+
+/**
+ * Data Transfer Object for the tokens issued by the stateless authentication mode.
+ * The access token is sent as {@code Authorization: Bearer <accessToken>}.
+ */
+@Getter
+public class TokenResponseDto {
+
+    /**
+     * Short-lived token authorizing requests.
+     */
+    private final String accessToken;
+
+    /**
+     * Longer-lived token exchanged for a new token pair at {@code /user/token/refresh}.
+     */
+    private final String refreshToken;
+
+    /**
+     * Authorization scheme of the access token.
+     */
+    private final String tokenType = "Bearer";
+
+    /**
+     * Lifetime of the access token, in seconds.
+     */
+    private final long expiresIn;
+
+    public TokenResponseDto(String accessToken, String refreshToken, long expiresIn) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+}
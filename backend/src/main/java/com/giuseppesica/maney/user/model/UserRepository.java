@@ -1,6 +1,9 @@
 package com.giuseppesica.maney.user.model;
 
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -18,6 +21,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByEmail(String email);
 
+    /**
+     * Resolves the IDs of a user and of their portfolio by email, without loading either entity.
+     *
+     * @param email the email to search for
+     * @return Optional containing the principal if found; its portfolio ID is null if the user has no portfolio
+     */
+    @Query("SELECT new com.giuseppesica.maney.security.AuthenticatedPrincipal(u.id, p.id, u.email) " +
+            "FROM User u LEFT JOIN u.portfolio p " +
+            "WHERE u.email = :email")
+    Optional<AuthenticatedPrincipal> findPrincipalByEmail(@Param("email") String email);
+
     /**
      * Finds a user by their username.
      *
@@ -0,0 +1,206 @@
+package com.giuseppesica.maney.user.service;
+
+import com.giuseppesica.maney.security.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs password hashing on a dedicated, bounded thread pool.
+ *
+ * <p>BCrypt is deliberately slow, so a burst of logins or registrations hashed on the request
+ * threads would occupy every Tomcat worker and starve the rest of the API. Hashes are
+ * computed by {@code maney.password-hashing.threads} threads instead (default: one per CPU),
+ * which caps the CPU spent on them. Hashes waiting for a thread queue up to
+ * {@code maney.password-hashing.queue-capacity} (default: an eighth of
+ * {@code server.tomcat.threads.max}); beyond that, and when a hash isn't done within
+ * {@code maney.password-hashing.timeout} (default 2 seconds), the request fails at once with
+ * HTTP 503. At most threads + queue capacity request threads wait for a hash, so the rest of
+ * the Tomcat workers stay free for the API, and a login never holds one for long.</p>
+ *
+ * <p>This bounds the hashing work, not the waiting: logins are not asynchronous. The request
+ * thread submits its hash and blocks in {@link Future#get(long, TimeUnit)} until the hash is
+ * done or the timeout expires. On virtual threads the wait parks the virtual thread and frees
+ * its carrier; on platform threads it holds the Tomcat worker. Clients should retry a 503 with
+ * backoff. With {@code spring.jpa.open-in-view} off the waiting thread holds no database
+ * connection.</p>
+ *
+ * <p>The BCrypt cost is {@code maney.password-hashing.bcrypt-strength} (see
+ * {@link com.giuseppesica.maney.config.SecurityConfig#passwordEncoder}). Hashes made with
+ * another cost keep working and {@link UserService#authenticate} rehashes them at the
+ * next successful login, so the cost can be tuned up or down without locking users out.</p>
+ *
+ * <p>Metrics: {@code maney.password.hashing} (hash durations, by operation),
+ * {@code maney.password.hashing.rejected} (shed hashes, by reason) and the
+ * {@code executor.*} meters of the pool, tagged {@code name=password-hashing}.</p>
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    /**
+     * Cost of a BCrypt hash, e.g. 10 in {@code $2a$10$...}.
+     */
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    /**
+     * Default queue capacity: the Tomcat request threads divided by this.
+     */
+    static final int DEFAULT_QUEUE_DIVISOR = 8;
+
+    private final PasswordEncoder passwordEncoder;
+    private final int bcryptStrength;
+    private final Duration timeout;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter queueFullRejections;
+    private final Counter timeoutRejections;
+
+    /**
+     * Constructs the service with required dependencies.
+     *
+     * @param passwordEncoder encoder computing the hashes
+     * @param meterRegistry registry of the pool and hashing metrics
+     * @param bcryptStrength BCrypt cost new hashes are made with
+     * @param threads number of hashing threads, 0 for one per available processor
+     * @param queueCapacity number of hashes that may wait for a thread, 0 for an eighth of the
+     *                      Tomcat request threads
+     * @param requestThreads maximum number of Tomcat request threads
+     * @param timeout how long a caller waits for its hash, queueing included
+     */
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${maney.password-hashing.bcrypt-strength:10}") int bcryptStrength,
+                                  @Value("${maney.password-hashing.threads:0}") int threads,
+                                  @Value("${maney.password-hashing.queue-capacity:0}") int queueCapacity,
+                                  @Value("${server.tomcat.threads.max:200}") int requestThreads,
+                                  @Value("${maney.password-hashing.timeout:2s}") Duration timeout) {
+        if (threads < 0) {
+            throw new IllegalArgumentException("maney.password-hashing.threads must not be negative");
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("maney.password-hashing.queue-capacity must not be negative");
+        }
+        int poolSize = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        int queueSize = queueCapacity == 0 ? Math.max(1, requestThreads / DEFAULT_QUEUE_DIVISOR) : queueCapacity;
+        this.passwordEncoder = passwordEncoder;
+        this.bcryptStrength = bcryptStrength;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        new ExecutorServiceMetrics(executor, "password-hashing", Tags.empty()).bindTo(meterRegistry);
+        this.encodeTimer = Timer.builder("maney.password.hashing")
+                .description("Time spent computing password hashes")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("maney.password.hashing")
+                .description("Time spent computing password hashes")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.queueFullRejections = Counter.builder("maney.password.hashing.rejected")
+                .description("Password hashes shed because the hashing queue was full")
+                .tag("reason", "queue-full")
+                .register(meterRegistry);
+        this.timeoutRejections = Counter.builder("maney.password.hashing.rejected")
+                .description("Password hashes abandoned because they were not done within the timeout")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+        logger.info("Password hashing on {} threads, queue capacity {}, BCrypt strength {}",
+                poolSize, queueSize, bcryptStrength);
+    }
+
+    /**
+     * Hashes a password with the configured BCrypt cost.
+     *
+     * @param rawPassword the plain text password
+     * @return the hash
+     * @throws ServiceUnavailableException if the hashing pool is saturated
+     */
+    public String encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Checks a password against a stored hash.
+     *
+     * @param rawPassword the plain text password
+     * @param passwordHash the stored hash
+     * @return true if the password matches the hash
+     * @throws ServiceUnavailableException if the hashing pool is saturated
+     */
+    public boolean matches(String rawPassword, String passwordHash) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, passwordHash));
+    }
+
+    /**
+     * Tells whether a stored hash was made with another BCrypt cost than the configured one.
+     *
+     * @param passwordHash the stored hash
+     * @return true if the password should be hashed again once verified
+     */
+    public boolean needsRehash(String passwordHash) {
+        if (passwordHash == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(passwordHash);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != bcryptStrength;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Timer timer, Supplier<T> hashing) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.record(hashing));
+        } catch (RejectedExecutionException e) {
+            queueFullRejections.increment();
+            logger.warn("Password hashing queue full ({} waiting), rejecting request", executor.getQueue().size());
+            throw new ServiceUnavailableException("Too many concurrent logins, please retry");
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeoutRejections.increment();
+            logger.warn("Password hashing took longer than {}, rejecting request", timeout);
+            throw new ServiceUnavailableException("Too many concurrent logins, please retry");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while hashing password");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
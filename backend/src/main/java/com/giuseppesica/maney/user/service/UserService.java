@@ -1,11 +1,13 @@
 package com.giuseppesica.maney.user.service;
 
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
+import com.giuseppesica.maney.security.AuthenticatedPrincipalCache;
+import com.giuseppesica.maney.security.ServiceUnavailableException;
 import com.giuseppesica.maney.user.model.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import com.giuseppesica.maney.user.model.User;
 
@@ -18,20 +20,24 @@ import java.util.Optional;
 @Service
 public class UserService {
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final AuthenticatedPrincipalCache principalCache;
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
     /**
      * Constructor for dependency injection.
      *
      * @param userRepository Repository for user data access
-     * @param passwordEncoder Encoder for password hashing
+     * @param passwordHashingService Pool hashing and verifying passwords
+     * @param principalCache Cache of resolved principals, evicted when a user changes
      */
     @Autowired
     public UserService(UserRepository userRepository,
-                       PasswordEncoder passwordEncoder) {
+                       PasswordHashingService passwordHashingService,
+                       AuthenticatedPrincipalCache principalCache) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -43,6 +49,7 @@ public class UserService {
      * @param plainPassword the user's plain text password
      * @return the registered User entity
      * @throws IllegalArgumentException if the email is already in use
+     * @throws ServiceUnavailableException if password hashing is saturated
      */
     public User register(String username, String email,
                          String plainPassword) {
@@ -51,13 +58,15 @@ public class UserService {
             throw new IllegalArgumentException("Email already in use");
         }
 
-        String hash = passwordEncoder.encode(plainPassword);
+        String hash = passwordHashingService.encode(plainPassword);
         User user = new User();
         user.setUsername(username);
         user.setEmail(email);
         user.setPasswordHash(hash);
         logger.info("Registering new user with email: {}", email);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        principalCache.evictUser(email);
+        return saved;
     }
 
     /**
@@ -70,6 +79,29 @@ public class UserService {
         return userRepository.findByEmail(email);
     }
 
+    /**
+     * Resolves the IDs of a user and of their portfolio by email with a single query.
+     *
+     * @param email the email to search for
+     * @return an Optional containing the principal if found, empty otherwise
+     */
+    public Optional<AuthenticatedPrincipal> findPrincipalByEmail(String email) {
+        return userRepository.findPrincipalByEmail(email);
+    }
+
+    /**
+     * Returns a reference to a user without loading it.
+     *
+     * <p>The user is only loaded if a property other than its ID is read; use it when the
+     * ID is already known to exist, e.g. from an access token.</p>
+     *
+     * @param userId the user ID
+     * @return a lazy reference to the user
+     */
+    public User getReference(Long userId) {
+        return userRepository.getReferenceById(userId);
+    }
+
     /**
      * Finds a user by their username.
      *
@@ -103,20 +135,33 @@ public class UserService {
     /**
      * Authenticates a user with email and password.
      * Verifies the password hash matches the provided plain password.
+     * A hash made with another BCrypt cost than the configured one is replaced by a new
+     * hash of the verified password; if hashing is saturated, that is left to a later login.
      *
      * @param email the user's email
      * @param plainPassword the user's plain text password
      * @return the authenticated User if credentials are correct
      * @throws IllegalArgumentException if email not found or password is incorrect
+     * @throws ServiceUnavailableException if password hashing is saturated
      */
     public User authenticate(String email, String plainPassword) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        if (!passwordEncoder.matches(plainPassword, user.getPasswordHash())) {
+        if (!passwordHashingService.matches(plainPassword, user.getPasswordHash())) {
             throw new IllegalArgumentException("Invalid password");
         }
 
+        if (passwordHashingService.needsRehash(user.getPasswordHash())) {
+            try {
+                user.setPasswordHash(passwordHashingService.encode(plainPassword));
+                userRepository.save(user);
+                logger.info("Rehashed password of user {} with the configured BCrypt cost", user.getId());
+            } catch (ServiceUnavailableException e) {
+                logger.debug("Password rehash of user {} postponed: {}", user.getId(), e.getMessage());
+            }
+        }
+
         return user;
     }
 
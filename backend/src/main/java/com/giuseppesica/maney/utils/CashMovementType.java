@@ -1,6 +1,18 @@
 package com.giuseppesica.maney.utils;
 
+import java.math.BigDecimal;
+
 public enum CashMovementType {
     INCOME,
-    OUTCOME
+    OUTCOME;
+
+    /**
+     * Returns the balance effect of a movement of this type.
+     *
+     * @param amount the (positive) movement amount
+     * @return {@code amount} for INCOME, {@code -amount} for OUTCOME
+     */
+    public BigDecimal signed(BigDecimal amount) {
+        return this == INCOME ? amount : amount.negate();
+    }
 }
@@ -0,0 +1,96 @@
+-- Baseline schema: the tables and constraints Hibernate schema update created before Flyway was
+-- introduced, foreign key names included. Databases created that way are marked as version 1 by
+-- spring.flyway.baseline-on-migrate and skip this script.
+
+CREATE TABLE app_user (
+    id                bigint GENERATED BY DEFAULT AS IDENTITY,
+    created_at        timestamp(6) with time zone NOT NULL,
+    email             varchar(255)                NOT NULL,
+    email_verified_at timestamp(6) with time zone,
+    password_hash     varchar(255)                NOT NULL,
+    updated_at        timestamp(6) with time zone NOT NULL,
+    username          varchar(255)                NOT NULL,
+    CONSTRAINT app_user_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE portfolio (
+    user_id bigint NOT NULL,
+    CONSTRAINT portfolio_pkey PRIMARY KEY (user_id),
+    CONSTRAINT fk_portfolio_user FOREIGN KEY (user_id) REFERENCES app_user (id)
+);
+
+CREATE TABLE category (
+    id        bigint GENERATED BY DEFAULT AS IDENTITY,
+    color     varchar(255) NOT NULL,
+    name      varchar(255) NOT NULL,
+    type      varchar(255) NOT NULL CHECK (type IN ('INCOME', 'OUTCOME', 'BOTH')),
+    parent_id bigint,
+    user_id   bigint       NOT NULL,
+    CONSTRAINT category_pkey PRIMARY KEY (id),
+    CONSTRAINT fk2y94svpmqttx80mshyny85wqr FOREIGN KEY (parent_id) REFERENCES category (id),
+    CONSTRAINT fkrlg1obihj1el9rttiseudaehs FOREIGN KEY (user_id) REFERENCES app_user (id)
+);
+
+CREATE TABLE illiquid_asset (
+    id              bigint GENERATED BY DEFAULT AS IDENTITY,
+    description     varchar(255),
+    estimated_value real         NOT NULL,
+    name            varchar(255) NOT NULL,
+    portfolio_id    bigint       NOT NULL,
+    CONSTRAINT illiquid_asset_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_illiquidasset_portfolio FOREIGN KEY (portfolio_id) REFERENCES portfolio (user_id)
+);
+
+CREATE TABLE account (
+    account_type varchar(31)                 NOT NULL,
+    id           bigint GENERATED BY DEFAULT AS IDENTITY,
+    closed_at    timestamp(6) with time zone,
+    created_at   timestamp(6) with time zone NOT NULL,
+    institution  varchar(255)                NOT NULL,
+    name         varchar(255)                NOT NULL,
+    note         varchar(255),
+    opened_at    timestamp(6) with time zone,
+    updated_at   timestamp(6) with time zone NOT NULL,
+    portfolio_id bigint                      NOT NULL,
+    CONSTRAINT account_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_account_portfolio_name UNIQUE (portfolio_id, name),
+    CONSTRAINT fkre619l0w1t2uwnkai1r25bkg3 FOREIGN KEY (portfolio_id) REFERENCES portfolio (user_id)
+);
+
+CREATE TABLE liquidity_account (
+    balance  numeric(38, 2) NOT NULL,
+    currency varchar(255)   NOT NULL CHECK (currency IN ('EUR', 'USD', 'GBP', 'JPY', 'CHF', 'AUD', 'CAD')),
+    id       bigint         NOT NULL,
+    CONSTRAINT liquidity_account_pkey PRIMARY KEY (id),
+    CONSTRAINT fkqi87ctaih8x0vrinc71s6pily FOREIGN KEY (id) REFERENCES account (id)
+);
+
+CREATE TABLE operation (
+    id   bigint GENERATED BY DEFAULT AS IDENTITY,
+    date timestamp(6) with time zone NOT NULL,
+    note varchar(255),
+    CONSTRAINT operation_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE cash_movement (
+    amount      numeric(38, 2) NOT NULL,
+    type        varchar(255)   NOT NULL CHECK (type IN ('INCOME', 'OUTCOME')),
+    id          bigint         NOT NULL,
+    category_id bigint,
+    account_id  bigint         NOT NULL,
+    CONSTRAINT cash_movement_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_cashmovement_category FOREIGN KEY (category_id) REFERENCES category (id),
+    CONSTRAINT fk_cashmovement_liquidityaccount FOREIGN KEY (account_id) REFERENCES liquidity_account (id),
+    CONSTRAINT fkc2is6v081812glvs6syqx1p9y FOREIGN KEY (id) REFERENCES operation (id)
+);
+
+CREATE TABLE transfer (
+    amount          numeric(38, 2) NOT NULL,
+    id              bigint         NOT NULL,
+    from_account_id bigint         NOT NULL,
+    to_account_id   bigint         NOT NULL,
+    CONSTRAINT transfer_pkey PRIMARY KEY (id),
+    CONSTRAINT fk628ljx47dsg649hxvcho6c8k1 FOREIGN KEY (id) REFERENCES operation (id),
+    CONSTRAINT fk_transfer_from_liquidityaccount FOREIGN KEY (from_account_id) REFERENCES liquidity_account (id),
+    CONSTRAINT fk_transfer_to_liquidityaccount FOREIGN KEY (to_account_id) REFERENCES liquidity_account (id)
+);
@@ -0,0 +1,105 @@
+-- Columns, indexes and tables added since the baseline: sequence-allocated operation IDs,
+-- optimistic versions of balances, import fingerprints, category rollups, balance checkpoints,
+-- the account ledger and idempotency keys.
+--
+-- Databases that were schema-updated by a version between the baseline and Flyway already have
+-- part of them, so every statement is a no-op when its object exists.
+
+-- Operation IDs come from a pooled sequence instead of an identity column, so that batch inserts
+-- don't need a round trip per row. The sequence starts past the IDs already taken
+CREATE SEQUENCE IF NOT EXISTS operation_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('operation_seq', GREATEST((SELECT last_value FROM operation_seq),
+                                        (SELECT COALESCE(MAX(id), 0) FROM operation) + 50));
+ALTER TABLE operation ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE INDEX IF NOT EXISTS idx_operation_date_id ON operation (date, id);
+
+ALTER TABLE liquidity_account ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+
+ALTER TABLE cash_movement ADD COLUMN IF NOT EXISTS fingerprint varchar(64);
+
+CREATE INDEX IF NOT EXISTS idx_cashmovement_account ON cash_movement (account_id);
+CREATE INDEX IF NOT EXISTS idx_cashmovement_category ON cash_movement (category_id);
+CREATE INDEX IF NOT EXISTS idx_cashmovement_account_fingerprint ON cash_movement (account_id, fingerprint);
+
+-- Uncategorized movements (null category) share one row per month and type, hence
+-- NULLS NOT DISTINCT (PostgreSQL 15 or later)
+CREATE TABLE IF NOT EXISTS category_monthly_total (
+    id             bigint GENERATED BY DEFAULT AS IDENTITY,
+    portfolio_id   bigint         NOT NULL,
+    category_id    bigint,
+    month_start    date           NOT NULL,
+    type           varchar(255)   NOT NULL CHECK (type IN ('INCOME', 'OUTCOME')),
+    total          numeric(38, 2) NOT NULL,
+    movement_count bigint         NOT NULL,
+    CONSTRAINT category_monthly_total_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_category_monthly_total_key
+        UNIQUE NULLS NOT DISTINCT (portfolio_id, month_start, category_id, type)
+);
+
+-- Schema update created the key as a plain unique constraint
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+               WHERE c.relname = 'uk_category_monthly_total_key' AND NOT i.indnullsnotdistinct) THEN
+        ALTER TABLE category_monthly_total
+            DROP CONSTRAINT uk_category_monthly_total_key,
+            ADD CONSTRAINT uk_category_monthly_total_key
+                UNIQUE NULLS NOT DISTINCT (portfolio_id, month_start, category_id, type);
+    END IF;
+END $$;
+
+CREATE TABLE IF NOT EXISTS balance_checkpoint (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY,
+    account_id bigint                      NOT NULL,
+    as_of      timestamp(6) with time zone NOT NULL,
+    balance    numeric(38, 2)              NOT NULL,
+    CONSTRAINT balance_checkpoint_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_balance_checkpoint_account_as_of UNIQUE (account_id, as_of),
+    CONSTRAINT fk_balance_checkpoint_liquidityaccount FOREIGN KEY (account_id) REFERENCES liquidity_account (id)
+);
+
+CREATE TABLE IF NOT EXISTS ledger_entry (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY,
+    account_id   bigint                      NOT NULL,
+    seq          bigint                      NOT NULL,
+    kind         varchar(16)                 NOT NULL,
+    operation_id bigint,
+    delta        numeric(38, 2)              NOT NULL,
+    recorded_at  timestamp(6) with time zone NOT NULL,
+    CONSTRAINT ledger_entry_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_ledger_entry_account_seq UNIQUE (account_id, seq),
+    CONSTRAINT fk_ledger_entry_liquidityaccount FOREIGN KEY (account_id) REFERENCES liquidity_account (id)
+);
+
+ALTER TABLE ledger_entry ADD COLUMN IF NOT EXISTS operation_id bigint;
+ALTER TABLE ledger_entry
+    DROP CONSTRAINT IF EXISTS ledger_entry_kind_check,
+    ADD CONSTRAINT ledger_entry_kind_check CHECK (kind IN ('OPENING', 'OPERATION', 'ADJUSTMENT', 'HISTORY'));
+CREATE INDEX IF NOT EXISTS idx_ledger_entry_operation ON ledger_entry (operation_id);
+
+CREATE TABLE IF NOT EXISTS ledger_snapshot (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY,
+    account_id bigint                      NOT NULL,
+    seq        bigint                      NOT NULL,
+    balance    numeric(38, 2)              NOT NULL,
+    taken_at   timestamp(6) with time zone NOT NULL,
+    CONSTRAINT ledger_snapshot_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_ledger_snapshot_account_seq UNIQUE (account_id, seq),
+    CONSTRAINT fk_ledger_snapshot_liquidityaccount FOREIGN KEY (account_id) REFERENCES liquidity_account (id)
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_record (
+    id              bigint GENERATED BY DEFAULT AS IDENTITY,
+    portfolio_id    bigint                      NOT NULL,
+    idempotency_key varchar(255)                NOT NULL,
+    request_hash    varchar(64)                 NOT NULL,
+    response_status integer,
+    response_body   varchar(1000000),
+    created_at      timestamp(6) with time zone NOT NULL,
+    expires_at      timestamp(6) with time zone NOT NULL,
+    CONSTRAINT idempotency_record_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_idempotency_record_portfolio_key UNIQUE (portfolio_id, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_record_expires_at ON idempotency_record (expires_at);
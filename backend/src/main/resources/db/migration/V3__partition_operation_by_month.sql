@@ -0,0 +1,90 @@
+-- Range-partitions the operation table by month of its date column.
+--
+-- A partitioned table can only have unique constraints that include the partition key, so the
+-- primary key becomes (id, date) and the cash_movement/transfer foreign keys to operation are
+-- dropped. IDs stay unique because they all come from operation_seq.
+--
+-- Partitions are named operation_yYYYYmMM and cover [first of the month, first of the next
+-- month) in UTC. operation_default catches dates without a partition (far past or future);
+-- OperationPartitionService creates the partitions of upcoming months and moves such rows out
+-- of the default partition when it creates the matching month.
+
+ALTER TABLE operation RENAME TO operation_unpartitioned;
+ALTER TABLE operation_unpartitioned RENAME CONSTRAINT operation_pkey TO operation_unpartitioned_pkey;
+ALTER INDEX idx_operation_date_id RENAME TO idx_operation_unpartitioned_date_id;
+
+-- Foreign keys created by schema update have generated names, so look them up
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN
+        SELECT conrelid::regclass AS table_name, conname
+        FROM pg_constraint
+        WHERE contype = 'f' AND confrelid = 'operation_unpartitioned'::regclass
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.table_name, fk.conname);
+    END LOOP;
+END $$;
+
+CREATE TABLE operation (
+    id   bigint                      NOT NULL,
+    date timestamp(6) with time zone NOT NULL,
+    note varchar(255),
+    CONSTRAINT operation_pkey PRIMARY KEY (id, date)
+) PARTITION BY RANGE (date);
+
+CREATE INDEX idx_operation_date_id ON operation (date, id);
+
+CREATE TABLE operation_default PARTITION OF operation DEFAULT;
+
+-- One partition per month from the oldest operation to three months ahead
+DO $$
+DECLARE
+    first_month date;
+    last_month  date := (date_trunc('month', now() AT TIME ZONE 'UTC') + interval '3 months')::date;
+    month       date;
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN(date) AT TIME ZONE 'UTC')::date,
+                    date_trunc('month', now() AT TIME ZONE 'UTC')::date)
+    INTO first_month
+    FROM operation_unpartitioned;
+
+    month := first_month;
+    WHILE month <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF operation FOR VALUES FROM (%L) TO (%L)',
+                       'operation_y' || to_char(month, 'YYYY') || 'm' || to_char(month, 'MM'),
+                       month::timestamp AT TIME ZONE 'UTC',
+                       (month + interval '1 month')::timestamp AT TIME ZONE 'UTC');
+        month := (month + interval '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO operation (id, date, note)
+SELECT id, date, note FROM operation_unpartitioned;
+
+DROP TABLE operation_unpartitioned;
+
+-- Catalog of months moved out of the operation table, with their rows stored compressed
+CREATE TABLE operation_archive (
+    id              bigint GENERATED BY DEFAULT AS IDENTITY,
+    month_start     date                        NOT NULL,
+    status          varchar(16)                 NOT NULL CHECK (status IN ('ARCHIVED', 'RESTORED')),
+    operation_count integer                     NOT NULL,
+    archived_at     timestamp(6) with time zone NOT NULL,
+    restored_at     timestamp(6) with time zone,
+    payload         bytea,
+    CONSTRAINT operation_archive_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_operation_archive_month_start UNIQUE (month_start)
+);
+
+-- Balance effect of the archived operations, per account and month
+CREATE TABLE operation_archive_total (
+    id                bigint GENERATED BY DEFAULT AS IDENTITY,
+    account_id        bigint         NOT NULL,
+    month_start       date           NOT NULL,
+    total             numeric(38, 2) NOT NULL,
+    month_start_total numeric(38, 2) NOT NULL,
+    CONSTRAINT operation_archive_total_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_operation_archive_total_account_month UNIQUE (account_id, month_start)
+);
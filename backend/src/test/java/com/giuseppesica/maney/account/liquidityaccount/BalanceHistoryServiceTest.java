@@ -0,0 +1,220 @@
+package com.giuseppesica.maney.account.liquidityaccount;
+
+import com.giuseppesica.maney.account.liquidityaccount.dto.LiquidityAccountDto;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceCheckpointRepository;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.liquidityaccount.service.BalanceHistoryService;
+import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
+import com.giuseppesica.maney.account.operations.archive.model.OperationArchiveTotal;
+import com.giuseppesica.maney.account.operations.archive.model.OperationArchiveTotalRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.control.CashMovementControl;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.transfer.controller.TransferController;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferDto;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.model.CategoryRepository;
+import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.user.model.User;
+import com.giuseppesica.maney.user.model.UserRepository;
+import com.giuseppesica.maney.utils.CashMovementType;
+import com.giuseppesica.maney.utils.CategoryType;
+import com.giuseppesica.maney.utils.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for BalanceHistoryService.
+ * Posts operations through the real controllers and checks point-in-time balances before
+ * and after checkpoints are written, and after changes that invalidate or shift them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:balancehistory",
+        "maney.balance-checkpoints.cron=-"
+})
+public class BalanceHistoryServiceTest {
+
+    @Autowired
+    private BalanceHistoryService balanceHistoryService;
+
+    @Autowired
+    private LiquidityAccountService liquidityAccountService;
+
+    @Autowired
+    private CashMovementControl cashMovementControl;
+
+    @Autowired
+    private TransferController transferController;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LiquidityAccountRepository liquidityAccountRepository;
+
+    @Autowired
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private OperationArchiveTotalRepository operationArchiveTotalRepository;
+
+    private Authentication authentication;
+    private Long categoryId;
+    private LiquidityAccount checking;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setUsername("history");
+        user.setEmail("history-" + System.nanoTime() + "@example.com");
+        user.setPasswordHash("hash");
+        user.setPortfolio(new Portfolio());
+        user = userRepository.save(user);
+
+        Category category = new Category();
+        category.setName("Varie");
+        category.setColor("#00FF00");
+        category.setType(CategoryType.BOTH);
+        category.setUser(user);
+        categoryId = categoryRepository.save(category).getId();
+
+        checking = liquidityAccountRepository.save(newAccount("Checking", user.getPortfolio()));
+        liquidityAccountRepository.save(newAccount("Savings", user.getPortfolio()));
+
+        authentication = new UsernamePasswordAuthenticationToken(
+                user.getEmail(), null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        // Current balance: 1000 + 100 - 30 - 20 = 1050
+        cashMovementControl.createCashMovement(authentication, null,
+                movement("2024-01-15T10:00:00Z", "100.00", CashMovementType.INCOME));
+        cashMovementControl.createCashMovement(authentication, null,
+                movement("2024-02-10T10:00:00Z", "30.00", CashMovementType.OUTCOME));
+        transferController.createTransferById(authentication, null, transfer("2024-03-05T10:00:00Z", "20.00"));
+    }
+
+    @Test
+    public void testGetBalanceAt_WithoutCheckpoints_ReplaysFromCurrentBalance() {
+        assertBalance("1000.00", "2024-01-01T00:00:00Z");
+        assertBalance("1100.00", "2024-01-31T00:00:00Z");
+        assertBalance("1070.00", "2024-02-20T00:00:00Z");
+        assertBalance("1050.00", "2024-03-05T10:00:00Z");
+        assertBalance("1070.00", "2024-03-05T09:59:59Z");
+    }
+
+    @Test
+    public void testGetBalanceAt_WithCheckpoints_MatchesReplay() {
+        int written = balanceHistoryService.refreshCheckpoints(checking.getId());
+
+        assertTrue(written >= 3, "expected monthly checkpoints since January 2024, got " + written);
+        assertEquals(0, new BigDecimal("1100.00").compareTo(balanceCheckpointRepository
+                .findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(checking.getId(),
+                        Instant.parse("2024-02-01T00:00:00Z"))
+                .orElseThrow().getBalance()));
+        assertBalance("1000.00", "2024-01-01T00:00:00Z");
+        assertBalance("1100.00", "2024-01-31T00:00:00Z");
+        assertBalance("1070.00", "2024-02-20T00:00:00Z");
+        assertBalance("1050.00", "2024-03-05T10:00:00Z");
+
+        // Nothing new to write
+        assertEquals(0, balanceHistoryService.refreshCheckpoints(checking.getId()));
+    }
+
+    @Test
+    public void testBackdatedMovement_DiscardsLaterCheckpointsOnly() {
+        int written = balanceHistoryService.refreshCheckpoints(checking.getId());
+
+        cashMovementControl.createCashMovement(authentication, null,
+                movement("2024-02-01T12:00:00Z", "5.00", CashMovementType.INCOME));
+
+        // Only the February 1st checkpoint is older than the new movement
+        assertEquals(1, balanceCheckpointRepository.findAll().stream()
+                .filter(checkpoint -> checkpoint.getAccount().getId().equals(checking.getId()))
+                .count());
+        assertBalance("1100.00", "2024-02-01T00:00:00Z");
+        assertBalance("1075.00", "2024-02-20T00:00:00Z");
+        assertBalance("1055.00", "2024-03-06T00:00:00Z");
+
+        assertEquals(written - 1, balanceHistoryService.refreshCheckpoints(checking.getId()));
+        assertBalance("1075.00", "2024-02-20T00:00:00Z");
+    }
+
+    @Test
+    public void testManualBalanceEdit_ShiftsCheckpoints() {
+        balanceHistoryService.refreshCheckpoints(checking.getId());
+
+        LiquidityAccountDto dto = new LiquidityAccountDto(liquidityAccountRepository.findById(checking.getId()).orElseThrow());
+        dto.setBalance(new BigDecimal("1150.00"));
+        liquidityAccountService.updateLiquidityAccount(checking.getId(), dto);
+
+        assertBalance("1100.00", "2024-01-01T00:00:00Z");
+        assertBalance("1170.00", "2024-02-20T00:00:00Z");
+        assertBalance("1150.00", "2024-03-06T00:00:00Z");
+    }
+
+    @Test
+    public void testArchivedMonth_CountedThroughItsTotals() {
+        // December 2023 archived: +200, of which +50 dated exactly at the month start
+        operationArchiveTotalRepository.save(new OperationArchiveTotal(checking.getId(), LocalDate.parse("2023-12-01"),
+                new BigDecimal("200.00"), new BigDecimal("50.00")));
+
+        assertBalance("800.00", "2023-11-30T00:00:00Z");
+        assertBalance("850.00", "2023-12-01T00:00:00Z");
+        assertBalance("1000.00", "2024-01-01T00:00:00Z");
+        assertBalance("1070.00", "2024-02-20T00:00:00Z");
+        assertEquals(0, new BigDecimal("250.00").compareTo(
+                balanceHistoryService.sumAllOperations(List.of(checking.getId())).get(checking.getId())));
+    }
+
+    private void assertBalance(String expected, String at) {
+        BigDecimal balance = balanceHistoryService.getBalanceAt(checking, Instant.parse(at));
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), "balance at " + at + " was " + balance);
+    }
+
+    private static LiquidityAccount newAccount(String name, Portfolio portfolio) {
+        LiquidityAccount account = new LiquidityAccount();
+        account.setName(name);
+        account.setInstitution("Bank");
+        account.setBalance(new BigDecimal("1000.00"));
+        account.setCurrency(Currency.EUR);
+        account.setPortfolio(portfolio);
+        return account;
+    }
+
+    private CashMovementDto movement(String date, String amount, CashMovementType type) {
+        CashMovementDto dto = new CashMovementDto();
+        dto.setDate(Instant.parse(date));
+        dto.setAmount(new BigDecimal(amount));
+        dto.setType(type);
+        dto.setLiquidityAccountName("Checking");
+        dto.setCategoryId(categoryId);
+        return dto;
+    }
+
+    private static TransferDto transfer(String date, String amount) {
+        TransferDto dto = new TransferDto();
+        dto.setDate(Instant.parse(date));
+        dto.setFromAccountName("Checking");
+        dto.setToAccountName("Savings");
+        dto.setAmount(new BigDecimal(amount));
+        return dto;
+    }
+}
@@ -0,0 +1,253 @@
+package com.giuseppesica.maney.account.liquidityaccount;
+
+import com.giuseppesica.maney.account.liquidityaccount.dto.LiquidityAccountDto;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceReconciliationReport;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceReconciliationReport.AccountDrift;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntryRepository;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.liquidityaccount.service.BalanceReconciliationService;
+import com.giuseppesica.maney.account.liquidityaccount.service.LedgerService;
+import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
+import com.giuseppesica.maney.account.operations.cashmovement.control.CashMovementControl;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.transfer.controller.TransferController;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferDto;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.model.CategoryRepository;
+import com.giuseppesica.maney.observability.BalanceReconciliationEndpoint;
+import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.user.model.User;
+import com.giuseppesica.maney.user.model.UserRepository;
+import com.giuseppesica.maney.utils.CashMovementType;
+import com.giuseppesica.maney.utils.CategoryType;
+import com.giuseppesica.maney.utils.Currency;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for BalanceReconciliationService.
+ * Writes operations through the real controllers, tampers with stored balances directly,
+ * and checks which accounts the reconciliation reports as drifted, and how the latest report
+ * is published to operators.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reconciliation",
+        "maney.balance-checkpoints.cron=-",
+        "maney.ledger.snapshot-cron=-",
+        "maney.reconciliation.cron=-"
+})
+public class BalanceReconciliationServiceTest {
+
+    @Autowired
+    private BalanceReconciliationService balanceReconciliationService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private LiquidityAccountService liquidityAccountService;
+
+    @Autowired
+    private CashMovementControl cashMovementControl;
+
+    @Autowired
+    private TransferController transferController;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LiquidityAccountRepository liquidityAccountRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BalanceReconciliationEndpoint balanceReconciliationEndpoint;
+
+    private Authentication authentication;
+    private Portfolio portfolio;
+    private Long categoryId;
+    private LiquidityAccount checking;
+    private LiquidityAccount savings;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setUsername("reconciliation");
+        user.setEmail("reconciliation-" + System.nanoTime() + "@example.com");
+        user.setPasswordHash("hash");
+        user.setPortfolio(new Portfolio());
+        user = userRepository.save(user);
+        portfolio = user.getPortfolio();
+
+        Category category = new Category();
+        category.setName("Varie");
+        category.setColor("#00FF00");
+        category.setType(CategoryType.BOTH);
+        category.setUser(user);
+        categoryId = categoryRepository.save(category).getId();
+
+        checking = liquidityAccountService.saveLiquidityAccount(newAccount("Checking"));
+        savings = liquidityAccountService.saveLiquidityAccount(newAccount("Savings"));
+
+        authentication = new UsernamePasswordAuthenticationToken(
+                user.getEmail(), null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    public void testReconcileAll_ConsistentAccounts_NoDrift() {
+        CashMovementDto movement = cashMovementControl.createCashMovement(authentication, null, outcome("Checking", "30.00")).getBody();
+        TransferDto transfer = transferController.createTransferById(authentication, null, transfer("200.00")).getBody();
+        assertNotNull(movement);
+        assertNotNull(transfer);
+        cashMovementControl.updateCashMovement(authentication, movement.getId(), outcome("Checking", "45.00"));
+        transferController.updateTransferById(authentication, transfer.getId(), transfer("150.00"));
+
+        // A manual edit is part of the baseline, not a drift
+        LiquidityAccountDto edit = new LiquidityAccountDto(liquidityAccountRepository.findById(savings.getId()).orElseThrow());
+        edit.setBalance(new BigDecimal("2000.00"));
+        liquidityAccountService.updateLiquidityAccount(savings.getId(), edit);
+
+        BalanceReconciliationReport report = balanceReconciliationService.reconcileAll();
+
+        assertTrue(findDrift(report, checking).isEmpty());
+        assertTrue(findDrift(report, savings).isEmpty());
+        assertTrue(report.accountsChecked() >= 2);
+    }
+
+    @Test
+    public void testReconcileAll_TamperedBalance_ReportedAndPublished() {
+        cashMovementControl.createCashMovement(authentication, null, outcome("Checking", "30.00"));
+        transactionTemplate.executeWithoutResult(status ->
+                liquidityAccountRepository.overwriteBalance(checking.getId(), new BigDecimal("900.00")));
+
+        BalanceReconciliationReport report = balanceReconciliationService.reconcileAll();
+
+        AccountDrift drift = findDrift(report, checking).orElseThrow();
+        assertEquals(0, new BigDecimal("970.00").compareTo(drift.expectedBalance()));
+        assertEquals(0, new BigDecimal("-70.00").compareTo(drift.drift()));
+        assertTrue(findDrift(report, savings).isEmpty());
+        assertTrue(report.totalAbsoluteDrift().compareTo(new BigDecimal("70.00")) >= 0);
+        assertEquals(report, balanceReconciliationService.getLastReport().orElseThrow());
+        assertTrue(applicationEvents.stream(BalanceReconciliationReport.class).anyMatch(report::equals));
+
+        // Reported, not corrected
+        assertEquals(0, new BigDecimal("900.00").compareTo(
+                liquidityAccountRepository.findById(checking.getId()).orElseThrow().getBalance()));
+    }
+
+    @Test
+    public void testReconcileAll_LatestReport_PublishedAsMetricsAndSummary() {
+        cashMovementControl.createCashMovement(authentication, null, outcome("Checking", "30.00"));
+        transactionTemplate.executeWithoutResult(status ->
+                liquidityAccountRepository.overwriteBalance(checking.getId(), new BigDecimal("900.00")));
+        long runs = meterRegistry.get("maney.reconciliation.duration").timer().count();
+
+        BalanceReconciliationReport report = balanceReconciliationService.reconcileAll();
+
+        assertEquals(runs + 1, meterRegistry.get("maney.reconciliation.duration").timer().count());
+        assertEquals(report.accountsChecked(), accountsGauge("checked"));
+        assertEquals(report.accountsDrifted(), accountsGauge("drifted"));
+        assertEquals(report.accountsUnverified(), accountsGauge("unverified"));
+        assertTrue(accountsGauge("drifted") >= 1);
+        assertEquals(report.totalAbsoluteDrift().doubleValue(),
+                meterRegistry.get("maney.reconciliation.drift").gauge().value());
+        assertEquals(0.0, meterRegistry.get("maney.reconciliation.chunks.failed").gauge().value());
+
+        BalanceReconciliationEndpoint.Summary summary = balanceReconciliationEndpoint.lastReport();
+        assertEquals(report.startedAt(), summary.startedAt());
+        assertEquals(report.accountsDrifted(), summary.accountsDrifted());
+        assertEquals(report.totalAbsoluteDrift(), summary.totalAbsoluteDrift());
+    }
+
+    @Test
+    public void testReconcileAll_AccountWithoutLedger_UnverifiedUntilSnapshot() {
+        // Created, and given an operation, before the ledger existed
+        LiquidityAccount legacy = liquidityAccountRepository.save(newAccount("Legacy"));
+        cashMovementControl.createCashMovement(authentication, null, outcome("Legacy", "30.00"));
+        transactionTemplate.executeWithoutResult(status -> ledgerEntryRepository.deleteByAccountId(legacy.getId()));
+
+        BalanceReconciliationReport before = balanceReconciliationService.reconcileAll();
+        assertTrue(before.accountsUnverified() >= 1);
+        assertTrue(findDrift(before, legacy).isEmpty());
+
+        ledgerService.snapshot(legacy.getId());
+
+        BalanceReconciliationReport after = balanceReconciliationService.reconcileAll();
+        assertTrue(findDrift(after, legacy).isEmpty());
+        assertEquals(0, new BigDecimal("970.00").compareTo(ledgerService.getLedgerBalance(legacy.getId())));
+        assertEquals(before.accountsUnverified() - 1, after.accountsUnverified());
+    }
+
+    private double accountsGauge(String state) {
+        return meterRegistry.get("maney.reconciliation.accounts").tag("state", state).gauge().value();
+    }
+
+    private static Optional<AccountDrift> findDrift(BalanceReconciliationReport report, LiquidityAccount account) {
+        return report.drifts().stream().filter(drift -> drift.accountId().equals(account.getId())).findFirst();
+    }
+
+    private CashMovementDto outcome(String accountName, String amount) {
+        CashMovementDto dto = new CashMovementDto();
+        dto.setDate(Instant.parse("2024-03-01T10:00:00Z"));
+        dto.setAmount(new BigDecimal(amount));
+        dto.setType(CashMovementType.OUTCOME);
+        dto.setLiquidityAccountName(accountName);
+        dto.setCategoryId(categoryId);
+        return dto;
+    }
+
+    private static TransferDto transfer(String amount) {
+        TransferDto dto = new TransferDto();
+        dto.setDate(Instant.parse("2024-03-05T10:00:00Z"));
+        dto.setFromAccountName("Checking");
+        dto.setToAccountName("Savings");
+        dto.setAmount(new BigDecimal(amount));
+        return dto;
+    }
+
+    private LiquidityAccount newAccount(String name) {
+        LiquidityAccount account = new LiquidityAccount();
+        account.setName(name);
+        account.setInstitution("Bank");
+        account.setBalance(new BigDecimal("1000.00"));
+        account.setCurrency(Currency.EUR);
+        account.setPortfolio(portfolio);
+        return account;
+    }
+}
@@ -0,0 +1,209 @@
+package com.giuseppesica.maney.account.liquidityaccount;
+
+import com.giuseppesica.maney.account.liquidityaccount.dto.BalanceSeriesDto;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceSeriesInterval;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.liquidityaccount.service.BalanceHistoryService;
+import com.giuseppesica.maney.account.liquidityaccount.service.BalanceSeriesService;
+import com.giuseppesica.maney.account.operations.cashmovement.control.CashMovementControl;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.transfer.controller.TransferController;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferDto;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.model.CategoryRepository;
+import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.user.model.User;
+import com.giuseppesica.maney.user.model.UserRepository;
+import com.giuseppesica.maney.utils.CashMovementType;
+import com.giuseppesica.maney.utils.CategoryType;
+import com.giuseppesica.maney.utils.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for BalanceSeriesService.
+ * Posts operations through the real controllers and checks the daily, weekly and monthly
+ * running-balance series of each account and the per-currency totals.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:balanceseries",
+        "maney.balance-checkpoints.cron=-"
+})
+public class BalanceSeriesServiceTest {
+
+    @Autowired
+    private BalanceSeriesService balanceSeriesService;
+
+    @Autowired
+    private BalanceHistoryService balanceHistoryService;
+
+    @Autowired
+    private CashMovementControl cashMovementControl;
+
+    @Autowired
+    private TransferController transferController;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LiquidityAccountRepository liquidityAccountRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Authentication authentication;
+    private Long categoryId;
+    private LiquidityAccount checking;
+    private LiquidityAccount savings;
+    private Long portfolioId;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setUsername("series");
+        user.setEmail("series-" + System.nanoTime() + "@example.com");
+        user.setPasswordHash("hash");
+        user.setPortfolio(new Portfolio());
+        user = userRepository.save(user);
+
+        Category category = new Category();
+        category.setName("Varie");
+        category.setColor("#00FF00");
+        category.setType(CategoryType.BOTH);
+        category.setUser(user);
+        categoryId = categoryRepository.save(category).getId();
+
+        checking = liquidityAccountRepository.save(newAccount("Checking", user.getPortfolio()));
+        savings = liquidityAccountRepository.save(newAccount("Savings", user.getPortfolio()));
+        portfolioId = user.getPortfolio().getId();
+
+        authentication = new UsernamePasswordAuthenticationToken(
+                user.getEmail(), null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        // Current balance: 1000 + 100 - 30 - 20 = 1050
+        cashMovementControl.createCashMovement(authentication, null,
+                movement("2024-01-15T10:00:00Z", "100.00", CashMovementType.INCOME));
+        cashMovementControl.createCashMovement(authentication, null,
+                movement("2024-02-10T10:00:00Z", "30.00", CashMovementType.OUTCOME));
+        transferController.createTransferById(authentication, null, transfer("2024-03-05T10:00:00Z", "20.00"));
+    }
+
+    @Test
+    public void testMonthlySeries_FoldsEveryOperation() {
+        BalanceSeriesDto series = balanceSeriesService.getBalanceSeries(portfolioId,
+                LocalDate.parse("2024-01-01"), LocalDate.parse("2024-03-31"), BalanceSeriesInterval.MONTH);
+
+        assertSeries(account(series, checking).getPoints(),
+                "2024-01-01", "1100.00", "2024-02-01", "1070.00", "2024-03-01", "1050.00");
+        assertSeries(account(series, savings).getPoints(),
+                "2024-01-01", "1000.00", "2024-02-01", "1000.00", "2024-03-01", "1020.00");
+        assertEquals(1, series.getTotals().size());
+        assertEquals(Currency.EUR, series.getTotals().get(0).getCurrency());
+        assertSeries(series.getTotals().get(0).getPoints(),
+                "2024-01-01", "2100.00", "2024-02-01", "2070.00", "2024-03-01", "2070.00");
+    }
+
+    @Test
+    public void testDailySeries_OnePointPerDay() {
+        BalanceSeriesDto series = balanceSeriesService.getBalanceSeries(portfolioId,
+                LocalDate.parse("2024-02-09"), LocalDate.parse("2024-02-11"), BalanceSeriesInterval.DAY);
+
+        assertSeries(account(series, checking).getPoints(),
+                "2024-02-09", "1100.00", "2024-02-10", "1070.00", "2024-02-11", "1070.00");
+    }
+
+    @Test
+    public void testWeeklySeries_FirstPeriodClippedToFrom() {
+        // 2024-01-10 is a Wednesday; the next week starts on Monday 2024-01-15
+        BalanceSeriesDto series = balanceSeriesService.getBalanceSeries(portfolioId,
+                LocalDate.parse("2024-01-10"), LocalDate.parse("2024-01-20"), BalanceSeriesInterval.WEEK);
+
+        assertSeries(account(series, checking).getPoints(),
+                "2024-01-10", "1000.00", "2024-01-15", "1100.00");
+    }
+
+    @Test
+    public void testSeries_OpeningBalanceFromHistory() {
+        balanceHistoryService.refreshCheckpoints(checking.getId());
+
+        BalanceSeriesDto series = balanceSeriesService.getBalanceSeries(portfolioId,
+                LocalDate.parse("2024-02-15"), LocalDate.parse("2024-03-31"), BalanceSeriesInterval.MONTH);
+
+        assertSeries(account(series, checking).getPoints(),
+                "2024-02-15", "1070.00", "2024-03-01", "1050.00");
+    }
+
+    @Test
+    public void testSeries_InvalidRange_ThrowsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> balanceSeriesService.getBalanceSeries(portfolioId,
+                LocalDate.parse("2024-02-01"), LocalDate.parse("2024-01-01"), BalanceSeriesInterval.DAY));
+        assertThrows(IllegalArgumentException.class, () -> balanceSeriesService.getBalanceSeries(portfolioId,
+                LocalDate.parse("1990-01-01"), LocalDate.parse("2024-01-01"), BalanceSeriesInterval.DAY));
+    }
+
+    private static BalanceSeriesDto.AccountSeries account(BalanceSeriesDto series, LiquidityAccount account) {
+        return series.getAccounts().stream()
+                .filter(accountSeries -> accountSeries.getAccountId().equals(account.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * Asserts the points, given as alternating dates and balances.
+     */
+    private static void assertSeries(List<BalanceSeriesDto.Point> points, String... expected) {
+        assertEquals(expected.length / 2, points.size());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(LocalDate.parse(expected[2 * i]), points.get(i).getDate());
+            assertEquals(0, new BigDecimal(expected[2 * i + 1]).compareTo(points.get(i).getBalance()),
+                    "balance on " + points.get(i).getDate() + " was " + points.get(i).getBalance());
+        }
+    }
+
+    private static LiquidityAccount newAccount(String name, Portfolio portfolio) {
+        LiquidityAccount account = new LiquidityAccount();
+        account.setName(name);
+        account.setInstitution("Bank");
+        account.setBalance(new BigDecimal("1000.00"));
+        account.setCurrency(Currency.EUR);
+        account.setPortfolio(portfolio);
+        return account;
+    }
+
+    private CashMovementDto movement(String date, String amount, CashMovementType type) {
+        CashMovementDto dto = new CashMovementDto();
+        dto.setDate(Instant.parse(date));
+        dto.setAmount(new BigDecimal(amount));
+        dto.setType(type);
+        dto.setLiquidityAccountName("Checking");
+        dto.setCategoryId(categoryId);
+        return dto;
+    }
+
+    private static TransferDto transfer(String date, String amount) {
+        TransferDto dto = new TransferDto();
+        dto.setDate(Instant.parse(date));
+        dto.setFromAccountName("Checking");
+        dto.setToAccountName("Savings");
+        dto.setAmount(new BigDecimal(amount));
+        return dto;
+    }
+}
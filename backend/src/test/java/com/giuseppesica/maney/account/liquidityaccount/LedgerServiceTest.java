@@ -0,0 +1,223 @@
+package com.giuseppesica.maney.account.liquidityaccount;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.liquidityaccount.service.LedgerService;
+import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
+import com.giuseppesica.maney.account.operations.cashmovement.control.CashMovementControl;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.transfer.controller.TransferController;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferDto;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.model.CategoryRepository;
+import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.user.model.User;
+import com.giuseppesica.maney.user.model.UserRepository;
+import com.giuseppesica.maney.utils.CashMovementType;
+import com.giuseppesica.maney.utils.CategoryType;
+import com.giuseppesica.maney.utils.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for LedgerService.
+ * Writes operations through the real controllers and checks that the balance derived from
+ * the ledger (snapshot plus tail) always matches the stored balance, that every entry
+ * records its operation, and that a rebuild
+ * restores a stored balance that drifted from the ledger.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger",
+        "maney.balance-checkpoints.cron=-",
+        "maney.ledger.snapshot-cron=-"
+})
+public class LedgerServiceTest {
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private LiquidityAccountService liquidityAccountService;
+
+    @Autowired
+    private CashMovementControl cashMovementControl;
+
+    @Autowired
+    private TransferController transferController;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LiquidityAccountRepository liquidityAccountRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Authentication authentication;
+    private Portfolio portfolio;
+    private Long categoryId;
+    private LiquidityAccount checking;
+    private LiquidityAccount savings;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setUsername("ledger");
+        user.setEmail("ledger-" + System.nanoTime() + "@example.com");
+        user.setPasswordHash("hash");
+        user.setPortfolio(new Portfolio());
+        user = userRepository.save(user);
+        portfolio = user.getPortfolio();
+
+        Category category = new Category();
+        category.setName("Varie");
+        category.setColor("#00FF00");
+        category.setType(CategoryType.BOTH);
+        category.setUser(user);
+        categoryId = categoryRepository.save(category).getId();
+
+        checking = liquidityAccountService.saveLiquidityAccount(newAccount("Checking"));
+        savings = liquidityAccountService.saveLiquidityAccount(newAccount("Savings"));
+
+        authentication = new UsernamePasswordAuthenticationToken(
+                user.getEmail(), null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    public void testOperations_LedgerMatchesStoredBalance() {
+        CashMovementDto movement = cashMovementControl.createCashMovement(authentication, null, outcome("30.00")).getBody();
+        TransferDto transfer = transferController.createTransferById(authentication, null, transfer("200.00")).getBody();
+        assertNotNull(movement);
+        assertNotNull(transfer);
+
+        cashMovementControl.updateCashMovement(authentication, movement.getId(), outcome("45.00"));
+        transferController.updateTransferById(authentication, transfer.getId(), transfer("150.00"));
+        cashMovementControl.deleteCashMovement(authentication, movement.getId());
+
+        assertBalances(checking, "850.00");
+        assertBalances(savings, "1150.00");
+    }
+
+    @Test
+    public void testBatchTransfers_OneEntryPerTransferWithConsecutiveSeqs() {
+        List<TransferDto> created = transferController.createTransfers(authentication,
+                List.of(transfer("10.00"), transfer("20.00"), transfer("30.00"))).getBody();
+        assertNotNull(created);
+        transferController.deleteTransferById(authentication, created.get(1).getId());
+
+        List<Map<String, Object>> entries = jdbcTemplate.queryForList(
+                "SELECT seq, operation_id, delta FROM ledger_entry WHERE account_id = ? AND kind = 'OPERATION' ORDER BY seq",
+                checking.getId());
+        assertEquals(List.of(1L, 2L, 3L, 4L), entries.stream().map(entry -> ((Number) entry.get("seq")).longValue()).toList());
+        assertEquals(List.of(created.get(0).getId(), created.get(1).getId(), created.get(2).getId(), created.get(1).getId()),
+                entries.stream().map(entry -> ((Number) entry.get("operation_id")).longValue()).toList());
+        assertEquals(0, new BigDecimal("20.00").compareTo((BigDecimal) entries.get(3).get("delta")));
+        assertBalances(checking, "960.00");
+        assertBalances(savings, "1040.00");
+    }
+
+    @Test
+    public void testSnapshot_ReplaysOnlyTheTail() {
+        cashMovementControl.createCashMovement(authentication, null, outcome("30.00"));
+        assertTrue(ledgerService.snapshot(checking.getId()));
+        assertFalse(ledgerService.snapshot(checking.getId()));
+
+        cashMovementControl.createCashMovement(authentication, null, outcome("20.00"));
+        transferController.createTransferById(authentication, null, transfer("100.00"));
+
+        assertBalances(checking, "850.00");
+        assertTrue(ledgerService.snapshot(checking.getId()));
+        assertBalances(checking, "850.00");
+    }
+
+    @Test
+    public void testRebuild_CorrectsDriftedBalance() {
+        cashMovementControl.createCashMovement(authentication, null, outcome("30.00"));
+        ledgerService.snapshot(checking.getId());
+        transferController.createTransferById(authentication, null, transfer("100.00"));
+        transactionTemplate.executeWithoutResult(status ->
+                liquidityAccountRepository.overwriteBalance(checking.getId(), new BigDecimal("5.00")));
+
+        LedgerService.RebuildResult result = ledgerService.rebuildAllBalances();
+
+        assertEquals(0, result.failed());
+        assertTrue(result.corrected() >= 1);
+        assertBalances(checking, "870.00");
+        assertBalances(savings, "1100.00");
+        assertFalse(ledgerService.rebuildBalance(checking.getId()));
+    }
+
+    @Test
+    public void testRebuild_AccountWithoutOpening_KeepsStoredBalance() {
+        // Created before the ledger existed: no opening entry, but later operations were recorded
+        LiquidityAccount legacy = liquidityAccountRepository.save(newAccount("Legacy"));
+        CashMovementDto movement = outcome("30.00");
+        movement.setLiquidityAccountName("Legacy");
+        cashMovementControl.createCashMovement(authentication, null, movement);
+
+        assertFalse(ledgerService.rebuildBalance(legacy.getId()));
+
+        assertBalances(legacy, "970.00");
+    }
+
+    private void assertBalances(LiquidityAccount account, String expected) {
+        BigDecimal stored = liquidityAccountRepository.findById(account.getId()).orElseThrow().getBalance();
+        BigDecimal derived = ledgerService.getLedgerBalance(account.getId());
+        assertEquals(0, new BigDecimal(expected).compareTo(stored), account.getName() + " balance was " + stored);
+        assertEquals(0, stored.compareTo(derived), account.getName() + " ledger sums to " + derived);
+    }
+
+    private CashMovementDto outcome(String amount) {
+        CashMovementDto dto = new CashMovementDto();
+        dto.setDate(Instant.parse("2024-03-01T10:00:00Z"));
+        dto.setAmount(new BigDecimal(amount));
+        dto.setType(CashMovementType.OUTCOME);
+        dto.setLiquidityAccountName("Checking");
+        dto.setCategoryId(categoryId);
+        return dto;
+    }
+
+    private static TransferDto transfer(String amount) {
+        TransferDto dto = new TransferDto();
+        dto.setDate(Instant.parse("2024-03-05T10:00:00Z"));
+        dto.setFromAccountName("Checking");
+        dto.setToAccountName("Savings");
+        dto.setAmount(new BigDecimal(amount));
+        return dto;
+    }
+
+    private LiquidityAccount newAccount(String name) {
+        LiquidityAccount account = new LiquidityAccount();
+        account.setName(name);
+        account.setInstitution("Bank");
+        account.setBalance(new BigDecimal("1000.00"));
+        account.setCurrency(Currency.EUR);
+        account.setPortfolio(portfolio);
+        return account;
+    }
+}
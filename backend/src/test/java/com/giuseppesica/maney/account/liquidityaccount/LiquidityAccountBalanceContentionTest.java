@@ -0,0 +1,252 @@
+package com.giuseppesica.maney.account.liquidityaccount;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.control.CashMovementControl;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.transfer.controller.TransferController;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferDto;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.model.CategoryRepository;
+import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.user.model.User;
+import com.giuseppesica.maney.user.model.UserRepository;
+import com.giuseppesica.maney.utils.CashMovementType;
+import com.giuseppesica.maney.utils.CategoryType;
+import com.giuseppesica.maney.utils.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Contention benchmark for account balance updates.
+ * Many threads concurrently post cash movements and transfers on the same two accounts
+ * through the real controllers and database; the final balances must account for every
+ * single operation (no lost updates, no deadlocks).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:contention;LOCK_TIMEOUT=10000")
+public class LiquidityAccountBalanceContentionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiquidityAccountBalanceContentionTest.class);
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 25;
+
+    @Autowired
+    private CashMovementControl cashMovementControl;
+
+    @Autowired
+    private TransferController transferController;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LiquidityAccountRepository liquidityAccountRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Authentication authentication;
+    private Long categoryId;
+    private Long checkingId;
+    private Long savingsId;
+    private Long cashId;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setUsername("contention");
+        user.setEmail("contention-" + System.nanoTime() + "@example.com");
+        user.setPasswordHash("hash");
+        user.setPortfolio(new Portfolio());
+        user = userRepository.save(user);
+
+        Category category = new Category();
+        category.setName("Stipendio");
+        category.setColor("#00FF00");
+        category.setType(CategoryType.BOTH);
+        category.setUser(user);
+        categoryId = categoryRepository.save(category).getId();
+
+        checkingId = liquidityAccountRepository.save(newAccount("Checking", user.getPortfolio())).getId();
+        savingsId = liquidityAccountRepository.save(newAccount("Savings", user.getPortfolio())).getId();
+        cashId = liquidityAccountRepository.save(newAccount("Cash", user.getPortfolio())).getId();
+
+        authentication = new UsernamePasswordAuthenticationToken(
+                user.getEmail(), null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    public void testConcurrentCashMovementsAndTransfers_NoLostUpdates() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    cashMovementControl.createCashMovement(authentication, null, income("Checking", "10.00"));
+                    transferController.createTransferById(authentication, null, transfer("Checking", "Savings", "3.00"));
+                    transferController.createTransferById(authentication, null, transfer("Savings", "Checking", "1.00"));
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+
+        int operations = THREADS * ITERATIONS * 3;
+        logger.info("Balance contention: {} operations on 2 accounts with {} threads in {} ms ({} ops/s)",
+                operations, THREADS, elapsedNanos / 1_000_000,
+                (long) (operations / (elapsedNanos / 1_000_000_000.0)));
+
+        int rounds = THREADS * ITERATIONS;
+        LiquidityAccount checking = liquidityAccountRepository.findById(checkingId).orElseThrow();
+        LiquidityAccount savings = liquidityAccountRepository.findById(savingsId).orElseThrow();
+        // Each round: +10 income, -3 to savings, +1 back from savings
+        assertEquals(0, new BigDecimal("1000.00").add(new BigDecimal("8.00").multiply(BigDecimal.valueOf(rounds)))
+                .compareTo(checking.getBalance()));
+        assertEquals(0, new BigDecimal("1000.00").add(new BigDecimal("2.00").multiply(BigDecimal.valueOf(rounds)))
+                .compareTo(savings.getBalance()));
+        assertEquals(rounds * 3L, checking.getVersion());
+    }
+
+    @Test
+    public void testConcurrentBatchTransfers_OppositeDirections_NoDeadlock() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            // Half the threads list Savings first, so a naive row-by-row update would lock in opposite orders
+            boolean savingsFirst = t % 2 == 1;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    List<TransferDto> batch = savingsFirst
+                            ? List.of(transfer("Savings", "Checking", "2.00"), transfer("Checking", "Savings", "5.00"))
+                            : List.of(transfer("Checking", "Savings", "5.00"), transfer("Savings", "Checking", "2.00"));
+                    transferController.createTransfers(authentication, batch);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        int batches = THREADS * ITERATIONS;
+        LiquidityAccount checking = liquidityAccountRepository.findById(checkingId).orElseThrow();
+        LiquidityAccount savings = liquidityAccountRepository.findById(savingsId).orElseThrow();
+        // Each batch nets -3 on checking and +3 on savings
+        assertEquals(0, new BigDecimal("1000.00").subtract(new BigDecimal("3.00").multiply(BigDecimal.valueOf(batches)))
+                .compareTo(checking.getBalance()));
+        assertEquals(0, new BigDecimal("1000.00").add(new BigDecimal("3.00").multiply(BigDecimal.valueOf(batches)))
+                .compareTo(savings.getBalance()));
+        // One UPDATE per account per batch, advancing the version by one ledger entry per transfer
+        assertEquals(batches * 2L, checking.getVersion());
+    }
+
+    @Test
+    public void testConcurrentBatchTransfers_AccountNettingToZero_NoDeadlock() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            // Checking (lowest ID) nets to zero in the batch but is still updated, to record both
+            // transfers in its ledger; the single transfers lock Checking then Savings
+            boolean batch = t % 2 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    if (batch) {
+                        transferController.createTransfers(authentication, List.of(
+                                transfer("Checking", "Savings", "10.00"), transfer("Cash", "Checking", "10.00")));
+                    } else {
+                        transferController.createTransferById(authentication, null, transfer("Checking", "Savings", "1.00"));
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        int rounds = THREADS / 2 * ITERATIONS;
+        LiquidityAccount checking = liquidityAccountRepository.findById(checkingId).orElseThrow();
+        LiquidityAccount savings = liquidityAccountRepository.findById(savingsId).orElseThrow();
+        LiquidityAccount cash = liquidityAccountRepository.findById(cashId).orElseThrow();
+        // Each batch: +10 savings, -10 cash; each single transfer: -1 checking, +1 savings
+        assertEquals(0, new BigDecimal("1000.00").subtract(BigDecimal.valueOf(rounds)).compareTo(checking.getBalance()));
+        assertEquals(0, new BigDecimal("1000.00").add(new BigDecimal("11.00").multiply(BigDecimal.valueOf(rounds)))
+                .compareTo(savings.getBalance()));
+        assertEquals(0, new BigDecimal("1000.00").subtract(new BigDecimal("10.00").multiply(BigDecimal.valueOf(rounds)))
+                .compareTo(cash.getBalance()));
+    }
+
+    private static LiquidityAccount newAccount(String name, Portfolio portfolio) {
+        LiquidityAccount account = new LiquidityAccount();
+        account.setName(name);
+        account.setInstitution("Bank");
+        account.setBalance(new BigDecimal("1000.00"));
+        account.setCurrency(Currency.EUR);
+        account.setPortfolio(portfolio);
+        return account;
+    }
+
+    private CashMovementDto income(String accountName, String amount) {
+        CashMovementDto dto = new CashMovementDto();
+        dto.setDate(Instant.now());
+        dto.setAmount(new BigDecimal(amount));
+        dto.setType(CashMovementType.INCOME);
+        dto.setLiquidityAccountName(accountName);
+        dto.setCategoryId(categoryId);
+        return dto;
+    }
+
+    private static TransferDto transfer(String from, String to, String amount) {
+        TransferDto dto = new TransferDto();
+        dto.setDate(Instant.now());
+        dto.setFromAccountName(from);
+        dto.setToAccountName(to);
+        dto.setAmount(new BigDecimal(amount));
+        return dto;
+    }
+}
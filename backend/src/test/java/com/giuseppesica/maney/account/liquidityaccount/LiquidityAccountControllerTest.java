@@ -2,8 +2,12 @@ package com.giuseppesica.maney.account.liquidityaccount;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.giuseppesica.maney.account.liquidityaccount.controller.LiquidityAccountController;
+import com.giuseppesica.maney.account.liquidityaccount.dto.BalanceSeriesDto;
 import com.giuseppesica.maney.account.liquidityaccount.dto.LiquidityAccountDto;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceSeriesInterval;
 import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.service.BalanceHistoryService;
+import com.giuseppesica.maney.account.liquidityaccount.service.BalanceSeriesService;
 import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
 import com.giuseppesica.maney.config.SecurityConfig;
 import com.giuseppesica.maney.portfolio.model.Portfolio;
@@ -21,6 +25,8 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
@@ -46,6 +52,12 @@ public class LiquidityAccountControllerTest {
     @MockitoBean
     private LiquidityAccountService liquidityAccountService;
 
+    @MockitoBean
+    private BalanceHistoryService balanceHistoryService;
+
+    @MockitoBean
+    private BalanceSeriesService balanceSeriesService;
+
     @MockitoBean
     private AuthenticationHelper authenticationHelper;
 
@@ -236,6 +248,78 @@ public class LiquidityAccountControllerTest {
         verify(authenticationHelper, times(1)).validateResourceAccess(any(), eq(1L), eq("LiquidityAccount"));
     }
 
+    @Test
+    @WithMockUser(username = "test@example.com")
+    public void testGetLiquidityAccountBalance_AtInstant_ReturnsHistoricalBalance() throws Exception {
+        // Given
+        Instant at = Instant.parse("2024-06-30T23:59:59Z");
+        when(liquidityAccountService.getLiquidityAccountById(1L))
+                .thenReturn(Optional.of(liquidityAccount));
+        doNothing().when(authenticationHelper).validateResourceAccess(any(), eq(1L), eq("LiquidityAccount"));
+        when(balanceHistoryService.getBalanceAt(liquidityAccount, at)).thenReturn(new BigDecimal("750.25"));
+
+        // When & Then
+        mockMvc.perform(get("/user/portfolio/liquidity-accounts/1/balance")
+                        .param("at", "2024-06-30T23:59:59Z")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value(1))
+                .andExpect(jsonPath("$.at").value("2024-06-30T23:59:59Z"))
+                .andExpect(jsonPath("$.balance").value(750.25))
+                .andExpect(jsonPath("$.currency").value("EUR"));
+
+        verify(balanceHistoryService, times(1)).getBalanceAt(liquidityAccount, at);
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    public void testGetLiquidityAccountBalance_UnauthorizedAccess_DoesNotComputeBalance() throws Exception {
+        // Given
+        when(liquidityAccountService.getLiquidityAccountById(1L))
+                .thenReturn(Optional.of(liquidityAccount));
+        doThrow(new IllegalArgumentException("Resource does not belong to user"))
+                .when(authenticationHelper).validateResourceAccess(any(), eq(1L), eq("LiquidityAccount"));
+
+        // When & Then
+        mockMvc.perform(get("/user/portfolio/liquidity-accounts/1/balance")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Resource does not belong to user"));
+
+        verify(balanceHistoryService, never()).getBalanceAt(any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    public void testGetBalanceSeries_ReturnsPortfolioSeries() throws Exception {
+        // Given
+        LocalDate from = LocalDate.parse("2024-01-01");
+        LocalDate to = LocalDate.parse("2024-02-29");
+        List<BalanceSeriesDto.Point> points = List.of(
+                new BalanceSeriesDto.Point(from, new BigDecimal("1100.00")),
+                new BalanceSeriesDto.Point(LocalDate.parse("2024-02-01"), new BigDecimal("1070.00")));
+        BalanceSeriesDto series = new BalanceSeriesDto(BalanceSeriesInterval.MONTH, from, to,
+                List.of(new BalanceSeriesDto.AccountSeries(1L, "Conto Corrente", Currency.EUR, points)),
+                List.of(new BalanceSeriesDto.CurrencySeries(Currency.EUR, points)));
+        when(authenticationHelper.getAuthenticatedUserPortfolioId(any())).thenReturn(1L);
+        when(balanceSeriesService.getBalanceSeries(1L, from, to, BalanceSeriesInterval.MONTH)).thenReturn(series);
+
+        // When & Then
+        mockMvc.perform(get("/user/portfolio/liquidity-accounts/balance-series")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-02-29")
+                        .param("interval", "MONTH")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.interval").value("MONTH"))
+                .andExpect(jsonPath("$.accounts[0].accountId").value(1))
+                .andExpect(jsonPath("$.accounts[0].points[1].date").value("2024-02-01"))
+                .andExpect(jsonPath("$.accounts[0].points[1].balance").value(1070.00))
+                .andExpect(jsonPath("$.totals[0].currency").value("EUR"));
+
+        verify(balanceSeriesService, times(1)).getBalanceSeries(1L, from, to, BalanceSeriesInterval.MONTH);
+    }
+
     @Test
     public void testGetLiquidityAccount_Unauthenticated_ReturnsUnauthorized() throws Exception {
         // When & Then - No authentication, GET request returns 401 - security filter blocks before controller
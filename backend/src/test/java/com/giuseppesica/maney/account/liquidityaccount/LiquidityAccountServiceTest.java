@@ -1,8 +1,14 @@
 package com.giuseppesica.maney.account.liquidityaccount;
 
 import com.giuseppesica.maney.account.liquidityaccount.dto.LiquidityAccountDto;
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceCheckpointRepository;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntry;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntryKind;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerEntryRepository;
+import com.giuseppesica.maney.account.liquidityaccount.model.LedgerSnapshotRepository;
 import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
 import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountNameCache;
 import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
 import com.giuseppesica.maney.portfolio.model.Portfolio;
 import com.giuseppesica.maney.portfolio.model.PortfolioRepository;
@@ -11,19 +17,27 @@ import com.giuseppesica.maney.utils.Currency;
 import com.giuseppesica.maney.security.NotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -38,6 +52,18 @@ public class LiquidityAccountServiceTest {
     @Mock
     private PortfolioRepository portfolioRepository;
 
+    @Mock
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private LedgerSnapshotRepository ledgerSnapshotRepository;
+
+    @Spy
+    private LiquidityAccountNameCache liquidityAccountNameCache = new LiquidityAccountNameCache();
+
     @InjectMocks
     private LiquidityAccountService liquidityAccountService;
 
@@ -95,6 +121,23 @@ public class LiquidityAccountServiceTest {
 
         verify(portfolioRepository, times(1)).findById(1L);
         verify(liquidityAccountRepository, times(1)).save(any(LiquidityAccount.class));
+
+        ArgumentCaptor<LedgerEntry> opening = ArgumentCaptor.forClass(LedgerEntry.class);
+        verify(ledgerEntryRepository, times(1)).save(opening.capture());
+        assertEquals(LedgerEntryKind.OPENING, opening.getValue().getKind());
+        assertEquals(0L, opening.getValue().getSeq());
+        assertEquals(new BigDecimal("1000.00"), opening.getValue().getDelta());
+    }
+
+    @Test
+    public void testSaveLiquidityAccount_ExistingAccount_NoOpeningEntry() {
+        liquidityAccount.setId(1L);
+        when(portfolioRepository.findById(1L)).thenReturn(Optional.of(portfolio));
+        when(liquidityAccountRepository.save(any(LiquidityAccount.class))).thenReturn(liquidityAccount);
+
+        liquidityAccountService.saveLiquidityAccount(liquidityAccount);
+
+        verify(ledgerEntryRepository, never()).save(any());
     }
 
     @Test
@@ -293,6 +336,7 @@ public class LiquidityAccountServiceTest {
 
         when(liquidityAccountRepository.findById(1L)).thenReturn(Optional.of(liquidityAccount));
         when(liquidityAccountRepository.save(any(LiquidityAccount.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(liquidityAccountRepository.setBalance(1L, new BigDecimal("1500.00"), 0L)).thenReturn(1);
 
         // When
         LiquidityAccount result = liquidityAccountService.updateLiquidityAccount(1L, partialUpdateDto);
@@ -303,8 +347,30 @@ public class LiquidityAccountServiceTest {
         assertEquals(new BigDecimal("1500.00"), result.getBalance());
         assertEquals("Intesa Sanpaolo", result.getInstitution());
 
+        assertEquals(1L, result.getVersion());
+
         verify(liquidityAccountRepository, times(1)).findById(1L);
         verify(liquidityAccountRepository, times(1)).save(any(LiquidityAccount.class));
+        verify(liquidityAccountRepository, times(1)).setBalance(1L, new BigDecimal("1500.00"), 0L);
+        verify(balanceCheckpointRepository, times(1)).shiftBalances(1L, new BigDecimal("500.00"));
+        verify(ledgerEntryRepository, times(1)).append(eq(1L), eq("ADJUSTMENT"), eq(new BigDecimal("500.00")), any());
+    }
+
+    @Test
+    public void testUpdateLiquidityAccount_StaleVersion_ThrowsOptimisticLockingFailure() {
+        // Given - client read version 3, but a concurrent movement already bumped it
+        liquidityAccountDto.setBalance(new BigDecimal("1500.00"));
+        liquidityAccountDto.setVersion(3L);
+
+        when(liquidityAccountRepository.findById(1L)).thenReturn(Optional.of(liquidityAccount));
+        when(liquidityAccountRepository.save(any(LiquidityAccount.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(liquidityAccountRepository.setBalance(1L, new BigDecimal("1500.00"), 3L)).thenReturn(0);
+
+        // When & Then
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> liquidityAccountService.updateLiquidityAccount(1L, liquidityAccountDto));
+        verify(balanceCheckpointRepository, never()).shiftBalances(any(), any());
+        verify(ledgerEntryRepository, never()).append(any(), any(), any(), any());
     }
 
     // ==================== DELETE LIQUIDITY ACCOUNT TESTS ====================
@@ -312,29 +378,31 @@ public class LiquidityAccountServiceTest {
     @Test
     public void testDeleteLiquidityAccount_Success_DeletesAccount() {
         // Given
-        when(liquidityAccountRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(liquidityAccountRepository).deleteById(1L);
+        liquidityAccount.setId(1L);
+        when(liquidityAccountRepository.findById(1L)).thenReturn(Optional.of(liquidityAccount));
 
         // When
         liquidityAccountService.deleteLiquidityAccount(1L);
 
         // Then
-        verify(liquidityAccountRepository, times(1)).existsById(1L);
-        verify(liquidityAccountRepository, times(1)).deleteById(1L);
+        verify(balanceCheckpointRepository, times(1)).deleteByAccountId(1L);
+        verify(ledgerEntryRepository, times(1)).deleteByAccountId(1L);
+        verify(ledgerSnapshotRepository, times(1)).deleteByAccountId(1L);
+        verify(liquidityAccountRepository, times(1)).delete(liquidityAccount);
+        verify(liquidityAccountNameCache).evictAccount(1L, 1L);
     }
 
     @Test
     public void testDeleteLiquidityAccount_NotFound_ThrowsException() {
         // Given
-        when(liquidityAccountRepository.existsById(999L)).thenReturn(false);
+        when(liquidityAccountRepository.findById(999L)).thenReturn(Optional.empty());
 
         // When & Then
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> liquidityAccountService.deleteLiquidityAccount(999L));
         assertEquals("Liquidity account not found", exception.getMessage());
 
-        verify(liquidityAccountRepository, times(1)).existsById(999L);
-        verify(liquidityAccountRepository, never()).deleteById(any());
+        verify(liquidityAccountRepository, never()).delete(any());
     }
 
     // ==================== GET BY PORTFOLIO AND NAME TESTS ====================
@@ -342,8 +410,9 @@ public class LiquidityAccountServiceTest {
     @Test
     public void testGetLiquidityAccountByPortfolioIdAndName_Success_ReturnsAccount() {
         // Given
-        when(liquidityAccountRepository.findByPortfolioId(1L))
-                .thenReturn(Collections.singletonList(liquidityAccount));
+        liquidityAccount.setId(1L);
+        when(liquidityAccountRepository.findByPortfolioIdAndName(1L, "Conto Corrente"))
+                .thenReturn(Optional.of(liquidityAccount));
 
         // When
         Optional<LiquidityAccount> result = liquidityAccountService
@@ -354,23 +423,26 @@ public class LiquidityAccountServiceTest {
         assertEquals("Conto Corrente", result.get().getName());
         assertEquals(portfolio.getId(), result.get().getPortfolio().getId());
 
-        verify(liquidityAccountRepository, times(1)).findByPortfolioId(1L);
+        verify(liquidityAccountRepository, times(1)).findByPortfolioIdAndName(1L, "Conto Corrente");
+        verify(liquidityAccountRepository, never()).findByPortfolioId(any());
+        assertEquals(1L, liquidityAccountNameCache.get(1L, "Conto Corrente"));
     }
 
     @Test
     public void testGetLiquidityAccountByPortfolioIdAndName_NotFound_ReturnsEmpty() {
         // Given
-        when(liquidityAccountRepository.findByPortfolioId(1L))
-                .thenReturn(Collections.singletonList(liquidityAccount));
+        when(liquidityAccountRepository.findByPortfolioIdAndName(1L, "Non-Existent Account"))
+                .thenReturn(Optional.empty());
 
         // When
         Optional<LiquidityAccount> result = liquidityAccountService
                 .getLiquidityAccountByPortfolioIdAndName(1L, "Non-Existent Account");
 
-        // Then
+        // Then - misses are not cached
         assertFalse(result.isPresent());
+        assertNull(liquidityAccountNameCache.get(1L, "Non-Existent Account"));
 
-        verify(liquidityAccountRepository, times(1)).findByPortfolioId(1L);
+        verify(liquidityAccountRepository, times(1)).findByPortfolioIdAndName(1L, "Non-Existent Account");
     }
 
     @Test
@@ -383,8 +455,10 @@ public class LiquidityAccountServiceTest {
         account2.setCurrency(Currency.EUR);
         account2.setPortfolio(portfolio);
 
-        when(liquidityAccountRepository.findByPortfolioId(1L))
-                .thenReturn(Arrays.asList(liquidityAccount, account2));
+        account2.setId(2L);
+
+        when(liquidityAccountRepository.findByPortfolioIdAndName(1L, "Savings Account"))
+                .thenReturn(Optional.of(account2));
 
         // When
         Optional<LiquidityAccount> result = liquidityAccountService
@@ -394,45 +468,100 @@ public class LiquidityAccountServiceTest {
         assertTrue(result.isPresent());
         assertEquals("Savings Account", result.get().getName());
 
-        verify(liquidityAccountRepository, times(1)).findByPortfolioId(1L);
+        verify(liquidityAccountRepository, times(1)).findByPortfolioIdAndName(1L, "Savings Account");
     }
 
-    // ==================== UPDATE LIQUIDITY ACCOUNT BALANCE TESTS ====================
-
     @Test
-    public void testUpdateLiquidityAccount_IncomeType_IncreasesBalance() {
+    public void testGetLiquidityAccountByPortfolioIdAndName_CachedId_LoadsByPrimaryKey() {
         // Given
-        BigDecimal initialBalance = new BigDecimal("1000.00");
-        BigDecimal incomeAmount = new BigDecimal("500.00");
-        liquidityAccount.setBalance(initialBalance);
+        liquidityAccount.setId(1L);
+        liquidityAccountNameCache.put(1L, "Conto Corrente", 1L);
+        when(liquidityAccountRepository.findById(1L)).thenReturn(Optional.of(liquidityAccount));
+
+        // When
+        Optional<LiquidityAccount> result = liquidityAccountService
+                .getLiquidityAccountByPortfolioIdAndName(1L, "Conto Corrente");
+
+        // Then
+        assertEquals(Optional.of(liquidityAccount), result);
+        verify(liquidityAccountRepository, times(1)).findById(1L);
+        verify(liquidityAccountRepository, never()).findByPortfolioIdAndName(any(), any());
+    }
+
+    @Test
+    public void testGetLiquidityAccountByPortfolioIdAndName_StaleCachedId_FallsBackToIndexedLookup() {
+        // Given - the cached account was renamed elsewhere, the name now belongs to account 2
+        liquidityAccount.setId(1L);
+        liquidityAccount.setName("Renamed");
+        LiquidityAccount account2 = new LiquidityAccount();
+        account2.setId(2L);
+        account2.setName("Conto Corrente");
+        account2.setPortfolio(portfolio);
+        liquidityAccountNameCache.put(1L, "Conto Corrente", 1L);
+        when(liquidityAccountRepository.findById(1L)).thenReturn(Optional.of(liquidityAccount));
+        when(liquidityAccountRepository.findByPortfolioIdAndName(1L, "Conto Corrente")).thenReturn(Optional.of(account2));
+
+        // When
+        Optional<LiquidityAccount> result = liquidityAccountService
+                .getLiquidityAccountByPortfolioIdAndName(1L, "Conto Corrente");
+
+        // Then
+        assertEquals(Optional.of(account2), result);
+        assertEquals(2L, liquidityAccountNameCache.get(1L, "Conto Corrente"));
+    }
 
-        when(liquidityAccountRepository.save(any(LiquidityAccount.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+    @Test
+    public void testUpdateLiquidityAccount_Rename_EvictsCachedName() {
+        // Given
+        liquidityAccount.setId(1L);
+        liquidityAccountNameCache.put(1L, "Conto Corrente", 1L);
+        liquidityAccountDto.setName("Conto Principale");
+        when(liquidityAccountRepository.findById(1L)).thenReturn(Optional.of(liquidityAccount));
+        when(liquidityAccountRepository.save(any(LiquidityAccount.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        liquidityAccountService.updateLiquidityAccount(liquidityAccount, incomeAmount, CashMovementType.INCOME);
+        liquidityAccountService.updateLiquidityAccount(1L, liquidityAccountDto);
 
         // Then
-        assertEquals(new BigDecimal("1500.00"), liquidityAccount.getBalance());
-        verify(liquidityAccountRepository, times(1)).save(liquidityAccount);
+        assertNull(liquidityAccountNameCache.get(1L, "Conto Corrente"));
     }
 
+    // ==================== UPDATE LIQUIDITY ACCOUNT BALANCE TESTS ====================
+
     @Test
-    public void testUpdateLiquidityAccount_OutcomeType_DecreasesBalance() {
+    public void testUpdateLiquidityAccount_IncomeType_AddsAmountAtomically() {
         // Given
-        BigDecimal initialBalance = new BigDecimal("1000.00");
-        BigDecimal outcomeAmount = new BigDecimal("300.00");
-        liquidityAccount.setBalance(initialBalance);
+        liquidityAccount.setId(1L);
+        BigDecimal incomeAmount = new BigDecimal("500.00");
+        when(liquidityAccountRepository.addToBalance(1L, incomeAmount, 1)).thenReturn(1);
 
-        when(liquidityAccountRepository.save(any(LiquidityAccount.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        // When
+        liquidityAccountService.updateLiquidityAccount(liquidityAccount, 42L, incomeAmount, CashMovementType.INCOME);
+
+        // Then - delta applied in the database, entity left untouched
+        verify(liquidityAccountRepository, times(1)).addToBalance(1L, new BigDecimal("500.00"), 1);
+        verify(liquidityAccountRepository, never()).save(any());
+        assertEquals(new BigDecimal("1000.00"), liquidityAccount.getBalance());
+
+        // and appended to the ledger with its operation, after the UPDATE that sequenced it
+        InOrder inOrder = inOrder(liquidityAccountRepository, ledgerEntryRepository);
+        inOrder.verify(liquidityAccountRepository).addToBalance(1L, new BigDecimal("500.00"), 1);
+        inOrder.verify(ledgerEntryRepository).appendOperations(eq(1L),
+                eq(new TreeMap<>(Map.of(42L, new BigDecimal("500.00")))), any());
+    }
+
+    @Test
+    public void testUpdateLiquidityAccount_OutcomeType_SubtractsAmountAtomically() {
+        // Given
+        liquidityAccount.setId(1L);
+        when(liquidityAccountRepository.addToBalance(1L, new BigDecimal("-300.00"), 1)).thenReturn(1);
 
         // When
-        liquidityAccountService.updateLiquidityAccount(liquidityAccount, outcomeAmount, CashMovementType.OUTCOME);
+        liquidityAccountService.updateLiquidityAccount(liquidityAccount, 42L, new BigDecimal("300.00"), CashMovementType.OUTCOME);
 
         // Then
-        assertEquals(new BigDecimal("700.00"), liquidityAccount.getBalance());
-        verify(liquidityAccountRepository, times(1)).save(liquidityAccount);
+        verify(liquidityAccountRepository, times(1)).addToBalance(1L, new BigDecimal("-300.00"), 1);
+        verify(liquidityAccountRepository, never()).save(any());
     }
 
     @Test
@@ -442,82 +571,166 @@ public class LiquidityAccountServiceTest {
 
         // When & Then - Using null as invalid type
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
-                () -> liquidityAccountService.updateLiquidityAccount(liquidityAccount, amount, null));
+                () -> liquidityAccountService.updateLiquidityAccount(liquidityAccount, 42L, amount, null));
         assertEquals("Invalid Cash Movement Type", exception.getMessage());
 
         verify(liquidityAccountRepository, never()).save(any());
+        verify(liquidityAccountRepository, never()).addToBalance(any(), any(), anyInt());
     }
 
     @Test
-    public void testUpdateLiquidityAccount_LargeIncome_UpdatesBalanceCorrectly() {
+    public void testUpdateLiquidityAccount_ZeroAmount_IssuesNoUpdate() {
         // Given
-        BigDecimal initialBalance = new BigDecimal("1000.00");
-        BigDecimal largeIncome = new BigDecimal("999999.99");
-        liquidityAccount.setBalance(initialBalance);
+        liquidityAccount.setId(1L);
+
+        // When
+        liquidityAccountService.updateLiquidityAccount(liquidityAccount, 42L, BigDecimal.ZERO, CashMovementType.INCOME);
 
-        when(liquidityAccountRepository.save(any(LiquidityAccount.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        // Then
+        verify(liquidityAccountRepository, never()).addToBalance(any(), any(), anyInt());
+        verify(ledgerEntryRepository, never()).appendOperations(any(), any(), any());
+    }
+
+    @Test
+    public void testUpdateLiquidityAccount_DecimalPrecision_MaintainsPrecision() {
+        // Given
+        liquidityAccount.setId(1L);
+        when(liquidityAccountRepository.addToBalance(1L, new BigDecimal("-0.456"), 1)).thenReturn(1);
 
         // When
-        liquidityAccountService.updateLiquidityAccount(liquidityAccount, largeIncome, CashMovementType.INCOME);
+        liquidityAccountService.updateLiquidityAccount(liquidityAccount, 42L, new BigDecimal("0.456"), CashMovementType.OUTCOME);
 
         // Then
-        assertEquals(new BigDecimal("1000999.99"), liquidityAccount.getBalance());
-        verify(liquidityAccountRepository, times(1)).save(liquidityAccount);
+        verify(liquidityAccountRepository, times(1)).addToBalance(1L, new BigDecimal("-0.456"), 1);
     }
 
     @Test
-    public void testUpdateLiquidityAccount_OutcomeExceedsBalance_AllowsNegativeBalance() {
-        // Given - Assuming the system allows negative balances
-        BigDecimal initialBalance = new BigDecimal("100.00");
-        BigDecimal largeOutcome = new BigDecimal("500.00");
-        liquidityAccount.setBalance(initialBalance);
+    public void testApplyBalanceDelta_AccountMissing_ThrowsNotFound() {
+        // Given
+        when(liquidityAccountRepository.addToBalance(99L, BigDecimal.TEN, 1)).thenReturn(0);
 
-        when(liquidityAccountRepository.save(any(LiquidityAccount.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        // When & Then
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> liquidityAccountService.applyBalanceDelta(99L, 42L, BigDecimal.TEN));
+        assertEquals("Liquidity account not found", exception.getMessage());
+        verify(ledgerEntryRepository, never()).appendOperations(any(), any(), any());
+    }
+
+    @Test
+    public void testApplyBalanceDeltas_AppliesInAscendingIdOrderAndSkipsZero() {
+        // Given
+        Map<Long, Map<Long, BigDecimal>> deltas = new HashMap<>();
+        deltas.put(7L, Map.of(100L, new BigDecimal("-50.00")));
+        deltas.put(3L, Map.of(100L, new BigDecimal("50.00")));
+        deltas.put(5L, Map.of(101L, new BigDecimal("0.00")));
+        when(liquidityAccountRepository.addToBalance(any(), any(), anyInt())).thenReturn(1);
 
         // When
-        liquidityAccountService.updateLiquidityAccount(liquidityAccount, largeOutcome, CashMovementType.OUTCOME);
+        liquidityAccountService.applyBalanceDeltas(deltas, Map.of());
 
         // Then
-        assertEquals(new BigDecimal("-400.00"), liquidityAccount.getBalance());
-        verify(liquidityAccountRepository, times(1)).save(liquidityAccount);
+        InOrder inOrder = inOrder(liquidityAccountRepository);
+        inOrder.verify(liquidityAccountRepository).addToBalance(3L, new BigDecimal("50.00"), 1);
+        inOrder.verify(liquidityAccountRepository).addToBalance(7L, new BigDecimal("-50.00"), 1);
+        verify(liquidityAccountRepository, never()).addToBalance(eq(5L), any(), anyInt());
+        verify(ledgerEntryRepository, never()).appendOperations(eq(5L), any(), any());
+        verify(liquidityAccountRepository, never()).lockBalance(any());
     }
 
     @Test
-    public void testUpdateLiquidityAccount_ZeroAmount_BalanceUnchanged() {
-        // Given
-        BigDecimal initialBalance = new BigDecimal("1000.00");
-        BigDecimal zeroAmount = BigDecimal.ZERO;
-        liquidityAccount.setBalance(initialBalance);
+    public void testApplyBalanceDeltas_SeveralOperations_OneUpdateAndOneEntryEach() {
+        // Given - three movements imported into the same account
+        Map<Long, BigDecimal> operations = new HashMap<>();
+        operations.put(12L, new BigDecimal("-30.00"));
+        operations.put(10L, new BigDecimal("100.00"));
+        operations.put(11L, new BigDecimal("-20.00"));
+        when(liquidityAccountRepository.addToBalance(any(), any(), anyInt())).thenReturn(1);
+
+        // When
+        liquidityAccountService.applyBalanceDeltas(Map.of(1L, operations), Map.of());
+
+        // Then - the net is added once and the version advanced by one per entry
+        verify(liquidityAccountRepository, times(1)).addToBalance(1L, new BigDecimal("50.00"), 3);
+        verify(ledgerEntryRepository).appendOperations(eq(1L), eq(new TreeMap<>(operations)), any());
+    }
+
+    @Test
+    public void testApplyBalanceDeltas_ZeroNetAccount_RecordsEachOperationInTheSameAscendingPass() {
+        // Given - batch [1->2 10 (#100), 3->1 10 (#101)]: account 1 nets to zero
+        Instant march = Instant.parse("2024-03-01T00:00:00Z");
+        Map<Long, Map<Long, BigDecimal>> deltas = new HashMap<>();
+        deltas.put(1L, Map.of(100L, new BigDecimal("-10"), 101L, new BigDecimal("10")));
+        deltas.put(2L, Map.of(100L, new BigDecimal("10")));
+        deltas.put(3L, Map.of(101L, new BigDecimal("-10")));
+        Map<Long, Instant> since = Map.of(1L, march, 2L, march, 3L, march);
+        when(liquidityAccountRepository.addToBalance(any(), any(), anyInt())).thenReturn(1);
 
-        when(liquidityAccountRepository.save(any(LiquidityAccount.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        // When
+        liquidityAccountService.applyBalanceDeltas(deltas, since);
+
+        // Then - every row is updated in ascending order, each account once
+        InOrder inOrder = inOrder(liquidityAccountRepository, balanceCheckpointRepository);
+        inOrder.verify(liquidityAccountRepository).addToBalance(1L, BigDecimal.ZERO, 2);
+        inOrder.verify(balanceCheckpointRepository).deleteByAccountIdSince(1L, march);
+        inOrder.verify(liquidityAccountRepository).addToBalance(2L, new BigDecimal("10"), 1);
+        inOrder.verify(balanceCheckpointRepository).deleteByAccountIdSince(2L, march);
+        inOrder.verify(liquidityAccountRepository).addToBalance(3L, new BigDecimal("-10"), 1);
+        inOrder.verify(balanceCheckpointRepository).deleteByAccountIdSince(3L, march);
+        verify(liquidityAccountRepository, never()).lockBalance(any());
+    }
+
+    @Test
+    public void testApplyBalanceDeltas_UnchangedAccount_LockedInTheSameAscendingPass() {
+        // Given - a transfer whose date moves but whose amount stays the same
+        Instant march = Instant.parse("2024-03-01T00:00:00Z");
+        Map<Long, Map<Long, BigDecimal>> deltas = new HashMap<>();
+        deltas.put(1L, Map.of(100L, new BigDecimal("0")));
+        deltas.put(2L, Map.of(100L, new BigDecimal("0")));
+        deltas.put(3L, Map.of(101L, new BigDecimal("-10")));
+        Map<Long, Instant> since = Map.of(1L, march, 2L, march, 3L, march);
+        when(liquidityAccountRepository.addToBalance(any(), any(), anyInt())).thenReturn(1);
+        when(liquidityAccountRepository.lockBalance(any())).thenReturn(Optional.of(BigDecimal.ZERO));
 
         // When
-        liquidityAccountService.updateLiquidityAccount(liquidityAccount, zeroAmount, CashMovementType.INCOME);
+        liquidityAccountService.applyBalanceDeltas(deltas, since);
 
         // Then
-        assertEquals(initialBalance, liquidityAccount.getBalance());
-        verify(liquidityAccountRepository, times(1)).save(liquidityAccount);
+        InOrder inOrder = inOrder(liquidityAccountRepository, balanceCheckpointRepository);
+        inOrder.verify(liquidityAccountRepository).lockBalance(1L);
+        inOrder.verify(balanceCheckpointRepository).deleteByAccountIdSince(1L, march);
+        inOrder.verify(liquidityAccountRepository).lockBalance(2L);
+        inOrder.verify(balanceCheckpointRepository).deleteByAccountIdSince(2L, march);
+        inOrder.verify(liquidityAccountRepository).addToBalance(3L, new BigDecimal("-10"), 1);
+        inOrder.verify(balanceCheckpointRepository).deleteByAccountIdSince(3L, march);
+        verify(ledgerEntryRepository, never()).appendOperations(eq(1L), any(), any());
     }
 
+    // ==================== BALANCE HISTORY INVALIDATION TESTS ====================
+
     @Test
-    public void testUpdateLiquidityAccount_DecimalPrecision_MaintainsPrecision() {
+    public void testInvalidateBalanceHistory_LocksAccountAndDeletesLaterCheckpoints() {
         // Given
-        BigDecimal initialBalance = new BigDecimal("1000.123");
-        BigDecimal preciseAmount = new BigDecimal("0.456");
-        liquidityAccount.setBalance(initialBalance);
-
-        when(liquidityAccountRepository.save(any(LiquidityAccount.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        Instant since = Instant.parse("2024-03-10T12:00:00Z");
+        when(liquidityAccountRepository.lockBalance(1L)).thenReturn(Optional.of(new BigDecimal("1000.00")));
 
         // When
-        liquidityAccountService.updateLiquidityAccount(liquidityAccount, preciseAmount, CashMovementType.INCOME);
+        liquidityAccountService.invalidateBalanceHistory(1L, since);
 
         // Then
-        assertEquals(new BigDecimal("1000.579"), liquidityAccount.getBalance());
-        verify(liquidityAccountRepository, times(1)).save(liquidityAccount);
+        InOrder inOrder = inOrder(liquidityAccountRepository, balanceCheckpointRepository);
+        inOrder.verify(liquidityAccountRepository).lockBalance(1L);
+        inOrder.verify(balanceCheckpointRepository).deleteByAccountIdSince(1L, since);
+    }
+
+    @Test
+    public void testInvalidateBalanceHistory_AccountMissing_ThrowsNotFound() {
+        // Given
+        when(liquidityAccountRepository.lockBalance(99L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(NotFoundException.class,
+                () -> liquidityAccountService.invalidateBalanceHistory(99L, Instant.now()));
+        verify(balanceCheckpointRepository, never()).deleteByAccountIdSince(any(), any());
     }
 
     // ==================== SECURITY TESTS - PORTFOLIO ISOLATION ====================
@@ -549,7 +762,7 @@ public class LiquidityAccountServiceTest {
     @Test
     public void testGetLiquidityAccountByPortfolioIdAndName_DifferentPortfolio_ReturnsEmpty() {
         // Given - Account belongs to different portfolio
-        when(liquidityAccountRepository.findByPortfolioId(2L)).thenReturn(List.of());
+        when(liquidityAccountRepository.findByPortfolioIdAndName(2L, "Conto Corrente")).thenReturn(Optional.empty());
 
         // When
         Optional<LiquidityAccount> result = liquidityAccountService
@@ -557,7 +770,7 @@ public class LiquidityAccountServiceTest {
 
         // Then - Account not found because it belongs to different portfolio
         assertFalse(result.isPresent());
-        verify(liquidityAccountRepository, times(1)).findByPortfolioId(2L);
+        verify(liquidityAccountRepository, times(1)).findByPortfolioIdAndName(2L, "Conto Corrente");
     }
 
     @Test
@@ -0,0 +1,176 @@
+package com.giuseppesica.maney.account.operations;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovement;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementFilter;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementPageDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.service.CashMovementService;
+import com.giuseppesica.maney.account.operations.transfer.model.Transfer;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferDto;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferRepository;
+import com.giuseppesica.maney.account.operations.transfer.service.TransferService;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.model.CategoryRepository;
+import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.user.model.User;
+import com.giuseppesica.maney.user.model.UserRepository;
+import com.giuseppesica.maney.utils.CashMovementType;
+import com.giuseppesica.maney.utils.CategoryType;
+import com.giuseppesica.maney.utils.Currency;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the operation listings against N+1 queries.
+ *
+ * <p>Listings must cost a constant number of SQL statements regardless of how many
+ * operations, accounts and categories they return. Statements are counted through
+ * Hibernate statistics on an H2 database seeded with movements and transfers spread
+ * over several accounts and categories.</p>
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querycount",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class OperationListingQueryCountTest {
+
+    private static final int ACCOUNTS = 4;
+    private static final int CATEGORIES = 3;
+    private static final int OPERATIONS = 40;
+
+    @Autowired
+    private CashMovementService cashMovementService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LiquidityAccountRepository liquidityAccountRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CashMovementRepository cashMovementRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        user = new User();
+        user.setUsername("querycount");
+        user.setEmail("querycount-" + System.nanoTime() + "@example.com");
+        user.setPasswordHash("hash");
+        user.setPortfolio(new Portfolio());
+        user = userRepository.save(user);
+
+        List<LiquidityAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            LiquidityAccount account = new LiquidityAccount();
+            account.setName("Account " + i);
+            account.setInstitution("Bank");
+            account.setBalance(new BigDecimal("1000.00"));
+            account.setCurrency(Currency.EUR);
+            account.setPortfolio(user.getPortfolio());
+            accounts.add(liquidityAccountRepository.save(account));
+        }
+
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            Category category = new Category();
+            category.setName("Category " + i);
+            category.setColor("#00FF00");
+            category.setType(CategoryType.BOTH);
+            category.setUser(user);
+            categories.add(categoryRepository.save(category));
+        }
+
+        List<CashMovement> movements = new ArrayList<>();
+        List<Transfer> transfers = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            Instant date = Instant.parse("2024-01-01T00:00:00Z").plusSeconds(3600L * i);
+
+            CashMovement movement = new CashMovement();
+            movement.setDate(date);
+            movement.setAmount(BigDecimal.TEN);
+            movement.setType(i % 2 == 0 ? CashMovementType.INCOME : CashMovementType.OUTCOME);
+            movement.setLiquidityAccount(accounts.get(i % ACCOUNTS));
+            movement.setCategory(i % (CATEGORIES + 1) == CATEGORIES ? null : categories.get(i % (CATEGORIES + 1)));
+            movements.add(movement);
+
+            Transfer transfer = new Transfer();
+            transfer.setDate(date);
+            transfer.setAmount(BigDecimal.ONE);
+            transfer.setFromAccount(accounts.get(i % ACCOUNTS));
+            transfer.setToAccount(accounts.get((i + 1) % ACCOUNTS));
+            transfers.add(transfer);
+        }
+        cashMovementRepository.saveAll(movements);
+        transferRepository.saveAll(transfers);
+    }
+
+    @Test
+    public void testCashMovementPage_IsSingleStatement() {
+        Statistics statistics = statistics();
+
+        CashMovementPageDto first = cashMovementService.getCashMovementPage(
+                user.getPortfolio().getId(), CashMovementFilter.none(), null, 25);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(25, first.getItems().size());
+        assertNotNull(first.getItems().getFirst().getLiquidityAccountName());
+
+        statistics.clear();
+        CashMovementPageDto second = cashMovementService.getCashMovementPage(
+                user.getPortfolio().getId(), CashMovementFilter.none(), first.getNextCursor(), 25);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(OPERATIONS - 25, second.getItems().size());
+        assertTrue(second.getItems().stream().anyMatch(dto -> dto.getCategoryId() == null));
+        assertTrue(second.getItems().stream().anyMatch(dto -> dto.getCategoryId() != null));
+    }
+
+    @Test
+    public void testTransferListing_IsSingleStatement() {
+        Statistics statistics = statistics();
+
+        List<TransferDto> transfers = transferService.getTransferDtosByPortfolioId(user.getPortfolio().getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(OPERATIONS, transfers.size());
+        assertNotNull(transfers.getFirst().getId());
+        assertEquals("Account 3", transfers.getFirst().getFromAccountName());
+        assertEquals("Account 0", transfers.getFirst().getToAccountName());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,59 @@
+package com.giuseppesica.maney.account.operations.archive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration test for the operation archive actuator endpoint on H2.
+ * Tests that it needs the operator account and rejects restores it cannot perform; archival
+ * and restore themselves need PostgreSQL, see {@link OperationArchivePostgresIT}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:operationarchives",
+        "maney.actuator.password=operator-secret"
+})
+public class OperationArchiveEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testArchives_RequireOperator() throws Exception {
+        mockMvc.perform(get("/actuator/operationarchives"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/actuator/operationarchives/2023-01"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testArchives_Operator_ListsNone() throws Exception {
+        mockMvc.perform(get("/actuator/operationarchives").with(httpBasic("operator", "operator-secret")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void testRestore_InvalidMonth_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/actuator/operationarchives/january").with(httpBasic("operator", "operator-secret")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testRestore_Unpartitioned_ReturnsConflict() throws Exception {
+        mockMvc.perform(post("/actuator/operationarchives/2023-01").with(httpBasic("operator", "operator-secret")))
+                .andExpect(status().isConflict());
+    }
+}
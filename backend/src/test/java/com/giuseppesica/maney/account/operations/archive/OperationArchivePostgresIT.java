@@ -0,0 +1,252 @@
+package com.giuseppesica.maney.account.operations.archive;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.BalanceReconciliationReport;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.liquidityaccount.service.BalanceHistoryService;
+import com.giuseppesica.maney.account.liquidityaccount.service.BalanceReconciliationService;
+import com.giuseppesica.maney.account.liquidityaccount.service.LedgerService;
+import com.giuseppesica.maney.account.operations.Operation;
+import com.giuseppesica.maney.account.operations.archive.controller.OperationArchiveEndpoint;
+import com.giuseppesica.maney.account.operations.archive.model.OperationArchiveStatus;
+import com.giuseppesica.maney.account.operations.archive.model.OperationArchiveSummary;
+import com.giuseppesica.maney.account.operations.archive.service.OperationPartitionService;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryMonthKey;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryMonthlyTotalRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryRollupDelta;
+import com.giuseppesica.maney.utils.CashMovementType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test of the migrations and the operation partitions on a real PostgreSQL database.
+ * Fills the schema the application had before Flyway, without migration history, as an existing
+ * installation would be; Flyway baselines it at version 1 and migrates it to the latest version
+ * at startup. The test then archives and restores a month and checks that every balance still
+ * reconciles with its operations and that past balances don't change.
+ *
+ * <p>Needs PostgreSQL 15 or later. The test (re)creates the {@value #DATABASE} database on the
+ * server of the given URL:
+ * {@code mvn test -Dtest=OperationArchivePostgresIT -Dmaney.it.postgres.url=jdbc:postgresql://localhost:5432/postgres
+ * [-Dmaney.it.postgres.username=postgres] [-Dmaney.it.postgres.password=]}</p>
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "maney.it.postgres.url", matches = ".+")
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN",
+        "logging.level.com.giuseppesica.maney=INFO",
+        "maney.balance-checkpoints.cron=-",
+        "maney.ledger.snapshot-cron=-",
+        "maney.reconciliation.cron=-",
+        "maney.operations.partition-cron=-",
+        "maney.idempotency.purge-cron=-"
+})
+public class OperationArchivePostgresIT {
+
+    private static final String DATABASE = "maney_archive_it";
+    private static final String SERVER_URL = System.getProperty("maney.it.postgres.url", "");
+    private static final String USERNAME = System.getProperty("maney.it.postgres.username", "postgres");
+    private static final String PASSWORD = System.getProperty("maney.it.postgres.password", "");
+
+    private static final long CHECKING = 1L;
+    private static final long SAVINGS = 2L;
+    private static final Instant END_OF_JANUARY = Instant.parse("2023-02-01T00:00:00Z");
+
+    private static String databaseUrl;
+
+    @Autowired
+    private OperationPartitionService operationPartitionService;
+
+    @Autowired
+    private OperationArchiveEndpoint operationArchiveEndpoint;
+
+    @Autowired
+    private BalanceReconciliationService balanceReconciliationService;
+
+    @Autowired
+    private BalanceHistoryService balanceHistoryService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private LiquidityAccountRepository liquidityAccountRepository;
+
+    @Autowired
+    private CategoryMonthlyTotalRepository categoryMonthlyTotalRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        createDatabase();
+        populateLegacySchema();
+        registry.add("spring.datasource.url", () -> databaseUrl);
+        registry.add("spring.datasource.username", () -> USERNAME);
+        registry.add("spring.datasource.password", () -> PASSWORD);
+    }
+
+    @Test
+    public void testMigrateArchiveRestore_BalancesStillReconcile() {
+        // Baselined at version 1, then migrated; Hibernate validated the result at startup
+        assertEquals("BASELINE", jdbcTemplate.queryForObject(
+                "SELECT type FROM flyway_schema_history WHERE version = '1'", String.class));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT MAX(version::int) FROM flyway_schema_history WHERE success", Integer.class));
+        // V3 partitioned the populated table
+        assertEquals("p", jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = 'operation'::regclass", String.class));
+        assertEquals(3, countRows("operation_y2023m01"));
+        assertEquals(2, countRows("operation_y2023m02"));
+
+        // The legacy accounts get their opening ledger entries, then reconcile
+        ledgerService.snapshot(CHECKING);
+        ledgerService.snapshot(SAVINGS);
+        assertNoDrift(balanceReconciliationService.reconcileAll());
+        assertBalancesAtEndOfJanuary();
+
+        assertEquals(3, operationPartitionService.archiveMonth(YearMonth.of(2023, 1)));
+
+        assertEquals(2, countRows("operation"));
+        assertEquals(1, countRows("cash_movement"));
+        assertEquals(OperationArchiveStatus.ARCHIVED, archiveOfJanuary().status());
+        assertNoDrift(balanceReconciliationService.reconcileAll());
+        assertBalancesAtEndOfJanuary();
+        assertEquals(0, new BigDecimal("1320.00").compareTo(ledgerService.getLedgerBalance(CHECKING)));
+
+        OperationArchiveEndpoint.RestoreResult restored = operationArchiveEndpoint.restore("2023-01");
+
+        assertEquals(3, restored.restoredOperations());
+        assertEquals(3, countRows("operation_y2023m01"));
+        assertEquals(3, countRows("cash_movement"));
+        assertEquals(2, countRows("transfer"));
+        assertEquals(0, countRows("operation_archive_total"));
+        assertEquals(OperationArchiveStatus.RESTORED, archiveOfJanuary().status());
+        assertNoDrift(balanceReconciliationService.reconcileAll());
+        assertBalancesAtEndOfJanuary();
+    }
+
+    @Test
+    public void testMigratedSchema_SequencePastLegacyIdsAndUncategorizedRollupsShareRows() {
+        // The first block Hibernate takes from operation_seq starts after the legacy IDs
+        long next = jdbcTemplate.queryForObject("SELECT nextval('operation_seq')", Long.class);
+        assertTrue(next - Operation.ID_ALLOCATION_SIZE + 1 > 5, () -> "operation_seq at " + next);
+
+        CategoryMonthKey uncategorized = new CategoryMonthKey(null, LocalDate.of(2023, 3, 1), CashMovementType.OUTCOME);
+        categoryMonthlyTotalRepository.upsertTotals(1L,
+                List.of(Map.entry(uncategorized, CategoryRollupDelta.added(new BigDecimal("10.00")))));
+        categoryMonthlyTotalRepository.upsertTotals(1L,
+                List.of(Map.entry(uncategorized, CategoryRollupDelta.added(new BigDecimal("5.00")))));
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM category_monthly_total WHERE category_id IS NULL", Integer.class));
+        assertEquals(0, new BigDecimal("15.00").compareTo(jdbcTemplate.queryForObject(
+                "SELECT total FROM category_monthly_total WHERE category_id IS NULL", BigDecimal.class)));
+    }
+
+    /**
+     * Drops and recreates the test database on the configured server.
+     */
+    private static void createDatabase() {
+        JdbcTemplate server = new JdbcTemplate(new DriverManagerDataSource(SERVER_URL, USERNAME, PASSWORD));
+        server.execute("DROP DATABASE IF EXISTS " + DATABASE + " WITH (FORCE)");
+        server.execute("CREATE DATABASE " + DATABASE);
+        databaseUrl = SERVER_URL.replaceFirst("/[^/?]*(\\?.*)?$", "/" + DATABASE + "$1");
+    }
+
+    /**
+     * Builds the schema that Hibernate schema update created before Flyway (migration V1, but
+     * without migration history) and fills it: two accounts with three operations in January
+     * 2023 and two in February, and no ledger entries yet.
+     */
+    private static void populateLegacySchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(databaseUrl, USERNAME, PASSWORD);
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(dataSource);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO app_user (id, username, email, password_hash, created_at, updated_at) " +
+                "VALUES (1, 'archive', 'archive@example.com', 'hash', now(), now())");
+        jdbc.update("INSERT INTO portfolio (user_id) VALUES (1)");
+        jdbc.update("INSERT INTO category (id, name, color, type, user_id) VALUES (1, 'Varie', '#00FF00', 'BOTH', 1)");
+        insertAccount(jdbc, CHECKING, "Checking", "1320.00");
+        insertAccount(jdbc, SAVINGS, "Savings", "200.00");
+
+        insertCashMovement(jdbc, 1, "2023-01-01T00:00:00Z", CHECKING, "1000.00", "INCOME");
+        insertCashMovement(jdbc, 2, "2023-01-10T12:00:00Z", CHECKING, "50.00", "OUTCOME");
+        insertTransfer(jdbc, 3, "2023-01-20T09:00:00Z", CHECKING, SAVINGS, "200.00");
+        insertCashMovement(jdbc, 4, "2023-02-05T12:00:00Z", CHECKING, "30.00", "OUTCOME");
+        insertTransfer(jdbc, 5, "2023-02-15T09:00:00Z", SAVINGS, CHECKING, "100.00");
+    }
+
+    private static void insertAccount(JdbcTemplate jdbc, long id, String name, String balance) {
+        jdbc.update("INSERT INTO account (account_type, id, name, institution, created_at, updated_at, portfolio_id) " +
+                "VALUES ('LIQUID', ?, ?, 'Bank', now(), now(), 1)", id, name);
+        jdbc.update("INSERT INTO liquidity_account (id, balance, currency) VALUES (?, ?, 'EUR')",
+                id, new BigDecimal(balance));
+    }
+
+    private static void insertCashMovement(JdbcTemplate jdbc, long id, String date, long accountId,
+                                           String amount, String type) {
+        insertOperation(jdbc, id, date);
+        jdbc.update("INSERT INTO cash_movement (id, category_id, account_id, amount, type) VALUES (?, 1, ?, ?, ?)",
+                id, accountId, new BigDecimal(amount), type);
+    }
+
+    private static void insertTransfer(JdbcTemplate jdbc, long id, String date, long fromAccountId,
+                                       long toAccountId, String amount) {
+        insertOperation(jdbc, id, date);
+        jdbc.update("INSERT INTO transfer (id, from_account_id, to_account_id, amount) VALUES (?, ?, ?, ?)",
+                id, fromAccountId, toAccountId, new BigDecimal(amount));
+    }
+
+    private static void insertOperation(JdbcTemplate jdbc, long id, String date) {
+        jdbc.update("INSERT INTO operation (id, date) VALUES (?, ?::timestamptz)", id, date);
+    }
+
+    private void assertBalancesAtEndOfJanuary() {
+        assertEquals(0, new BigDecimal("1250.00").compareTo(balanceAt(CHECKING)));
+        assertEquals(0, new BigDecimal("300.00").compareTo(balanceAt(SAVINGS)));
+    }
+
+    private BigDecimal balanceAt(long accountId) {
+        LiquidityAccount account = liquidityAccountRepository.findById(accountId).orElseThrow();
+        return balanceHistoryService.getBalanceAt(account, END_OF_JANUARY);
+    }
+
+    private static void assertNoDrift(BalanceReconciliationReport report) {
+        assertEquals(2, report.accountsChecked());
+        assertEquals(0, report.accountsUnverified());
+        assertEquals(0, report.accountsDrifted(), () -> "drifts: " + report.drifts());
+        assertEquals(0, report.chunksFailed());
+    }
+
+    private OperationArchiveSummary archiveOfJanuary() {
+        List<OperationArchiveSummary> archives = operationPartitionService.listArchives();
+        assertEquals(1, archives.size());
+        return archives.getFirst();
+    }
+
+    private int countRows(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.giuseppesica.maney.account.operations.archive;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.giuseppesica.maney.account.operations.archive.model.ArchivedOperation;
+import com.giuseppesica.maney.account.operations.archive.model.OperationArchiveTotal;
+import com.giuseppesica.maney.account.operations.archive.service.OperationArchiveCodec;
+import com.giuseppesica.maney.account.operations.archive.service.OperationPartitionService;
+import com.giuseppesica.maney.utils.CashMovementType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the parts of operation archival that don't need PostgreSQL: the balance
+ * totals of an archived month and the compressed payload.
+ */
+public class OperationPartitionServiceTest {
+
+    private final OperationArchiveCodec codec = new OperationArchiveCodec(JsonMapper.builder().findAndAddModules().build());
+
+    @Test
+    public void testTotalsOf_SumsSignedEffectPerAccount() {
+        List<OperationArchiveTotal> totals = OperationPartitionService.totalsOf(YearMonth.of(2023, 12), List.of(
+                movement(1L, "2023-12-01T00:00:00Z", 10L, "50.00", CashMovementType.INCOME),
+                movement(2L, "2023-12-10T08:00:00Z", 10L, "20.00", CashMovementType.OUTCOME),
+                transfer(3L, "2023-12-15T09:00:00Z", 10L, 11L, "100.00"),
+                movement(4L, "2023-12-31T23:59:59Z", 11L, "5.00", CashMovementType.OUTCOME)));
+
+        assertEquals(2, totals.size());
+        OperationArchiveTotal checking = totals.get(0);
+        assertEquals(10L, checking.getAccountId());
+        assertEquals(LocalDate.of(2023, 12, 1), checking.getMonthStart());
+        assertEquals(0, new BigDecimal("-70.00").compareTo(checking.getTotal()));
+        assertEquals(0, new BigDecimal("50.00").compareTo(checking.getMonthStartTotal()));
+        OperationArchiveTotal savings = totals.get(1);
+        assertEquals(11L, savings.getAccountId());
+        assertEquals(0, new BigDecimal("95.00").compareTo(savings.getTotal()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(savings.getMonthStartTotal()));
+    }
+
+    @Test
+    public void testCodec_RoundTrip_KeepsEveryField() {
+        List<ArchivedOperation> operations = List.of(
+                new ArchivedOperation(1L, Instant.parse("2023-12-01T00:00:00Z"), "Stipendio \"dicembre\"\nbonus",
+                        10L, 7L, CashMovementType.INCOME, "f".repeat(64), null, null, new BigDecimal("2500.00")),
+                new ArchivedOperation(2L, Instant.parse("2023-12-02T10:15:30Z"), null,
+                        10L, null, CashMovementType.OUTCOME, null, null, null, new BigDecimal("1.50")),
+                transfer(3L, "2023-12-15T09:00:00Z", 10L, 11L, "100.00"));
+
+        List<ArchivedOperation> decoded = codec.decode(codec.encode(operations));
+
+        assertEquals(operations, decoded);
+        assertTrue(decoded.get(2).isTransfer());
+        assertFalse(decoded.get(0).isTransfer());
+    }
+
+    @Test
+    public void testCodec_ManyRows_Compressed() {
+        List<ArchivedOperation> operations = new ArrayList<>();
+        for (long id = 1; id <= 5000; id++) {
+            operations.add(movement(id, "2023-12-15T09:00:00Z", 10L + id % 3, "12.34", CashMovementType.OUTCOME));
+        }
+
+        byte[] payload = codec.encode(operations);
+
+        assertTrue(payload.length < 5000 * 20, "payload was " + payload.length + " bytes");
+        assertEquals(5000, codec.decode(payload).size());
+    }
+
+    private static ArchivedOperation movement(Long id, String date, Long accountId, String amount, CashMovementType type) {
+        return new ArchivedOperation(id, Instant.parse(date), null, accountId, null, type, null, null, null,
+                new BigDecimal(amount));
+    }
+
+    private static ArchivedOperation transfer(Long id, String date, Long fromAccountId, Long toAccountId, String amount) {
+        return new ArchivedOperation(id, Instant.parse(date), null, null, null, null, null, fromAccountId, toAccountId,
+                new BigDecimal(amount));
+    }
+}
@@ -5,15 +5,25 @@ import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
 import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovement;
 import com.giuseppesica.maney.account.operations.cashmovement.control.CashMovementControl;
 import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementFilter;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementImportResultDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementPageDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryMonthKey;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryMonthlyTotalDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryRollupDelta;
+import com.giuseppesica.maney.account.operations.cashmovement.service.CashMovementImportService;
 import com.giuseppesica.maney.account.operations.cashmovement.service.CashMovementService;
+import com.giuseppesica.maney.account.operations.cashmovement.service.CategoryRollupService;
 import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
 import com.giuseppesica.maney.category.model.Category;
 import com.giuseppesica.maney.category.service.CategoryService;
 import com.giuseppesica.maney.config.SecurityConfig;
+import com.giuseppesica.maney.idempotency.service.IdempotencyService;
 import com.giuseppesica.maney.portfolio.model.Portfolio;
 import com.giuseppesica.maney.user.model.User;
 import com.giuseppesica.maney.utils.CashMovementType;
 import com.giuseppesica.maney.utils.Currency;
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
 import com.giuseppesica.maney.security.AuthenticationHelper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,6 +31,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -28,9 +39,17 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -54,16 +73,26 @@ public class CashMovementControlTest {
     @MockitoBean
     private CashMovementService cashMovementService;
 
+    @MockitoBean
+    private CashMovementImportService cashMovementImportService;
+
     @MockitoBean
     private LiquidityAccountService liquidityAccountService;
 
     @MockitoBean
     private CategoryService categoryService;
 
+    @MockitoBean
+    private CategoryRollupService categoryRollupService;
+
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
     @MockitoBean
     private AuthenticationHelper authenticationHelper;
 
     private User user;
+    private AuthenticatedPrincipal principal;
     private LiquidityAccount liquidityAccount;
     private Category category;
     private CashMovement cashMovement;
@@ -71,6 +100,10 @@ public class CashMovementControlTest {
 
     @BeforeEach
     public void setUp() {
+        // Run the operation as if no Idempotency-Key was sent
+        doAnswer(invocation -> invocation.<Supplier<?>>getArgument(5).get())
+                .when(idempotencyService).execute(any(), any(), any(), any(), any(), any());
+
         // Setup portfolio
         Portfolio portfolio = new Portfolio();
         portfolio.setId(1L);
@@ -81,6 +114,7 @@ public class CashMovementControlTest {
         user.setUsername("testuser");
         user.setEmail("test@example.com");
         user.setPortfolio(portfolio);
+        principal = new AuthenticatedPrincipal(user.getId(), portfolio.getId(), user.getEmail());
 
         // Setup liquidity account
         liquidityAccount = new LiquidityAccount();
@@ -116,47 +150,97 @@ public class CashMovementControlTest {
         cashMovementDto.setLiquidityAccountName("Conto Corrente Intesa");
         cashMovementDto.setCategoryId(1L);
 
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(user);
+        when(authenticationHelper.getAuthenticatedPrincipal(any(Authentication.class))).thenReturn(principal);
+        when(authenticationHelper.getAuthenticatedUserPortfolioId(any(Authentication.class))).thenReturn(principal.portfolioId());
     }
 
     // ==================== GET ALL CASH MOVEMENTS TESTS ====================
 
     @Test
     @WithMockUser(username = "test@example.com")
-    public void testGetCashMovements_Success_ReturnsList() throws Exception {
+    public void testGetCashMovements_Success_ReturnsPage() throws Exception {
         // Given
-        when(cashMovementService.getCashMovementsByUserId(user))
-                .thenReturn(List.of(cashMovement));
+        when(cashMovementService.getCashMovementPage(eq(principal.portfolioId()), any(CashMovementFilter.class), isNull(), eq(50)))
+                .thenReturn(new CashMovementPageDto(List.of(new CashMovementDto(cashMovement)), "next-cursor"));
 
         // When & Then
         mockMvc.perform(get("/user/portfolio/liquidity-accounts/cash-movements")
                         .with(csrf()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].note").value("Stipendio gennaio"))
-                .andExpect(jsonPath("$[0].amount").value(1500.00))
-                .andExpect(jsonPath("$[0].type").value("INCOME"))
-                .andExpect(jsonPath("$[0].liquidityAccountName").value("Conto Corrente Intesa"));
-
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
-        verify(cashMovementService, times(1)).getCashMovementsByUserId(user);
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items[0].note").value("Stipendio gennaio"))
+                .andExpect(jsonPath("$.items[0].amount").value(1500.00))
+                .andExpect(jsonPath("$.items[0].type").value("INCOME"))
+                .andExpect(jsonPath("$.items[0].liquidityAccountName").value("Conto Corrente Intesa"))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"));
+
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        verify(cashMovementService, times(1))
+                .getCashMovementPage(eq(principal.portfolioId()), any(CashMovementFilter.class), isNull(), eq(50));
     }
 
     @Test
     @WithMockUser(username = "test@example.com")
-    public void testGetCashMovements_EmptyList_ReturnsEmptyArray() throws Exception {
+    public void testGetCashMovements_EmptyList_ReturnsEmptyPage() throws Exception {
         // Given
-        when(cashMovementService.getCashMovementsByUserId(user))
-                .thenReturn(List.of());
+        when(cashMovementService.getCashMovementPage(eq(principal.portfolioId()), any(CashMovementFilter.class), isNull(), anyInt()))
+                .thenReturn(new CashMovementPageDto(List.of(), null));
 
         // When & Then
         mockMvc.perform(get("/user/portfolio/liquidity-accounts/cash-movements")
                         .with(csrf()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$").isEmpty());
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items").isEmpty())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    public void testGetCashMovements_WithFiltersAndCursor_PassesThemToService() throws Exception {
+        // Given
+        when(cashMovementService.getCashMovementPage(eq(principal.portfolioId()), any(CashMovementFilter.class), eq("abc"), eq(20)))
+                .thenReturn(new CashMovementPageDto(List.of(), null));
 
-        verify(cashMovementService, times(1)).getCashMovementsByUserId(user);
+        // When & Then
+        mockMvc.perform(get("/user/portfolio/liquidity-accounts/cash-movements")
+                        .param("from", "2025-01-01T00:00:00Z")
+                        .param("to", "2025-02-01T00:00:00Z")
+                        .param("accountId", "1")
+                        .param("categoryId", "2")
+                        .param("type", "OUTCOME")
+                        .param("cursor", "abc")
+                        .param("limit", "20")
+                        .with(csrf()))
+                .andExpect(status().isOk());
+
+        verify(cashMovementService, times(1)).getCashMovementPage(
+                eq(principal.portfolioId()),
+                eq(new CashMovementFilter(
+                        Instant.parse("2025-01-01T00:00:00Z"),
+                        Instant.parse("2025-02-01T00:00:00Z"),
+                        1L,
+                        2L,
+                        CashMovementType.OUTCOME
+                )),
+                eq("abc"),
+                eq(20)
+        );
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    public void testGetCashMovements_InvalidCursor_ReturnsBadRequest() throws Exception {
+        // Given
+        when(cashMovementService.getCashMovementPage(eq(principal.portfolioId()), any(CashMovementFilter.class), eq("garbage"), anyInt()))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        // When & Then
+        mockMvc.perform(get("/user/portfolio/liquidity-accounts/cash-movements")
+                        .param("cursor", "garbage")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
     }
 
     @Test
@@ -166,8 +250,53 @@ public class CashMovementControlTest {
                 .andExpect(status().isUnauthorized())
                 .andExpect(jsonPath("$.error").value("UNAUTHORIZED"));
 
-        verify(authenticationHelper, never()).getAuthenticatedUser(any());
-        verify(cashMovementService, never()).getCashMovementsByUserId(any());
+        verify(authenticationHelper, never()).getAuthenticatedUserPortfolioId(any());
+        verify(cashMovementService, never()).getCashMovementPage(any(), any(), any(), anyInt());
+    }
+
+    // ==================== MONTHLY CATEGORY TOTALS TESTS ====================
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    public void testGetMonthlyCategoryTotals_Success_ReturnsRollups() throws Exception {
+        // Given
+        when(categoryRollupService.getMonthlyTotals(1L, YearMonth.of(2025, 1), YearMonth.of(2025, 3), CashMovementType.OUTCOME))
+                .thenReturn(List.of(
+                        new CategoryMonthlyTotalDto(YearMonth.of(2025, 1), 1L, CashMovementType.OUTCOME, new BigDecimal("412.30"), 18),
+                        new CategoryMonthlyTotalDto(YearMonth.of(2025, 2), null, CashMovementType.OUTCOME, new BigDecimal("20.00"), 1)
+                ));
+
+        // When & Then
+        mockMvc.perform(get("/user/portfolio/liquidity-accounts/cash-movements/rollups")
+                        .param("from", "2025-01")
+                        .param("to", "2025-03")
+                        .param("type", "OUTCOME")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].month").value("2025-01"))
+                .andExpect(jsonPath("$[0].categoryId").value(1))
+                .andExpect(jsonPath("$[0].total").value(412.30))
+                .andExpect(jsonPath("$[0].count").value(18))
+                .andExpect(jsonPath("$[1].categoryId").doesNotExist());
+
+        verify(categoryRollupService, times(1))
+                .getMonthlyTotals(1L, YearMonth.of(2025, 1), YearMonth.of(2025, 3), CashMovementType.OUTCOME);
+        verify(cashMovementService, never()).getCashMovementPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    public void testGetMonthlyCategoryTotals_InvalidRange_ReturnsBadRequest() throws Exception {
+        // Given
+        when(categoryRollupService.getMonthlyTotals(1L, YearMonth.of(2025, 3), YearMonth.of(2025, 1), null))
+                .thenThrow(new IllegalArgumentException("from must not be after to"));
+
+        // When & Then
+        mockMvc.perform(get("/user/portfolio/liquidity-accounts/cash-movements/rollups")
+                        .param("from", "2025-03")
+                        .param("to", "2025-01")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
     }
 
     // ==================== GET CASH MOVEMENT BY ID TESTS ====================
@@ -176,7 +305,7 @@ public class CashMovementControlTest {
     @WithMockUser(username = "test@example.com")
     public void testGetCashMovementById_Success_ReturnsMovement() throws Exception {
         // Given
-        when(cashMovementService.getCashMovementByIdAndUserId(1L, user))
+        when(cashMovementService.getCashMovementByIdAndPortfolioId(1L, principal.portfolioId()))
                 .thenReturn(Optional.of(cashMovement));
 
         // When & Then
@@ -187,15 +316,15 @@ public class CashMovementControlTest {
                 .andExpect(jsonPath("$.amount").value(1500.00))
                 .andExpect(jsonPath("$.type").value("INCOME"));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
-        verify(cashMovementService, times(1)).getCashMovementByIdAndUserId(1L, user);
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        verify(cashMovementService, times(1)).getCashMovementByIdAndPortfolioId(1L, principal.portfolioId());
     }
 
     @Test
     @WithMockUser(username = "test@example.com")
     public void testGetCashMovementById_NotFound_ReturnsNotFound() throws Exception {
         // Given
-        when(cashMovementService.getCashMovementByIdAndUserId(999L, user))
+        when(cashMovementService.getCashMovementByIdAndPortfolioId(999L, principal.portfolioId()))
                 .thenReturn(Optional.empty());
 
         // When & Then
@@ -206,7 +335,7 @@ public class CashMovementControlTest {
                 .andExpect(jsonPath("$.error").value("Not Found"))
                 .andExpect(jsonPath("$.message").value("Cash Movement Not Found"));
 
-        verify(cashMovementService, times(1)).getCashMovementByIdAndUserId(999L, user);
+        verify(cashMovementService, times(1)).getCashMovementByIdAndPortfolioId(999L, principal.portfolioId());
     }
 
     @Test
@@ -216,8 +345,8 @@ public class CashMovementControlTest {
                 .andExpect(status().isUnauthorized())
                 .andExpect(jsonPath("$.error").value("UNAUTHORIZED"));
 
-        verify(authenticationHelper, never()).getAuthenticatedUser(any());
-        verify(cashMovementService, never()).getCashMovementByIdAndUserId(any(), any());
+        verify(authenticationHelper, never()).getAuthenticatedUserPortfolioId(any());
+        verify(cashMovementService, never()).getCashMovementByIdAndPortfolioId(any(), any());
     }
 
     // ==================== CREATE CASH MOVEMENT TESTS ====================
@@ -228,12 +357,13 @@ public class CashMovementControlTest {
         // Given
         when(liquidityAccountService.getLiquidityAccountByPortfolioIdAndName(1L, "Conto Corrente Intesa"))
                 .thenReturn(Optional.of(liquidityAccount));
-        when(categoryService.findByUserAndId(1L, 1L))
+        when(categoryService.findReferenceByUserAndId(1L, 1L))
                 .thenReturn(Optional.of(category));
         when(cashMovementService.saveCashMovement(any(CashMovement.class)))
                 .thenReturn(cashMovement);
         doNothing().when(liquidityAccountService).updateLiquidityAccount(
                 any(LiquidityAccount.class),
+                anyLong(),
                 any(BigDecimal.class),
                 any(CashMovementType.class)
         );
@@ -251,13 +381,37 @@ public class CashMovementControlTest {
 
         verify(liquidityAccountService, times(1))
                 .getLiquidityAccountByPortfolioIdAndName(1L, "Conto Corrente Intesa");
-        verify(categoryService, times(1)).findByUserAndId(1L, 1L);
+        verify(categoryService, times(1)).findReferenceByUserAndId(1L, 1L);
         verify(cashMovementService, times(1)).saveCashMovement(any(CashMovement.class));
         verify(liquidityAccountService, times(1)).updateLiquidityAccount(
                 eq(liquidityAccount),
+                eq(1L),
                 eq(new BigDecimal("1500.00")),
                 eq(CashMovementType.INCOME)
         );
+        verify(categoryRollupService, times(1)).recordCreated(1L, cashMovement);
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    public void testCreateCashMovement_IdempotencyKeyReplayed_ReturnsStoredResponse() throws Exception {
+        // Given
+        CashMovementDto stored = new CashMovementDto(cashMovement);
+        doReturn(ResponseEntity.ok().header(IdempotencyService.REPLAYED_HEADER, "true").body(stored))
+                .when(idempotencyService).execute(eq(1L), eq("retry-1"), any(), any(), eq(CashMovementDto.class), any());
+
+        // When & Then
+        mockMvc.perform(post("/user/portfolio/liquidity-accounts/cash-movements")
+                        .with(csrf())
+                        .header(IdempotencyService.HEADER, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cashMovementDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.note").value("Stipendio gennaio"));
+
+        verify(cashMovementService, never()).saveCashMovement(any());
+        verify(liquidityAccountService, never()).updateLiquidityAccount(any(), any(), any(), any());
     }
 
     @Test
@@ -279,7 +433,7 @@ public class CashMovementControlTest {
 
         verify(liquidityAccountService, times(1))
                 .getLiquidityAccountByPortfolioIdAndName(1L, "Conto Corrente Intesa");
-        verify(categoryService, never()).findByUserAndId(any(), any());
+        verify(categoryService, never()).findReferenceByUserAndId(any(), any());
         verify(cashMovementService, never()).saveCashMovement(any());
     }
 
@@ -289,7 +443,7 @@ public class CashMovementControlTest {
         // Given
         when(liquidityAccountService.getLiquidityAccountByPortfolioIdAndName(1L, "Conto Corrente Intesa"))
                 .thenReturn(Optional.of(liquidityAccount));
-        when(categoryService.findByUserAndId(1L, 1L))
+        when(categoryService.findReferenceByUserAndId(1L, 1L))
                 .thenReturn(Optional.empty());
 
         // When & Then
@@ -302,7 +456,7 @@ public class CashMovementControlTest {
                 .andExpect(jsonPath("$.error").value("Not Found"))
                 .andExpect(jsonPath("$.message").value("Category Not Found"));
 
-        verify(categoryService, times(1)).findByUserAndId(1L, 1L);
+        verify(categoryService, times(1)).findReferenceByUserAndId(1L, 1L);
         verify(cashMovementService, never()).saveCashMovement(any());
     }
 
@@ -319,7 +473,7 @@ public class CashMovementControlTest {
                         .content(objectMapper.writeValueAsString(cashMovementDto)))
                 .andExpect(status().isBadRequest());
 
-        verify(authenticationHelper, never()).getAuthenticatedUser(any());
+        verify(authenticationHelper, never()).getAuthenticatedPrincipal(any());
         verify(cashMovementService, never()).saveCashMovement(any());
     }
 
@@ -331,10 +485,94 @@ public class CashMovementControlTest {
                         .content(objectMapper.writeValueAsString(cashMovementDto)))
                 .andExpect(status().isForbidden());
 
-        verify(authenticationHelper, never()).getAuthenticatedUser(any());
+        verify(authenticationHelper, never()).getAuthenticatedPrincipal(any());
         verify(cashMovementService, never()).saveCashMovement(any());
     }
 
+    // ==================== BULK IMPORT TESTS ====================
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    public void testImportCashMovements_JsonArray_ImportsAllRows() throws Exception {
+        // Given
+        List<CashMovementDto> received = new ArrayList<>();
+        when(cashMovementImportService.importCashMovements(eq(principal), any()))
+                .thenAnswer(invocation -> drain(invocation.getArgument(1), received));
+        CashMovementDto outcome = new CashMovementDto();
+        outcome.setDate(Instant.parse("2025-01-02T10:00:00Z"));
+        outcome.setAmount(new BigDecimal("42.50"));
+        outcome.setType(CashMovementType.OUTCOME);
+        outcome.setLiquidityAccountName("Conto Corrente Intesa");
+        outcome.setCategoryId(1L);
+
+        // When & Then
+        mockMvc.perform(post("/user/portfolio/liquidity-accounts/cash-movements/bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(cashMovementDto, outcome))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.accountsUpdated").value(1));
+
+        assertEquals(2, received.size());
+        assertEquals(new BigDecimal("42.50"), received.get(1).getAmount());
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    public void testImportCashMovements_Ndjson_ImportsAllRows() throws Exception {
+        // Given
+        List<CashMovementDto> received = new ArrayList<>();
+        when(cashMovementImportService.importCashMovements(eq(principal), any()))
+                .thenAnswer(invocation -> drain(invocation.getArgument(1), received));
+        String body = objectMapper.writeValueAsString(cashMovementDto) + "\n"
+                + objectMapper.writeValueAsString(cashMovementDto) + "\n"
+                + objectMapper.writeValueAsString(cashMovementDto) + "\n";
+
+        // When & Then
+        mockMvc.perform(post("/user/portfolio/liquidity-accounts/cash-movements/bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3));
+
+        assertEquals(3, received.size());
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    public void testImportCashMovements_MalformedRow_ReturnsBadRequest() throws Exception {
+        // Given
+        when(cashMovementImportService.importCashMovements(eq(principal), any()))
+                .thenAnswer(invocation -> drain(invocation.getArgument(1), new ArrayList<>()));
+        String body = objectMapper.writeValueAsString(cashMovementDto) + "\n{\"amount\": }\n";
+
+        // When & Then
+        mockMvc.perform(post("/user/portfolio/liquidity-accounts/cash-movements/bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(startsWith("Row 2: malformed JSON")));
+    }
+
+    @Test
+    public void testImportCashMovements_Unauthenticated_ReturnsForbidden() throws Exception {
+        // When & Then - No authentication and no CSRF token
+        mockMvc.perform(post("/user/portfolio/liquidity-accounts/cash-movements/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isForbidden());
+
+        verify(cashMovementImportService, never()).importCashMovements(any(), any());
+    }
+
+    private static CashMovementImportResultDto drain(Iterator<CashMovementDto> rows, List<CashMovementDto> sink) {
+        rows.forEachRemaining(sink::add);
+        return new CashMovementImportResultDto(sink.size(), 1);
+    }
+
     // ==================== UPDATE CASH MOVEMENT TESTS ====================
 
     @Test
@@ -358,15 +596,10 @@ public class CashMovementControlTest {
         updatedMovement.setLiquidityAccount(liquidityAccount);
         updatedMovement.setCategory(category);
 
-        when(cashMovementService.getCashMovementByIdAndUserId(1L, user))
+        when(cashMovementService.getCashMovementByIdAndPortfolioId(1L, principal.portfolioId()))
                 .thenReturn(Optional.of(cashMovement));
         when(cashMovementService.saveCashMovement(any(CashMovement.class)))
                 .thenReturn(updatedMovement);
-        doNothing().when(liquidityAccountService).updateLiquidityAccount(
-                any(LiquidityAccount.class),
-                any(BigDecimal.class),
-                any(CashMovementType.class)
-        );
 
         // When & Then
         mockMvc.perform(put("/user/portfolio/liquidity-accounts/cash-movements/1")
@@ -377,21 +610,28 @@ public class CashMovementControlTest {
                 .andExpect(jsonPath("$.note").value("Stipendio aggiornato"))
                 .andExpect(jsonPath("$.amount").value(2000.00));
 
-        verify(cashMovementService, times(1)).getCashMovementByIdAndUserId(1L, user);
+        verify(cashMovementService, times(1)).getCashMovementByIdAndPortfolioId(1L, principal.portfolioId());
         verify(cashMovementService, times(1)).saveCashMovement(any(CashMovement.class));
-        // Verify balance update: revert old + apply new
-        verify(liquidityAccountService, times(2)).updateLiquidityAccount(
+        // Verify balance update: single net delta (new 2000.00 INCOME - old 1500.00 INCOME)
+        verify(liquidityAccountService, times(1)).applyBalanceDelta(1L, 1L, new BigDecimal("500.00"));
+        verify(liquidityAccountService, never()).updateLiquidityAccount(
                 any(LiquidityAccount.class),
+                anyLong(),
                 any(BigDecimal.class),
                 any(CashMovementType.class)
         );
+        // Same category and month: the rollup keeps its count and grows by the difference
+        verify(categoryRollupService, times(1)).applyDeltas(1L, Map.of(
+                new CategoryMonthKey(1L, LocalDate.parse("2025-01-01"), CashMovementType.INCOME),
+                new CategoryRollupDelta(new BigDecimal("500.00"), 0)
+        ));
     }
 
     @Test
     @WithMockUser(username = "test@example.com")
     public void testUpdateCashMovement_NotFound_ReturnsNotFound() throws Exception {
         // Given
-        when(cashMovementService.getCashMovementByIdAndUserId(999L, user))
+        when(cashMovementService.getCashMovementByIdAndPortfolioId(999L, principal.portfolioId()))
                 .thenReturn(Optional.empty());
 
         // When & Then
@@ -404,7 +644,7 @@ public class CashMovementControlTest {
                 .andExpect(jsonPath("$.error").value("Not Found"))
                 .andExpect(jsonPath("$.message").value("Cash Movement Not Found"));
 
-        verify(cashMovementService, times(1)).getCashMovementByIdAndUserId(999L, user);
+        verify(cashMovementService, times(1)).getCashMovementByIdAndPortfolioId(999L, principal.portfolioId());
         verify(cashMovementService, never()).saveCashMovement(any());
     }
 
@@ -421,7 +661,7 @@ public class CashMovementControlTest {
                         .content(objectMapper.writeValueAsString(cashMovementDto)))
                 .andExpect(status().isBadRequest());
 
-        verify(cashMovementService, never()).getCashMovementByIdAndUserId(any(), any());
+        verify(cashMovementService, never()).getCashMovementByIdAndPortfolioId(any(), any());
         verify(cashMovementService, never()).saveCashMovement(any());
     }
 
@@ -433,7 +673,7 @@ public class CashMovementControlTest {
                         .content(objectMapper.writeValueAsString(cashMovementDto)))
                 .andExpect(status().isForbidden());
 
-        verify(authenticationHelper, never()).getAuthenticatedUser(any());
+        verify(authenticationHelper, never()).getAuthenticatedUserPortfolioId(any());
         verify(cashMovementService, never()).saveCashMovement(any());
     }
 
@@ -443,10 +683,11 @@ public class CashMovementControlTest {
     @WithMockUser(username = "test@example.com")
     public void testDeleteCashMovement_Success_ReturnsNoContent() throws Exception {
         // Given
-        when(cashMovementService.getCashMovementByIdAndUserId(1L, user))
+        when(cashMovementService.getCashMovementByIdAndPortfolioId(1L, principal.portfolioId()))
                 .thenReturn(Optional.of(cashMovement));
         doNothing().when(liquidityAccountService).updateLiquidityAccount(
                 any(LiquidityAccount.class),
+                anyLong(),
                 any(BigDecimal.class),
                 any(CashMovementType.class)
         );
@@ -457,12 +698,14 @@ public class CashMovementControlTest {
                         .with(csrf()))
                 .andExpect(status().isNoContent());
 
-        verify(cashMovementService, times(1)).getCashMovementByIdAndUserId(1L, user);
+        verify(cashMovementService, times(1)).getCashMovementByIdAndPortfolioId(1L, principal.portfolioId());
         verify(liquidityAccountService, times(1)).updateLiquidityAccount(
                 eq(liquidityAccount),
+                eq(1L),
                 eq(new BigDecimal("1500.00")),
                 eq(CashMovementType.OUTCOME) // Reverting INCOME
         );
+        verify(categoryRollupService, times(1)).recordDeleted(1L, cashMovement);
         verify(cashMovementService, times(1)).deleteCashMovement(cashMovement);
     }
 
@@ -470,7 +713,7 @@ public class CashMovementControlTest {
     @WithMockUser(username = "test@example.com")
     public void testDeleteCashMovement_NotFound_ReturnsNotFound() throws Exception {
         // Given
-        when(cashMovementService.getCashMovementByIdAndUserId(999L, user))
+        when(cashMovementService.getCashMovementByIdAndPortfolioId(999L, principal.portfolioId()))
                 .thenReturn(Optional.empty());
 
         // When & Then
@@ -481,7 +724,7 @@ public class CashMovementControlTest {
                 .andExpect(jsonPath("$.error").value("Not Found"))
                 .andExpect(jsonPath("$.message").value("Cash Movement Not Found"));
 
-        verify(cashMovementService, times(1)).getCashMovementByIdAndUserId(999L, user);
+        verify(cashMovementService, times(1)).getCashMovementByIdAndPortfolioId(999L, principal.portfolioId());
         verify(cashMovementService, never()).deleteCashMovement(any());
     }
 
@@ -491,7 +734,7 @@ public class CashMovementControlTest {
         mockMvc.perform(delete("/user/portfolio/liquidity-accounts/cash-movements/1"))
                 .andExpect(status().isForbidden());
 
-        verify(authenticationHelper, never()).getAuthenticatedUser(any());
+        verify(authenticationHelper, never()).getAuthenticatedUserPortfolioId(any());
         verify(cashMovementService, never()).deleteCashMovement(any());
     }
 
@@ -508,10 +751,11 @@ public class CashMovementControlTest {
         outcomeCashMovement.setLiquidityAccount(liquidityAccount);
         outcomeCashMovement.setCategory(category);
 
-        when(cashMovementService.getCashMovementByIdAndUserId(2L, user))
+        when(cashMovementService.getCashMovementByIdAndPortfolioId(2L, principal.portfolioId()))
                 .thenReturn(Optional.of(outcomeCashMovement));
         doNothing().when(liquidityAccountService).updateLiquidityAccount(
                 any(LiquidityAccount.class),
+                anyLong(),
                 any(BigDecimal.class),
                 any(CashMovementType.class)
         );
@@ -524,6 +768,7 @@ public class CashMovementControlTest {
 
         verify(liquidityAccountService, times(1)).updateLiquidityAccount(
                 eq(liquidityAccount),
+                eq(2L),
                 eq(new BigDecimal("100.00")),
                 eq(CashMovementType.INCOME) // Reverting OUTCOME
         );
@@ -536,7 +781,7 @@ public class CashMovementControlTest {
     @WithMockUser(username = "test@example.com")
     public void testGetCashMovementById_CrossUserAccess_ReturnsNotFound() throws Exception {
         // Given - User tries to access cash movement from another user
-        when(cashMovementService.getCashMovementByIdAndUserId(999L, user))
+        when(cashMovementService.getCashMovementByIdAndPortfolioId(999L, principal.portfolioId()))
                 .thenReturn(Optional.empty());
 
         // When & Then - Should return 404 (not found) to avoid information disclosure
@@ -545,7 +790,7 @@ public class CashMovementControlTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Cash Movement Not Found"));
 
-        verify(cashMovementService, times(1)).getCashMovementByIdAndUserId(999L, user);
+        verify(cashMovementService, times(1)).getCashMovementByIdAndPortfolioId(999L, principal.portfolioId());
     }
 
     @Test
@@ -559,7 +804,7 @@ public class CashMovementControlTest {
         updateDto.setLiquidityAccountName("Conto Corrente");
         updateDto.setCategoryId(1L);
 
-        when(cashMovementService.getCashMovementByIdAndUserId(999L, user))
+        when(cashMovementService.getCashMovementByIdAndPortfolioId(999L, principal.portfolioId()))
                 .thenReturn(Optional.empty());
 
         // When & Then - Should return 404
@@ -570,7 +815,7 @@ public class CashMovementControlTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Cash Movement Not Found"));
 
-        verify(cashMovementService, times(1)).getCashMovementByIdAndUserId(999L, user);
+        verify(cashMovementService, times(1)).getCashMovementByIdAndPortfolioId(999L, principal.portfolioId());
         verify(cashMovementService, never()).saveCashMovement(any());
     }
 
@@ -578,7 +823,7 @@ public class CashMovementControlTest {
     @WithMockUser(username = "test@example.com")
     public void testDeleteCashMovement_CrossUserAccess_ReturnsNotFound() throws Exception {
         // Given - User tries to delete cash movement from another user
-        when(cashMovementService.getCashMovementByIdAndUserId(999L, user))
+        when(cashMovementService.getCashMovementByIdAndPortfolioId(999L, principal.portfolioId()))
                 .thenReturn(Optional.empty());
 
         // When & Then - Should return 404
@@ -587,7 +832,7 @@ public class CashMovementControlTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Cash Movement Not Found"));
 
-        verify(cashMovementService, times(1)).getCashMovementByIdAndUserId(999L, user);
+        verify(cashMovementService, times(1)).getCashMovementByIdAndPortfolioId(999L, principal.portfolioId());
         verify(cashMovementService, never()).deleteCashMovement(any());
     }
 
@@ -595,18 +840,18 @@ public class CashMovementControlTest {
     @WithMockUser(username = "test@example.com")
     public void testGetCashMovements_OnlyReturnsUserMovements() throws Exception {
         // Given - Service should only return movements from user's portfolio
-        when(cashMovementService.getCashMovementsByUserId(user))
-                .thenReturn(List.of(cashMovement));
+        when(cashMovementService.getCashMovementPage(eq(principal.portfolioId()), any(CashMovementFilter.class), isNull(), anyInt()))
+                .thenReturn(new CashMovementPageDto(List.of(new CashMovementDto(cashMovement)), null));
 
         // When & Then - Only user's movements are returned
         mockMvc.perform(get("/user/portfolio/liquidity-accounts/cash-movements")
                         .with(csrf()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(1))
-                .andExpect(jsonPath("$[0].note").value("Stipendio gennaio"));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].note").value("Stipendio gennaio"));
 
-        verify(cashMovementService, times(1)).getCashMovementsByUserId(user);
+        verify(cashMovementService, times(1))
+                .getCashMovementPage(eq(principal.portfolioId()), any(CashMovementFilter.class), isNull(), anyInt());
     }
 }
-
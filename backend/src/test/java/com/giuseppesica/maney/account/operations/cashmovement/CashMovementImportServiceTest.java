@@ -0,0 +1,277 @@
+package com.giuseppesica.maney.account.operations.cashmovement;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovement;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementImportResultDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryMonthKey;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryRollupDelta;
+import com.giuseppesica.maney.account.operations.cashmovement.service.CashMovementImportService;
+import com.giuseppesica.maney.account.operations.cashmovement.service.CategoryRollupService;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.service.CategoryService;
+import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
+import com.giuseppesica.maney.security.NotFoundException;
+import com.giuseppesica.maney.user.model.User;
+import com.giuseppesica.maney.utils.CashMovementType;
+import com.giuseppesica.maney.utils.Currency;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CashMovementImportService.
+ * Tests batching, one-time reference resolution and net balance deltas of bulk imports.
+ */
+public class CashMovementImportServiceTest {
+
+    @Mock
+    private CashMovementRepository cashMovementRepository;
+
+    @Mock
+    private LiquidityAccountService liquidityAccountService;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private CategoryRollupService categoryRollupService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private CashMovementImportService cashMovementImportService;
+
+    private User user;
+    private AuthenticatedPrincipal principal;
+    private LiquidityAccount checking;
+    private LiquidityAccount savings;
+    private long lastId;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cashMovementImportService = new CashMovementImportService(
+                cashMovementRepository,
+                liquidityAccountService,
+                categoryService,
+                categoryRollupService,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                entityManager
+        );
+
+        Portfolio portfolio = new Portfolio();
+        portfolio.setId(1L);
+
+        user = new User();
+        user.setId(1L);
+        user.setEmail("test@example.com");
+        user.setPortfolio(portfolio);
+        principal = new AuthenticatedPrincipal(1L, 1L, "test@example.com");
+
+        checking = newAccount(10L, "Checking", portfolio);
+        savings = newAccount(11L, "Savings", portfolio);
+
+        Category category = new Category();
+        category.setId(5L);
+        category.setName("Spesa");
+        category.setUser(user);
+
+        when(liquidityAccountService.getLiquidityAccountsByPortfolioId(1L)).thenReturn(List.of(checking, savings));
+        when(categoryService.findByUserId(1L)).thenReturn(List.of(category));
+        when(cashMovementRepository.saveAll(any())).thenAnswer(invocation -> {
+            for (CashMovement cashMovement : (List<CashMovement>) invocation.getArgument(0)) {
+                cashMovement.setId(++lastId);
+            }
+            return invocation.getArgument(0);
+        });
+    }
+
+    @Test
+    public void testImportCashMovements_AppliesTheDeltasOfEachAccountTogether() {
+        // Given
+        List<CashMovementDto> rows = List.of(
+                row("Checking", "100.00", CashMovementType.INCOME),
+                row("Checking", "30.00", CashMovementType.OUTCOME),
+                row("Savings", "12.50", CashMovementType.INCOME)
+        );
+
+        // When
+        CashMovementImportResultDto result = cashMovementImportService.importCashMovements(principal, rows.iterator());
+
+        // Then
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getAccountsUpdated());
+        verify(liquidityAccountService, times(1)).applyBalanceDeltas(eq(Map.of(
+                10L, Map.of(1L, new BigDecimal("100.00"), 2L, new BigDecimal("-30.00")),
+                11L, Map.of(3L, new BigDecimal("12.50"))
+        )), eq(Map.of(
+                10L, Instant.parse("2025-01-01T10:00:00Z"),
+                11L, Instant.parse("2025-01-01T10:00:00Z")
+        )));
+        verify(liquidityAccountService, times(1)).getLiquidityAccountsByPortfolioId(1L);
+        verify(categoryService, times(1)).findByUserId(1L);
+        verify(liquidityAccountService, never()).getLiquidityAccountByPortfolioIdAndName(any(), any());
+    }
+
+    @Test
+    public void testImportCashMovements_OffsettingMovements_StillUpdateTheAccount() {
+        // Given
+        List<CashMovementDto> rows = List.of(
+                row("Checking", "40.00", CashMovementType.INCOME),
+                row("Checking", "40.00", CashMovementType.OUTCOME)
+        );
+
+        // When
+        CashMovementImportResultDto result = cashMovementImportService.importCashMovements(principal, rows.iterator());
+
+        // Then - both movements are recorded in the ledger although the balance doesn't change
+        assertEquals(1, result.getAccountsUpdated());
+        verify(liquidityAccountService).applyBalanceDeltas(eq(Map.of(
+                10L, Map.of(1L, new BigDecimal("40.00"), 2L, new BigDecimal("-40.00"))
+        )), anyMap());
+    }
+
+    @Test
+    public void testImportCashMovements_AppliesOneRollupDeltaPerCategoryAndMonth() {
+        // Given
+        List<CashMovementDto> rows = List.of(
+                row("Checking", "100.00", CashMovementType.INCOME),
+                row("Checking", "30.00", CashMovementType.OUTCOME),
+                row("Savings", "12.50", CashMovementType.OUTCOME)
+        );
+
+        // When
+        cashMovementImportService.importCashMovements(principal, rows.iterator());
+
+        // Then
+        LocalDate january = LocalDate.parse("2025-01-01");
+        verify(categoryRollupService, times(1)).applyDeltas(1L, Map.of(
+                new CategoryMonthKey(5L, january, CashMovementType.INCOME), new CategoryRollupDelta(new BigDecimal("100.00"), 1),
+                new CategoryMonthKey(5L, january, CashMovementType.OUTCOME), new CategoryRollupDelta(new BigDecimal("42.50"), 2)
+        ));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportCashMovements_FlushesInBatches() {
+        // Given
+        int total = CashMovementImportService.BATCH_SIZE * 2 + 7;
+        List<CashMovementDto> rows = new ArrayList<>(Collections.nCopies(total, row("Checking", "1.00", CashMovementType.OUTCOME)));
+        ArgumentCaptor<List<CashMovement>> batches = ArgumentCaptor.forClass(List.class);
+        List<Integer> batchSizes = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<CashMovement> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            batch.forEach(cashMovement -> cashMovement.setId(++lastId));
+            return batch;
+        }).when(cashMovementRepository).saveAll(batches.capture());
+
+        // When
+        CashMovementImportResultDto result = cashMovementImportService.importCashMovements(principal, rows.iterator());
+
+        // Then
+        assertEquals(total, result.getImported());
+        assertEquals(List.of(CashMovementImportService.BATCH_SIZE, CashMovementImportService.BATCH_SIZE, 7), batchSizes);
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+        ArgumentCaptor<Map<Long, Map<Long, BigDecimal>>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(liquidityAccountService).applyBalanceDeltas(deltas.capture(), anyMap());
+        assertEquals(total, deltas.getValue().get(10L).size());
+    }
+
+    @Test
+    public void testImportCashMovements_EmptyInput_ImportsNothing() {
+        // When
+        CashMovementImportResultDto result = cashMovementImportService.importCashMovements(
+                principal, Collections.<CashMovementDto>emptyIterator());
+
+        // Then
+        assertEquals(0, result.getImported());
+        assertEquals(0, result.getAccountsUpdated());
+        verify(cashMovementRepository, never()).saveAll(any());
+        verify(liquidityAccountService).applyBalanceDeltas(Map.of(), Map.of());
+    }
+
+    @Test
+    public void testImportCashMovements_UnknownAccount_ThrowsNotFound() {
+        // Given
+        List<CashMovementDto> rows = List.of(
+                row("Checking", "1.00", CashMovementType.INCOME),
+                row("Unknown", "1.00", CashMovementType.INCOME)
+        );
+
+        // When & Then
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> cashMovementImportService.importCashMovements(principal, rows.iterator()));
+        assertEquals("Row 2: Liquidity Account Not Found", exception.getMessage());
+        verify(liquidityAccountService, never()).applyBalanceDeltas(anyMap(), anyMap());
+    }
+
+    @Test
+    public void testImportCashMovements_UnknownCategory_ThrowsNotFound() {
+        // Given
+        CashMovementDto dto = row("Checking", "1.00", CashMovementType.INCOME);
+        dto.setCategoryId(99L);
+
+        // When & Then
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> cashMovementImportService.importCashMovements(principal, List.of(dto).iterator()));
+        assertEquals("Row 1: Category Not Found", exception.getMessage());
+    }
+
+    @Test
+    public void testImportCashMovements_InvalidRow_ThrowsIllegalArgument() {
+        // Given
+        CashMovementDto dto = row("Checking", "1.00", CashMovementType.INCOME);
+        dto.setAmount(null);
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> cashMovementImportService.importCashMovements(principal, List.of(dto).iterator()));
+        assertTrue(exception.getMessage().startsWith("Row 1: amount"));
+        verify(cashMovementRepository, never()).saveAll(any());
+    }
+
+    private static LiquidityAccount newAccount(Long id, String name, Portfolio portfolio) {
+        LiquidityAccount account = new LiquidityAccount();
+        account.setId(id);
+        account.setName(name);
+        account.setInstitution("Bank");
+        account.setBalance(new BigDecimal("1000.00"));
+        account.setCurrency(Currency.EUR);
+        account.setPortfolio(portfolio);
+        return account;
+    }
+
+    private static CashMovementDto row(String accountName, String amount, CashMovementType type) {
+        CashMovementDto dto = new CashMovementDto();
+        dto.setDate(Instant.parse("2025-01-01T10:00:00Z"));
+        dto.setAmount(new BigDecimal(amount));
+        dto.setType(type);
+        dto.setLiquidityAccountName(accountName);
+        dto.setCategoryId(5L);
+        return dto;
+    }
+}
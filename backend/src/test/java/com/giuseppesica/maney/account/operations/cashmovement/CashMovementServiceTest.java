@@ -2,7 +2,12 @@ package com.giuseppesica.maney.account.operations.cashmovement;
 
 import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
 import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovement;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementCursor;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementFilter;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementPageDto;
 import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementSpecifications;
 import com.giuseppesica.maney.account.operations.cashmovement.service.CashMovementService;
 import com.giuseppesica.maney.category.model.Category;
 import com.giuseppesica.maney.portfolio.model.Portfolio;
@@ -14,6 +19,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -22,6 +28,8 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -211,16 +219,16 @@ public class CashMovementServiceTest {
         verify(cashMovementRepository, times(1)).save(movementWithoutCategory);
     }
 
-    // ==================== GET CASH MOVEMENT BY ID AND USER ID TESTS ====================
+    // ==================== GET CASH MOVEMENT BY ID AND PORTFOLIO ID TESTS ====================
 
     @Test
-    public void testGetCashMovementByIdAndUserId_Success_ReturnsMovement() {
+    public void testGetCashMovementByIdAndPortfolioId_Success_ReturnsMovement() {
         // Given
         when(cashMovementRepository.findByIdAndPortfolioId(1L, 1L))
                 .thenReturn(Optional.of(cashMovement));
 
         // When
-        Optional<CashMovement> result = cashMovementService.getCashMovementByIdAndUserId(1L, user);
+        Optional<CashMovement> result = cashMovementService.getCashMovementByIdAndPortfolioId(1L, user.getPortfolio().getId());
 
         // Then
         assertTrue(result.isPresent());
@@ -231,13 +239,13 @@ public class CashMovementServiceTest {
     }
 
     @Test
-    public void testGetCashMovementByIdAndUserId_NotFound_ReturnsEmpty() {
+    public void testGetCashMovementByIdAndPortfolioId_NotFound_ReturnsEmpty() {
         // Given
         when(cashMovementRepository.findByIdAndPortfolioId(999L, 1L))
                 .thenReturn(Optional.empty());
 
         // When
-        Optional<CashMovement> result = cashMovementService.getCashMovementByIdAndUserId(999L, user);
+        Optional<CashMovement> result = cashMovementService.getCashMovementByIdAndPortfolioId(999L, user.getPortfolio().getId());
 
         // Then
         assertFalse(result.isPresent());
@@ -245,7 +253,7 @@ public class CashMovementServiceTest {
     }
 
     @Test
-    public void testGetCashMovementByIdAndUserId_WrongPortfolio_ReturnsEmpty() {
+    public void testGetCashMovementByIdAndPortfolioId_WrongPortfolio_ReturnsEmpty() {
         // Given
         User anotherUser = new User();
         anotherUser.setId(2L);
@@ -257,7 +265,7 @@ public class CashMovementServiceTest {
                 .thenReturn(Optional.empty());
 
         // When
-        Optional<CashMovement> result = cashMovementService.getCashMovementByIdAndUserId(1L, anotherUser);
+        Optional<CashMovement> result = cashMovementService.getCashMovementByIdAndPortfolioId(1L, anotherUser.getPortfolio().getId());
 
         // Then
         assertFalse(result.isPresent());
@@ -397,7 +405,7 @@ public class CashMovementServiceTest {
     }
 
     @Test
-    public void testGetCashMovementByIdAndUserId_DifferentPortfolio_ReturnsEmpty() {
+    public void testGetCashMovementByIdAndPortfolioId_DifferentPortfolio_ReturnsEmpty() {
         // Given - User from different portfolio
         Portfolio otherPortfolio = new Portfolio();
         otherPortfolio.setId(2L);
@@ -409,7 +417,7 @@ public class CashMovementServiceTest {
                 .thenReturn(Optional.empty());
 
         // When
-        Optional<CashMovement> result = cashMovementService.getCashMovementByIdAndUserId(1L, otherUser);
+        Optional<CashMovement> result = cashMovementService.getCashMovementByIdAndPortfolioId(1L, otherUser.getPortfolio().getId());
 
         // Then - Movement not found because it belongs to different portfolio
         assertFalse(result.isPresent());
@@ -445,5 +453,80 @@ public class CashMovementServiceTest {
         verify(cashMovementRepository, times(1)).findByPortfolioId(1L);
         verify(cashMovementRepository, times(1)).findByPortfolioId(2L);
     }
-}
 
+    // ==================== KEYSET PAGINATION TESTS ====================
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetCashMovementPage_MoreRowsThanLimit_ReturnsNextCursor() {
+        // Given - Repository returns limit + 1 rows, signalling a following page
+        CashMovement movement2 = new CashMovement();
+        movement2.setId(2L);
+        movement2.setDate(Instant.parse("2024-12-31T10:00:00Z"));
+        movement2.setAmount(new BigDecimal("100.00"));
+        movement2.setType(CashMovementType.OUTCOME);
+        movement2.setLiquidityAccount(liquidityAccount);
+
+        when(cashMovementRepository.findDtos(any(Specification.class), eq(CashMovementSpecifications.KEYSET_SORT), eq(2)))
+                .thenReturn(List.of(new CashMovementDto(cashMovement), new CashMovementDto(movement2)));
+
+        // When
+        CashMovementPageDto page = cashMovementService.getCashMovementPage(portfolio.getId(), CashMovementFilter.none(), null, 1);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertEquals(1L, page.getItems().get(0).getId());
+        assertNotNull(page.getNextCursor());
+        CashMovementCursor cursor = CashMovementCursor.decode(page.getNextCursor());
+        assertEquals(cashMovement.getDate(), cursor.date());
+        assertEquals(1L, cursor.id());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetCashMovementPage_LastPage_ReturnsNullCursor() {
+        // Given
+        when(cashMovementRepository.findDtos(any(Specification.class), eq(CashMovementSpecifications.KEYSET_SORT), eq(51)))
+                .thenReturn(List.of(new CashMovementDto(cashMovement)));
+
+        // When
+        String cursor = new CashMovementCursor(Instant.parse("2025-02-01T00:00:00Z"), 10L).encode();
+        CashMovementPageDto page = cashMovementService.getCashMovementPage(portfolio.getId(), CashMovementFilter.none(), cursor, 50);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testGetCashMovementPage_InvalidCursor_ThrowsException() {
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> cashMovementService.getCashMovementPage(portfolio.getId(), CashMovementFilter.none(), "not-a-cursor", 50));
+        assertEquals("Invalid cursor", exception.getMessage());
+        verifyNoInteractions(cashMovementRepository);
+    }
+
+    @Test
+    public void testGetCashMovementPage_LimitOutOfRange_ThrowsException() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> cashMovementService.getCashMovementPage(portfolio.getId(), CashMovementFilter.none(), null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> cashMovementService.getCashMovementPage(portfolio.getId(), CashMovementFilter.none(), null,
+                        CashMovementService.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(cashMovementRepository);
+    }
+
+    @Test
+    public void testCashMovementCursor_EncodeDecode_RoundTrips() {
+        // Given
+        CashMovementCursor cursor = new CashMovementCursor(Instant.parse("2025-01-01T10:00:00.123456Z"), 42L);
+
+        // When
+        CashMovementCursor decoded = CashMovementCursor.decode(cursor.encode());
+
+        // Then
+        assertEquals(cursor, decoded);
+    }
+}
@@ -0,0 +1,253 @@
+package com.giuseppesica.maney.account.operations.cashmovement;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.control.CashMovementControl;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryMonthKey;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryMonthlyTotalDto;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CategoryRollupDelta;
+import com.giuseppesica.maney.account.operations.cashmovement.service.CashMovementImportService;
+import com.giuseppesica.maney.account.operations.cashmovement.service.CategoryRollupService;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.model.CategoryRepository;
+import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
+import com.giuseppesica.maney.user.model.User;
+import com.giuseppesica.maney.user.model.UserRepository;
+import com.giuseppesica.maney.utils.CashMovementType;
+import com.giuseppesica.maney.utils.CategoryType;
+import com.giuseppesica.maney.utils.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for CategoryRollupService.
+ * Writes movements through the real controller and import service and checks that the
+ * monthly category totals follow every create, update, delete and import.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:categoryrollup",
+        "maney.balance-checkpoints.cron=-"
+})
+public class CategoryRollupServiceTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2024, 1);
+    private static final YearMonth FEBRUARY = YearMonth.of(2024, 2);
+
+    @Autowired
+    private CategoryRollupService categoryRollupService;
+
+    @Autowired
+    private CashMovementControl cashMovementControl;
+
+    @Autowired
+    private CashMovementImportService cashMovementImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LiquidityAccountRepository liquidityAccountRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Authentication authentication;
+    private AuthenticatedPrincipal principal;
+    private Long portfolioId;
+    private Long food;
+    private Long salary;
+    private Long lateJanuaryGroceries;
+    private Long februaryGroceries;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setUsername("rollup");
+        user.setEmail("rollup-" + System.nanoTime() + "@example.com");
+        user.setPasswordHash("hash");
+        user.setPortfolio(new Portfolio());
+        user = userRepository.save(user);
+        portfolioId = user.getPortfolio().getId();
+
+        food = categoryRepository.save(newCategory("Food", user)).getId();
+        salary = categoryRepository.save(newCategory("Salary", user)).getId();
+
+        LiquidityAccount checking = new LiquidityAccount();
+        checking.setName("Checking");
+        checking.setInstitution("Bank");
+        checking.setBalance(new BigDecimal("1000.00"));
+        checking.setCurrency(Currency.EUR);
+        checking.setPortfolio(user.getPortfolio());
+        liquidityAccountRepository.save(checking);
+
+        authentication = new UsernamePasswordAuthenticationToken(
+                user.getEmail(), null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        principal = new AuthenticatedPrincipal(user.getId(), portfolioId, user.getEmail());
+
+        create("2024-01-10T10:00:00Z", "30.00", CashMovementType.OUTCOME, food);
+        lateJanuaryGroceries = create("2024-01-31T23:30:00Z", "20.00", CashMovementType.OUTCOME, food);
+        create("2024-01-25T09:00:00Z", "1000.00", CashMovementType.INCOME, salary);
+        februaryGroceries = create("2024-02-05T10:00:00Z", "15.00", CashMovementType.OUTCOME, food);
+    }
+
+    @Test
+    public void testCreate_AddsToMonthlyTotals() {
+        List<CategoryMonthlyTotalDto> totals = categoryRollupService.getMonthlyTotals(portfolioId, JANUARY, FEBRUARY, null);
+
+        assertEquals(3, totals.size());
+        assertTotal(totals, JANUARY, food, CashMovementType.OUTCOME, "50.00", 2);
+        assertTotal(totals, JANUARY, salary, CashMovementType.INCOME, "1000.00", 1);
+        assertTotal(totals, FEBRUARY, food, CashMovementType.OUTCOME, "15.00", 1);
+        assertEquals(List.of(JANUARY, JANUARY, FEBRUARY), totals.stream().map(CategoryMonthlyTotalDto::getMonth).toList());
+    }
+
+    @Test
+    public void testGetMonthlyTotals_FiltersByTypeAndMonth() {
+        List<CategoryMonthlyTotalDto> outcomes = categoryRollupService.getMonthlyTotals(
+                portfolioId, FEBRUARY, FEBRUARY, CashMovementType.OUTCOME);
+        List<CategoryMonthlyTotalDto> incomes = categoryRollupService.getMonthlyTotals(
+                portfolioId, JANUARY, FEBRUARY, CashMovementType.INCOME);
+
+        assertEquals(1, outcomes.size());
+        assertTotal(outcomes, FEBRUARY, food, CashMovementType.OUTCOME, "15.00", 1);
+        assertEquals(1, incomes.size());
+        assertTotal(incomes, JANUARY, salary, CashMovementType.INCOME, "1000.00", 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> categoryRollupService.getMonthlyTotals(portfolioId, FEBRUARY, JANUARY, null));
+    }
+
+    @Test
+    public void testUpdate_MovesAmountBetweenMonths() {
+        cashMovementControl.updateCashMovement(authentication, lateJanuaryGroceries,
+                movement("2024-02-01T00:30:00Z", "25.00", CashMovementType.OUTCOME, food));
+
+        List<CategoryMonthlyTotalDto> totals = categoryRollupService.getMonthlyTotals(portfolioId, JANUARY, FEBRUARY, null);
+        assertTotal(totals, JANUARY, food, CashMovementType.OUTCOME, "30.00", 1);
+        assertTotal(totals, FEBRUARY, food, CashMovementType.OUTCOME, "40.00", 2);
+    }
+
+    @Test
+    public void testDelete_RemovesEmptyRows() {
+        cashMovementControl.deleteCashMovement(authentication, februaryGroceries);
+
+        List<CategoryMonthlyTotalDto> totals = categoryRollupService.getMonthlyTotals(portfolioId, JANUARY, FEBRUARY, null);
+        assertEquals(2, totals.size());
+        assertTrue(find(totals, FEBRUARY, food, CashMovementType.OUTCOME).isEmpty());
+    }
+
+    @Test
+    public void testApplyDeltas_UncategorizedSharesOneRowPerMonth() {
+        CategoryMonthKey uncategorized = CategoryMonthKey.of(null, Instant.parse("2024-01-12T10:00:00Z"),
+                CashMovementType.OUTCOME);
+
+        categoryRollupService.applyDeltas(portfolioId, Map.of(uncategorized, CategoryRollupDelta.added(new BigDecimal("4.00"))));
+        categoryRollupService.applyDeltas(portfolioId, Map.of(uncategorized, CategoryRollupDelta.added(new BigDecimal("6.00"))));
+        assertTotal(categoryRollupService.getMonthlyTotals(portfolioId, JANUARY, JANUARY, null),
+                JANUARY, null, CashMovementType.OUTCOME, "10.00", 2);
+
+        categoryRollupService.applyDeltas(portfolioId, Map.of(uncategorized, CategoryRollupDelta.removed(new BigDecimal("4.00"))));
+        assertTotal(categoryRollupService.getMonthlyTotals(portfolioId, JANUARY, JANUARY, null),
+                JANUARY, null, CashMovementType.OUTCOME, "6.00", 1);
+
+        categoryRollupService.applyDeltas(portfolioId, Map.of(uncategorized, CategoryRollupDelta.removed(new BigDecimal("6.00"))));
+        List<CategoryMonthlyTotalDto> totals = categoryRollupService.getMonthlyTotals(portfolioId, JANUARY, JANUARY, null);
+        assertEquals(2, totals.size());
+        assertTrue(find(totals, JANUARY, null, CashMovementType.OUTCOME).isEmpty());
+    }
+
+    @Test
+    public void testImport_AddsToMonthlyTotals() {
+        cashMovementImportService.importCashMovements(principal, List.of(
+                movement("2024-02-10T10:00:00Z", "5.00", CashMovementType.OUTCOME, food),
+                movement("2024-02-11T10:00:00Z", "7.50", CashMovementType.OUTCOME, food),
+                movement("2024-02-25T10:00:00Z", "1000.00", CashMovementType.INCOME, salary)
+        ).iterator());
+
+        List<CategoryMonthlyTotalDto> totals = categoryRollupService.getMonthlyTotals(portfolioId, FEBRUARY, FEBRUARY, null);
+        assertTotal(totals, FEBRUARY, food, CashMovementType.OUTCOME, "27.50", 3);
+        assertTotal(totals, FEBRUARY, salary, CashMovementType.INCOME, "1000.00", 1);
+    }
+
+    @Test
+    public void testRebuild_MatchesIncrementalTotals() {
+        cashMovementControl.updateCashMovement(authentication, lateJanuaryGroceries,
+                movement("2024-02-01T00:30:00Z", "25.00", CashMovementType.OUTCOME, food));
+        cashMovementControl.deleteCashMovement(authentication, februaryGroceries);
+        List<CategoryMonthlyTotalDto> incremental = categoryRollupService.getMonthlyTotals(portfolioId, JANUARY, FEBRUARY, null);
+
+        assertEquals(incremental.size(), categoryRollupService.rebuild(portfolioId));
+
+        List<CategoryMonthlyTotalDto> rebuilt = categoryRollupService.getMonthlyTotals(portfolioId, JANUARY, FEBRUARY, null);
+        assertEquals(incremental.size(), rebuilt.size());
+        for (CategoryMonthlyTotalDto expected : incremental) {
+            assertTotal(rebuilt, expected.getMonth(), expected.getCategoryId(), expected.getType(),
+                    expected.getTotal().toPlainString(), expected.getCount());
+        }
+    }
+
+    private Long create(String date, String amount, CashMovementType type, Long categoryId) {
+        CashMovementDto created = cashMovementControl
+                .createCashMovement(authentication, null, movement(date, amount, type, categoryId))
+                .getBody();
+        assertNotNull(created);
+        return created.getId();
+    }
+
+    private static void assertTotal(List<CategoryMonthlyTotalDto> totals, YearMonth month, Long categoryId,
+                                    CashMovementType type, String expected, long count) {
+        CategoryMonthlyTotalDto total = find(totals, month, categoryId, type)
+                .orElseThrow(() -> new AssertionError("no total for " + month + ", category " + categoryId + ", " + type));
+        assertEquals(0, new BigDecimal(expected).compareTo(total.getTotal()),
+                "total for " + month + " was " + total.getTotal());
+        assertEquals(count, total.getCount());
+    }
+
+    private static Optional<CategoryMonthlyTotalDto> find(List<CategoryMonthlyTotalDto> totals, YearMonth month,
+                                                          Long categoryId, CashMovementType type) {
+        return totals.stream()
+                .filter(total -> total.getMonth().equals(month)
+                        && Objects.equals(categoryId, total.getCategoryId())
+                        && total.getType() == type)
+                .findFirst();
+    }
+
+    private static Category newCategory(String name, User user) {
+        Category category = new Category();
+        category.setName(name);
+        category.setColor("#00FF00");
+        category.setType(CategoryType.BOTH);
+        category.setUser(user);
+        return category;
+    }
+
+    private static CashMovementDto movement(String date, String amount, CashMovementType type, Long categoryId) {
+        CashMovementDto dto = new CashMovementDto();
+        dto.setDate(Instant.parse(date));
+        dto.setAmount(new BigDecimal(amount));
+        dto.setType(type);
+        dto.setLiquidityAccountName("Checking");
+        dto.setCategoryId(categoryId);
+        return dto;
+    }
+}
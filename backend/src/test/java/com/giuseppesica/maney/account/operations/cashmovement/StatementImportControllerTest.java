@@ -0,0 +1,174 @@
+package com.giuseppesica.maney.account.operations.cashmovement;
+
+import com.giuseppesica.maney.account.operations.cashmovement.control.StatementImportController;
+import com.giuseppesica.maney.account.operations.cashmovement.importer.StatementFormat;
+import com.giuseppesica.maney.account.operations.cashmovement.model.StatementImportProgressDto;
+import com.giuseppesica.maney.account.operations.cashmovement.service.StatementImportService;
+import com.giuseppesica.maney.account.operations.cashmovement.service.StatementImportTracker;
+import com.giuseppesica.maney.config.SecurityConfig;
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
+import com.giuseppesica.maney.security.AuthenticationHelper;
+import com.giuseppesica.maney.security.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StatementImportController.class)
+@Import(SecurityConfig.class)
+class StatementImportControllerTest {
+
+    private static final String BASE_URL = "/user/portfolio/liquidity-accounts/cash-movements/statements";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private StatementImportService statementImportService;
+
+    @MockitoBean
+    private StatementImportTracker statementImportTracker;
+
+    @MockitoBean
+    private AuthenticationHelper authenticationHelper;
+
+    private AuthenticatedPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        principal = new AuthenticatedPrincipal(42L, 1L, "user@example.com");
+
+        when(authenticationHelper.getAuthenticatedPrincipal(any(Authentication.class))).thenReturn(principal);
+        when(authenticationHelper.getAuthenticatedUserId(any(Authentication.class))).thenReturn(principal.userId());
+    }
+
+    @Test
+    @WithMockUser
+    void testImportStatement_Success() throws Exception {
+        String csv = "Date,Amount\n2024-12-01,-1.50\n";
+        when(statementImportService.importStatement(eq(principal), eq(10L), isNull(), eq(StatementFormat.CSV),
+                any(InputStream.class), eq((long) csv.length()), eq("dec-2024")))
+                .thenReturn(new StatementImportProgressDto("dec-2024", csv.length(), csv.length(), 1, 1, 0, true));
+
+        mockMvc.perform(post(BASE_URL).with(csrf())
+                        .param("accountId", "10")
+                        .param("format", "CSV")
+                        .param("importId", "dec-2024")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importId").value("dec-2024"))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.done").value(true));
+    }
+
+    @Test
+    @WithMockUser
+    void testImportStatement_WithoutImportId_GeneratesOne() throws Exception {
+        when(statementImportService.importStatement(any(), any(), any(), any(), any(), anyLong(), anyString()))
+                .thenReturn(new StatementImportProgressDto("generated", 0, 0, 0, 0, 0, true));
+
+        mockMvc.perform(post(BASE_URL).with(csrf())
+                        .param("accountId", "10")
+                        .param("format", "QIF")
+                        .content("!Type:Bank\n"))
+                .andExpect(status().isOk());
+
+        verify(statementImportService).importStatement(eq(principal), eq(10L), isNull(), eq(StatementFormat.QIF),
+                any(InputStream.class), anyLong(), argThat(id -> id != null && !id.isBlank()));
+    }
+
+    @Test
+    @WithMockUser
+    void testImportStatement_UnknownFormat_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post(BASE_URL).with(csrf())
+                        .param("accountId", "10")
+                        .param("format", "XLS")
+                        .content("whatever"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(statementImportService);
+    }
+
+    @Test
+    @WithMockUser
+    void testImportStatement_MissingAccount_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post(BASE_URL).with(csrf())
+                        .param("format", "CSV")
+                        .content("Date,Amount\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void testImportStatement_MalformedStatement_ReturnsBadRequest() throws Exception {
+        when(statementImportService.importStatement(any(), any(), any(), any(), any(), anyLong(), anyString()))
+                .thenThrow(new IllegalArgumentException("CSV line 2: invalid amount 'abc'"));
+
+        mockMvc.perform(post(BASE_URL).with(csrf())
+                        .param("accountId", "10")
+                        .param("format", "CSV")
+                        .content("Date,Amount\n2024-12-01,abc\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void testImportStatement_AccountNotFound_ReturnsNotFound() throws Exception {
+        when(statementImportService.importStatement(any(), any(), any(), any(), any(), anyLong(), anyString()))
+                .thenThrow(new NotFoundException("Liquidity Account Not Found"));
+
+        mockMvc.perform(post(BASE_URL).with(csrf())
+                        .param("accountId", "99")
+                        .param("format", "OFX")
+                        .content("<OFX></OFX>"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetImportProgress_Running_ReturnsProgress() throws Exception {
+        when(statementImportTracker.get(42L, "dec-2024"))
+                .thenReturn(Optional.of(new StatementImportProgressDto("dec-2024", 2048, 8192, 40, 30, 10, false)));
+
+        mockMvc.perform(get(BASE_URL + "/dec-2024").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bytesRead").value(2048))
+                .andExpect(jsonPath("$.totalBytes").value(8192))
+                .andExpect(jsonPath("$.skipped").value(10))
+                .andExpect(jsonPath("$.done").value(false));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetImportProgress_Unknown_ReturnsNotFound() throws Exception {
+        when(statementImportTracker.get(42L, "nope")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get(BASE_URL + "/nope").with(csrf()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testImportStatement_Unauthenticated() throws Exception {
+        mockMvc.perform(post(BASE_URL).with(csrf())
+                        .param("accountId", "10")
+                        .param("format", "CSV")
+                        .content("Date,Amount\n"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,236 @@
+package com.giuseppesica.maney.account.operations.cashmovement;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
+import com.giuseppesica.maney.account.operations.cashmovement.importer.StatementFingerprinter;
+import com.giuseppesica.maney.account.operations.cashmovement.importer.StatementFormat;
+import com.giuseppesica.maney.account.operations.cashmovement.importer.StatementLine;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovement;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.model.StatementImportProgressDto;
+import com.giuseppesica.maney.account.operations.cashmovement.service.CategoryRollupService;
+import com.giuseppesica.maney.account.operations.cashmovement.service.StatementImportService;
+import com.giuseppesica.maney.account.operations.cashmovement.service.StatementImportTracker;
+import com.giuseppesica.maney.category.service.CategoryService;
+import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
+import com.giuseppesica.maney.security.NotFoundException;
+import com.giuseppesica.maney.utils.CashMovementType;
+import com.giuseppesica.maney.utils.Currency;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StatementImportService.
+ * Tests chunked commits, deduplication, progress publication and resumable failures.
+ */
+public class StatementImportServiceTest {
+
+    @Mock
+    private CashMovementRepository cashMovementRepository;
+
+    @Mock
+    private LiquidityAccountService liquidityAccountService;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private CategoryRollupService categoryRollupService;
+
+    @Mock
+    private StatementImportTracker statementImportTracker;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StatementImportService statementImportService;
+
+    private AuthenticatedPrincipal principal;
+    private LiquidityAccount account;
+    private List<CashMovement> saved;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        statementImportService = new StatementImportService(cashMovementRepository, liquidityAccountService,
+                categoryService, categoryRollupService, statementImportTracker, entityManager, transactionManager);
+
+        Portfolio portfolio = new Portfolio();
+        portfolio.setId(1L);
+
+        principal = new AuthenticatedPrincipal(1L, 1L, "test@example.com");
+
+        account = new LiquidityAccount();
+        account.setId(10L);
+        account.setName("Checking");
+        account.setBalance(new BigDecimal("1000.00"));
+        account.setCurrency(Currency.EUR);
+        account.setPortfolio(portfolio);
+
+        saved = new ArrayList<>();
+        when(liquidityAccountService.getLiquidityAccountById(10L)).thenReturn(Optional.of(account));
+        when(cashMovementRepository.findExistingFingerprints(anyLong(), anyCollection())).thenReturn(Set.of());
+        when(cashMovementRepository.saveAll(any())).thenAnswer(invocation -> {
+            for (CashMovement cashMovement : (List<CashMovement>) invocation.getArgument(0)) {
+                cashMovement.setId(saved.size() + 1L);
+                saved.add(cashMovement);
+            }
+            return invocation.getArgument(0);
+        });
+    }
+
+    @Test
+    public void testImportStatement_CreatesMovementsAndAppliesTheirDeltas() {
+        // Given
+        String csv = "Date,Description,Amount\n2024-12-01,Salary,2500.00\n2024-12-02,Rent,-800.00\n";
+
+        // When
+        StatementImportProgressDto result = statementImportService.importStatement(
+                principal, 10L, null, StatementFormat.CSV, stream(csv), csv.length(), "import-1");
+
+        // Then
+        assertTrue(result.isDone());
+        assertEquals(2, result.getLinesRead());
+        assertEquals(2, result.getImported());
+        assertEquals(0, result.getSkipped());
+        assertEquals(csv.length(), result.getBytesRead());
+
+        assertEquals(2, saved.size());
+        assertEquals(CashMovementType.INCOME, saved.get(0).getType());
+        assertEquals(new BigDecimal("2500.00"), saved.get(0).getAmount());
+        assertEquals(CashMovementType.OUTCOME, saved.get(1).getType());
+        assertEquals(new BigDecimal("800.00"), saved.get(1).getAmount());
+        assertEquals("Rent", saved.get(1).getNote());
+        assertNotNull(saved.get(1).getFingerprint());
+        verify(liquidityAccountService).applyBalanceDeltas(
+                Map.of(10L, Map.of(1L, new BigDecimal("2500.00"), 2L, new BigDecimal("-800.00"))),
+                Map.of(10L, Instant.parse("2024-12-01T00:00:00Z")));
+        verify(statementImportTracker).remove(1L, "import-1");
+    }
+
+    @Test
+    public void testImportStatement_AlreadyImportedLines_AreSkipped() {
+        // Given - the salary line was imported by a previous upload
+        String csv = "Date,Description,Amount\n2024-12-01,Salary,2500.00\n2024-12-02,Rent,-800.00\n";
+        String salaryFingerprint = new StatementFingerprinter().fingerprint(new StatementLine(
+                1, Instant.parse("2024-12-01T00:00:00Z"), new BigDecimal("2500.00"), "Salary"));
+        when(cashMovementRepository.findExistingFingerprints(eq(10L), anyCollection()))
+                .thenReturn(Set.of(salaryFingerprint));
+
+        // When
+        StatementImportProgressDto result = statementImportService.importStatement(
+                principal, 10L, null, StatementFormat.CSV, stream(csv), -1, "import-1");
+
+        // Then
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getSkipped());
+        assertEquals(1, saved.size());
+        assertEquals("Rent", saved.get(0).getNote());
+        verify(liquidityAccountService).applyBalanceDeltas(
+                Map.of(10L, Map.of(1L, new BigDecimal("-800.00"))),
+                Map.of(10L, Instant.parse("2024-12-02T00:00:00Z")));
+    }
+
+    @Test
+    public void testImportStatement_CommitsInChunksAndPublishesProgress() {
+        // Given
+        int total = StatementImportService.CHUNK_SIZE * 2 + 3;
+        StringBuilder csv = new StringBuilder("Date,Amount\n");
+        for (int i = 0; i < total; i++) {
+            csv.append("2024-12-01,-1.00\n");
+        }
+
+        // When
+        StatementImportProgressDto result = statementImportService.importStatement(
+                principal, 10L, null, StatementFormat.CSV, stream(csv.toString()), -1, "import-1");
+
+        // Then
+        assertEquals(total, result.getImported());
+        verify(transactionManager, times(3)).commit(any());
+        verify(entityManager, times(3)).clear();
+        ArgumentCaptor<Map<Long, Map<Long, BigDecimal>>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(liquidityAccountService, times(3)).applyBalanceDeltas(deltas.capture(), anyMap());
+        assertEquals(List.of(500, 500, 3),
+                deltas.getAllValues().stream().map(chunk -> chunk.get(10L).size()).toList());
+
+        ArgumentCaptor<StatementImportProgressDto> progress = ArgumentCaptor.forClass(StatementImportProgressDto.class);
+        verify(statementImportTracker, times(4)).update(eq(1L), progress.capture());
+        assertEquals(List.of(0L, 500L, 1000L, (long) total),
+                progress.getAllValues().stream().map(StatementImportProgressDto::getImported).toList());
+    }
+
+    @Test
+    public void testImportStatement_MalformedLineAfterCommittedChunk_KeepsCommittedWork() {
+        // Given
+        StringBuilder csv = new StringBuilder("Date,Amount\n");
+        for (int i = 0; i < StatementImportService.CHUNK_SIZE; i++) {
+            csv.append("2024-12-01,-1.00\n");
+        }
+        csv.append("2024-12-02,oops\n");
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> statementImportService.importStatement(
+                        principal, 10L, null, StatementFormat.CSV, stream(csv.toString()), -1, "import-1"));
+        assertTrue(exception.getMessage().startsWith("CSV line 502: invalid amount 'oops'"));
+        assertTrue(exception.getMessage().contains("500 lines were imported before the error"));
+        verify(transactionManager, times(1)).commit(any());
+        verify(statementImportTracker).remove(1L, "import-1");
+    }
+
+    @Test
+    public void testImportStatement_AccountOfAnotherPortfolio_ThrowsNotFound() {
+        // Given
+        Portfolio other = new Portfolio();
+        other.setId(2L);
+        account.setPortfolio(other);
+
+        // When & Then
+        assertThrows(NotFoundException.class, () -> statementImportService.importStatement(
+                principal, 10L, null, StatementFormat.CSV, stream("Date,Amount\n"), -1, "import-1"));
+        verify(cashMovementRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void testImportStatement_UnknownCategory_ThrowsNotFound() {
+        // Given
+        when(categoryService.findReferenceByUserAndId(1L, 99L)).thenReturn(Optional.empty());
+
+        // When & Then
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> statementImportService.importStatement(
+                principal, 10L, 99L, StatementFormat.CSV, stream("Date,Amount\n"), -1, "import-1"));
+        assertEquals("Category Not Found", exception.getMessage());
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,230 @@
+package com.giuseppesica.maney.account.operations.cashmovement;
+
+import com.giuseppesica.maney.account.operations.cashmovement.importer.StatementFingerprinter;
+import com.giuseppesica.maney.account.operations.cashmovement.importer.StatementFormat;
+import com.giuseppesica.maney.account.operations.cashmovement.importer.StatementLine;
+import com.giuseppesica.maney.account.operations.cashmovement.importer.StatementReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CSV, OFX and QIF statement readers and the statement fingerprinter.
+ */
+public class StatementReaderTest {
+
+    // ==================== CSV TESTS ====================
+
+    @Test
+    public void testCsv_CommaSeparatedWithSignedAmount_ParsesLines() throws IOException {
+        String csv = """
+                Date,Description,Amount
+                2024-12-01,Salary,2500.00
+                2024-12-02,"Coffee, bar",-1.50
+                """;
+
+        List<StatementLine> lines = read(StatementFormat.CSV, csv);
+
+        assertEquals(2, lines.size());
+        assertEquals(Instant.parse("2024-12-01T00:00:00Z"), lines.get(0).date());
+        assertEquals(new BigDecimal("2500.00"), lines.get(0).amount());
+        assertEquals("Salary", lines.get(0).note());
+        assertEquals(new BigDecimal("-1.50"), lines.get(1).amount());
+        assertEquals("Coffee, bar", lines.get(1).note());
+    }
+
+    @Test
+    public void testCsv_SemicolonEuropeanFormatWithDebitCredit_ParsesLines() throws IOException {
+        String csv = "﻿Data operazione;Descrizione;Addebiti;Accrediti\n"
+                + "01/12/2024;Affitto;1.200,00;\n"
+                + "\n"
+                + "02.12.2024;\"Bonifico \"\"stipendio\"\"\nDicembre\";;2.345,67\n";
+
+        List<StatementLine> lines = read(StatementFormat.CSV, csv);
+
+        assertEquals(2, lines.size());
+        assertEquals(new BigDecimal("-1200.00"), lines.get(0).amount());
+        assertEquals(Instant.parse("2024-12-01T00:00:00Z"), lines.get(0).date());
+        assertEquals(new BigDecimal("2345.67"), lines.get(1).amount());
+        assertEquals("Bonifico \"stipendio\"\nDicembre", lines.get(1).note());
+    }
+
+    @Test
+    public void testCsv_MissingAmountColumn_ThrowsIllegalArgument() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> read(StatementFormat.CSV, "Date,Description\n2024-12-01,Salary\n"));
+        assertTrue(exception.getMessage().contains("no amount column"));
+    }
+
+    @Test
+    public void testCsv_InvalidAmount_ReportsLine() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> read(StatementFormat.CSV, "Date,Amount\n2024-12-01,10\n2024-12-02,abc\n"));
+        assertEquals("CSV line 3: invalid amount 'abc'", exception.getMessage());
+    }
+
+    // ==================== OFX TESTS ====================
+
+    @Test
+    public void testOfx_Sgml_ParsesTransactions() throws IOException {
+        String ofx = """
+                OFXHEADER:100
+                DATA:OFXSGML
+                VERSION:102
+
+                <OFX>
+                <BANKMSGSRSV1><STMTTRNRS><STMTRS>
+                <BANKTRANLIST>
+                <DTSTART>20241201
+                <STMTTRN>
+                <TRNTYPE>DEBIT
+                <DTPOSTED>20241201103000.000[-5:EST]
+                <TRNAMT>-42.50
+                <FITID>1
+                <NAME>GROCERY &amp; CO
+                <MEMO>Card 1234
+                </STMTTRN>
+                <STMTTRN>
+                <TRNTYPE>CREDIT
+                <DTPOSTED>20241202
+                <TRNAMT>1000.00
+                <FITID>2
+                <NAME>PAYROLL
+                </STMTTRN>
+                </BANKTRANLIST>
+                </STMTRS></STMTTRNRS></BANKMSGSRSV1>
+                </OFX>
+                """;
+
+        List<StatementLine> lines = read(StatementFormat.OFX, ofx);
+
+        assertEquals(2, lines.size());
+        assertEquals(Instant.parse("2024-12-01T15:30:00Z"), lines.get(0).date());
+        assertEquals(new BigDecimal("-42.50"), lines.get(0).amount());
+        assertEquals("GROCERY & CO - Card 1234", lines.get(0).note());
+        assertEquals(Instant.parse("2024-12-02T00:00:00Z"), lines.get(1).date());
+        assertEquals("PAYROLL", lines.get(1).note());
+    }
+
+    @Test
+    public void testOfx_Xml_ParsesTransactions() throws IOException {
+        String ofx = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <?OFX OFXHEADER="200" VERSION="211"?>
+                <OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>
+                <STMTTRN><TRNTYPE>DEBIT</TRNTYPE><DTPOSTED>20241203</DTPOSTED><TRNAMT>-9.99</TRNAMT><NAME>Streaming</NAME></STMTTRN>
+                </BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>
+                """;
+
+        List<StatementLine> lines = read(StatementFormat.OFX, ofx);
+
+        assertEquals(1, lines.size());
+        assertEquals(new BigDecimal("-9.99"), lines.get(0).amount());
+        assertEquals("Streaming", lines.get(0).note());
+    }
+
+    @Test
+    public void testOfx_TransactionWithoutAmount_ThrowsIllegalArgument() {
+        String ofx = "<OFX><STMTTRN><DTPOSTED>20241203</STMTTRN></OFX>";
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> read(StatementFormat.OFX, ofx));
+        assertTrue(exception.getMessage().contains("without DTPOSTED or TRNAMT"));
+    }
+
+    // ==================== QIF TESTS ====================
+
+    @Test
+    public void testQif_ParsesRecordsAndIgnoresSplits() throws IOException {
+        String qif = """
+                !Type:Bank
+                D12/1/2024
+                T-1,234.56
+                PLandlord
+                MRent
+                SHousing
+                $-1,234.56
+                ^
+                D12/02'24
+                U500.00
+                T500.00
+                PEmployer
+                ^
+                D03.12.2024
+                T-5
+                ^
+                """;
+
+        List<StatementLine> lines = read(StatementFormat.QIF, qif);
+
+        assertEquals(3, lines.size());
+        assertEquals(Instant.parse("2024-12-01T00:00:00Z"), lines.get(0).date());
+        assertEquals(new BigDecimal("-1234.56"), lines.get(0).amount());
+        assertEquals("Landlord - Rent", lines.get(0).note());
+        assertEquals(Instant.parse("2024-12-02T00:00:00Z"), lines.get(1).date());
+        assertEquals(new BigDecimal("500.00"), lines.get(1).amount());
+        assertEquals(Instant.parse("2024-12-03T00:00:00Z"), lines.get(2).date());
+        assertNull(lines.get(2).note());
+    }
+
+    @Test
+    public void testQif_RecordWithoutDate_ThrowsIllegalArgument() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> read(StatementFormat.QIF, "!Type:Bank\nT10.00\n^\n"));
+        assertTrue(exception.getMessage().startsWith("QIF line 2"));
+    }
+
+    // ==================== FINGERPRINT TESTS ====================
+
+    @Test
+    public void testFingerprint_IdenticalLinesSameDay_AreDistinctButStable() {
+        StatementLine coffee = new StatementLine(1, Instant.parse("2024-12-01T00:00:00Z"), new BigDecimal("-1.50"), "Coffee");
+
+        StatementFingerprinter first = new StatementFingerprinter();
+        String a = first.fingerprint(coffee);
+        String b = first.fingerprint(coffee);
+
+        StatementFingerprinter second = new StatementFingerprinter();
+        assertNotEquals(a, b);
+        assertEquals(a, second.fingerprint(coffee));
+        assertEquals(b, second.fingerprint(coffee));
+        assertEquals(64, a.length());
+    }
+
+    @Test
+    public void testFingerprint_IgnoresAmountScaleAndNoteWhitespace() {
+        StatementFingerprinter first = new StatementFingerprinter();
+        StatementFingerprinter second = new StatementFingerprinter();
+        Instant date = Instant.parse("2024-12-01T00:00:00Z");
+
+        assertEquals(
+                first.fingerprint(new StatementLine(1, date, new BigDecimal("-1.5"), "Coffee  Bar")),
+                second.fingerprint(new StatementLine(1, date, new BigDecimal("-1.50"), " coffee bar ")));
+    }
+
+    @Test
+    public void testFingerprint_DayNotContiguous_ThrowsIllegalArgument() {
+        StatementFingerprinter fingerprinter = new StatementFingerprinter();
+        fingerprinter.fingerprint(new StatementLine(1, Instant.parse("2024-12-01T00:00:00Z"), BigDecimal.ONE, null));
+        fingerprinter.fingerprint(new StatementLine(2, Instant.parse("2024-12-02T00:00:00Z"), BigDecimal.ONE, null));
+
+        assertThrows(IllegalArgumentException.class, () -> fingerprinter.fingerprint(
+                new StatementLine(3, Instant.parse("2024-12-01T00:00:00Z"), BigDecimal.ONE, null)));
+    }
+
+    private static List<StatementLine> read(StatementFormat format, String content) throws IOException {
+        List<StatementLine> lines = new ArrayList<>();
+        try (StatementReader reader = StatementReader.open(format,
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)))) {
+            reader.forEachRemaining(lines::add);
+        }
+        return lines;
+    }
+}
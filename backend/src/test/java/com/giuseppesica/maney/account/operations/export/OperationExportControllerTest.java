@@ -0,0 +1,98 @@
+package com.giuseppesica.maney.account.operations.export;
+
+import com.giuseppesica.maney.account.operations.export.controller.OperationExportController;
+import com.giuseppesica.maney.account.operations.export.model.OperationExportFormat;
+import com.giuseppesica.maney.account.operations.export.service.OperationExportService;
+import com.giuseppesica.maney.config.SecurityConfig;
+import com.giuseppesica.maney.security.AuthenticationHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(OperationExportController.class)
+@Import(SecurityConfig.class)
+class OperationExportControllerTest {
+
+    private static final String BASE_URL = "/user/portfolio/operations/export";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private OperationExportService operationExportService;
+
+    @MockitoBean
+    private AuthenticationHelper authenticationHelper;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(authenticationHelper.getAuthenticatedUserPortfolioId(any(Authentication.class))).thenReturn(1L);
+        when(operationExportService.exportOperations(eq(1L), any(), any())).thenAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(2);
+            output.write("exported\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+    }
+
+    @Test
+    @WithMockUser
+    void testExportOperations_DefaultsToNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get(BASE_URL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"operations.ndjson\""))
+                .andExpect(content().string("exported\n"));
+
+        verify(operationExportService).exportOperations(eq(1L), eq(OperationExportFormat.NDJSON), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testExportOperations_Csv() throws Exception {
+        MvcResult result = mockMvc.perform(get(BASE_URL).param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"operations.csv\""));
+
+        verify(operationExportService).exportOperations(eq(1L), eq(OperationExportFormat.CSV), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testExportOperations_UnknownFormat_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL).param("format", "XLSX"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(operationExportService);
+    }
+
+    @Test
+    void testExportOperations_Unauthenticated() throws Exception {
+        mockMvc.perform(get(BASE_URL))
+                .andExpect(status().isUnauthorized());
+    }
+}
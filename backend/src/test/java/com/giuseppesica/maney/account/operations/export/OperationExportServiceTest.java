@@ -0,0 +1,150 @@
+package com.giuseppesica.maney.account.operations.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementRepository;
+import com.giuseppesica.maney.account.operations.export.model.OperationExportFormat;
+import com.giuseppesica.maney.account.operations.export.model.OperationExportRow;
+import com.giuseppesica.maney.account.operations.export.service.OperationExportService;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferRepository;
+import com.giuseppesica.maney.utils.CashMovementType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for OperationExportService.
+ * Tests the chronological merge of cash movements and transfers and both output formats.
+ */
+public class OperationExportServiceTest {
+
+    @Mock
+    private CashMovementRepository cashMovementRepository;
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private OperationExportService operationExportService;
+
+    private OperationExportRow salary;
+    private OperationExportRow rent;
+    private OperationExportRow savings;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        operationExportService = new OperationExportService(cashMovementRepository, transferRepository, objectMapper);
+
+        salary = new OperationExportRow(1L, Instant.parse("2024-12-01T09:00:00Z"), CashMovementType.INCOME,
+                new BigDecimal("2500.00"), 10L, "Checking", 5L, "Salary", "December");
+        rent = new OperationExportRow(3L, Instant.parse("2024-12-03T09:00:00Z"), CashMovementType.OUTCOME,
+                new BigDecimal("800.00"), 10L, "Checking", null, null, "Rent, \"flat\"");
+        savings = new OperationExportRow(2L, Instant.parse("2024-12-03T09:00:00Z"), new BigDecimal("500"),
+                10L, "Checking", 11L, "Savings", null);
+    }
+
+    @Test
+    public void testExportOperations_Ndjson_MergesChronologically() throws IOException {
+        // Given
+        when(cashMovementRepository.streamExportRowsByPortfolioId(1L)).thenReturn(Stream.of(salary, rent));
+        when(transferRepository.streamExportRowsByPortfolioId(1L)).thenReturn(Stream.of(savings));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long rows = operationExportService.exportOperations(1L, OperationExportFormat.NDJSON, output);
+
+        // Then
+        assertEquals(3, rows);
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        for (String line : lines) {
+            assertTrue(line.startsWith("{") && line.endsWith("}"), line);
+        }
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("INCOME", first.get("type").asText());
+        assertEquals("2024-12-01T09:00:00Z", first.get("date").asText());
+        assertEquals("Salary", first.get("categoryName").asText());
+        assertFalse(first.has("toAccountId"));
+
+        // Same instant: ordered by ID
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals("TRANSFER", second.get("type").asText());
+        assertEquals(11L, second.get("toAccountId").asLong());
+        assertFalse(second.has("categoryId"));
+
+        assertEquals(3L, objectMapper.readTree(lines[2]).get("id").asLong());
+    }
+
+    @Test
+    public void testExportOperations_Csv_WritesHeaderAndEscapesFields() throws IOException {
+        // Given
+        OperationExportRow formula = new OperationExportRow(4L, Instant.parse("2024-12-04T09:00:00Z"),
+                CashMovementType.OUTCOME, BigDecimal.ONE, 10L, "Checking", null, null, "=HYPERLINK(\"x\")");
+        when(cashMovementRepository.streamExportRowsByPortfolioId(1L)).thenReturn(Stream.of(rent, formula));
+        when(transferRepository.streamExportRowsByPortfolioId(1L)).thenReturn(Stream.of(savings));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        operationExportService.exportOperations(1L, OperationExportFormat.CSV, output);
+
+        // Then
+        List<String> lines = List.of(output.toString(StandardCharsets.UTF_8).split("\r\n"));
+        assertEquals(4, lines.size());
+        assertEquals(String.join(",", OperationExportRow.CSV_HEADER), lines.get(0));
+        assertEquals("2,2024-12-03T09:00:00Z,TRANSFER,500,10,Checking,11,Savings,,,", lines.get(1));
+        assertEquals("3,2024-12-03T09:00:00Z,OUTCOME,800.00,10,Checking,,,,,\"Rent, \"\"flat\"\"\"", lines.get(2));
+        assertEquals("4,2024-12-04T09:00:00Z,OUTCOME,1,10,Checking,,,,,\"'=HYPERLINK(\"\"x\"\")\"", lines.get(3));
+    }
+
+    @Test
+    public void testExportOperations_NoOperations_WritesOnlyCsvHeader() throws IOException {
+        // Given
+        when(cashMovementRepository.streamExportRowsByPortfolioId(1L)).thenReturn(Stream.empty());
+        when(transferRepository.streamExportRowsByPortfolioId(1L)).thenReturn(Stream.empty());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long rows = operationExportService.exportOperations(1L, OperationExportFormat.CSV, output);
+
+        // Then
+        assertEquals(0, rows);
+        assertEquals(String.join(",", OperationExportRow.CSV_HEADER) + "\r\n", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testExportOperations_ClosesCursors() throws IOException {
+        // Given
+        AtomicBoolean cashMovementsClosed = new AtomicBoolean();
+        AtomicBoolean transfersClosed = new AtomicBoolean();
+        when(cashMovementRepository.streamExportRowsByPortfolioId(1L))
+                .thenReturn(Stream.of(salary).onClose(() -> cashMovementsClosed.set(true)));
+        when(transferRepository.streamExportRowsByPortfolioId(1L))
+                .thenReturn(Stream.of(savings).onClose(() -> transfersClosed.set(true)));
+
+        // When
+        operationExportService.exportOperations(1L, OperationExportFormat.NDJSON, new ByteArrayOutputStream());
+
+        // Then
+        assertTrue(cashMovementsClosed.get());
+        assertTrue(transfersClosed.get());
+    }
+}
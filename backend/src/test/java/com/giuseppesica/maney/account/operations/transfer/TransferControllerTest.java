@@ -8,6 +8,7 @@ import com.giuseppesica.maney.account.operations.transfer.model.TransferDto;
 import com.giuseppesica.maney.account.operations.transfer.service.TransferService;
 import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
 import com.giuseppesica.maney.config.SecurityConfig;
+import com.giuseppesica.maney.idempotency.service.IdempotencyService;
 import com.giuseppesica.maney.portfolio.model.Portfolio;
 import com.giuseppesica.maney.user.model.User;
 import com.giuseppesica.maney.utils.Currency;
@@ -26,7 +27,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -51,6 +54,9 @@ class TransferControllerTest {
     @MockitoBean
     private LiquidityAccountService liquidityAccountService;
 
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
     @MockitoBean
     private AuthenticationHelper authenticationHelper;
 
@@ -62,6 +68,10 @@ class TransferControllerTest {
 
     @BeforeEach
     void setUp() {
+        // Run the operation as if no Idempotency-Key was sent
+        doAnswer(invocation -> invocation.<Supplier<?>>getArgument(5).get())
+                .when(idempotencyService).execute(any(), any(), any(), any(), any(), any());
+
         user = new User();
         user.setId(42L);
         Portfolio portfolio = new Portfolio();
@@ -98,14 +108,13 @@ class TransferControllerTest {
         transferDto.setFromAccountName("Checking");
         transferDto.setToAccountName("Savings");
 
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(user);
-        when(authenticationHelper.getAuthenticatedUserPortfolio(any(Authentication.class))).thenReturn(portfolio);
+        when(authenticationHelper.getAuthenticatedUserPortfolioId(any(Authentication.class))).thenReturn(portfolio.getId());
     }
 
     @Test
     @WithMockUser
     void testGetAllTransfers_Success() throws Exception {
-        when(transferService.getTransfersByUserId(user)).thenReturn(List.of(transfer));
+        when(transferService.getTransferDtosByPortfolioId(user.getPortfolio().getId())).thenReturn(List.of(transferDto));
 
         mockMvc.perform(get("/user/portfolio/liquidity-accounts/transfers").with(csrf()))
                 .andExpect(status().isOk())
@@ -113,35 +122,35 @@ class TransferControllerTest {
                 .andExpect(jsonPath("$[0].toAccountName").value("Savings"))
                 .andExpect(jsonPath("$[0].amount").value(250));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
-        verify(transferService).getTransfersByUserId(user);
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        verify(transferService).getTransferDtosByPortfolioId(user.getPortfolio().getId());
     }
 
     @Test
     @WithMockUser
     void testGetTransferById_Found() throws Exception {
-        when(transferService.getTransferByIdAndUserId(5L, user)).thenReturn(Optional.of(transfer));
+        when(transferService.getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId())).thenReturn(Optional.of(transfer));
 
         mockMvc.perform(get("/user/portfolio/liquidity-accounts/transfers/5").with(csrf()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.fromAccountName").value("Checking"))
                 .andExpect(jsonPath("$.amount").value(250));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
-        verify(transferService).getTransferByIdAndUserId(5L, user);
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        verify(transferService).getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId());
     }
 
     @Test
     @WithMockUser
     void testGetTransferById_NotFound() throws Exception {
-        when(transferService.getTransferByIdAndUserId(5L, user)).thenReturn(Optional.empty());
+        when(transferService.getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId())).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/user/portfolio/liquidity-accounts/transfers/5").with(csrf()))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Not Found Transfer with id: 5"));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
-        verify(transferService).getTransferByIdAndUserId(5L, user);
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        verify(transferService).getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId());
     }
 
     @Test
@@ -150,7 +159,7 @@ class TransferControllerTest {
                 .andExpect(status().isUnauthorized())
                 .andExpect(jsonPath("$.error").value("UNAUTHORIZED"));
 
-        verify(authenticationHelper, never()).getAuthenticatedUser(any());
+        verify(authenticationHelper, never()).getAuthenticatedUserPortfolioId(any());
     }
 
     @Test
@@ -170,8 +179,12 @@ class TransferControllerTest {
                 .andExpect(jsonPath("$.amount").value(250))
                 .andExpect(jsonPath("$.fromAccountName").value("Checking"));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolio(any(Authentication.class));
-        verify(liquidityAccountService, times(2)).saveLiquidityAccount(any(LiquidityAccount.class));
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        verify(liquidityAccountService).applyBalanceDeltas(eq(Map.of(
+                10L, Map.of(5L, new BigDecimal("-250")),
+                11L, Map.of(5L, new BigDecimal("250"))
+        )), anyMap());
+        verify(liquidityAccountService, never()).saveLiquidityAccount(any());
         verify(transferService).saveTransfer(any(Transfer.class));
     }
 
@@ -188,15 +201,109 @@ class TransferControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Liquidity Account not found with name: Checking"));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolio(any(Authentication.class));
-        verify(liquidityAccountService, never()).saveLiquidityAccount(any());
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        verify(liquidityAccountService, never()).applyBalanceDeltas(any(), any());
         verify(transferService, never()).saveTransfer(any());
     }
 
+    @Test
+    @WithMockUser
+    void testCreateTransfers_Batch_OneUpdatePerAccountWithEachTransfer() throws Exception {
+        when(liquidityAccountService.getLiquidityAccountByPortfolioIdAndName(anyLong(), eq("Checking")))
+                .thenReturn(Optional.of(fromAccount));
+        when(liquidityAccountService.getLiquidityAccountByPortfolioIdAndName(anyLong(), eq("Savings")))
+                .thenReturn(Optional.of(toAccount));
+        when(transferService.saveTransfers(anyList())).thenAnswer(invocation -> {
+            List<Transfer> saved = invocation.getArgument(0);
+            for (int i = 0; i < saved.size(); i++) {
+                saved.get(i).setId(100L + i);
+            }
+            return saved;
+        });
+
+        TransferDto back = new TransferDto();
+        back.setAmount(new BigDecimal("100"));
+        back.setDate(Instant.parse("2024-04-11T12:00:00Z"));
+        back.setFromAccountName("Savings");
+        back.setToAccountName("Checking");
+
+        mockMvc.perform(post("/user/portfolio/liquidity-accounts/transfers/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(transferDto, back, transferDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[1].fromAccountName").value("Savings"))
+                .andExpect(jsonPath("$[1].amount").value(100));
+
+        verify(liquidityAccountService, times(1)).applyBalanceDeltas(Map.of(
+                10L, Map.of(100L, new BigDecimal("-250"), 101L, new BigDecimal("100"), 102L, new BigDecimal("-250")),
+                11L, Map.of(100L, new BigDecimal("250"), 101L, new BigDecimal("-100"), 102L, new BigDecimal("250"))
+        ), Map.of(
+                10L, Instant.parse("2024-04-10T12:00:00Z"),
+                11L, Instant.parse("2024-04-10T12:00:00Z")
+        ));
+        verify(liquidityAccountService, times(1)).getLiquidityAccountByPortfolioIdAndName(anyLong(), eq("Checking"));
+        verify(transferService, times(1)).saveTransfers(anyList());
+        verify(transferService, never()).saveTransfer(any());
+    }
+
+    @Test
+    @WithMockUser
+    void testCreateTransfers_EmptyBatch() throws Exception {
+        mockMvc.perform(post("/user/portfolio/liquidity-accounts/transfers/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(liquidityAccountService, never()).applyBalanceDeltas(any(), any());
+        verify(transferService, never()).saveTransfers(anyList());
+    }
+
+    @Test
+    @WithMockUser
+    void testCreateTransfers_InvalidItem() throws Exception {
+        TransferDto negative = new TransferDto();
+        negative.setAmount(new BigDecimal("-5"));
+        negative.setDate(Instant.parse("2024-04-11T12:00:00Z"));
+        negative.setFromAccountName("Checking");
+        negative.setToAccountName("Savings");
+
+        mockMvc.perform(post("/user/portfolio/liquidity-accounts/transfers/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(transferDto, negative))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Transfer 2: amount must be positive"));
+
+        verify(liquidityAccountService, never()).applyBalanceDeltas(any(), any());
+        verify(transferService, never()).saveTransfers(anyList());
+    }
+
+    @Test
+    @WithMockUser
+    void testCreateTransfers_AccountNotFound_NothingApplied() throws Exception {
+        when(liquidityAccountService.getLiquidityAccountByPortfolioIdAndName(anyLong(), eq("Checking")))
+                .thenReturn(Optional.of(fromAccount));
+        when(liquidityAccountService.getLiquidityAccountByPortfolioIdAndName(anyLong(), eq("Savings")))
+                .thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/user/portfolio/liquidity-accounts/transfers/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(transferDto))))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Liquidity Account not found with name: Savings"));
+
+        verify(liquidityAccountService, never()).applyBalanceDeltas(any(), any());
+        verify(transferService, never()).saveTransfers(anyList());
+    }
+
     @Test
     @WithMockUser
     void testUpdateTransfer_Success() throws Exception {
-        when(transferService.getTransferByIdAndUserId(5L, user)).thenReturn(Optional.of(transfer));
+        when(transferService.getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId())).thenReturn(Optional.of(transfer));
         when(liquidityAccountService.getLiquidityAccountByPortfolioIdAndName(anyLong(), eq("Checking")))
                 .thenReturn(Optional.of(fromAccount));
         when(liquidityAccountService.getLiquidityAccountByPortfolioIdAndName(anyLong(), eq("Savings")))
@@ -210,15 +317,20 @@ class TransferControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.amount").value(250));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
-        verify(liquidityAccountService, times(4)).saveLiquidityAccount(any(LiquidityAccount.class));
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        // Same accounts and amount: revert and re-apply cancel out into zero net deltas
+        verify(liquidityAccountService).applyBalanceDeltas(eq(Map.of(
+                10L, Map.of(5L, new BigDecimal("0")),
+                11L, Map.of(5L, new BigDecimal("0"))
+        )), anyMap());
+        verify(liquidityAccountService, never()).saveLiquidityAccount(any());
         verify(transferService).saveTransfer(any(Transfer.class));
     }
 
     @Test
     @WithMockUser
     void testUpdateTransfer_NotFound() throws Exception {
-        when(transferService.getTransferByIdAndUserId(5L, user)).thenReturn(Optional.empty());
+        when(transferService.getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId())).thenReturn(Optional.empty());
 
         mockMvc.perform(put("/user/portfolio/liquidity-accounts/transfers/5")
                         .with(csrf())
@@ -227,38 +339,41 @@ class TransferControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Not Found Transfer with id: 5"));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
-        verify(transferService).getTransferByIdAndUserId(5L, user);
-        verify(liquidityAccountService, never()).saveLiquidityAccount(any());
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        verify(transferService).getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId());
+        verify(liquidityAccountService, never()).applyBalanceDeltas(any(), any());
     }
 
     @Test
     @WithMockUser
     void testDeleteTransfer_Success() throws Exception {
-        when(transferService.getTransferByIdAndUserId(5L, user)).thenReturn(Optional.of(transfer));
+        when(transferService.getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId())).thenReturn(Optional.of(transfer));
         doNothing().when(transferService).deleteTransferById(5L);
 
         mockMvc.perform(delete("/user/portfolio/liquidity-accounts/transfers/5").with(csrf()))
                 .andExpect(status().isNoContent());
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
-        verify(liquidityAccountService, times(2)).saveLiquidityAccount(any(LiquidityAccount.class));
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        verify(liquidityAccountService).applyBalanceDeltas(eq(Map.of(
+                10L, Map.of(5L, new BigDecimal("250")),
+                11L, Map.of(5L, new BigDecimal("-250"))
+        )), anyMap());
         verify(transferService).deleteTransferById(5L);
     }
 
     @Test
     @WithMockUser
     void testDeleteTransfer_NotFound() throws Exception {
-        when(transferService.getTransferByIdAndUserId(5L, user)).thenReturn(Optional.empty());
+        when(transferService.getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId())).thenReturn(Optional.empty());
 
         mockMvc.perform(delete("/user/portfolio/liquidity-accounts/transfers/5").with(csrf()))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Not Found Transfer with id: 5"));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
-        verify(transferService).getTransferByIdAndUserId(5L, user);
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        verify(transferService).getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId());
         verify(transferService, never()).deleteTransferById(anyLong());
-        verify(liquidityAccountService, never()).saveLiquidityAccount(any());
+        verify(liquidityAccountService, never()).applyBalanceDeltas(any(), any());
     }
 
     @Test
@@ -268,7 +383,7 @@ class TransferControllerTest {
                         .content(objectMapper.writeValueAsString(transferDto)))
                 .andExpect(status().isForbidden());
 
-        verify(authenticationHelper, never()).getAuthenticatedUser(any());
+        verify(authenticationHelper, never()).getAuthenticatedUserPortfolioId(any());
     }
 
     // ==================== SECURITY TESTS - CROSS-USER ACCESS ====================
@@ -276,20 +391,20 @@ class TransferControllerTest {
     @Test
     @WithMockUser
     void testGetTransferById_CrossUserAccess_NotFound() throws Exception {
-        when(transferService.getTransferByIdAndUserId(5L, user)).thenReturn(Optional.empty());
+        when(transferService.getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId())).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/user/portfolio/liquidity-accounts/transfers/5").with(csrf()))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Not Found Transfer with id: 5"));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
-        verify(transferService).getTransferByIdAndUserId(5L, user);
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        verify(transferService).getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId());
     }
 
     @Test
     @WithMockUser
     void testUpdateTransfer_CrossUserAccess_NotFound() throws Exception {
-        when(transferService.getTransferByIdAndUserId(5L, user)).thenReturn(Optional.empty());
+        when(transferService.getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId())).thenReturn(Optional.empty());
 
         mockMvc.perform(put("/user/portfolio/liquidity-accounts/transfers/5")
                         .with(csrf())
@@ -298,37 +413,37 @@ class TransferControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Not Found Transfer with id: 5"));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
-        verify(transferService).getTransferByIdAndUserId(5L, user);
-        verify(liquidityAccountService, never()).saveLiquidityAccount(any());
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        verify(transferService).getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId());
+        verify(liquidityAccountService, never()).applyBalanceDeltas(any(), any());
     }
 
     @Test
     @WithMockUser
     void testDeleteTransfer_CrossUserAccess_NotFound() throws Exception {
-        when(transferService.getTransferByIdAndUserId(5L, user)).thenReturn(Optional.empty());
+        when(transferService.getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId())).thenReturn(Optional.empty());
 
         mockMvc.perform(delete("/user/portfolio/liquidity-accounts/transfers/5").with(csrf()))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Not Found Transfer with id: 5"));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
-        verify(transferService).getTransferByIdAndUserId(5L, user);
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        verify(transferService).getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId());
         verify(transferService, never()).deleteTransferById(anyLong());
-        verify(liquidityAccountService, never()).saveLiquidityAccount(any());
+        verify(liquidityAccountService, never()).applyBalanceDeltas(any(), any());
     }
 
     @Test
     @WithMockUser
     void testGetAllTransfers_OnlyReturnsUserTransfers() throws Exception {
-        when(transferService.getTransfersByUserId(user)).thenReturn(List.of(transfer));
+        when(transferService.getTransferDtosByPortfolioId(user.getPortfolio().getId())).thenReturn(List.of(transferDto));
 
         mockMvc.perform(get("/user/portfolio/liquidity-accounts/transfers").with(csrf()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(1));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
-        verify(transferService).getTransfersByUserId(user);
+        verify(authenticationHelper, times(1)).getAuthenticatedUserPortfolioId(any(Authentication.class));
+        verify(transferService).getTransferDtosByPortfolioId(user.getPortfolio().getId());
     }
 }
@@ -2,6 +2,7 @@ package com.giuseppesica.maney.account.operations.transfer;
 
 import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
 import com.giuseppesica.maney.account.operations.transfer.model.Transfer;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferDto;
 import com.giuseppesica.maney.account.operations.transfer.model.TransferRepository;
 import com.giuseppesica.maney.account.operations.transfer.service.TransferService;
 import com.giuseppesica.maney.portfolio.model.Portfolio;
@@ -95,10 +96,22 @@ class TransferServiceTest {
     }
 
     @Test
-    void testGetTransferByIdAndUserId_Found() {
+    void testGetTransferDtosByPortfolioId_ReturnsProjectedDtos() {
+        TransferDto dto = new TransferDto(5L, transfer.getDate(), "Monthly move", "Checking", "Savings", new BigDecimal("150"));
+        when(transferRepository.findDtosByPortfolioId(1L)).thenReturn(List.of(dto));
+
+        List<TransferDto> result = transferService.getTransferDtosByPortfolioId(portfolio.getId());
+
+        assertEquals(List.of(dto), result);
+        verify(transferRepository, times(1)).findDtosByPortfolioId(1L);
+        verify(transferRepository, never()).findByPortfolioId(anyLong());
+    }
+
+    @Test
+    void testGetTransferByIdAndPortfolioId_Found() {
         when(transferRepository.findByIdAndPortfolioId(5L, 1L)).thenReturn(Optional.of(transfer));
 
-        Optional<Transfer> result = transferService.getTransferByIdAndUserId(5L, user);
+        Optional<Transfer> result = transferService.getTransferByIdAndPortfolioId(5L, user.getPortfolio().getId());
 
         assertTrue(result.isPresent());
         assertEquals(transfer, result.get());
@@ -106,10 +119,10 @@ class TransferServiceTest {
     }
 
     @Test
-    void testGetTransferByIdAndUserId_NotFound() {
+    void testGetTransferByIdAndPortfolioId_NotFound() {
         when(transferRepository.findByIdAndPortfolioId(99L, 1L)).thenReturn(Optional.empty());
 
-        Optional<Transfer> result = transferService.getTransferByIdAndUserId(99L, user);
+        Optional<Transfer> result = transferService.getTransferByIdAndPortfolioId(99L, user.getPortfolio().getId());
 
         assertTrue(result.isEmpty());
         verify(transferRepository, times(1)).findByIdAndPortfolioId(99L, 1L);
@@ -154,7 +167,7 @@ class TransferServiceTest {
     }
 
     @Test
-    void testGetTransferByIdAndUserId_DifferentPortfolio_ReturnsEmpty() {
+    void testGetTransferByIdAndPortfolioId_DifferentPortfolio_ReturnsEmpty() {
         // Given - User from different portfolio
         Portfolio otherPortfolio = new Portfolio();
         otherPortfolio.setId(2L);
@@ -165,7 +178,7 @@ class TransferServiceTest {
         when(transferRepository.findByIdAndPortfolioId(5L, 2L)).thenReturn(Optional.empty());
 
         // When
-        Optional<Transfer> result = transferService.getTransferByIdAndUserId(5L, otherUser);
+        Optional<Transfer> result = transferService.getTransferByIdAndPortfolioId(5L, otherUser.getPortfolio().getId());
 
         // Then - Transfer not found because it belongs to different portfolio
         assertTrue(result.isEmpty());
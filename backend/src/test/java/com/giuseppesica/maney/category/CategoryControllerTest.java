@@ -4,11 +4,15 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.giuseppesica.maney.category.controller.CategoryController;
 import com.giuseppesica.maney.category.model.Category;
 import com.giuseppesica.maney.category.model.CategoryDto;
+import com.giuseppesica.maney.category.model.CategorySpendingDto;
 import com.giuseppesica.maney.category.service.CategoryService;
+import com.giuseppesica.maney.category.service.CategorySpendingService;
 import com.giuseppesica.maney.config.CorsConfig;
 import com.giuseppesica.maney.config.SecurityConfig;
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
 import com.giuseppesica.maney.security.AuthenticationHelper;
 import com.giuseppesica.maney.user.model.User;
+import com.giuseppesica.maney.utils.CashMovementType;
 import com.giuseppesica.maney.utils.CategoryType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,6 +25,8 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -48,6 +54,9 @@ class CategoryControllerTest {
     @MockitoBean
     private CategoryService categoryService;
 
+    @MockitoBean
+    private CategorySpendingService categorySpendingService;
+
     @MockitoBean
     private AuthenticationHelper authenticationHelper;
 
@@ -126,7 +135,7 @@ class CategoryControllerTest {
         testCategoryDto.setParentId(1L);
 
         when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
-        when(categoryService.findById(1L)).thenReturn(Optional.of(testParentCategory));
+        when(categoryService.findReferenceByUserAndId(1L, 1L)).thenReturn(Optional.of(testParentCategory));
 
         Category savedCategory = new Category(testCategoryDto);
         savedCategory.setId(3L);
@@ -145,7 +154,7 @@ class CategoryControllerTest {
                 .andExpect(jsonPath("$.name").value("New Category"))
                 .andExpect(jsonPath("$.parentId").value(1L));
 
-        verify(categoryService, times(1)).findById(1L);
+        verify(categoryService, times(1)).findReferenceByUserAndId(1L, 1L);
         verify(categoryService, times(1)).saveCategory(any(Category.class));
     }
 
@@ -156,7 +165,7 @@ class CategoryControllerTest {
         testCategoryDto.setParentId(999L);
 
         when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
-        when(categoryService.findById(999L)).thenReturn(Optional.empty());
+        when(categoryService.findReferenceByUserAndId(1L, 999L)).thenReturn(Optional.empty());
 
         // When & Then
         mockMvc.perform(post("/user/categories")
@@ -165,7 +174,7 @@ class CategoryControllerTest {
                         .content(objectMapper.writeValueAsString(testCategoryDto)))
                 .andExpect(status().isNotFound());
 
-        verify(categoryService, times(1)).findById(999L);
+        verify(categoryService, times(1)).findReferenceByUserAndId(1L, 999L);
         verify(categoryService, never()).saveCategory(any(Category.class));
     }
 
@@ -194,7 +203,7 @@ class CategoryControllerTest {
     @WithMockUser(username = "test@example.com")
     void testGetCategory_Success_ReturnsCategory() throws Exception {
         // Given
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any(Authentication.class))).thenReturn(testUser.getId());
         when(categoryService.findByUserAndId(1L, 2L)).thenReturn(Optional.of(testCategory));
 
         // When & Then
@@ -207,7 +216,7 @@ class CategoryControllerTest {
                 .andExpect(jsonPath("$.type").value("OUTCOME"))
                 .andExpect(jsonPath("$.parentId").value(1L));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
+        verify(authenticationHelper, times(1)).getAuthenticatedUserId(any(Authentication.class));
         verify(categoryService, times(1)).findByUserAndId(1L, 2L);
     }
 
@@ -215,7 +224,7 @@ class CategoryControllerTest {
     @WithMockUser(username = "test@example.com")
     void testGetCategory_NotFound_Returns404() throws Exception {
         // Given
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any(Authentication.class))).thenReturn(testUser.getId());
         when(categoryService.findByUserAndId(1L, 999L)).thenReturn(Optional.empty());
 
         // When & Then
@@ -248,7 +257,7 @@ class CategoryControllerTest {
 
         List<Category> categories = List.of(category1, category2);
 
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any(Authentication.class))).thenReturn(testUser.getId());
         when(categoryService.findByUserId(1L)).thenReturn(categories);
 
         // When & Then
@@ -265,7 +274,7 @@ class CategoryControllerTest {
                 .andExpect(jsonPath("$[1].color").value("#33C3FF"))
                 .andExpect(jsonPath("$[1].type").value("OUTCOME"));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
+        verify(authenticationHelper, times(1)).getAuthenticatedUserId(any(Authentication.class));
         verify(categoryService, times(1)).findByUserId(1L);
     }
 
@@ -273,7 +282,7 @@ class CategoryControllerTest {
     @WithMockUser(username = "test@example.com")
     void testGetUserCategories_EmptyList_ReturnsEmptyArray() throws Exception {
         // Given
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any(Authentication.class))).thenReturn(testUser.getId());
         when(categoryService.findByUserId(1L)).thenReturn(new ArrayList<>());
 
         // When & Then
@@ -284,7 +293,7 @@ class CategoryControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(0));
 
-        verify(authenticationHelper, times(1)).getAuthenticatedUser(any(Authentication.class));
+        verify(authenticationHelper, times(1)).getAuthenticatedUserId(any(Authentication.class));
         verify(categoryService, times(1)).findByUserId(1L);
     }
 
@@ -313,7 +322,7 @@ class CategoryControllerTest {
 
         List<Category> categories = List.of(parentCategory, childCategory);
 
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any(Authentication.class))).thenReturn(testUser.getId());
         when(categoryService.findByUserId(1L)).thenReturn(categories);
 
         // When & Then
@@ -343,6 +352,106 @@ class CategoryControllerTest {
         verify(categoryService, never()).findByUserId(any());
     }
 
+    // ==================== CATEGORY TREE TESTS ====================
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void testGetCategoryTree_Success_ReturnsNestedCategories() throws Exception {
+        // Given
+        CategoryDto child = new CategoryDto();
+        child.setId(2L);
+        child.setName("Test Category");
+        child.setParentId(1L);
+        CategoryDto parent = new CategoryDto();
+        parent.setId(1L);
+        parent.setName("Parent Category");
+        parent.setChildren(List.of(child));
+        when(authenticationHelper.getAuthenticatedUserId(any())).thenReturn(1L);
+        when(categoryService.getCategoryTree(1L, false)).thenReturn(List.of(parent));
+
+        // When & Then
+        mockMvc.perform(get("/user/categories/tree")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].children[0].id").value(2))
+                .andExpect(jsonPath("$[0].children[0].parentId").value(1));
+
+        verify(categoryService, times(1)).getCategoryTree(1L, false);
+        verify(categoryService, never()).findByUserId(any());
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void testGetCategoryTree_Flat_ReturnsEveryCategory() throws Exception {
+        // Given
+        CategoryDto parent = new CategoryDto();
+        parent.setId(1L);
+        parent.setName("Parent Category");
+        CategoryDto child = new CategoryDto();
+        child.setId(2L);
+        child.setName("Test Category");
+        child.setParentId(1L);
+        when(authenticationHelper.getAuthenticatedUserId(any())).thenReturn(1L);
+        when(categoryService.getCategoryTree(1L, true)).thenReturn(List.of(parent, child));
+
+        // When & Then
+        mockMvc.perform(get("/user/categories/tree")
+                        .param("flat", "true")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].children").doesNotExist())
+                .andExpect(jsonPath("$[1].parentId").value(1));
+
+        verify(categoryService, times(1)).getCategoryTree(1L, true);
+    }
+
+    // ==================== CATEGORY SPENDING TESTS ====================
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void testGetCategorySpending_Success_ReturnsSubtreeTotals() throws Exception {
+        // Given
+        AuthenticatedPrincipal principal = new AuthenticatedPrincipal(1L, 1L, "test@example.com");
+        Instant from = Instant.parse("2024-01-01T00:00:00Z");
+        Instant to = Instant.parse("2024-02-01T00:00:00Z");
+        when(authenticationHelper.getAuthenticatedPrincipal(any())).thenReturn(principal);
+        when(categorySpendingService.getSpending(principal, from, to, CashMovementType.OUTCOME)).thenReturn(List.of(
+                new CategorySpendingDto(1L, null, "Parent Category", new BigDecimal("10.00"), 1,
+                        new BigDecimal("35.00"), 3),
+                new CategorySpendingDto(2L, 1L, "Test Category", new BigDecimal("25.00"), 2,
+                        new BigDecimal("25.00"), 2)
+        ));
+
+        // When & Then
+        mockMvc.perform(get("/user/categories/spending")
+                        .param("from", "2024-01-01T00:00:00Z")
+                        .param("to", "2024-02-01T00:00:00Z")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].categoryId").value(1))
+                .andExpect(jsonPath("$[0].subtreeTotal").value(35.00))
+                .andExpect(jsonPath("$[0].subtreeCount").value(3))
+                .andExpect(jsonPath("$[1].parentId").value(1));
+
+        verify(categorySpendingService, times(1)).getSpending(principal, from, to, CashMovementType.OUTCOME);
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void testGetCategorySpending_MissingRange_ReturnsBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/user/categories/spending")
+                        .param("from", "2024-01-01T00:00:00Z")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        verify(categorySpendingService, never()).getSpending(any(), any(), any(), any());
+    }
+
     // ==================== UPDATE CATEGORY TESTS ====================
 
     @Test
@@ -354,7 +463,7 @@ class CategoryControllerTest {
         updateDto.setColor("#FF0000");
         updateDto.setType(CategoryType.INCOME);
 
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any(Authentication.class))).thenReturn(testUser.getId());
         when(categoryService.findByUserAndId(1L, 2L)).thenReturn(Optional.of(testCategory));
 
         Category updatedCategory = new Category();
@@ -391,9 +500,9 @@ class CategoryControllerTest {
         updateDto.setType(CategoryType.OUTCOME);
         updateDto.setParentId(1L);
 
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any(Authentication.class))).thenReturn(testUser.getId());
         when(categoryService.findByUserAndId(1L, 2L)).thenReturn(Optional.of(testCategory));
-        when(categoryService.findById(1L)).thenReturn(Optional.of(testParentCategory));
+        when(categoryService.findReferenceByUserAndId(1L, 1L)).thenReturn(Optional.of(testParentCategory));
         when(categoryService.saveCategory(any(Category.class))).thenReturn(testCategory);
 
         // When & Then
@@ -403,7 +512,7 @@ class CategoryControllerTest {
                         .content(objectMapper.writeValueAsString(updateDto)))
                 .andExpect(status().isOk());
 
-        verify(categoryService, times(1)).findById(1L);
+        verify(categoryService, times(1)).findReferenceByUserAndId(1L, 1L);
         verify(categoryService, times(1)).saveCategory(any(Category.class));
     }
 
@@ -417,7 +526,7 @@ class CategoryControllerTest {
         updateDto.setType(CategoryType.OUTCOME);
         updateDto.setParentId(null);  // Remove parent
 
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any(Authentication.class))).thenReturn(testUser.getId());
         when(categoryService.findByUserAndId(1L, 2L)).thenReturn(Optional.of(testCategory));
         when(categoryService.saveCategory(any(Category.class))).thenReturn(testCategory);
 
@@ -428,7 +537,7 @@ class CategoryControllerTest {
                         .content(objectMapper.writeValueAsString(updateDto)))
                 .andExpect(status().isOk());
 
-        verify(categoryService, never()).findById(any());
+        verify(categoryService, never()).findReferenceByUserAndId(any(), any());
         verify(categoryService, times(1)).saveCategory(any(Category.class));
     }
 
@@ -441,7 +550,7 @@ class CategoryControllerTest {
         updateDto.setColor("#FF0000");
         updateDto.setType(CategoryType.INCOME);
 
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any(Authentication.class))).thenReturn(testUser.getId());
         when(categoryService.findByUserAndId(1L, 999L)).thenReturn(Optional.empty());
 
         // When & Then
@@ -465,9 +574,9 @@ class CategoryControllerTest {
         updateDto.setType(CategoryType.OUTCOME);
         updateDto.setParentId(999L);
 
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any(Authentication.class))).thenReturn(testUser.getId());
         when(categoryService.findByUserAndId(1L, 2L)).thenReturn(Optional.of(testCategory));
-        when(categoryService.findById(999L)).thenReturn(Optional.empty());
+        when(categoryService.findReferenceByUserAndId(1L, 999L)).thenReturn(Optional.empty());
 
         // When & Then
         mockMvc.perform(put("/user/categories/{id}", 2L)
@@ -476,7 +585,7 @@ class CategoryControllerTest {
                         .content(objectMapper.writeValueAsString(updateDto)))
                 .andExpect(status().isNotFound());
 
-        verify(categoryService, times(1)).findById(999L);
+        verify(categoryService, times(1)).findReferenceByUserAndId(1L, 999L);
         verify(categoryService, never()).saveCategory(any(Category.class));
     }
 
@@ -486,7 +595,7 @@ class CategoryControllerTest {
     @WithMockUser(username = "test@example.com")
     void testDeleteCategory_Success_ReturnsNoContent() throws Exception {
         // Given
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any(Authentication.class))).thenReturn(testUser.getId());
         when(categoryService.findByUserAndId(1L, 2L)).thenReturn(Optional.of(testCategory));
         doNothing().when(categoryService).deleteCategory(testCategory);
 
@@ -503,7 +612,7 @@ class CategoryControllerTest {
     @WithMockUser(username = "test@example.com")
     void testDeleteCategory_NotFound_Returns404() throws Exception {
         // Given
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any(Authentication.class))).thenReturn(testUser.getId());
         when(categoryService.findByUserAndId(1L, 999L)).thenReturn(Optional.empty());
 
         // When & Then
@@ -528,7 +637,7 @@ class CategoryControllerTest {
         children.add(childCategory);
         testParentCategory.setChildren(children);
 
-        when(authenticationHelper.getAuthenticatedUser(any(Authentication.class))).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any(Authentication.class))).thenReturn(testUser.getId());
         when(categoryService.findByUserAndId(1L, 1L)).thenReturn(Optional.of(testParentCategory));
         doNothing().when(categoryService).deleteCategory(testParentCategory);
 
@@ -571,7 +680,7 @@ class CategoryControllerTest {
     @WithMockUser(username = "test@example.com")
     void testGetCategory_CrossUserAccess_NotFound() throws Exception {
         // Given - User tries to access category from another user
-        when(authenticationHelper.getAuthenticatedUser(any())).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any())).thenReturn(testUser.getId());
         when(categoryService.findByUserAndId(1L, 2L)).thenReturn(Optional.empty());
 
         // When & Then - Should return 404 (not found) to avoid information disclosure
@@ -591,7 +700,7 @@ class CategoryControllerTest {
         updateDto.setColor("#FF0000");
         updateDto.setType(CategoryType.INCOME);
 
-        when(authenticationHelper.getAuthenticatedUser(any())).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any())).thenReturn(testUser.getId());
         when(categoryService.findByUserAndId(1L, 2L)).thenReturn(Optional.empty());
 
         // When & Then - Should return 404
@@ -609,7 +718,7 @@ class CategoryControllerTest {
     @WithMockUser(username = "test@example.com")
     void testDeleteCategory_CrossUserAccess_NotFound() throws Exception {
         // Given - User tries to delete category from another user
-        when(authenticationHelper.getAuthenticatedUser(any())).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any())).thenReturn(testUser.getId());
         when(categoryService.findByUserAndId(1L, 2L)).thenReturn(Optional.empty());
 
         // When & Then - Should return 404
@@ -632,7 +741,7 @@ class CategoryControllerTest {
         userCategory.setType(CategoryType.INCOME);
         userCategory.setUser(testUser);
 
-        when(authenticationHelper.getAuthenticatedUser(any())).thenReturn(testUser);
+        when(authenticationHelper.getAuthenticatedUserId(any())).thenReturn(testUser.getId());
         when(categoryService.findByUserId(1L)).thenReturn(List.of(userCategory));
 
         // When & Then - Only user's categories are returned
@@ -2,15 +2,19 @@ package com.giuseppesica.maney.category;
 
 import com.giuseppesica.maney.category.model.Category;
 import com.giuseppesica.maney.category.model.CategoryDto;
+import com.giuseppesica.maney.category.model.CategoryNode;
 import com.giuseppesica.maney.category.model.CategoryRepository;
 import com.giuseppesica.maney.category.service.CategoryService;
+import com.giuseppesica.maney.category.service.CategoryTreeCache;
 import com.giuseppesica.maney.user.model.User;
 import com.giuseppesica.maney.utils.CategoryType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.ArrayList;
@@ -31,6 +35,9 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Spy
+    private CategoryTreeCache categoryTreeCache = new CategoryTreeCache();
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -331,5 +338,180 @@ class CategoryServiceTest {
         verify(categoryRepository, times(1)).findByUserId(1L);
         verify(categoryRepository, times(1)).findByUserId(2L);
     }
-}
 
+    // ==================== CATEGORY TREE CACHE TESTS ====================
+
+    @Test
+    void testFindReferenceByUserAndId_CachedTree_NoQueryAfterFirstLoad() {
+        // Given
+        when(categoryRepository.findNodesByUserId(1L)).thenReturn(List.of(node(1L, null, "Food"), node(2L, 1L, "Groceries")));
+        when(categoryRepository.getReferenceById(2L)).thenReturn(testCategory);
+
+        // When
+        Optional<Category> first = categoryService.findReferenceByUserAndId(1L, 2L);
+        Optional<Category> second = categoryService.findReferenceByUserAndId(1L, 2L);
+
+        // Then
+        assertThat(first).containsSame(testCategory);
+        assertThat(second).containsSame(testCategory);
+        verify(categoryRepository, times(1)).findNodesByUserId(1L);
+        verify(categoryRepository, never()).findByUserIdAndId(any(), any());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        categoryTreeCache.bindTo(registry);
+        assertThat(registry.get("cache.gets").tag("cache", "category-tree").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "category-tree").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.size").tag("cache", "category-tree").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testFindReferenceByUserAndId_NotInTree_ConfirmedAgainstDatabase() {
+        // Given
+        when(categoryRepository.findNodesByUserId(1L)).thenReturn(List.of(node(1L, null, "Food")));
+        when(categoryRepository.findByUserIdAndId(1L, 999L)).thenReturn(Optional.empty());
+
+        // When
+        Optional<Category> result = categoryService.findReferenceByUserAndId(1L, 999L);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(categoryRepository, never()).getReferenceById(any());
+        verify(categoryTreeCache, never()).invalidate(any());
+    }
+
+    @Test
+    void testFindReferenceByUserAndId_CreatedElsewhere_ReloadsTree() {
+        // Given - the cached tree predates category 2
+        when(categoryRepository.findNodesByUserId(1L))
+                .thenReturn(List.of(node(1L, null, "Food")))
+                .thenReturn(List.of(node(1L, null, "Food"), node(2L, 1L, "Groceries")));
+        when(categoryRepository.findByUserIdAndId(1L, 2L)).thenReturn(Optional.of(testCategory));
+
+        // When
+        Optional<Category> result = categoryService.findReferenceByUserAndId(1L, 2L);
+        List<CategoryDto> flat = categoryService.getCategoryTree(1L, true);
+
+        // Then
+        assertThat(result).containsSame(testCategory);
+        assertThat(flat).extracting(CategoryDto::getId).containsExactly(1L, 2L);
+        verify(categoryRepository, times(2)).findNodesByUserId(1L);
+    }
+
+    @Test
+    void testSaveCategory_InvalidatesCachedTree() {
+        // Given
+        when(categoryRepository.findNodesByUserId(1L))
+                .thenReturn(List.of(node(1L, null, "Parent Category")))
+                .thenReturn(List.of(node(1L, null, "Parent Category"), node(2L, 1L, "Test Category")));
+        when(categoryRepository.save(testCategory)).thenReturn(testCategory);
+
+        // When
+        categoryService.getCategoryTree(1L, true);
+        categoryService.saveCategory(testCategory);
+        List<CategoryDto> result = categoryService.getCategoryTree(1L, true);
+
+        // Then
+        assertThat(result).extracting(CategoryDto::getId).containsExactly(1L, 2L);
+        verify(categoryTreeCache, times(1)).invalidate(1L);
+        verify(categoryRepository, times(2)).findNodesByUserId(1L);
+    }
+
+    @Test
+    void testDeleteCategory_InvalidatesCachedTree() {
+        // Given
+        when(categoryRepository.findNodesByUserId(1L))
+                .thenReturn(List.of(node(1L, null, "Parent Category"), node(2L, 1L, "Test Category")))
+                .thenReturn(List.of(node(1L, null, "Parent Category")));
+
+        // When
+        categoryService.getCategoryTree(1L, false);
+        categoryService.deleteCategory(testCategory);
+        List<CategoryDto> result = categoryService.getCategoryTree(1L, false);
+
+        // Then
+        assertThat(result).extracting(CategoryDto::getId).containsExactly(1L);
+        assertThat(result.getFirst().getChildren()).isNull();
+        verify(categoryTreeCache, times(1)).invalidate(1L);
+    }
+
+    @Test
+    void testCategoryTreeCache_LoadRacingInvalidation_NotCached() {
+        // Given - a tree loaded before an invalidation
+        long generation = categoryTreeCache.generation();
+        CategoryTreeCache.Snapshot stale = new CategoryTreeCache.Snapshot(List.of(node(1L, null, "Food")));
+        categoryTreeCache.invalidate(1L);
+
+        // When
+        categoryTreeCache.put(1L, stale, generation);
+
+        // Then
+        assertThat(categoryTreeCache.get(1L)).isNull();
+    }
+
+    // ==================== CATEGORY TREE TESTS ====================
+
+    @Test
+    void testGetCategoryTree_BuildsTreeFromSingleQuery() {
+        // Given - Food > (Groceries > Organic, Restaurants), Transport
+        when(categoryRepository.findNodesByUserId(1L)).thenReturn(List.of(
+                node(1L, null, "Food"),
+                node(2L, 1L, "Groceries"),
+                node(3L, 2L, "Organic"),
+                node(4L, 1L, "Restaurants"),
+                node(5L, null, "Transport")
+        ));
+
+        // When
+        List<CategoryDto> result = categoryService.getCategoryTree(1L, false);
+
+        // Then
+        assertThat(result).extracting(CategoryDto::getName).containsExactly("Food", "Transport");
+        CategoryDto food = result.getFirst();
+        assertThat(food.getChildren()).extracting(CategoryDto::getName).containsExactly("Groceries", "Restaurants");
+        assertThat(food.getChildren().getFirst().getChildren()).extracting(CategoryDto::getName).containsExactly("Organic");
+        assertThat(food.getChildren().get(1).getChildren()).isNull();
+        assertThat(result.get(1).getChildren()).isNull();
+        verify(categoryRepository, times(1)).findNodesByUserId(1L);
+        verify(categoryRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    void testGetCategoryTree_Flat_ReturnsEveryCategoryWithoutChildren() {
+        // Given
+        when(categoryRepository.findNodesByUserId(1L)).thenReturn(List.of(
+                node(1L, null, "Food"),
+                node(2L, 1L, "Groceries")
+        ));
+
+        // When
+        List<CategoryDto> result = categoryService.getCategoryTree(1L, true);
+
+        // Then
+        assertThat(result).extracting(CategoryDto::getId).containsExactly(1L, 2L);
+        assertThat(result).extracting(CategoryDto::getParentId).containsExactly(null, 1L);
+        assertThat(result).allSatisfy(category -> assertThat(category.getChildren()).isNull());
+    }
+
+    @Test
+    void testGetCategoryTree_UnknownParentAndCycle_EachCategoryReturnedOnce() {
+        // Given - 2's parent isn't one of the user's categories, 3 and 4 are each other's parent
+        when(categoryRepository.findNodesByUserId(1L)).thenReturn(List.of(
+                node(2L, 99L, "Orphan"),
+                node(3L, 4L, "Cycle A"),
+                node(4L, 3L, "Cycle B")
+        ));
+
+        // When
+        List<CategoryDto> result = categoryService.getCategoryTree(1L, false);
+
+        // Then
+        assertThat(result).extracting(CategoryDto::getId).containsExactly(2L, 3L);
+        assertThat(result.get(1).getChildren()).extracting(CategoryDto::getId).containsExactly(4L);
+        assertThat(result.get(1).getChildren().getFirst().getChildren()).isNull();
+    }
+
+    private static CategoryNode node(Long id, Long parentId, String name) {
+        return new CategoryNode(id, parentId, name, "#FF5733", CategoryType.OUTCOME);
+    }
+}
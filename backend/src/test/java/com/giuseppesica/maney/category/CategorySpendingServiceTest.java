@@ -0,0 +1,179 @@
+package com.giuseppesica.maney.category;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.control.CashMovementControl;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.model.CategoryRepository;
+import com.giuseppesica.maney.category.model.CategorySpendingDto;
+import com.giuseppesica.maney.category.service.CategorySpendingService;
+import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
+import com.giuseppesica.maney.user.model.User;
+import com.giuseppesica.maney.user.model.UserRepository;
+import com.giuseppesica.maney.utils.CashMovementType;
+import com.giuseppesica.maney.utils.CategoryType;
+import com.giuseppesica.maney.utils.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for CategorySpendingService.
+ * Builds a three-level category tree, posts movements through the real controller and
+ * checks direct and subtree totals over arbitrary ranges and over whole months.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:categoryspending",
+        "maney.balance-checkpoints.cron=-"
+})
+public class CategorySpendingServiceTest {
+
+    @Autowired
+    private CategorySpendingService categorySpendingService;
+
+    @Autowired
+    private CashMovementControl cashMovementControl;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LiquidityAccountRepository liquidityAccountRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Authentication authentication;
+    private AuthenticatedPrincipal principal;
+    private Category food;
+    private Category groceries;
+    private Category organic;
+    private Category restaurants;
+    private Category transport;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setUsername("spending");
+        user.setEmail("spending-" + System.nanoTime() + "@example.com");
+        user.setPasswordHash("hash");
+        user.setPortfolio(new Portfolio());
+        user = userRepository.save(user);
+
+        // Food > Groceries > Organic, Food > Restaurants, Transport
+        food = categoryRepository.save(newCategory("Food", null, user));
+        groceries = categoryRepository.save(newCategory("Groceries", food, user));
+        organic = categoryRepository.save(newCategory("Organic", groceries, user));
+        restaurants = categoryRepository.save(newCategory("Restaurants", food, user));
+        transport = categoryRepository.save(newCategory("Transport", null, user));
+
+        LiquidityAccount checking = new LiquidityAccount();
+        checking.setName("Checking");
+        checking.setInstitution("Bank");
+        checking.setBalance(new BigDecimal("1000.00"));
+        checking.setCurrency(Currency.EUR);
+        checking.setPortfolio(user.getPortfolio());
+        liquidityAccountRepository.save(checking);
+
+        authentication = new UsernamePasswordAuthenticationToken(
+                user.getEmail(), null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        principal = new AuthenticatedPrincipal(user.getId(), user.getPortfolio().getId(), user.getEmail());
+
+        create("2024-01-10T10:00:00Z", "30.00", CashMovementType.OUTCOME, groceries);
+        create("2024-01-15T10:00:00Z", "12.50", CashMovementType.OUTCOME, organic);
+        create("2024-01-20T10:00:00Z", "40.00", CashMovementType.OUTCOME, restaurants);
+        create("2024-01-05T10:00:00Z", "20.00", CashMovementType.OUTCOME, transport);
+        create("2024-01-25T10:00:00Z", "100.00", CashMovementType.INCOME, food);
+        create("2024-02-01T10:00:00Z", "10.00", CashMovementType.OUTCOME, food);
+    }
+
+    @Test
+    public void testGetSpending_ArbitraryRange_RollsUpSubtrees() {
+        List<CategorySpendingDto> spending = categorySpendingService.getSpending(principal,
+                Instant.parse("2024-01-02T00:00:00Z"), Instant.parse("2024-01-31T12:00:00Z"), CashMovementType.OUTCOME);
+
+        assertEquals(List.of(food.getId(), groceries.getId(), organic.getId(), restaurants.getId(), transport.getId()),
+                spending.stream().map(CategorySpendingDto::getCategoryId).toList());
+        assertSpending(spending.get(0), "0", 0, "82.50", 3);
+        assertSpending(spending.get(1), "30.00", 1, "42.50", 2);
+        assertSpending(spending.get(2), "12.50", 1, "12.50", 1);
+        assertSpending(spending.get(3), "40.00", 1, "40.00", 1);
+        assertSpending(spending.get(4), "20.00", 1, "20.00", 1);
+        assertEquals(groceries.getId(), spending.get(2).getParentId());
+    }
+
+    @Test
+    public void testGetSpending_WholeMonths_UsesRollupsWithSameResult() {
+        List<CategorySpendingDto> spending = categorySpendingService.getSpending(principal,
+                Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2024-03-01T00:00:00Z"), CashMovementType.OUTCOME);
+
+        assertEquals(5, spending.size());
+        assertSpending(spending.get(0), "10.00", 1, "92.50", 4);
+        assertSpending(spending.get(1), "30.00", 1, "42.50", 2);
+        assertSpending(spending.get(4), "20.00", 1, "20.00", 1);
+    }
+
+    @Test
+    public void testGetSpending_OnlyIncludesSubtreesWithMovements() {
+        List<CategorySpendingDto> income = categorySpendingService.getSpending(principal,
+                Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2024-02-01T00:00:00Z"), CashMovementType.INCOME);
+        List<CategorySpendingDto> february = categorySpendingService.getSpending(principal,
+                Instant.parse("2024-02-01T00:00:00Z"), Instant.parse("2024-02-02T00:00:00Z"), CashMovementType.OUTCOME);
+
+        assertEquals(1, income.size());
+        assertSpending(income.get(0), "100.00", 1, "100.00", 1);
+        assertEquals(List.of(food.getId()), february.stream().map(CategorySpendingDto::getCategoryId).toList());
+    }
+
+    @Test
+    public void testGetSpending_InvalidRange_ThrowsIllegalArgument() {
+        Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+        assertThrows(IllegalArgumentException.class,
+                () -> categorySpendingService.getSpending(principal, instant, instant, CashMovementType.OUTCOME));
+    }
+
+    private void create(String date, String amount, CashMovementType type, Category category) {
+        CashMovementDto dto = new CashMovementDto();
+        dto.setDate(Instant.parse(date));
+        dto.setAmount(new BigDecimal(amount));
+        dto.setType(type);
+        dto.setLiquidityAccountName("Checking");
+        dto.setCategoryId(category.getId());
+        cashMovementControl.createCashMovement(authentication, null, dto);
+    }
+
+    private static void assertSpending(CategorySpendingDto dto, String total, long count,
+                                       String subtreeTotal, long subtreeCount) {
+        assertEquals(0, new BigDecimal(total).compareTo(dto.getTotal()), dto.getName() + " total was " + dto.getTotal());
+        assertEquals(count, dto.getCount(), dto.getName() + " count");
+        assertEquals(0, new BigDecimal(subtreeTotal).compareTo(dto.getSubtreeTotal()),
+                dto.getName() + " subtree total was " + dto.getSubtreeTotal());
+        assertEquals(subtreeCount, dto.getSubtreeCount(), dto.getName() + " subtree count");
+    }
+
+    private static Category newCategory(String name, Category parent, User user) {
+        Category category = new Category();
+        category.setName(name);
+        category.setColor("#00FF00");
+        category.setType(CategoryType.BOTH);
+        category.setParent(parent);
+        category.setUser(user);
+        return category;
+    }
+}
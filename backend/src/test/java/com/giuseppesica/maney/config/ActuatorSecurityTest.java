@@ -0,0 +1,91 @@
+package com.giuseppesica.maney.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration test for the access rules of the actuator endpoints.
+ * Tests that health and info are public while Prometheus metrics and the reconciliation
+ * summary need the operator account.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:actuatorsecurity",
+        "maney.reconciliation.cron=-",
+        "maney.actuator.password=operator-secret"
+})
+public class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testHealthAndInfo_Public() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/info"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testPrometheus_WithoutOrWithWrongCredentials_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("operator", "wrong")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("someone", "operator-secret")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testPrometheus_OperatorCredentials_ReturnsMetrics() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("operator", "operator-secret")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("jvm_memory_used_bytes")));
+    }
+
+    @Test
+    public void testReconciliation_WithoutOrWithWrongCredentials_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(get("/actuator/reconciliation"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/reconciliation").with(httpBasic("operator", "wrong")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testReconciliation_OperatorCredentials_ReachesEndpoint() throws Exception {
+        // No run has completed in this context yet
+        mockMvc.perform(get("/actuator/reconciliation").with(httpBasic("operator", "operator-secret")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testOperatorAuthentication_NoPasswordConfigured_RejectsEveryone() {
+        Authentication blank = UsernamePasswordAuthenticationToken.unauthenticated("operator", "");
+
+        assertThrows(BadCredentialsException.class,
+                () -> SecurityConfig.operatorAuthenticationManager("operator", "").authenticate(blank));
+        assertTrue(SecurityConfig.operatorAuthenticationManager("operator", "secret")
+                .authenticate(UsernamePasswordAuthenticationToken.unauthenticated("operator", "secret"))
+                .getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_OPERATOR")));
+    }
+}
@@ -0,0 +1,79 @@
+package com.giuseppesica.maney.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ConnectionLimitingDataSource.
+ * Tests that permits bound borrowed connections and are released exactly once.
+ */
+public class ConnectionLimitingDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(target.getConnection()).thenReturn(connection);
+        dataSource = new ConnectionLimitingDataSource(target, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    public void testGetConnection_PermitsExhausted_TimesOut() throws SQLException {
+        Connection first = dataSource.getConnection();
+        dataSource.getConnection();
+        assertEquals(0, dataSource.getAvailablePermits());
+
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        verify(target, times(2)).getConnection();
+
+        first.close();
+        assertEquals(1, dataSource.getAvailablePermits());
+        assertNotNull(dataSource.getConnection());
+    }
+
+    @Test
+    public void testClose_Twice_ReleasesOnce() throws SQLException {
+        Connection borrowed = dataSource.getConnection();
+
+        borrowed.close();
+        borrowed.close();
+
+        assertEquals(2, dataSource.getAvailablePermits());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    public void testGetConnection_TargetFails_ReleasesPermit() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("down"));
+
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    public void testUnwrap_ReturnsPooledConnection() throws SQLException {
+        Connection borrowed = dataSource.getConnection();
+
+        assertSame(connection, borrowed.unwrap(Connection.class));
+        assertTrue(borrowed.isWrapperFor(Connection.class));
+    }
+}
@@ -0,0 +1,44 @@
+package com.giuseppesica.maney.config;
+
+import com.giuseppesica.maney.user.model.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the virtual-thread mode.
+ * Verifies that the data source is put behind the connection limiter, sized from the pool.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:virtualthreads",
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=4"
+})
+public class VirtualThreadConfigTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void testDataSource_IsLimitedToPoolSize() throws SQLException {
+        ConnectionLimitingDataSource limited = assertInstanceOf(ConnectionLimitingDataSource.class, dataSource);
+        assertEquals(4, limited.getAvailablePermits());
+        assertTrue(limited.isWrapperFor(HikariDataSource.class));
+
+        assertEquals(0, userRepository.count());
+        assertEquals(4, limited.getAvailablePermits());
+    }
+}
@@ -0,0 +1,217 @@
+package com.giuseppesica.maney.idempotency;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccountRepository;
+import com.giuseppesica.maney.account.operations.cashmovement.control.CashMovementControl;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.transfer.controller.TransferController;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferDto;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.model.CategoryRepository;
+import com.giuseppesica.maney.idempotency.model.IdempotencyRecord;
+import com.giuseppesica.maney.idempotency.model.IdempotencyRecordRepository;
+import com.giuseppesica.maney.idempotency.service.IdempotencyService;
+import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.user.model.User;
+import com.giuseppesica.maney.user.model.UserRepository;
+import com.giuseppesica.maney.utils.CashMovementType;
+import com.giuseppesica.maney.utils.CategoryType;
+import com.giuseppesica.maney.utils.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for IdempotencyService.
+ * Posts cash movements and transfers through the real controllers with an Idempotency-Key
+ * and checks that retries are answered from the stored response without moving money again.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency",
+        "maney.balance-checkpoints.cron=-",
+        "maney.idempotency.purge-cron=-"
+})
+public class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private CashMovementControl cashMovementControl;
+
+    @Autowired
+    private TransferController transferController;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LiquidityAccountRepository liquidityAccountRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Authentication authentication;
+    private Long portfolioId;
+    private Long categoryId;
+    private LiquidityAccount checking;
+    private LiquidityAccount savings;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setUsername("idempotency");
+        user.setEmail("idempotency-" + System.nanoTime() + "@example.com");
+        user.setPasswordHash("hash");
+        user.setPortfolio(new Portfolio());
+        user = userRepository.save(user);
+        portfolioId = user.getPortfolio().getId();
+
+        Category category = new Category();
+        category.setName("Varie");
+        category.setColor("#00FF00");
+        category.setType(CategoryType.BOTH);
+        category.setUser(user);
+        categoryId = categoryRepository.save(category).getId();
+
+        checking = liquidityAccountRepository.save(newAccount("Checking", user.getPortfolio()));
+        savings = liquidityAccountRepository.save(newAccount("Savings", user.getPortfolio()));
+
+        authentication = new UsernamePasswordAuthenticationToken(
+                user.getEmail(), null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    public void testCreateCashMovement_RetriedWithSameKey_AppliedOnce() {
+        ResponseEntity<CashMovementDto> first = cashMovementControl.createCashMovement(authentication, "movement-1", outcome("30.00"));
+        ResponseEntity<CashMovementDto> retry = cashMovementControl.createCashMovement(authentication, "movement-1", outcome("30.00"));
+
+        assertNotNull(first.getBody());
+        assertNotNull(retry.getBody());
+        assertEquals(first.getBody().getId(), retry.getBody().getId());
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertBalance(checking, "970.00");
+    }
+
+    @Test
+    public void testCreateCashMovement_DifferentKeys_AppliedTwice() {
+        cashMovementControl.createCashMovement(authentication, "movement-1", outcome("30.00"));
+        cashMovementControl.createCashMovement(authentication, "movement-2", outcome("30.00"));
+        cashMovementControl.createCashMovement(authentication, null, outcome("30.00"));
+
+        assertBalance(checking, "910.00");
+    }
+
+    @Test
+    public void testCreateCashMovement_KeyReusedForDifferentRequest_Rejected() {
+        cashMovementControl.createCashMovement(authentication, "movement-1", outcome("30.00"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cashMovementControl.createCashMovement(authentication, "movement-1", outcome("31.00")));
+        assertThrows(IllegalArgumentException.class,
+                () -> transferController.createTransferById(authentication, "movement-1", transfer("30.00")));
+        assertBalance(checking, "970.00");
+    }
+
+    @Test
+    public void testCreateCashMovement_FailedRequest_KeyCanBeRetried() {
+        CashMovementDto unknownAccount = outcome("30.00");
+        unknownAccount.setLiquidityAccountName("Missing");
+
+        assertThrows(RuntimeException.class,
+                () -> cashMovementControl.createCashMovement(authentication, "movement-1", unknownAccount));
+        assertTrue(idempotencyRecordRepository.findByPortfolioIdAndIdempotencyKey(portfolioId, "movement-1").isEmpty());
+
+        cashMovementControl.createCashMovement(authentication, "movement-1", outcome("30.00"));
+        assertBalance(checking, "970.00");
+    }
+
+    @Test
+    public void testCreateTransfer_RetriedWithSameKey_AppliedOnce() {
+        ResponseEntity<TransferDto> first = transferController.createTransferById(authentication, "transfer-1", transfer("200.00"));
+        ResponseEntity<TransferDto> retry = transferController.createTransferById(authentication, "transfer-1", transfer("200.00"));
+
+        assertNotNull(first.getBody());
+        assertNotNull(retry.getBody());
+        assertEquals(first.getBody().getId(), retry.getBody().getId());
+        assertBalance(checking, "800.00");
+        assertBalance(savings, "1200.00");
+    }
+
+    @Test
+    public void testPurgeExpired_DeletesOnlyExpiredRecords() {
+        cashMovementControl.createCashMovement(authentication, "expired", outcome("10.00"));
+        cashMovementControl.createCashMovement(authentication, "current", outcome("20.00"));
+        IdempotencyRecord expired = idempotencyRecordRepository
+                .findByPortfolioIdAndIdempotencyKey(portfolioId, "expired").orElseThrow();
+        expired.setExpiresAt(Instant.now().minusSeconds(1));
+        idempotencyRecordRepository.save(expired);
+
+        assertTrue(idempotencyService.purgeExpired() >= 1);
+
+        assertTrue(idempotencyRecordRepository.findByPortfolioIdAndIdempotencyKey(portfolioId, "expired").isEmpty());
+        assertTrue(idempotencyRecordRepository.findByPortfolioIdAndIdempotencyKey(portfolioId, "current").isPresent());
+    }
+
+    @Test
+    public void testExecute_InvalidKey_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> cashMovementControl.createCashMovement(authentication, " ", outcome("30.00")));
+        assertThrows(IllegalArgumentException.class,
+                () -> cashMovementControl.createCashMovement(authentication, "k".repeat(256), outcome("30.00")));
+        assertBalance(checking, "1000.00");
+    }
+
+    private void assertBalance(LiquidityAccount account, String expected) {
+        BigDecimal balance = liquidityAccountRepository.findById(account.getId()).orElseThrow().getBalance();
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), account.getName() + " balance was " + balance);
+    }
+
+    private CashMovementDto outcome(String amount) {
+        CashMovementDto dto = new CashMovementDto();
+        dto.setDate(Instant.parse("2024-03-01T10:00:00Z"));
+        dto.setAmount(new BigDecimal(amount));
+        dto.setType(CashMovementType.OUTCOME);
+        dto.setLiquidityAccountName("Checking");
+        dto.setCategoryId(categoryId);
+        return dto;
+    }
+
+    private static TransferDto transfer(String amount) {
+        TransferDto dto = new TransferDto();
+        dto.setDate(Instant.parse("2024-03-05T10:00:00Z"));
+        dto.setFromAccountName("Checking");
+        dto.setToAccountName("Savings");
+        dto.setAmount(new BigDecimal(amount));
+        return dto;
+    }
+
+    private static LiquidityAccount newAccount(String name, Portfolio portfolio) {
+        LiquidityAccount account = new LiquidityAccount();
+        account.setName(name);
+        account.setInstitution("Bank");
+        account.setBalance(new BigDecimal("1000.00"));
+        account.setCurrency(Currency.EUR);
+        account.setPortfolio(portfolio);
+        return account;
+    }
+}
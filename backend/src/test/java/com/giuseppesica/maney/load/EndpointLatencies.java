@@ -0,0 +1,100 @@
+package com.giuseppesica.maney.load;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Latencies of the requests sent to each endpoint during a load test, reported as
+ * throughput and p50/p95/p99/max latency per endpoint.
+ *
+ * <p>Every latency is kept, so percentiles are exact; at load-test volumes (a few million
+ * requests) this costs a few tens of megabytes.</p>
+ */
+class EndpointLatencies {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+
+    /**
+     * Records one request.
+     *
+     * @param endpoint endpoint name, e.g. {@code "GET /transfers"}
+     * @param nanos request latency in nanoseconds
+     * @param error description of the failure, or {@code null} if the request succeeded
+     */
+    void record(String endpoint, long nanos, String error) {
+        endpoints.computeIfAbsent(endpoint, name -> new Endpoint()).record(nanos, error);
+    }
+
+    long errors() {
+        return endpoints.values().stream().mapToLong(endpoint -> endpoint.errors).sum();
+    }
+
+    /**
+     * Formats one line per endpoint and a total line.
+     *
+     * @param elapsedNanos duration of the measured phase
+     * @return the report table
+     */
+    String report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        StringBuilder report = new StringBuilder(String.format("%-42s %9s %9s %9s %9s %9s %9s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors"));
+        Endpoint total = new Endpoint();
+        endpoints.forEach((name, endpoint) -> {
+            report.append(endpoint.line(name, seconds));
+            total.addAll(endpoint);
+        });
+        report.append(total.line("total", seconds));
+        endpoints.forEach((name, endpoint) -> {
+            if (endpoint.firstError != null) {
+                report.append(String.format("first error of %s: %s%n", name, endpoint.firstError));
+            }
+        });
+        return report.toString();
+    }
+
+    private static final class Endpoint {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        private String firstError;
+
+        private synchronized void record(long nanos, String error) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (error != null && errors++ == 0) {
+                firstError = error;
+            }
+        }
+
+        private synchronized void addAll(Endpoint other) {
+            synchronized (other) {
+                for (int i = 0; i < other.count; i++) {
+                    record(other.latencies[i], null);
+                }
+                errors += other.errors;
+            }
+        }
+
+        private synchronized String line(String name, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return String.format("%-42s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7d%n",
+                    name, count, count / seconds,
+                    percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.95),
+                    percentileMillis(sorted, 0.99), percentileMillis(sorted, 1.0), errors);
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.giuseppesica.maney.load;
+
+import com.giuseppesica.maney.ManeyApplication;
+import com.giuseppesica.maney.load.SyntheticPortfolioGenerator.SeededUser;
+import com.giuseppesica.maney.load.SyntheticPortfolioGenerator.Settings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end load test: seeds a synthetic dataset, then drives a mixed read/write workload
+ * against the REST endpoints and reports throughput and p50/p95/p99 latency per endpoint.
+ *
+ * <p>Disabled by default; run it with</p>
+ * <pre>
+ * mvn test -Dtest=PortfolioLoadTest -Dmaney.loadtest=true [-Dmaney.loadtest.users=20]
+ *     [-Dmaney.loadtest.accounts=3] [-Dmaney.loadtest.categories=4] [-Dmaney.loadtest.years=2]
+ *     [-Dmaney.loadtest.movements-per-month=30] [-Dmaney.loadtest.transfers-per-month=4]
+ *     [-Dmaney.loadtest.clients=32] [-Dmaney.loadtest.warmup-seconds=10] [-Dmaney.loadtest.duration-seconds=60]
+ * </pre>
+ *
+ * <p>The application starts on a random port. By default it runs against an in-memory H2
+ * database in PostgreSQL mode, with the schema created by Hibernate. To measure against a
+ * real PostgreSQL server installed on the machine, pass an empty database with
+ * {@code -Dmaney.loadtest.datasource-url=jdbc:postgresql://localhost:5432/maney_load},
+ * {@code -Dmaney.loadtest.datasource-username} and {@code -Dmaney.loadtest.datasource-password};
+ * the schema is then created by the Flyway migrations, partitions included. Scheduled jobs
+ * are disabled in both cases.</p>
+ *
+ * <p>The dataset is seeded through the services (see {@link SyntheticPortfolioGenerator}).
+ * Each client then logs in as one of the users and sends requests back to back, picking
+ * the endpoint at random with the weights of {@link #WORKLOAD}. Requests sent during the
+ * warm-up are not measured.</p>
+ */
+@EnabledIfSystemProperty(named = "maney.loadtest", matches = "true")
+public class PortfolioLoadTest {
+
+    private static final String ACCOUNTS = "/user/portfolio/liquidity-accounts";
+    private static final String MOVEMENTS = ACCOUNTS + "/cash-movements";
+    private static final String TRANSFERS = ACCOUNTS + "/transfers";
+    private static final String CATEGORIES = "/user/categories";
+    private static final Pattern SET_COOKIE = Pattern.compile("^([^=;]+)=([^;]*)");
+    private static final Pattern CSRF_TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    /**
+     * Endpoints of the workload and their relative weights: mostly reads, as the frontend
+     * issues them, with one write in six requests.
+     */
+    private static final Map<String, Integer> WORKLOAD = new LinkedHashMap<>();
+
+    static {
+        WORKLOAD.put("GET /cash-movements", 20);
+        WORKLOAD.put("GET /cash-movements?accountId&from&to", 15);
+        WORKLOAD.put("GET /cash-movements/rollups", 5);
+        WORKLOAD.put("GET /liquidity-accounts", 10);
+        WORKLOAD.put("GET /liquidity-accounts/{id}/balance?at", 10);
+        WORKLOAD.put("GET /liquidity-accounts/balance-series", 5);
+        WORKLOAD.put("GET /categories/tree", 10);
+        WORKLOAD.put("GET /categories/spending", 5);
+        WORKLOAD.put("GET /transfers", 5);
+        WORKLOAD.put("POST /cash-movements", 12);
+        WORKLOAD.put("POST /transfers", 3);
+    }
+
+    private final Settings settings = Settings.fromSystemProperties();
+    private final int clients = Integer.getInteger("maney.loadtest.clients", 32);
+    private final Duration warmup = Duration.ofSeconds(Integer.getInteger("maney.loadtest.warmup-seconds", 10));
+    private final Duration duration = Duration.ofSeconds(Integer.getInteger("maney.loadtest.duration-seconds", 60));
+
+    @Test
+    public void testMixedWorkload() throws Exception {
+        try (ConfigurableApplicationContext context = start();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long seedStart = System.nanoTime();
+            List<SeededUser> users = new SyntheticPortfolioGenerator(settings, context)
+                    .seed(Runtime.getRuntime().availableProcessors());
+            long seedNanos = System.nanoTime() - seedStart;
+            System.out.printf("%nSeeded %d users with %d operations in %.1f s%n",
+                    settings.users(), settings.operations(), seedNanos / 1_000_000_000.0);
+
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            String base = "http://localhost:" + port;
+
+            List<Future<Session>> logins = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                SeededUser user = users.get(i % users.size());
+                logins.add(executor.submit(() -> Session.open(http, base, user)));
+            }
+            List<Session> sessions = new ArrayList<>(clients);
+            for (Future<Session> login : logins) {
+                sessions.add(login.get());
+            }
+
+            EndpointLatencies latencies = new EndpointLatencies();
+            long measureFrom = System.nanoTime() + warmup.toNanos();
+            long measureUntil = measureFrom + duration.toNanos();
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                Session session = sessions.get(i);
+                Random random = new Random(settings.seed() + i);
+                futures.add(executor.submit(() -> {
+                    drive(http, session, random, latencies, measureFrom, measureUntil);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            System.out.printf("%d clients, %d s measured after %d s warm-up%n",
+                    clients, duration.toSeconds(), warmup.toSeconds());
+            System.out.print(latencies.report(duration.toNanos()));
+            assertEquals(0, latencies.errors(), "requests failed");
+        }
+    }
+
+    private static ConfigurableApplicationContext start() {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--maney.balance-checkpoints.cron=-",
+                "--maney.ledger.snapshot-cron=-",
+                "--maney.reconciliation.cron=-",
+                "--maney.operations.partition-cron=-",
+                "--maney.idempotency.purge-cron=-",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.com.giuseppesica.maney=WARN"));
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ManeyApplication.class);
+        String url = System.getProperty("maney.loadtest.datasource-url");
+        if (url == null) {
+            builder.profiles("test");
+            args.add("--spring.datasource.url=jdbc:h2:mem:portfolio-load;MODE=PostgreSQL");
+        } else {
+            args.add("--spring.datasource.url=" + url);
+            args.add("--spring.datasource.username=" + System.getProperty("maney.loadtest.datasource-username", "maney"));
+            args.add("--spring.datasource.password=" + System.getProperty("maney.loadtest.datasource-password", ""));
+        }
+        return builder.run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Sends requests back to back until {@code measureUntil}, recording those sent from
+     * {@code measureFrom} on.
+     */
+    private static void drive(HttpClient http, Session session, Random random, EndpointLatencies latencies,
+                              long measureFrom, long measureUntil) throws Exception {
+        int totalWeight = WORKLOAD.values().stream().mapToInt(Integer::intValue).sum();
+        while (true) {
+            String endpoint = pick(random, totalWeight);
+            HttpRequest request = session.request(endpoint, random);
+            long begin = System.nanoTime();
+            if (begin >= measureUntil) {
+                return;
+            }
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            long latency = System.nanoTime() - begin;
+            if (begin >= measureFrom) {
+                String error = response.statusCode() / 100 == 2 ? null : response.statusCode() + " " + response.body();
+                latencies.record(endpoint, latency, error);
+            }
+        }
+    }
+
+    private static String pick(Random random, int totalWeight) {
+        int ticket = random.nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : WORKLOAD.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * A logged-in user: session cookie plus the CSRF token required by writes.
+     */
+    private record Session(String base, SeededUser user, String cookies, String csrfToken) {
+
+        static Session open(HttpClient http, String base, SeededUser user) throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/user/login"))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofMinutes(2))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + user.email()
+                            + "\",\"password\":\"" + SyntheticPortfolioGenerator.PASSWORD + "\"}"))
+                    .build();
+            // Logins shed by the password hashing pool (503) are retried with jittered backoff
+            HttpResponse<String> login = http.send(request, HttpResponse.BodyHandlers.ofString());
+            for (long backoffMillis = 100; login.statusCode() == 503 && backoffMillis <= 6_400; backoffMillis *= 2) {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis / 2, backoffMillis + 1));
+                login = http.send(request, HttpResponse.BodyHandlers.ofString());
+            }
+            assertEquals(200, login.statusCode(), login.body());
+            Map<String, String> cookies = new LinkedHashMap<>();
+            addCookies(cookies, login);
+
+            HttpResponse<String> csrf = http.send(HttpRequest.newBuilder(URI.create(base + "/api/csrf"))
+                    .header("Cookie", join(cookies))
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, csrf.statusCode(), csrf.body());
+            addCookies(cookies, csrf);
+            Matcher token = CSRF_TOKEN.matcher(csrf.body());
+            assertTrue(token.find(), csrf.body());
+            return new Session(base, user, join(cookies), token.group(1));
+        }
+
+        HttpRequest request(String endpoint, Random random) {
+            int account = random.nextInt(user.accountIds().size());
+            YearMonth month = randomMonth(random);
+            Instant from = month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            Instant to = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            return switch (endpoint) {
+                case "GET /cash-movements" -> get(MOVEMENTS);
+                case "GET /cash-movements?accountId&from&to" -> get(MOVEMENTS + "?accountId=" + user.accountIds().get(account)
+                        + "&from=" + from + "&to=" + to);
+                case "GET /cash-movements/rollups" -> get(MOVEMENTS + "/rollups?from=" + user.firstMonth()
+                        + "&to=" + YearMonth.now(ZoneOffset.UTC));
+                case "GET /liquidity-accounts" -> get(ACCOUNTS);
+                case "GET /liquidity-accounts/{id}/balance?at" -> get(ACCOUNTS + "/" + user.accountIds().get(account)
+                        + "/balance?at=" + SyntheticPortfolioGenerator.randomInstant(random, month));
+                case "GET /liquidity-accounts/balance-series" -> get(ACCOUNTS + "/balance-series?from="
+                        + user.firstMonth().atDay(1) + "&to=" + LocalDate.now(ZoneOffset.UTC) + "&interval=MONTH");
+                case "GET /categories/tree" -> get(CATEGORIES + "/tree");
+                case "GET /categories/spending" -> get(CATEGORIES + "/spending?from=" + from + "&to=" + to);
+                case "GET /transfers" -> get(TRANSFERS);
+                case "POST /cash-movements" -> post(MOVEMENTS, String.format(
+                        "{\"date\":\"%s\",\"amount\":%s,\"type\":\"OUTCOME\",\"liquidityAccountName\":\"%s\",\"categoryId\":%d}",
+                        Instant.now(), SyntheticPortfolioGenerator.amount(random, 2, 120),
+                        user.accountNames().get(account),
+                        user.expenseCategoryIds().get(random.nextInt(user.expenseCategoryIds().size()))));
+                case "POST /transfers" -> post(TRANSFERS, String.format(
+                        "{\"date\":\"%s\",\"amount\":%s,\"fromAccountName\":\"%s\",\"toAccountName\":\"%s\"}",
+                        Instant.now(), SyntheticPortfolioGenerator.amount(random, 50, 500),
+                        user.accountNames().get(account),
+                        user.accountNames().get((account + 1) % user.accountNames().size())));
+                default -> throw new IllegalArgumentException("Unknown endpoint " + endpoint);
+            };
+        }
+
+        private YearMonth randomMonth(Random random) {
+            YearMonth now = YearMonth.now(ZoneOffset.UTC);
+            long months = user.firstMonth().until(now, ChronoUnit.MONTHS) + 1;
+            return user.firstMonth().plusMonths(random.nextLong(months));
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(base + path))
+                    .header("Cookie", cookies)
+                    .timeout(Duration.ofMinutes(2))
+                    .GET()
+                    .build();
+        }
+
+        private HttpRequest post(String path, String json) {
+            return HttpRequest.newBuilder(URI.create(base + path))
+                    .header("Cookie", cookies)
+                    .header("X-XSRF-TOKEN", csrfToken)
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofMinutes(2))
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+
+        private static void addCookies(Map<String, String> cookies, HttpResponse<?> response) {
+            for (String header : response.headers().allValues("Set-Cookie")) {
+                Matcher cookie = SET_COOKIE.matcher(header);
+                if (cookie.find()) {
+                    cookies.put(cookie.group(1).trim(), cookie.group(2));
+                }
+            }
+        }
+
+        private static String join(Map<String, String> cookies) {
+            return String.join("; ", cookies.entrySet().stream()
+                    .map(cookie -> cookie.getKey() + "=" + cookie.getValue())
+                    .toList());
+        }
+    }
+}
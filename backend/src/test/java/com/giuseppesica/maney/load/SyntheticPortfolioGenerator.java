@@ -0,0 +1,295 @@
+package com.giuseppesica.maney.load;
+
+import com.giuseppesica.maney.account.liquidityaccount.model.LiquidityAccount;
+import com.giuseppesica.maney.account.liquidityaccount.service.LiquidityAccountService;
+import com.giuseppesica.maney.account.operations.cashmovement.model.CashMovementDto;
+import com.giuseppesica.maney.account.operations.cashmovement.service.CashMovementImportService;
+import com.giuseppesica.maney.account.operations.transfer.controller.TransferController;
+import com.giuseppesica.maney.account.operations.transfer.model.TransferDto;
+import com.giuseppesica.maney.category.model.Category;
+import com.giuseppesica.maney.category.service.CategoryService;
+import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
+import com.giuseppesica.maney.user.model.User;
+import com.giuseppesica.maney.user.service.UserService;
+import com.giuseppesica.maney.utils.CashMovementType;
+import com.giuseppesica.maney.utils.CategoryType;
+import com.giuseppesica.maney.utils.Currency;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Seeds a synthetic dataset through the application services, so balances, ledger entries,
+ * category rollups and caches end up exactly as if users had entered the data.
+ *
+ * <p>Each user gets a portfolio, {@code accounts} liquidity accounts, a category tree of
+ * {@code categories} roots with three subcategories each, and {@code years} of history:
+ * every month, each account receives one salary and {@code movementsPerMonth - 1} expenses,
+ * and the user moves money between accounts {@code transfersPerMonth} times. Cash movements
+ * go through the bulk import, transfers through the batch transfer endpoint method. Data is
+ * derived from a fixed seed per user, so two runs with the same settings seed the same
+ * dataset.</p>
+ */
+class SyntheticPortfolioGenerator {
+
+    static final String PASSWORD = "load-test-password";
+
+    private static final int SUBCATEGORIES = 3;
+    private static final int TRANSFER_BATCH_SIZE = 500;
+    private static final String[] NOTES = {null, "Groceries", "Fuel", "Restaurant", "Pharmacy", "Online order"};
+
+    /**
+     * Dataset shape.
+     *
+     * @param users number of users, each with a portfolio
+     * @param accounts liquidity accounts per user (at least 2 for transfers)
+     * @param categories root categories per user
+     * @param years months of history, in years, ending with the current month
+     * @param movementsPerMonth cash movements per account and month
+     * @param transfersPerMonth transfers per user and month
+     * @param seed seed of the random data
+     */
+    record Settings(int users, int accounts, int categories, int years,
+                    int movementsPerMonth, int transfersPerMonth, long seed) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("maney.loadtest.users", 20),
+                    Integer.getInteger("maney.loadtest.accounts", 3),
+                    Integer.getInteger("maney.loadtest.categories", 4),
+                    Integer.getInteger("maney.loadtest.years", 2),
+                    Integer.getInteger("maney.loadtest.movements-per-month", 30),
+                    Integer.getInteger("maney.loadtest.transfers-per-month", 4),
+                    Long.getLong("maney.loadtest.seed", 42L));
+        }
+
+        long operations() {
+            long months = years * 12L;
+            return users * months * ((long) accounts * movementsPerMonth + transfersPerMonth);
+        }
+    }
+
+    /**
+     * A seeded user, with what the workload needs to build requests.
+     *
+     * @param email login email
+     * @param accountIds liquidity account IDs
+     * @param accountNames liquidity account names, in the same order
+     * @param expenseCategoryIds IDs of the OUTCOME subcategories
+     * @param firstMonth first month of history
+     */
+    record SeededUser(String email, List<Long> accountIds, List<String> accountNames,
+                      List<Long> expenseCategoryIds, YearMonth firstMonth) {
+    }
+
+    private final Settings settings;
+    private final UserService userService;
+    private final LiquidityAccountService liquidityAccountService;
+    private final CategoryService categoryService;
+    private final CashMovementImportService cashMovementImportService;
+    private final TransferController transferController;
+    private final TransactionTemplate transactionTemplate;
+
+    SyntheticPortfolioGenerator(Settings settings, ApplicationContext context) {
+        if (settings.accounts() < 2 && settings.transfersPerMonth() > 0) {
+            throw new IllegalArgumentException("Transfers need at least 2 accounts per user");
+        }
+        this.settings = settings;
+        this.userService = context.getBean(UserService.class);
+        this.liquidityAccountService = context.getBean(LiquidityAccountService.class);
+        this.categoryService = context.getBean(CategoryService.class);
+        this.cashMovementImportService = context.getBean(CashMovementImportService.class);
+        this.transferController = context.getBean(TransferController.class);
+        this.transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    /**
+     * Seeds every user, several users at a time.
+     *
+     * @param parallelism number of users seeded concurrently
+     * @return the seeded users, in creation order
+     */
+    List<SeededUser> seed(int parallelism) throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            List<Future<SeededUser>> futures = new ArrayList<>(settings.users());
+            for (int i = 0; i < settings.users(); i++) {
+                int index = i;
+                futures.add(executor.submit(() -> seedUser(index)));
+            }
+            List<SeededUser> users = new ArrayList<>(settings.users());
+            for (Future<SeededUser> future : futures) {
+                users.add(future.get());
+            }
+            return users;
+        }
+    }
+
+    private SeededUser seedUser(int index) {
+        Random random = new Random(settings.seed() * 31 + index);
+        String email = "load-" + index + "@example.com";
+        User user = transactionTemplate.execute(status -> {
+            User registered = userService.register("load-" + index, email, PASSWORD);
+            registered.setPortfolio(new Portfolio());
+            return registered;
+        });
+        Long portfolioId = user.getPortfolio().getId();
+        AuthenticatedPrincipal principal = new AuthenticatedPrincipal(user.getId(), portfolioId, email);
+
+        List<Long> incomeCategoryIds = new ArrayList<>();
+        List<Long> expenseCategoryIds = new ArrayList<>();
+        for (int i = 0; i < settings.categories(); i++) {
+            CategoryType type = i == 0 ? CategoryType.INCOME : CategoryType.OUTCOME;
+            Category root = saveCategory(user, null, "Category " + i, type);
+            for (int j = 0; j < SUBCATEGORIES; j++) {
+                Category child = saveCategory(user, root, "Category " + i + "." + j, type);
+                (type == CategoryType.INCOME ? incomeCategoryIds : expenseCategoryIds).add(child.getId());
+            }
+        }
+
+        List<Long> accountIds = new ArrayList<>(settings.accounts());
+        List<String> accountNames = new ArrayList<>(settings.accounts());
+        for (int i = 0; i < settings.accounts(); i++) {
+            LiquidityAccount account = new LiquidityAccount();
+            account.setName("Account " + i);
+            account.setInstitution("Bank " + (i % 3));
+            account.setBalance(new BigDecimal("5000.00"));
+            account.setCurrency(Currency.EUR);
+            account.setPortfolio(user.getPortfolio());
+            accountIds.add(liquidityAccountService.saveLiquidityAccount(account).getId());
+            accountNames.add(account.getName());
+        }
+
+        YearMonth firstMonth = YearMonth.now(ZoneOffset.UTC).minusMonths(settings.years() * 12L - 1);
+        if (settings.movementsPerMonth() > 0 && !expenseCategoryIds.isEmpty()) {
+            cashMovementImportService.importCashMovements(principal,
+                    new MovementIterator(random, firstMonth, accountNames, incomeCategoryIds, expenseCategoryIds));
+        }
+        if (settings.transfersPerMonth() > 0) {
+            seedTransfers(random, email, firstMonth, accountNames);
+        }
+        return new SeededUser(email, List.copyOf(accountIds), List.copyOf(accountNames),
+                List.copyOf(expenseCategoryIds), firstMonth);
+    }
+
+    private Category saveCategory(User user, Category parent, String name, CategoryType type) {
+        Category category = new Category();
+        category.setName(name);
+        category.setColor(String.format("#%06X", name.hashCode() & 0xFFFFFF));
+        category.setType(type);
+        category.setParent(parent);
+        category.setUser(user);
+        return categoryService.saveCategory(category);
+    }
+
+    private void seedTransfers(Random random, String email, YearMonth firstMonth, List<String> accountNames) {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                email, null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        List<TransferDto> batch = new ArrayList<>();
+        for (YearMonth month = firstMonth; !month.isAfter(YearMonth.now(ZoneOffset.UTC)); month = month.plusMonths(1)) {
+            for (int i = 0; i < settings.transfersPerMonth(); i++) {
+                int from = random.nextInt(accountNames.size());
+                int to = (from + 1 + random.nextInt(accountNames.size() - 1)) % accountNames.size();
+                TransferDto transfer = new TransferDto();
+                transfer.setDate(randomInstant(random, month));
+                transfer.setFromAccountName(accountNames.get(from));
+                transfer.setToAccountName(accountNames.get(to));
+                transfer.setAmount(amount(random, 50, 500));
+                batch.add(transfer);
+                if (batch.size() == TRANSFER_BATCH_SIZE) {
+                    transferController.createTransfers(authentication, batch);
+                    batch = new ArrayList<>();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            transferController.createTransfers(authentication, batch);
+        }
+    }
+
+    static Instant randomInstant(Random random, YearMonth month) {
+        Instant start = month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant end = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        end = end.isAfter(Instant.now()) ? Instant.now() : end;
+        return start.plusSeconds(random.nextLong(Math.max(1, end.getEpochSecond() - start.getEpochSecond())));
+    }
+
+    static BigDecimal amount(Random random, int min, int max) {
+        return BigDecimal.valueOf(random.nextLong(min * 100L, max * 100L), 2);
+    }
+
+    /**
+     * Generates the cash movements of one user month by month, without holding them in memory.
+     * The first movement of each account and month is a salary, the others are expenses.
+     */
+    private class MovementIterator implements Iterator<CashMovementDto> {
+
+        private final Random random;
+        private final List<String> accountNames;
+        private final List<Long> incomeCategoryIds;
+        private final List<Long> expenseCategoryIds;
+        private final YearMonth lastMonth = YearMonth.now(ZoneOffset.UTC);
+        private YearMonth month;
+        private int account;
+        private int movement;
+
+        private MovementIterator(Random random, YearMonth firstMonth, List<String> accountNames,
+                                 List<Long> incomeCategoryIds, List<Long> expenseCategoryIds) {
+            this.random = random;
+            this.month = firstMonth;
+            this.accountNames = accountNames;
+            this.incomeCategoryIds = incomeCategoryIds;
+            this.expenseCategoryIds = expenseCategoryIds;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !month.isAfter(lastMonth);
+        }
+
+        @Override
+        public CashMovementDto next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            boolean salary = movement == 0 && !incomeCategoryIds.isEmpty();
+            CashMovementDto dto = new CashMovementDto();
+            dto.setDate(randomInstant(random, month));
+            dto.setLiquidityAccountName(accountNames.get(account));
+            if (salary) {
+                dto.setType(CashMovementType.INCOME);
+                dto.setAmount(amount(random, 1500, 3000));
+                dto.setCategoryId(incomeCategoryIds.get(random.nextInt(incomeCategoryIds.size())));
+                dto.setNote("Salary");
+            } else {
+                dto.setType(CashMovementType.OUTCOME);
+                dto.setAmount(amount(random, 2, 120));
+                dto.setCategoryId(expenseCategoryIds.get(random.nextInt(expenseCategoryIds.size())));
+                dto.setNote(NOTES[random.nextInt(NOTES.length)]);
+            }
+
+            if (++movement == settings.movementsPerMonth()) {
+                movement = 0;
+                if (++account == accountNames.size()) {
+                    account = 0;
+                    month = month.plusMonths(1);
+                }
+            }
+            return dto;
+        }
+    }
+}
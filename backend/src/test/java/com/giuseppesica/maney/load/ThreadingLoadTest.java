@@ -0,0 +1,215 @@
+package com.giuseppesica.maney.load;
+
+import com.giuseppesica.maney.ManeyApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test comparing request execution on platform threads and on virtual threads.
+ *
+ * <p>Disabled by default; run it with</p>
+ * <pre>
+ * mvn test -Dtest=ThreadingLoadTest -Dmaney.loadtest=true [-Dmaney.loadtest.sessions=1000] [-Dmaney.loadtest.requests=20]
+ * </pre>
+ *
+ * <p>For each mode the application is started on a random port against its own in-memory
+ * database. The configured number of sessions log in, then all of them request the cash
+ * movement listing concurrently. Throughput, p50 and p99 latency and the number of
+ * non-200 responses are printed for both modes.</p>
+ *
+ * <p>Logins are not measured. The password hashing pool accepts only a few at once and sheds
+ * the rest with 503 (see {@code PasswordHashingService}), so at most {@link #LOGIN_CONCURRENCY}
+ * are in flight, and a shed login is retried with jittered exponential backoff until
+ * {@link #LOGIN_DEADLINE}.</p>
+ */
+@EnabledIfSystemProperty(named = "maney.loadtest", matches = "true")
+public class ThreadingLoadTest {
+
+    private static final String EMAIL = "load@example.com";
+    private static final String PASSWORD = "load-test-password";
+    private static final String LISTING = "/user/portfolio/liquidity-accounts/cash-movements";
+    private static final int LOGIN_CONCURRENCY = 16;
+    private static final Duration LOGIN_DEADLINE = Duration.ofMinutes(5);
+    private static final long MAX_LOGIN_BACKOFF_MILLIS = 2_000;
+
+    private final int sessions = Integer.getInteger("maney.loadtest.sessions", 1000);
+    private final int requestsPerSession = Integer.getInteger("maney.loadtest.requests", 20);
+
+    @Test
+    public void testCompareThreadingModes() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%n%d sessions x %d requests%n", sessions, requestsPerSession);
+        System.out.printf("%-10s %12s %10s %10s %8s%n", "threads", "req/s", "p50 ms", "p99 ms", "errors");
+        System.out.println(platform);
+        System.out.println(virtual);
+
+        assertEquals(0, platform.errors, "platform threads returned errors");
+        assertEquals(0, virtual.errors, "virtual threads returned errors");
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ManeyApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "logging.level.root=WARN",
+                        "logging.level.com.giuseppesica.maney=WARN")
+                .run();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clients)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            String base = "http://localhost:" + port;
+
+            send(http, post(base + "/user/register",
+                    "{\"username\":\"load\",\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"));
+            List<String> cookies = login(http, clients, base);
+
+            // Warm-up round, not measured
+            hammer(http, clients, base, cookies, 1);
+
+            return hammer(http, clients, base, cookies, requestsPerSession)
+                    .named(virtualThreads ? "virtual" : "platform");
+        }
+    }
+
+    private List<String> login(HttpClient http, ExecutorService clients, String base) throws Exception {
+        HttpRequest login = post(base + "/user/login",
+                "{\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}");
+        Semaphore inFlight = new Semaphore(LOGIN_CONCURRENCY);
+        long deadline = System.nanoTime() + LOGIN_DEADLINE.toNanos();
+        List<Future<String>> futures = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            futures.add(clients.submit(() -> {
+                HttpResponse<String> response;
+                inFlight.acquire();
+                try {
+                    response = send(http, login);
+                    long backoffMillis = 100;
+                    while (response.statusCode() == 503 && System.nanoTime() < deadline) {
+                        Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis / 2, backoffMillis + 1));
+                        backoffMillis = Math.min(backoffMillis * 2, MAX_LOGIN_BACKOFF_MILLIS);
+                        response = send(http, login);
+                    }
+                } finally {
+                    inFlight.release();
+                }
+                assertEquals(200, response.statusCode(), response.body());
+                return response.headers().firstValue("Set-Cookie").orElseThrow().split(";", 2)[0];
+            }));
+        }
+        List<String> cookies = new ArrayList<>(sessions);
+        for (Future<String> future : futures) {
+            cookies.add(future.get());
+        }
+        return cookies;
+    }
+
+    private Result hammer(HttpClient http, ExecutorService clients, String base, List<String> cookies,
+                          int requests) throws Exception {
+        long[] latencies = new long[cookies.size() * requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(cookies.size());
+
+        long start = System.nanoTime();
+        for (String cookie : cookies) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + LISTING))
+                    .header("Cookie", cookie)
+                    .timeout(Duration.ofMinutes(2))
+                    .GET()
+                    .build();
+            futures.add(clients.submit(() -> {
+                for (int i = 0; i < requests; i++) {
+                    long begin = System.nanoTime();
+                    HttpResponse<String> response = send(http, request);
+                    latencies[next.getAndIncrement()] = System.nanoTime() - begin;
+                    if (response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(latencies, elapsed, errors.get());
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofMinutes(2))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static HttpResponse<String> send(HttpClient http, HttpRequest request) throws Exception {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Measurements of one mode; latencies are sorted, in nanoseconds.
+     */
+    private static final class Result {
+
+        private final long[] latencies;
+        private final long elapsedNanos;
+        private final int errors;
+        private String name;
+
+        private Result(long[] latencies, long elapsedNanos, int errors) {
+            this.latencies = latencies;
+            this.elapsedNanos = elapsedNanos;
+            this.errors = errors;
+        }
+
+        private Result named(String name) {
+            this.name = name;
+            return this;
+        }
+
+        private double percentileMillis(double percentile) {
+            int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return latencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            double throughput = latencies.length / (elapsedNanos / 1_000_000_000.0);
+            return String.format("%-10s %12.1f %10.2f %10.2f %8d",
+                    name, throughput, percentileMillis(0.50), percentileMillis(0.99), errors);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.giuseppesica.maney.observability;
+
+import com.giuseppesica.maney.config.ConnectionLimitingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the request handler tag and the connection pool gauges.
+ */
+public class ObservabilityConfigTest {
+
+    private final HandlerServerRequestObservationConvention convention = new HandlerServerRequestObservationConvention();
+
+    @Test
+    public void testHandlerTag_ControllerMethod_TaggedWithClassAndMethod() throws NoSuchMethodException {
+        Method method = SampleController.class.getMethod("createSample");
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/sample");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new SampleController(), method));
+
+        KeyValue handler = convention.getLowCardinalityKeyValues(
+                        new ServerRequestObservationContext(request, new MockHttpServletResponse()))
+                .stream()
+                .filter(keyValue -> keyValue.getKey().equals(HandlerServerRequestObservationConvention.HANDLER_KEY))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals("SampleController.createSample", handler.getValue());
+    }
+
+    @Test
+    public void testHandlerTag_NoHandler_TaggedNone() {
+        assertEquals(HandlerServerRequestObservationConvention.NO_HANDLER,
+                HandlerServerRequestObservationConvention.handler(new MockHttpServletRequest("GET", "/missing")));
+        assertEquals(HandlerServerRequestObservationConvention.NO_HANDLER,
+                HandlerServerRequestObservationConvention.handler(null));
+    }
+
+    @Test
+    public void testPoolGauges_ReportSaturationAndLimiterQueue() throws Exception {
+        try (HikariDataSource hikari = new HikariDataSource()) {
+            hikari.setJdbcUrl("jdbc:h2:mem:poolmetrics");
+            hikari.setMaximumPoolSize(4);
+            ConnectionLimitingDataSource limiter = new ConnectionLimitingDataSource(hikari, 4, Duration.ofSeconds(1));
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            new ConnectionPoolMetrics(limiter).bindTo(registry);
+
+            try (Connection ignored = limiter.getConnection()) {
+                assertEquals(0.25, registry.get("maney.datasource.pool.saturation").gauge().value(), 1e-9);
+                assertEquals(3.0, registry.get("maney.datasource.limiter.available").gauge().value());
+                assertEquals(0.0, registry.get("maney.datasource.limiter.waiting").gauge().value());
+            }
+            assertEquals(0.0, registry.get("maney.datasource.pool.saturation").gauge().value(), 1e-9);
+            assertEquals(4.0, registry.get("maney.datasource.limiter.available").gauge().value());
+        }
+    }
+
+    static class SampleController {
+        public void createSample() {
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.giuseppesica.maney.portfolio;
 import com.giuseppesica.maney.portfolio.model.Portfolio;
 import com.giuseppesica.maney.portfolio.model.PortfolioRepository;
 import com.giuseppesica.maney.portfolio.service.PortfolioService;
+import com.giuseppesica.maney.security.AuthenticatedPrincipal;
+import com.giuseppesica.maney.security.AuthenticatedPrincipalCache;
 import com.giuseppesica.maney.user.model.User;
 import com.giuseppesica.maney.user.model.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import java.util.Optional;
 
@@ -25,6 +28,9 @@ public class PortfolioServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private AuthenticatedPrincipalCache principalCache = new AuthenticatedPrincipalCache();
+
     @InjectMocks
     private PortfolioService portfolioService;
 
@@ -172,6 +178,22 @@ public class PortfolioServiceTest {
         verify(portfolioRepository, times(1)).delete(portfolio);
     }
 
+    @Test
+    public void testDeletePortfolioForUser_Success_EvictsCachedPrincipal() {
+        // Given
+        String email = "john@example.com";
+        principalCache.put("session-1", new AuthenticatedPrincipal(1L, 1L, email));
+        principalCache.put("session-2", new AuthenticatedPrincipal(2L, 2L, "jane@example.com"));
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+
+        // When
+        portfolioService.deletePortfolioForUser(email);
+
+        // Then
+        assertNull(principalCache.get("session-1", email));
+        assertNotNull(principalCache.get("session-2", "jane@example.com"));
+    }
+
     @Test
     public void testDeletePortfolioForUser_UserNotFound_ThrowsException() {
         // Given
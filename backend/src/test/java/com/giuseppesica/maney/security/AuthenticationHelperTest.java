@@ -0,0 +1,214 @@
+package com.giuseppesica.maney.security;
+
+import com.giuseppesica.maney.portfolio.model.Portfolio;
+import com.giuseppesica.maney.portfolio.service.PortfolioService;
+import com.giuseppesica.maney.user.model.User;
+import com.giuseppesica.maney.user.service.UserService;
+import jakarta.servlet.http.HttpSessionEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AuthenticationHelper.
+ * Tests principal resolution, its per-session caching and ID-based ownership checks.
+ */
+public class AuthenticationHelperTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PortfolioService portfolioService;
+
+    private AuthenticatedPrincipalCache principalCache;
+    private AuthenticationHelper authenticationHelper;
+    private MockHttpServletRequest request;
+
+    private final AuthenticatedPrincipal principal = new AuthenticatedPrincipal(1L, 10L, "john@example.com");
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        principalCache = new AuthenticatedPrincipalCache();
+        authenticationHelper = new AuthenticationHelper(userService, portfolioService, principalCache);
+
+        request = new MockHttpServletRequest();
+        request.getSession(true);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        when(userService.findPrincipalByEmail("john@example.com")).thenReturn(Optional.of(principal));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testGetAuthenticatedPrincipal_SameSession_ResolvedOnce() {
+        Authentication authentication = authenticated("john@example.com");
+
+        assertEquals(principal, authenticationHelper.getAuthenticatedPrincipal(authentication));
+        assertEquals(1L, authenticationHelper.getAuthenticatedUserId(authentication));
+        assertEquals(10L, authenticationHelper.getAuthenticatedUserPortfolioId(authentication));
+
+        verify(userService, times(1)).findPrincipalByEmail("john@example.com");
+        verify(userService, never()).UserFromAuthentication(any());
+    }
+
+    @Test
+    public void testGetAuthenticatedPrincipal_OtherUserInSameSession_ResolvesAgain() {
+        AuthenticatedPrincipal other = new AuthenticatedPrincipal(2L, 20L, "jane@example.com");
+        when(userService.findPrincipalByEmail("jane@example.com")).thenReturn(Optional.of(other));
+
+        authenticationHelper.getAuthenticatedPrincipal(authenticated("john@example.com"));
+
+        assertEquals(other, authenticationHelper.getAuthenticatedPrincipal(authenticated("jane@example.com")));
+        verify(userService, times(1)).findPrincipalByEmail("jane@example.com");
+    }
+
+    @Test
+    public void testGetAuthenticatedPrincipal_WithoutSession_IsNotCached() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        Authentication authentication = authenticated("john@example.com");
+
+        authenticationHelper.getAuthenticatedPrincipal(authentication);
+        authenticationHelper.getAuthenticatedPrincipal(authentication);
+
+        verify(userService, times(2)).findPrincipalByEmail("john@example.com");
+    }
+
+    @Test
+    public void testGetAuthenticatedPrincipal_EvictedInTransaction_EvictedAgainOnCompletion() {
+        Authentication authentication = authenticated("john@example.com");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            principalCache.evictUser("john@example.com");
+            // A concurrent request resolves the principal before the change is committed
+            authenticationHelper.getAuthenticatedPrincipal(authentication);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(principalCache.get(request.getSession().getId(), "john@example.com"));
+    }
+
+    @Test
+    public void testGetAuthenticatedPrincipal_EvictedUser_ResolvesAgain() {
+        Authentication authentication = authenticated("john@example.com");
+        authenticationHelper.getAuthenticatedPrincipal(authentication);
+
+        principalCache.evictUser("john@example.com");
+        authenticationHelper.getAuthenticatedPrincipal(authentication);
+
+        verify(userService, times(2)).findPrincipalByEmail("john@example.com");
+    }
+
+    @Test
+    public void testGetAuthenticatedPrincipal_TokenAuthentication_ReadFromToken() {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "HS256").subject("jane@example.com").build();
+        AuthenticatedPrincipal fromToken = new AuthenticatedPrincipal(2L, 20L, "jane@example.com");
+
+        assertEquals(fromToken, authenticationHelper.getAuthenticatedPrincipal(new TokenAuthentication(jwt, fromToken)));
+        assertEquals(20L, authenticationHelper.getAuthenticatedUserPortfolioId(new TokenAuthentication(jwt, fromToken)));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    public void testGetAuthenticatedUserAndPortfolio_TokenAuthentication_ReferencesWithoutLookup() {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "HS256").subject("jane@example.com").build();
+        TokenAuthentication token = new TokenAuthentication(jwt, new AuthenticatedPrincipal(2L, 20L, "jane@example.com"));
+        User user = new User();
+        Portfolio portfolio = new Portfolio();
+        when(userService.getReference(2L)).thenReturn(user);
+        when(portfolioService.getReference(20L)).thenReturn(portfolio);
+
+        assertSame(user, authenticationHelper.getAuthenticatedUser(token));
+        assertSame(portfolio, authenticationHelper.getAuthenticatedUserPortfolio(token));
+        verify(userService, never()).UserFromAuthentication(any());
+        verify(userService, never()).findPrincipalByEmail(any());
+    }
+
+    @Test
+    public void testGetAuthenticatedUserPortfolio_TokenWithoutPortfolio_ThrowsNotFound() {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "HS256").subject("jane@example.com").build();
+        TokenAuthentication token = new TokenAuthentication(jwt, new AuthenticatedPrincipal(2L, null, "jane@example.com"));
+
+        assertThrows(NotFoundException.class, () -> authenticationHelper.getAuthenticatedUserPortfolio(token));
+        verifyNoInteractions(portfolioService);
+    }
+
+    @Test
+    public void testGetAuthenticatedPrincipal_Unauthenticated_ThrowsUnauthorized() {
+        assertThrows(UnauthorizedException.class, () -> authenticationHelper.getAuthenticatedPrincipal(null));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    public void testGetAuthenticatedPrincipal_UnknownUser_ThrowsNotFound() {
+        when(userService.findPrincipalByEmail("ghost@example.com")).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class,
+                () -> authenticationHelper.getAuthenticatedPrincipal(authenticated("ghost@example.com")));
+    }
+
+    @Test
+    public void testGetAuthenticatedUserPortfolioId_NoPortfolio_ThrowsNotFound() {
+        when(userService.findPrincipalByEmail("john@example.com"))
+                .thenReturn(Optional.of(new AuthenticatedPrincipal(1L, null, "john@example.com")));
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> authenticationHelper.getAuthenticatedUserPortfolioId(authenticated("john@example.com")));
+        assertEquals("Portfolio not found for user: john@example.com", exception.getMessage());
+    }
+
+    @Test
+    public void testValidateResourceAccess_OtherPortfolio_ThrowsForbidden() {
+        Authentication authentication = authenticated("john@example.com");
+
+        authenticationHelper.validateResourceAccess(authentication, 10L, "LiquidityAccount");
+        assertThrows(ForbiddenException.class,
+                () -> authenticationHelper.validateResourceAccess(authentication, 11L, "LiquidityAccount"));
+        verify(userService, never()).UserFromAuthentication(any());
+    }
+
+    @Test
+    public void testPrincipalCache_SessionIdChangedAndDestroyed_FollowsSession() {
+        Authentication authentication = authenticated("john@example.com");
+        authenticationHelper.getAuthenticatedPrincipal(authentication);
+        String oldId = request.getSession().getId();
+
+        request.changeSessionId();
+        principalCache.sessionIdChanged(new HttpSessionEvent(request.getSession()), oldId);
+        assertNull(principalCache.get(oldId, "john@example.com"));
+        assertEquals(principal, principalCache.get(request.getSession().getId(), "john@example.com"));
+
+        principalCache.sessionDestroyed(new HttpSessionEvent(request.getSession()));
+        assertNull(principalCache.get(request.getSession().getId(), "john@example.com"));
+    }
+
+    private static Authentication authenticated(String email) {
+        return new UsernamePasswordAuthenticationToken(email, null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+}
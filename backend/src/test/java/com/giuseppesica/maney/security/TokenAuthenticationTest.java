@@ -0,0 +1,192 @@
+package com.giuseppesica.maney.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuseppesica.maney.user.dto.UserLoginDto;
+import com.giuseppesica.maney.user.dto.UserRegistrationDto;
+import com.giuseppesica.maney.user.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration test for the stateless authentication mode.
+ * Tests token login and refresh, bearer authorization without sessions or user lookups,
+ * and rejected tokens.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tokenauth",
+        "maney.auth.mode=token",
+        "maney.auth.token.secret=bWFuZXktdGVzdC1zZWNyZXQtb2YtYXQtbGVhc3QtMzItYnl0ZXM="
+})
+public class TokenAuthenticationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoSpyBean
+    private UserService userService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        if (userService.emailExists("john@example.com")) {
+            return;
+        }
+        UserRegistrationDto registrationDto = new UserRegistrationDto();
+        registrationDto.setUsername("john_doe");
+        registrationDto.setEmail("john@example.com");
+        registrationDto.setPassword("password123");
+
+        mockMvc.perform(post("/user/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registrationDto)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    public void testBearerRequest_NoSessionAndNoUserLookup() throws Exception {
+        JsonNode tokens = login("password123");
+        assertEquals("Bearer", tokens.get("tokenType").asText());
+        assertEquals(900, tokens.get("expiresIn").asLong());
+        clearInvocations(userService);
+
+        MvcResult result = mockMvc.perform(get("/user/portfolio/liquidity-accounts")
+                        .header("Authorization", "Bearer " + tokens.get("accessToken").asText()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertNull(result.getRequest().getSession(false));
+        assertNull(result.getResponse().getCookie("JSESSIONID"));
+        verify(userService, never()).findPrincipalByEmail(any());
+        verify(userService, never()).UserFromAuthentication(any());
+    }
+
+    @Test
+    public void testBearerRequest_EntityEndpoints_NoUserLookup() throws Exception {
+        String bearer = "Bearer " + login("password123").get("accessToken").asText();
+        clearInvocations(userService);
+
+        // CategoryController.createCategory needs the user, IlliquidAssetController.createIlliquidAsset
+        // and PortfolioController.getPortfolio the portfolio: all built from the token's IDs
+        mockMvc.perform(post("/user/categories")
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("name", "Spesa", "color", "#00FF00", "type", "OUTCOME"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Spesa"));
+        MvcResult asset = mockMvc.perform(post("/user/portfolio/illiquid-assets")
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("name", "Casa", "estimatedValue", 250000))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long assetId = objectMapper.readTree(asset.getResponse().getContentAsString()).get("id").asLong();
+        MvcResult portfolio = mockMvc.perform(get("/user/portfolio")
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode portfolioJson = objectMapper.readTree(portfolio.getResponse().getContentAsString());
+        assertTrue(portfolioJson.get("illiquidAssets").findValues("id").stream()
+                .anyMatch(id -> id.asLong() == assetId));
+        verify(userService, never()).UserFromAuthentication(any());
+        verify(userService, never()).findByEmail(any());
+        verify(userService, never()).findPrincipalByEmail(any());
+    }
+
+    @Test
+    public void testLogin_WrongPassword_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/user/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(credentials("wrong"))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testRequest_MissingOrInvalidToken_ReturnsUnauthorized() throws Exception {
+        JsonNode tokens = login("password123");
+        String accessToken = tokens.get("accessToken").asText();
+        String tampered = accessToken.substring(0, accessToken.length() - 2)
+                + (accessToken.endsWith("AA") ? "BB" : "AA");
+
+        mockMvc.perform(get("/user/portfolio/liquidity-accounts"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/user/portfolio/liquidity-accounts")
+                        .header("Authorization", "Bearer " + tampered))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/user/portfolio/liquidity-accounts")
+                        .header("Authorization", "Bearer " + tokens.get("refreshToken").asText()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testRefresh_ReturnsNewPair_AccessTokenRejected() throws Exception {
+        JsonNode tokens = login("password123");
+
+        MvcResult result = mockMvc.perform(post("/user/token/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("refreshToken", tokens.get("refreshToken").asText()))))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode refreshed = objectMapper.readTree(result.getResponse().getContentAsString());
+
+        mockMvc.perform(get("/user/portfolio/liquidity-accounts")
+                        .header("Authorization", "Bearer " + refreshed.get("accessToken").asText()))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/user/token/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("refreshToken", tokens.get("accessToken").asText()))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testSessionLogin_NotAvailable() throws Exception {
+        mockMvc.perform(post("/user/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(credentials("password123"))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private JsonNode login(String password) throws Exception {
+        MvcResult result = mockMvc.perform(post("/user/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(credentials(password))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private static UserLoginDto credentials(String password) {
+        UserLoginDto loginDto = new UserLoginDto();
+        loginDto.setEmail("john@example.com");
+        loginDto.setPassword(password);
+        return loginDto;
+    }
+}
@@ -0,0 +1,109 @@
+package com.giuseppesica.maney.security;
+
+import com.giuseppesica.maney.user.dto.TokenResponseDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenService.
+ * Tests token issuing, the separation of access and refresh tokens, expiry and secret checks.
+ */
+public class TokenServiceTest {
+
+    private static final String SECRET = secret(32, (byte) 1);
+    private static final Instant NOW = Instant.parse("2025-03-01T10:00:00Z");
+
+    private final AuthenticatedPrincipal principal = new AuthenticatedPrincipal(1L, 10L, "john@example.com");
+
+    @Test
+    public void testIssue_AccessToken_CarriesPrincipal() {
+        TokenService tokenService = tokenService(SECRET, NOW);
+
+        TokenResponseDto tokens = tokenService.issue(principal);
+        TokenAuthentication authentication = TokenService.authentication(
+                tokenService.accessTokenDecoder().decode(tokens.getAccessToken()));
+
+        assertEquals(principal, authentication.getPrincipal());
+        assertEquals("john@example.com", authentication.getName());
+        assertTrue(authentication.isAuthenticated());
+        assertEquals("Bearer", tokens.getTokenType());
+        assertEquals(900, tokens.getExpiresIn());
+    }
+
+    @Test
+    public void testIssue_NoPortfolio_PrincipalWithoutPortfolio() {
+        TokenService tokenService = tokenService(SECRET, NOW);
+        AuthenticatedPrincipal withoutPortfolio = new AuthenticatedPrincipal(2L, null, "jane@example.com");
+
+        TokenResponseDto tokens = tokenService.issue(withoutPortfolio);
+
+        assertEquals(withoutPortfolio, tokenService.verifyRefreshToken(tokens.getRefreshToken()));
+        assertEquals(withoutPortfolio, TokenService.authentication(
+                tokenService.accessTokenDecoder().decode(tokens.getAccessToken())).getPrincipal());
+    }
+
+    @Test
+    public void testTokenTypes_NotInterchangeable() {
+        TokenService tokenService = tokenService(SECRET, NOW);
+        TokenResponseDto tokens = tokenService.issue(principal);
+
+        assertEquals(principal, tokenService.verifyRefreshToken(tokens.getRefreshToken()));
+        assertThrows(UnauthorizedException.class, () -> tokenService.verifyRefreshToken(tokens.getAccessToken()));
+        assertThrows(JwtException.class, () -> tokenService.accessTokenDecoder().decode(tokens.getRefreshToken()));
+    }
+
+    @Test
+    public void testAccessToken_Expired_Rejected() {
+        TokenResponseDto tokens = tokenService(SECRET, NOW).issue(principal);
+
+        TokenService later = tokenService(SECRET, NOW.plus(Duration.ofMinutes(30)));
+
+        assertThrows(JwtException.class, () -> later.accessTokenDecoder().decode(tokens.getAccessToken()));
+        assertEquals(principal, later.verifyRefreshToken(tokens.getRefreshToken()));
+    }
+
+    @Test
+    public void testRefreshToken_Expired_Rejected() {
+        TokenResponseDto tokens = tokenService(SECRET, NOW).issue(principal);
+
+        TokenService later = tokenService(SECRET, NOW.plus(Duration.ofDays(8)));
+
+        assertThrows(UnauthorizedException.class, () -> later.verifyRefreshToken(tokens.getRefreshToken()));
+    }
+
+    @Test
+    public void testTokens_OtherSecretOrTampered_Rejected() {
+        TokenResponseDto tokens = tokenService(SECRET, NOW).issue(principal);
+        TokenService otherSecret = tokenService(secret(32, (byte) 2), NOW);
+
+        assertThrows(JwtException.class, () -> otherSecret.accessTokenDecoder().decode(tokens.getAccessToken()));
+        assertThrows(UnauthorizedException.class, () -> otherSecret.verifyRefreshToken(tokens.getRefreshToken()));
+        assertThrows(UnauthorizedException.class, () -> otherSecret.verifyRefreshToken("not-a-token"));
+    }
+
+    @Test
+    public void testConstructor_InvalidSecret_Throws() {
+        assertThrows(IllegalStateException.class, () -> tokenService("", NOW));
+        assertThrows(IllegalStateException.class, () -> tokenService("not base64!", NOW));
+        assertThrows(IllegalStateException.class, () -> tokenService(secret(16, (byte) 1), NOW));
+    }
+
+    private static TokenService tokenService(String secret, Instant now) {
+        return new TokenService(secret, Duration.ofMinutes(15), Duration.ofDays(7), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static String secret(int length, byte value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, value);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
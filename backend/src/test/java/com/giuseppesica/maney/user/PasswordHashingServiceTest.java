@@ -0,0 +1,143 @@
+package com.giuseppesica.maney.user;
+
+import com.giuseppesica.maney.security.ServiceUnavailableException;
+import com.giuseppesica.maney.user.service.PasswordHashingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PasswordHashingService.
+ * Tests hashing on the pool, cost change detection, the default queue size and load shedding
+ * when the pool is saturated.
+ */
+public class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    public void testEncodeAndMatches_RunOnPool() {
+        PasswordHashingService service = service(new BCryptPasswordEncoder(4), 4, 2, 10, Duration.ofSeconds(10));
+
+        String hash = service.encode("password123");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(service.matches("password123", hash));
+        assertFalse(service.matches("wrongpassword", hash));
+        assertEquals(1, registry.get("maney.password.hashing").tag("operation", "encode").timer().count());
+        assertEquals(2, registry.get("maney.password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    public void testNeedsRehash_OtherCost_True() {
+        PasswordHashingService service = service(new BCryptPasswordEncoder(5), 5, 1, 1, Duration.ofSeconds(10));
+
+        assertFalse(service.needsRehash(new BCryptPasswordEncoder(5).encode("password123")));
+        assertTrue(service.needsRehash(new BCryptPasswordEncoder(4).encode("password123")));
+        assertTrue(service.needsRehash(new BCryptPasswordEncoder(6).encode("password123")));
+        assertFalse(service.needsRehash("hashed_password"));
+        assertFalse(service.needsRehash(null));
+    }
+
+    @Test
+    public void testEncode_QueueFull_RejectedAtOnce() throws Exception {
+        PasswordHashingService service = service(blockingEncoder(), 10, 1, 1, Duration.ofSeconds(30));
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("first"));
+        awaitGauge("executor.active", 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("second"));
+        awaitGauge("executor.queued", 1);
+
+        assertThrows(ServiceUnavailableException.class, () -> service.encode("third"));
+        assertEquals(1.0, registry.get("maney.password.hashing.rejected").tag("reason", "queue-full").counter().count());
+
+        release.countDown();
+        assertEquals("hash:first", running.get(10, TimeUnit.SECONDS));
+        assertEquals("hash:second", queued.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testEncode_Timeout_Rejected() {
+        PasswordHashingService service = service(blockingEncoder(), 10, 1, 1, Duration.ofMillis(100));
+
+        assertThrows(ServiceUnavailableException.class, () -> service.encode("password123"));
+        assertEquals(1.0, registry.get("maney.password.hashing.rejected").tag("reason", "timeout").counter().count());
+    }
+
+    @Test
+    public void testTimeoutCounter_OwnDescription() {
+        service(new BCryptPasswordEncoder(4), 4, 1, 1, Duration.ofSeconds(1));
+
+        String queueFull = registry.get("maney.password.hashing.rejected").tag("reason", "queue-full")
+                .counter().getId().getDescription();
+        String timeout = registry.get("maney.password.hashing.rejected").tag("reason", "timeout")
+                .counter().getId().getDescription();
+        assertNotEquals(queueFull, timeout);
+        assertTrue(timeout.contains("timeout"));
+    }
+
+    @Test
+    public void testQueueCapacity_Default_EighthOfRequestThreads() {
+        new PasswordHashingService(new BCryptPasswordEncoder(4), registry, 4, 1, 0, 200, Duration.ofSeconds(1));
+
+        assertEquals(25.0, registry.get("executor.queue.remaining").tag("name", "password-hashing").gauge().value());
+    }
+
+    @Test
+    public void testConstructor_InvalidPool_Throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service(new BCryptPasswordEncoder(4), 4, -1, 1, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> service(new BCryptPasswordEncoder(4), 4, 1, -1, Duration.ofSeconds(1)));
+    }
+
+    private PasswordHashingService service(PasswordEncoder encoder, int strength, int threads,
+                                           int queueCapacity, Duration timeout) {
+        return new PasswordHashingService(encoder, registry, strength, threads, queueCapacity, 200, timeout);
+    }
+
+    /**
+     * Encoder whose hashes only complete once the test releases them.
+     */
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+    }
+
+    private void awaitGauge(String name, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (registry.get(name).tag("name", "password-hashing").gauge().value() != expected) {
+            assertTrue(System.nanoTime() < deadline, name + " never reached " + expected);
+            Thread.sleep(10);
+        }
+    }
+}
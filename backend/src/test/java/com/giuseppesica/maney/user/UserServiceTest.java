@@ -1,7 +1,10 @@
 package com.giuseppesica.maney.user;
 
+import com.giuseppesica.maney.security.AuthenticatedPrincipalCache;
+import com.giuseppesica.maney.security.ServiceUnavailableException;
 import com.giuseppesica.maney.user.model.User;
 import com.giuseppesica.maney.user.model.UserRepository;
+import com.giuseppesica.maney.user.service.PasswordHashingService;
 import com.giuseppesica.maney.user.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,7 +12,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
 
@@ -22,11 +24,14 @@ public class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private AuthenticatedPrincipalCache principalCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -55,7 +60,7 @@ public class UserServiceTest {
         String plainPassword = "password123";
 
         when(userRepository.existsByEmail(email)).thenReturn(false);
-        when(passwordEncoder.encode(plainPassword)).thenReturn("hashed_password");
+        when(passwordHashingService.encode(plainPassword)).thenReturn("hashed_password");
         when(userRepository.save(any(User.class))).thenReturn(user);
 
         // When
@@ -67,8 +72,9 @@ public class UserServiceTest {
         assertEquals(email, registeredUser.getEmail());
         assertEquals("hashed_password", registeredUser.getPasswordHash());
         verify(userRepository, times(1)).existsByEmail(email);
-        verify(passwordEncoder, times(1)).encode(plainPassword);
+        verify(passwordHashingService, times(1)).encode(plainPassword);
         verify(userRepository, times(1)).save(any(User.class));
+        verify(principalCache, times(1)).evictUser(email);
     }
 
     @Test
@@ -83,7 +89,7 @@ public class UserServiceTest {
         assertEquals("Email already in use", exception.getMessage());
 
         verify(userRepository, times(1)).existsByEmail(email);
-        verify(passwordEncoder, never()).encode(any());
+        verify(passwordHashingService, never()).encode(any());
         verify(userRepository, never()).save(any());
     }
 
@@ -96,7 +102,7 @@ public class UserServiceTest {
         String plainPassword = "password123";
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches(plainPassword, "hashed_password")).thenReturn(true);
+        when(passwordHashingService.matches(plainPassword, "hashed_password")).thenReturn(true);
 
         // When
         User authenticatedUser = userService.authenticate(email, plainPassword);
@@ -106,7 +112,7 @@ public class UserServiceTest {
         assertEquals(user.getId(), authenticatedUser.getId());
         assertEquals(user.getEmail(), authenticatedUser.getEmail());
         verify(userRepository, times(1)).findByEmail(email);
-        verify(passwordEncoder, times(1)).matches(plainPassword, "hashed_password");
+        verify(passwordHashingService, times(1)).matches(plainPassword, "hashed_password");
     }
 
     @Test
@@ -121,7 +127,7 @@ public class UserServiceTest {
         assertEquals("User not found", exception.getMessage());
 
         verify(userRepository, times(1)).findByEmail(email);
-        verify(passwordEncoder, never()).matches(any(), any());
+        verify(passwordHashingService, never()).matches(any(), any());
     }
 
     @Test
@@ -131,7 +137,7 @@ public class UserServiceTest {
         String wrongPassword = "wrongpassword";
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches(wrongPassword, "hashed_password")).thenReturn(false);
+        when(passwordHashingService.matches(wrongPassword, "hashed_password")).thenReturn(false);
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
@@ -139,7 +145,61 @@ public class UserServiceTest {
         assertEquals("Invalid password", exception.getMessage());
 
         verify(userRepository, times(1)).findByEmail(email);
-        verify(passwordEncoder, times(1)).matches(wrongPassword, "hashed_password");
+        verify(passwordHashingService, times(1)).matches(wrongPassword, "hashed_password");
+    }
+
+    @Test
+    public void testAuthenticate_HashWithOtherCost_Rehashed() {
+        // Given
+        String email = "john@example.com";
+        String plainPassword = "password123";
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches(plainPassword, "hashed_password")).thenReturn(true);
+        when(passwordHashingService.needsRehash("hashed_password")).thenReturn(true);
+        when(passwordHashingService.encode(plainPassword)).thenReturn("rehashed_password");
+
+        // When
+        User authenticatedUser = userService.authenticate(email, plainPassword);
+
+        // Then
+        assertEquals("rehashed_password", authenticatedUser.getPasswordHash());
+        verify(userRepository, times(1)).save(user);
+    }
+
+    @Test
+    public void testAuthenticate_RehashRejected_StillAuthenticates() {
+        // Given
+        String email = "john@example.com";
+        String plainPassword = "password123";
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches(plainPassword, "hashed_password")).thenReturn(true);
+        when(passwordHashingService.needsRehash("hashed_password")).thenReturn(true);
+        when(passwordHashingService.encode(plainPassword))
+                .thenThrow(new ServiceUnavailableException("Too many concurrent logins, please retry"));
+
+        // When
+        User authenticatedUser = userService.authenticate(email, plainPassword);
+
+        // Then
+        assertEquals("hashed_password", authenticatedUser.getPasswordHash());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    public void testAuthenticate_InvalidPassword_NotRehashed() {
+        // Given
+        String email = "john@example.com";
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("wrongpassword", "hashed_password")).thenReturn(false);
+        when(passwordHashingService.needsRehash("hashed_password")).thenReturn(true);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> userService.authenticate(email, "wrongpassword"));
+        verify(passwordHashingService, never()).encode(any());
+        verify(userRepository, never()).save(any());
     }
 
     // ==================== FIND BY EMAIL TESTS ====================